@@ -1,22 +1,127 @@
 package com.yummynoodlebar.config;
 
+import com.yummynoodlebar.core.bus.OrderCommandBus;
+import com.yummynoodlebar.core.pricing.OrderPricer;
+import com.yummynoodlebar.core.pricing.PricingPolicy;
+import com.yummynoodlebar.core.services.CoalescingMenuService;
+import com.yummynoodlebar.core.services.CoalescingOrderService;
+import com.yummynoodlebar.core.services.CreateOrderBatcher;
 import com.yummynoodlebar.core.services.MenuEventHandler;
 import com.yummynoodlebar.core.services.MenuService;
 import com.yummynoodlebar.core.services.OrderEventHandler;
 import com.yummynoodlebar.core.services.OrderService;
 import com.yummynoodlebar.persistence.services.MenuPersistenceService;
 import com.yummynoodlebar.persistence.services.OrderPersistenceService;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.math.BigDecimal;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Configuration
-public class CoreConfig {
+public class CoreConfig implements DisposableBean {
+
+  //Threads the async service calls run on, 16 by default
+  public static final String SERVICE_THREADS = "yummynoodlebar.services.threads";
+  //Async calls waiting for a thread before the caller has to run them itself, 1000 by default
+  public static final String SERVICE_QUEUE = "yummynoodlebar.services.queue";
+  //true shares one lookup between concurrent identical order details, order status and menu reads
+  public static final String SERVICE_COALESCE = "yummynoodlebar.services.coalesce";
+
+  //Setting a size, a power of two, sends order commands to persistence over a ring buffer bus
+  public static final String BUS_SIZE = "yummynoodlebar.bus.size";
+  //How the bus's consumer waits for commands, blocking (default), sleeping, yielding or busy-spin
+  public static final String BUS_WAIT_STRATEGY = "yummynoodlebar.bus.wait-strategy";
+
+  //Setting a size writes orders created at about the same time together, up to that many at once
+  public static final String CHECKOUT_BATCH_SIZE = "yummynoodlebar.checkout.batch-size";
+  //Longest a created order waits for others to share its write, 500 by default
+  public static final String CHECKOUT_BATCH_MICROS = "yummynoodlebar.checkout.batch-micros";
+
+  //Fraction of an order's subtotal added as tax, 0.20 by default
+  public static final String TAX_RATE = "yummynoodlebar.pricing.tax-rate";
+  public static final String DELIVERY_CHARGE = "yummynoodlebar.pricing.delivery-charge";
+  //Subtotal from which delivery is free, 20.00 by default, none for never
+  public static final String FREE_DELIVERY_FROM = "yummynoodlebar.pricing.free-delivery-from";
+
+  @Autowired
+  private Environment environment;
+
+  //Not a bean, it is an OrderPersistenceService too and would compete with the real one for injection
+  private OrderCommandBus orderCommandBus;
+  private CreateOrderBatcher createOrderBatcher;
+
 	@Bean
 	public MenuService menuService(MenuPersistenceService menuPersistenceService) {
-		return new MenuEventHandler(menuPersistenceService);
+		MenuService menuService = new MenuEventHandler(menuPersistenceService, serviceExecutor());
+		if (isCoalescing()) {
+			return new CoalescingMenuService(menuService);
+		}
+		return menuService;
 	}
   @Bean
-  public OrderService orderService(OrderPersistenceService orderPersistenceService) {
-    return new OrderEventHandler(orderPersistenceService);
+  public OrderService orderService(OrderPersistenceService orderPersistenceService, MenuService menuService) {
+    OrderPersistenceService persistence = orderPersistenceService;
+    if (environment.containsProperty(BUS_SIZE)) {
+      orderCommandBus = new OrderCommandBus(orderPersistenceService,
+          environment.getProperty(BUS_SIZE, Integer.class),
+          environment.getProperty(BUS_WAIT_STRATEGY, "blocking"));
+      persistence = orderCommandBus;
+    }
+    if (environment.containsProperty(CHECKOUT_BATCH_SIZE)) {
+      createOrderBatcher = new CreateOrderBatcher(persistence,
+          environment.getProperty(CHECKOUT_BATCH_SIZE, Integer.class),
+          environment.getProperty(CHECKOUT_BATCH_MICROS, Long.class, 500L));
+    }
+    OrderService orderService = new OrderEventHandler(persistence, serviceExecutor(), createOrderBatcher,
+        new OrderPricer(menuService, pricingPolicy()));
+    if (isCoalescing()) {
+      return new CoalescingOrderService(orderService);
+    }
+    return orderService;
+  }
+
+  @Bean
+  public ExecutorService serviceExecutor() {
+    int threads = environment.getProperty(SERVICE_THREADS, Integer.class, 16);
+    final AtomicInteger created = new AtomicInteger();
+    return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<Runnable>(environment.getProperty(SERVICE_QUEUE, Integer.class, 1000)),
+        new ThreadFactory() {
+          @Override
+          public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "service-" + created.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+          }
+        },
+        new ThreadPoolExecutor.CallerRunsPolicy());
+  }
+
+  private PricingPolicy pricingPolicy() {
+    String freeDeliveryFrom = environment.getProperty(FREE_DELIVERY_FROM, "20.00");
+    return new PricingPolicy(
+        new BigDecimal(environment.getProperty(TAX_RATE, "0.20")),
+        new BigDecimal(environment.getProperty(DELIVERY_CHARGE, "2.50")),
+        "none".equals(freeDeliveryFrom) ? null : new BigDecimal(freeDeliveryFrom));
+  }
+
+  private boolean isCoalescing() {
+    return environment.getProperty(SERVICE_COALESCE, Boolean.class, false);
+  }
+
+  //Lets orders already batched and commands already on the bus reach persistence before it shuts down
+  @Override
+  public void destroy() {
+    if (createOrderBatcher != null) {
+      createOrderBatcher.close();
+    }
+    if (orderCommandBus != null) {
+      orderCommandBus.close();
+    }
   }
 }
@@ -2,33 +2,269 @@ package com.yummynoodlebar.config;
 
 import com.yummynoodlebar.persistence.domain.MenuItem;
 import com.yummynoodlebar.persistence.domain.Order;
+import com.yummynoodlebar.persistence.index.CustomerOrderIndex;
+import com.yummynoodlebar.persistence.journal.JournaledOrderStore;
+import com.yummynoodlebar.persistence.journal.OrderJournal;
+import com.yummynoodlebar.persistence.journal.SyncPolicy;
+import com.yummynoodlebar.persistence.replication.ReplicationFollower;
+import com.yummynoodlebar.persistence.replication.ReplicationLeader;
 import com.yummynoodlebar.persistence.repository.*;
+import com.yummynoodlebar.persistence.retention.FileOrderArchive;
+import com.yummynoodlebar.persistence.retention.OrderArchive;
+import com.yummynoodlebar.persistence.retention.RetentionPolicy;
+import com.yummynoodlebar.persistence.retention.RetentionSweeper;
+import com.yummynoodlebar.persistence.shard.ShardCluster;
+import com.yummynoodlebar.persistence.shard.ShardedOrderStatusRepository;
+import com.yummynoodlebar.persistence.shard.ShardedOrdersRepository;
+import com.yummynoodlebar.persistence.services.CachingOrderPersistenceService;
 import com.yummynoodlebar.persistence.services.MenuPersistenceEventHandler;
 import com.yummynoodlebar.persistence.services.MenuPersistenceService;
 import com.yummynoodlebar.persistence.services.OrderPersistenceEventHandler;
 import com.yummynoodlebar.persistence.services.OrderPersistenceService;
+import com.yummynoodlebar.persistence.services.ReplicaReadOrderPersistenceService;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.env.Environment;
 
+import java.io.File;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
-public class PersistenceConfig {
+public class PersistenceConfig implements DisposableBean {
+
+  //Selects the OrdersRepository implementation, eg -Dyummynoodlebar.orders.repository=offheap
+  public static final String ORDERS_REPOSITORY = "yummynoodlebar.orders.repository";
+  //Period covered by each partition of the time-partitioned repository
+  public static final String PARTITION_MINUTES = "yummynoodlebar.orders.partition-minutes";
+  //Number of in-process nodes the sharded repository spreads orders and statuses over
+  public static final String SHARDS = "yummynoodlebar.orders.shards";
+
+  //Setting a journal directory makes orders and statuses survive a restart
+  public static final String JOURNAL_DIRECTORY = "yummynoodlebar.journal.dir";
+  //group-commit (default) or every-write
+  public static final String JOURNAL_SYNC = "yummynoodlebar.journal.sync";
+  //How often to snapshot the journaled repositories so restarts only replay the tail of the journal
+  public static final String SNAPSHOT_MINUTES = "yummynoodlebar.journal.snapshot-minutes";
+
+  //Setting a retention age starts sweeping away orders that finished longer ago than that
+  public static final String RETENTION_HOURS = "yummynoodlebar.retention.hours";
+  //Comma separated statuses after which an order is finished, Delivered,Cancelled by default
+  public static final String RETENTION_TERMINAL_STATUSES = "yummynoodlebar.retention.terminal-statuses";
+  public static final String RETENTION_SWEEP_MINUTES = "yummynoodlebar.retention.sweep-minutes";
+  //Swept orders are appended here rather than just dropped
+  public static final String RETENTION_ARCHIVE_FILE = "yummynoodlebar.retention.archive-file";
+
+  //Setting a port streams every order and status change to followers connecting to it on loopback
+  public static final String REPLICATION_PORT = "yummynoodlebar.replication.port";
+  //In-process followers that order details and status reads are served from, 1 by default
+  public static final String REPLICATION_FOLLOWERS = "yummynoodlebar.replication.followers";
+  //Reads fall back to the leader when every follower is further behind than this
+  public static final String REPLICATION_MAX_STALENESS_MILLIS = "yummynoodlebar.replication.max-staleness-millis";
+
+  //Setting a size caches up to that many order details, and as many statuses, in front of the store
+  public static final String ORDERS_CACHE_SIZE = "yummynoodlebar.orders.cache-size";
+
+  @Autowired
+  private Environment environment;
+
+  //Not a bean, it is an OrderPersistenceService too and would compete with the real one for injection
+  private ReplicaReadOrderPersistenceService replicaReads;
 
   @Bean
   public OrdersRepository orderRepository() {
-    return new OrdersMemoryRepository(new HashMap<UUID, Order>());
+    if (isReplicated()) {
+      return replicationLeader().getOrdersRepository();
+    }
+    if (isJournaled()) {
+      return journaledOrderStore().getOrdersRepository();
+    }
+    return memoryOrdersRepository();
   }
   @Bean
   public OrderStatusRepository orderStatusRepository() {
-    return new OrderStatusMemoryRepository();
+    if (isReplicated()) {
+      return replicationLeader().getOrderStatusRepository();
+    }
+    if (isJournaled()) {
+      return journaledOrderStore().getOrderStatusRepository();
+    }
+    return memoryOrderStatusRepository();
   }
   @Bean
   public OrderPersistenceService ordersPersistenceService() {
-    return new OrderPersistenceEventHandler(orderRepository(), orderStatusRepository());
+    OrderPersistenceService service = uncachedOrdersPersistenceService();
+    int cacheSize = environment.getProperty(ORDERS_CACHE_SIZE, Integer.class, 0);
+    if (cacheSize > 0) {
+      return new CachingOrderPersistenceService(service, cacheSize);
+    }
+    return service;
+  }
+
+  private OrderPersistenceService uncachedOrdersPersistenceService() {
+    OrderPersistenceService leader = new OrderPersistenceEventHandler(orderRepository(), orderStatusRepository(),
+        orderUnitOfWork(), customerOrderIndex());
+    int followers = environment.getProperty(REPLICATION_FOLLOWERS, Integer.class, 1);
+    if (!isReplicated() || followers == 0) {
+      return leader;
+    }
+    List<ReplicationFollower> replicas = new ArrayList<ReplicationFollower>();
+    for (int i = 0; i < followers; i++) {
+      ReplicationFollower follower = new ReplicationFollower(
+          InetAddress.getLoopbackAddress().getHostAddress(), replicationLeader().getPort());
+      follower.start();
+      replicas.add(follower);
+    }
+    replicaReads = new ReplicaReadOrderPersistenceService(leader, replicationLeader(), replicas,
+        environment.getProperty(REPLICATION_MAX_STALENESS_MILLIS, Long.class, 1000L));
+    return replicaReads;
+  }
+  @Bean
+  public CustomerOrderIndex customerOrderIndex() {
+    return new CustomerOrderIndex();
+  }
+
+  @Bean(destroyMethod = "close")
+  @Lazy
+  public JournaledOrderStore journaledOrderStore() {
+    String sync = environment.getProperty(JOURNAL_SYNC, "group-commit");
+    try {
+      OrderJournal journal = new OrderJournal(
+          new File(environment.getProperty(JOURNAL_DIRECTORY)),
+          OrderJournal.DEFAULT_SEGMENT_SIZE,
+          SyncPolicy.valueOf(sync.toUpperCase().replace('-', '_')));
+      JournaledOrderStore store = new JournaledOrderStore(journal, memoryOrdersRepository(), memoryOrderStatusRepository());
+      long snapshotMinutes = environment.getProperty(SNAPSHOT_MINUTES, Long.class, 15L);
+      store.getSnapshotter().start(snapshotMinutes, TimeUnit.MINUTES);
+      return store;
+    } catch (IOException e) {
+      throw new IllegalStateException("Cannot open the order journal", e);
+    }
+  }
+
+  @Bean(destroyMethod = "close")
+  @Lazy
+  public ReplicationLeader replicationLeader() {
+    OrdersRepository orders;
+    OrderStatusRepository statuses;
+    OrderJournal journal = null;
+    //the leader journals as well rather than wrapping the store's journaled views, so no stripe is held across a sync
+    if (isJournaled()) {
+      orders = journaledOrderStore().getMemoryOrdersRepository();
+      statuses = journaledOrderStore().getMemoryOrderStatusRepository();
+      journal = journaledOrderStore().getJournal();
+    } else {
+      orders = memoryOrdersRepository();
+      statuses = memoryOrderStatusRepository();
+    }
+    ReplicationLeader leader = new ReplicationLeader(journal, orders, statuses, new OrderMemoryUnitOfWork(orders, statuses),
+        environment.getProperty(REPLICATION_PORT, Integer.class));
+    try {
+      leader.start();
+    } catch (IOException e) {
+      throw new IllegalStateException("Cannot start the replication leader", e);
+    }
+    return leader;
+  }
+
+  @Bean(destroyMethod = "close")
+  @Lazy
+  public ShardCluster shardCluster() {
+    return ShardCluster.inMemory(environment.getProperty(SHARDS, Integer.class, 4));
+  }
+
+  @Bean(destroyMethod = "close")
+  public RetentionSweeper retentionSweeper() throws IOException {
+    RetentionPolicy policy = new RetentionPolicy(
+        environment.getProperty(RETENTION_HOURS, Long.class, 24L), TimeUnit.HOURS,
+        new HashSet<String>(Arrays.asList(
+            environment.getProperty(RETENTION_TERMINAL_STATUSES, "Delivered,Cancelled").split("\\s*,\\s*"))));
+    OrderArchive archive = null;
+    if (environment.containsProperty(RETENTION_ARCHIVE_FILE)) {
+      archive = new FileOrderArchive(new File(environment.getProperty(RETENTION_ARCHIVE_FILE)));
+    }
+    //removes through the same service as everything else, so the orders cache drops swept orders
+    RetentionSweeper sweeper = new RetentionSweeper(orderRepository(), orderStatusRepository(), ordersPersistenceService(),
+        policy, archive);
+    if (environment.containsProperty(RETENTION_HOURS)) {
+      sweeper.start(environment.getProperty(RETENTION_SWEEP_MINUTES, Long.class, 10L), TimeUnit.MINUTES);
+    }
+    return sweeper;
+  }
+
+  private OrderUnitOfWork orderUnitOfWork() {
+    if (isReplicated()) {
+      return replicationLeader().getUnitOfWork();
+    }
+    if (isJournaled()) {
+      return journaledOrderStore().getUnitOfWork();
+    }
+    return new OrderMemoryUnitOfWork(orderRepository(), orderStatusRepository());
+  }
+
+  private boolean isReplicated() {
+    return environment.containsProperty(REPLICATION_PORT);
+  }
+
+  private boolean isJournaled() {
+    return environment.containsProperty(JOURNAL_DIRECTORY);
+  }
+
+  private OrdersRepository memoryOrdersRepository() {
+    return new CustomerIndexedOrdersRepository(unindexedOrdersRepository(), customerOrderIndex());
+  }
+
+  private OrdersRepository unindexedOrdersRepository() {
+    String type = environment.getProperty(ORDERS_REPOSITORY, "concurrent");
+
+    if ("concurrent".equals(type)) {
+      return new OrdersConcurrentMemoryRepository(new HashMap<UUID, Order>());
+    }
+    if ("copy-on-write".equals(type)) {
+      return new OrdersMemoryRepository(new HashMap<UUID, Order>());
+    }
+    if ("offheap".equals(type)) {
+      return new OrdersOffHeapRepository();
+    }
+    if ("time-partitioned".equals(type)) {
+      return new TimePartitionedOrdersRepository(environment.getProperty(PARTITION_MINUTES, Long.class, 60L), TimeUnit.MINUTES);
+    }
+    if ("sharded".equals(type)) {
+      return new ShardedOrdersRepository(shardCluster());
+    }
+    throw new IllegalStateException("Unknown " + ORDERS_REPOSITORY + " '" + type + "'");
+  }
+
+  //sharded orders keep their statuses on the same node
+  private OrderStatusRepository memoryOrderStatusRepository() {
+    if (isSharded()) {
+      return new ShardedOrderStatusRepository(shardCluster());
+    }
+    return new OrderStatusMemoryRepository();
+  }
+
+  private boolean isSharded() {
+    return "sharded".equals(environment.getProperty(ORDERS_REPOSITORY));
+  }
+
+  //Stops the followers reading from the leader, they would otherwise keep reconnecting to it
+  @Override
+  public void destroy() throws IOException {
+    if (replicaReads != null) {
+      replicaReads.close();
+    }
   }
 
 	@Bean
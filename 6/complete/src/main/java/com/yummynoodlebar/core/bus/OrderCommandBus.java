@@ -0,0 +1,241 @@
+package com.yummynoodlebar.core.bus;
+
+import com.yummynoodlebar.core.services.EventFuture;
+import com.yummynoodlebar.events.orders.*;
+import com.yummynoodlebar.persistence.services.OrderPersistenceService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Puts the order commands, creating orders and changing their status, payment or existence, onto a
+ * RingBuffer and applies them to the persistence service from a single thread, a batch at a time.
+ * Callers on any number of request threads never contend on the stores themselves, and the
+ * commands are applied in the order they were published.
+ *
+ * Used as the OrderEventHandler's persistence service, each command waits for its reply so
+ * behaves as before. The ...Async methods hand back the reply without waiting, so one caller can
+ * keep many commands in flight. Reads do not change anything, they go straight to the service.
+ */
+public class OrderCommandBus implements OrderPersistenceService, Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(OrderCommandBus.class);
+
+  enum Kind {
+    CREATE_ORDER, CREATE_ORDER_WITH_STATUS, CREATE_ORDERS_WITH_STATUS, SET_ORDER_STATUS, SET_ORDER_PAYMENT, DELETE_ORDER,
+    DELETE_ORDERS_SUBMITTED_BEFORE
+  }
+
+  //One slot in the ring, filled in by the producer and cleared by the consumer once applied
+  static final class Command {
+    Kind kind;
+    Object event;
+    EventFuture<Object> reply;
+  }
+
+  private final OrderPersistenceService delegate;
+  private final RingBuffer<Command> ring;
+  private final RingConsumer<Command> consumer;
+  private final Thread consumerThread;
+  //publishes under way, close waits for them so none lands after the consumer has gone
+  private final AtomicInteger publishing = new AtomicInteger();
+  private volatile boolean closed;
+
+  /**
+   * @param size entries in the ring, a power of two
+   * @param waitStrategy blocking, sleeping, yielding or busy-spin
+   */
+  public OrderCommandBus(final OrderPersistenceService delegate, int size, String waitStrategy) {
+    this.delegate = delegate;
+    this.ring = new RingBuffer<Command>(size, new RingBuffer.EntryFactory<Command>() {
+      @Override
+      public Command newEntry() {
+        return new Command();
+      }
+    }, WaitStrategies.named(waitStrategy));
+    this.consumer = new RingConsumer<Command>(ring, new RingConsumer.BatchHandler<Command>() {
+      @Override
+      public void onEvent(Command command, long sequence, boolean endOfBatch) {
+        EventFuture<Object> reply = command.reply;
+        try {
+          reply.complete(apply(command.kind, command.event));
+        } catch (RuntimeException | Error failure) {
+          LOG.warn("Order command {} failed", command.kind, failure);
+          reply.fail(failure);
+        } finally {
+          command.event = null;
+          command.reply = null;
+        }
+      }
+    });
+    this.consumerThread = new Thread(consumer, "order-command-bus");
+    consumerThread.setDaemon(true);
+    consumerThread.start();
+  }
+
+  public EventFuture<OrderCreatedEvent> createOrderAsync(CreateOrderEvent event) {
+    return publish(Kind.CREATE_ORDER, event);
+  }
+
+  public EventFuture<OrderCreatedEvent> createOrderWithStatusAsync(CreateOrderWithStatusEvent event) {
+    return publish(Kind.CREATE_ORDER_WITH_STATUS, event);
+  }
+
+  public EventFuture<OrdersCreatedEvent> createOrdersWithStatusAsync(CreateOrdersWithStatusEvent event) {
+    return publish(Kind.CREATE_ORDERS_WITH_STATUS, event);
+  }
+
+  public EventFuture<OrderStatusEvent> setOrderStatusAsync(SetOrderStatusEvent event) {
+    return publish(Kind.SET_ORDER_STATUS, event);
+  }
+
+  public EventFuture<OrderUpdatedEvent> setOrderPaymentAsync(SetOrderPaymentEvent event) {
+    return publish(Kind.SET_ORDER_PAYMENT, event);
+  }
+
+  public EventFuture<OrderDeletedEvent> deleteOrderAsync(DeleteOrderEvent event) {
+    return publish(Kind.DELETE_ORDER, event);
+  }
+
+  public EventFuture<OrdersDeletedEvent> deleteOrdersSubmittedBeforeAsync(DeleteOrdersSubmittedBeforeEvent event) {
+    return publish(Kind.DELETE_ORDERS_SUBMITTED_BEFORE, event);
+  }
+
+  @Override
+  public OrderCreatedEvent createOrder(CreateOrderEvent event) {
+    return createOrderAsync(event).join();
+  }
+
+  @Override
+  public OrderCreatedEvent createOrderWithStatus(CreateOrderWithStatusEvent event) {
+    return createOrderWithStatusAsync(event).join();
+  }
+
+  @Override
+  public OrdersCreatedEvent createOrdersWithStatus(CreateOrdersWithStatusEvent event) {
+    return createOrdersWithStatusAsync(event).join();
+  }
+
+  @Override
+  public OrderStatusEvent setOrderStatus(SetOrderStatusEvent event) {
+    return setOrderStatusAsync(event).join();
+  }
+
+  @Override
+  public OrderUpdatedEvent setOrderPayment(SetOrderPaymentEvent setOrderPaymentEvent) {
+    return setOrderPaymentAsync(setOrderPaymentEvent).join();
+  }
+
+  @Override
+  public OrderDeletedEvent deleteOrder(DeleteOrderEvent deleteOrderEvent) {
+    return deleteOrderAsync(deleteOrderEvent).join();
+  }
+
+  @Override
+  public OrdersDeletedEvent deleteOrdersSubmittedBefore(DeleteOrdersSubmittedBeforeEvent deleteOrdersSubmittedBeforeEvent) {
+    return deleteOrdersSubmittedBeforeAsync(deleteOrdersSubmittedBeforeEvent).join();
+  }
+
+  @Override
+  public AllOrdersEvent requestAllOrders(RequestAllOrdersEvent requestAllCurrentOrdersEvent) {
+    return delegate.requestAllOrders(requestAllCurrentOrdersEvent);
+  }
+
+  @Override
+  public OrdersPageEvent requestOrdersPage(RequestOrdersPageEvent requestOrdersPageEvent) {
+    return delegate.requestOrdersPage(requestOrdersPageEvent);
+  }
+
+  @Override
+  public OrdersStreamEvent requestOrdersStream(RequestAllOrdersEvent requestAllOrdersEvent) {
+    return delegate.requestOrdersStream(requestAllOrdersEvent);
+  }
+
+  @Override
+  public OrderDetailsEvent requestOrderDetails(RequestOrderDetailsEvent requestOrderDetailsEvent) {
+    return delegate.requestOrderDetails(requestOrderDetailsEvent);
+  }
+
+  @Override
+  public OrderStatusEvent requestOrderStatus(RequestOrderStatusEvent requestOrderStatusEvent) {
+    return delegate.requestOrderStatus(requestOrderStatusEvent);
+  }
+
+  @Override
+  public OrdersByStatusEvent requestOrdersByStatus(RequestOrdersByStatusEvent requestOrdersByStatusEvent) {
+    return delegate.requestOrdersByStatus(requestOrdersByStatusEvent);
+  }
+
+  @Override
+  public CustomerOrdersEvent requestCustomerOrders(RequestCustomerOrdersEvent requestCustomerOrdersEvent) {
+    return delegate.requestCustomerOrders(requestCustomerOrdersEvent);
+  }
+
+  @Override
+  public OrdersSubmittedBetweenEvent requestOrdersSubmittedBetween(RequestOrdersSubmittedBetweenEvent requestOrdersSubmittedBetweenEvent) {
+    return delegate.requestOrdersSubmittedBetween(requestOrdersSubmittedBetweenEvent);
+  }
+
+  @Override
+  public OrderOwnershipEvent requestOrderOwnership(RequestOrderOwnershipEvent requestOrderOwnershipEvent) {
+    return delegate.requestOrderOwnership(requestOrderOwnershipEvent);
+  }
+
+  //Applies every command already published, then stops the consumer
+  @Override
+  public void close() {
+    closed = true;
+    while (publishing.get() > 0) {
+      Thread.yield();
+    }
+    consumer.stop();
+    try {
+      consumerThread.join();
+    } catch (InterruptedException interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> EventFuture<T> publish(Kind kind, Object event) {
+    EventFuture<Object> reply = new EventFuture<Object>();
+    publishing.incrementAndGet();
+    try {
+      if (closed) {
+        throw new IllegalStateException("The order command bus has been closed");
+      }
+      long sequence = ring.next(consumer);
+      Command command = ring.get(sequence);
+      command.kind = kind;
+      command.event = event;
+      command.reply = reply;
+      ring.publish(sequence);
+    } finally {
+      publishing.decrementAndGet();
+    }
+    return (EventFuture<T>) (EventFuture<?>) reply;
+  }
+
+  private Object apply(Kind kind, Object event) {
+    switch (kind) {
+      case CREATE_ORDER:
+        return delegate.createOrder((CreateOrderEvent) event);
+      case CREATE_ORDER_WITH_STATUS:
+        return delegate.createOrderWithStatus((CreateOrderWithStatusEvent) event);
+      case CREATE_ORDERS_WITH_STATUS:
+        return delegate.createOrdersWithStatus((CreateOrdersWithStatusEvent) event);
+      case SET_ORDER_STATUS:
+        return delegate.setOrderStatus((SetOrderStatusEvent) event);
+      case SET_ORDER_PAYMENT:
+        return delegate.setOrderPayment((SetOrderPaymentEvent) event);
+      case DELETE_ORDER:
+        return delegate.deleteOrder((DeleteOrderEvent) event);
+      case DELETE_ORDERS_SUBMITTED_BEFORE:
+        return delegate.deleteOrdersSubmittedBefore((DeleteOrdersSubmittedBeforeEvent) event);
+      default:
+        throw new IllegalArgumentException("Unknown order command " + kind);
+    }
+  }
+}
@@ -0,0 +1,108 @@
+package com.yummynoodlebar.core.bus;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Fixed ring of reusable entries, in the style of the LMAX Disruptor, for any number of producers
+ * and a single consumer. Every entry is allocated up front and written in place, so passing an
+ * event allocates nothing.
+ *
+ * A producer claims the next sequence by CAS on the cursor, waiting while that would lap the
+ * consumer, fills in the entry and publishes it. Producers can finish out of claim order, so each
+ * slot records which lap of the ring was last published into it, and the consumer only reads up to
+ * the first slot that is still being filled.
+ */
+final class RingBuffer<E> {
+
+  interface EntryFactory<E> {
+    E newEntry();
+  }
+
+  private final Object[] entries;
+  private final int mask;
+  private final int indexShift;
+  private final AtomicIntegerArray published;
+  //highest sequence claimed by a producer
+  private final Sequence cursor = new Sequence(-1);
+  //last sequence the consumer was seen to be done with, saves reading its sequence on every claim
+  private final Sequence consumerCache = new Sequence(-1);
+  private final WaitStrategy waitStrategy;
+  private volatile Sequence consumed;
+
+  RingBuffer(int size, EntryFactory<E> factory, WaitStrategy waitStrategy) {
+    if (size < 1 || Integer.bitCount(size) != 1) {
+      throw new IllegalArgumentException("Ring size must be a power of two, not " + size);
+    }
+    this.entries = new Object[size];
+    for (int i = 0; i < size; i++) {
+      entries[i] = factory.newEntry();
+    }
+    this.mask = size - 1;
+    this.indexShift = Integer.numberOfTrailingZeros(size);
+    this.published = new AtomicIntegerArray(size);
+    for (int i = 0; i < size; i++) {
+      published.set(i, -1);
+    }
+    this.waitStrategy = waitStrategy;
+  }
+
+  int size() {
+    return entries.length;
+  }
+
+  void consumedBy(Sequence consumed) {
+    this.consumed = consumed;
+  }
+
+  //Claims the next entry, waiting for the consumer while the ring is full
+  long next(RingConsumer<?> consumer) {
+    while (true) {
+      long current = cursor.get();
+      long next = current + 1;
+      long wrapPoint = next - entries.length;
+      if (wrapPoint > consumerCache.get()) {
+        long gating = consumed.get();
+        consumerCache.set(gating);
+        if (wrapPoint > gating) {
+          if (!consumer.isRunning()) {
+            throw new IllegalStateException("The bus has been closed");
+          }
+          LockSupport.parkNanos(1000L);
+          continue;
+        }
+      }
+      if (cursor.compareAndSet(current, next)) {
+        return next;
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  E get(long sequence) {
+    return (E) entries[(int) sequence & mask];
+  }
+
+  void publish(long sequence) {
+    published.lazySet((int) sequence & mask, (int) (sequence >>> indexShift));
+    waitStrategy.signalAllWhenBlocking();
+  }
+
+  Sequence cursor() {
+    return cursor;
+  }
+
+  WaitStrategy waitStrategy() {
+    return waitStrategy;
+  }
+
+  //The end of the unbroken run of published entries from lowest, up to at most highest
+  long highestPublished(long lowest, long highest) {
+    for (long sequence = lowest; sequence <= highest; sequence++) {
+      if (published.get((int) sequence & mask) != (int) (sequence >>> indexShift)) {
+        return sequence - 1;
+      }
+    }
+    return highest;
+  }
+}
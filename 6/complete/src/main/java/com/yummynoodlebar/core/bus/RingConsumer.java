@@ -0,0 +1,62 @@
+package com.yummynoodlebar.core.bus;
+
+/*
+ * Takes entries off a RingBuffer on its own thread, as many as are published at a time, and only
+ * tells producers the slots are free again once the whole batch has been handled.
+ */
+final class RingConsumer<E> implements Runnable {
+
+  interface BatchHandler<E> {
+    void onEvent(E entry, long sequence, boolean endOfBatch);
+  }
+
+  private final RingBuffer<E> ring;
+  private final BatchHandler<E> handler;
+  private final Sequence sequence = new Sequence(-1);
+  private volatile boolean running = true;
+
+  RingConsumer(RingBuffer<E> ring, BatchHandler<E> handler) {
+    this.ring = ring;
+    this.handler = handler;
+    ring.consumedBy(sequence);
+  }
+
+  boolean isRunning() {
+    return running;
+  }
+
+  //The consumer carries on until everything already published has been handled
+  void stop() {
+    running = false;
+    ring.waitStrategy().signalAllWhenBlocking();
+  }
+
+  @Override
+  public void run() {
+    WaitStrategy waitStrategy = ring.waitStrategy();
+    long next = sequence.get() + 1;
+    while (true) {
+      long available;
+      try {
+        available = waitStrategy.waitFor(next, ring.cursor(), this);
+      } catch (InterruptedException interrupted) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      long highest = ring.highestPublished(next, available);
+      if (highest < next) {
+        if (!running && ring.cursor().get() < next) {
+          return;
+        }
+        //claimed but not yet published, or stopping with entries still being filled in
+        Thread.yield();
+        continue;
+      }
+      for (long handled = next; handled <= highest; handled++) {
+        handler.onEvent(ring.get(handled), handled, handled == highest);
+      }
+      sequence.set(highest);
+      next = highest + 1;
+    }
+  }
+}
@@ -0,0 +1,45 @@
+package com.yummynoodlebar.core.bus;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/*
+ * A position in the ring, padded out to its own cache line so the producers' cursor and the
+ * consumer's sequence, written by different cores, do not keep invalidating each other.
+ * The padding is spread over superclasses because the JVM will not reorder fields across them.
+ */
+class Sequence extends SequenceValue {
+
+  protected long p9, p10, p11, p12, p13, p14, p15;
+
+  private static final AtomicLongFieldUpdater<SequenceValue> VALUE =
+      AtomicLongFieldUpdater.newUpdater(SequenceValue.class, "value");
+
+  Sequence(long initial) {
+    value = initial;
+  }
+
+  long get() {
+    return value;
+  }
+
+  void set(long sequence) {
+    VALUE.lazySet(this, sequence);
+  }
+
+  boolean compareAndSet(long expected, long sequence) {
+    return VALUE.compareAndSet(this, expected, sequence);
+  }
+
+  //stops the padding being optimised away as unused
+  long sumPadding() {
+    return p1 + p2 + p3 + p4 + p5 + p6 + p7 + p9 + p10 + p11 + p12 + p13 + p14 + p15;
+  }
+}
+
+class SequencePadding {
+  protected long p1, p2, p3, p4, p5, p6, p7;
+}
+
+class SequenceValue extends SequencePadding {
+  protected volatile long value;
+}
@@ -0,0 +1,131 @@
+package com.yummynoodlebar.core.bus;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * The wait strategies a bus can be configured with, by name:
+ *
+ *  blocking   - parks on a lock until signalled, cheapest on CPU, adds a lock to every publish
+ *  sleeping   - spins, then yields, then parks for a moment, low CPU without touching producers
+ *  yielding   - spins then yields, low latency while leaving the core to other runnable threads
+ *  busy-spin  - never gives the core up, lowest latency, needs a core to itself
+ */
+final class WaitStrategies {
+
+  private WaitStrategies() {
+  }
+
+  static WaitStrategy named(String name) {
+    if ("blocking".equals(name)) {
+      return new Blocking();
+    }
+    if ("sleeping".equals(name)) {
+      return new Sleeping();
+    }
+    if ("yielding".equals(name)) {
+      return new Yielding();
+    }
+    if ("busy-spin".equals(name)) {
+      return new BusySpin();
+    }
+    throw new IllegalArgumentException("Unknown wait strategy " + name + ", expected blocking, sleeping, yielding or busy-spin");
+  }
+
+  static final class Blocking implements WaitStrategy {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition published = lock.newCondition();
+
+    @Override
+    public long waitFor(long sequence, Sequence cursor, RingConsumer<?> consumer) throws InterruptedException {
+      long available = cursor.get();
+      if (available < sequence) {
+        lock.lock();
+        try {
+          while ((available = cursor.get()) < sequence && consumer.isRunning()) {
+            //the timeout covers a stop signalled between the check and the await
+            published.await(1, TimeUnit.MILLISECONDS);
+          }
+        } finally {
+          lock.unlock();
+        }
+      }
+      return available;
+    }
+
+    @Override
+    public void signalAllWhenBlocking() {
+      lock.lock();
+      try {
+        published.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  static final class Sleeping implements WaitStrategy {
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+
+    @Override
+    public long waitFor(long sequence, Sequence cursor, RingConsumer<?> consumer) {
+      long available;
+      int tries = SPIN_TRIES + YIELD_TRIES;
+      while ((available = cursor.get()) < sequence && consumer.isRunning()) {
+        if (tries > YIELD_TRIES) {
+          tries--;
+        } else if (tries > 0) {
+          tries--;
+          Thread.yield();
+        } else {
+          LockSupport.parkNanos(100000L);
+        }
+      }
+      return available;
+    }
+
+    @Override
+    public void signalAllWhenBlocking() {
+    }
+  }
+
+  static final class Yielding implements WaitStrategy {
+    private static final int SPIN_TRIES = 100;
+
+    @Override
+    public long waitFor(long sequence, Sequence cursor, RingConsumer<?> consumer) {
+      long available;
+      int tries = SPIN_TRIES;
+      while ((available = cursor.get()) < sequence && consumer.isRunning()) {
+        if (tries > 0) {
+          tries--;
+        } else {
+          Thread.yield();
+        }
+      }
+      return available;
+    }
+
+    @Override
+    public void signalAllWhenBlocking() {
+    }
+  }
+
+  static final class BusySpin implements WaitStrategy {
+    @Override
+    public long waitFor(long sequence, Sequence cursor, RingConsumer<?> consumer) {
+      long available;
+      while ((available = cursor.get()) < sequence && consumer.isRunning()) {
+        //spin
+      }
+      return available;
+    }
+
+    @Override
+    public void signalAllWhenBlocking() {
+    }
+  }
+}
@@ -0,0 +1,16 @@
+package com.yummynoodlebar.core.bus;
+
+/*
+ * How the consumer waits for producers to publish. Trades latency against the CPU burnt waiting.
+ */
+interface WaitStrategy {
+
+  /**
+   * @return the highest published-or-claimed sequence once it reaches the one asked for, or
+   * whatever it has got to if the consumer is told to stop first
+   */
+  long waitFor(long sequence, Sequence cursor, RingConsumer<?> consumer) throws InterruptedException;
+
+  //Called after every publish, only strategies that park the consumer need to do anything
+  void signalAllWhenBlocking();
+}
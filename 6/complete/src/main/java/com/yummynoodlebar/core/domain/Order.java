@@ -1,7 +1,7 @@
 package com.yummynoodlebar.core.domain;
 
 import com.yummynoodlebar.events.orders.OrderDetails;
-import org.springframework.beans.BeanUtils;
+import com.yummynoodlebar.ids.Ids;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -26,7 +26,7 @@ public class Order {
   private final static long ACCEPT_CANCEL_TIME = 1000 * 60 * 5;
 
   public Order(final Date dateTimeOfSubmission) {
-    this.key = UUID.randomUUID();
+    this.key = Ids.next();
     this.dateTimeOfSubmission = dateTimeOfSubmission;
     statusHistory = new ArrayList<OrderStatus>();
   }
@@ -98,10 +98,6 @@ public class Order {
   }
 
   public static Order fromOrderDetails(OrderDetails orderDetails) {
-    Order order = new Order(orderDetails.getKey(),orderDetails.getDateTimeOfSubmission());
-
-    BeanUtils.copyProperties(orderDetails, order);
-
-    return order;
+    return new Order(orderDetails.getKey(),orderDetails.getDateTimeOfSubmission());
   }
 }
@@ -0,0 +1,29 @@
+package com.yummynoodlebar.core.pricing;
+
+import com.yummynoodlebar.events.orders.OrderCharges;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/*
+ * Conversions between BigDecimal amounts, as the menu holds prices, and the whole minor units
+ * orders are priced in. Only used when a price table or policy is built, never per order.
+ */
+public final class Money {
+
+  private Money() {
+  }
+
+  //Refuses amounts with fractions of a penny rather than rounding them away
+  public static long toMinorUnits(BigDecimal amount) {
+    BigInteger minorUnits = amount.setScale(OrderCharges.SCALE).unscaledValue();
+    if (minorUnits.bitLength() > 63) {
+      throw new ArithmeticException("Amount out of range: " + amount);
+    }
+    return minorUnits.longValue();
+  }
+
+  public static BigDecimal toBigDecimal(long minorUnits) {
+    return BigDecimal.valueOf(minorUnits, OrderCharges.SCALE);
+  }
+}
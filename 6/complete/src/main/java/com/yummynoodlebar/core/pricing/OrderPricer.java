@@ -0,0 +1,87 @@
+package com.yummynoodlebar.core.pricing;
+
+import com.yummynoodlebar.core.services.MenuService;
+import com.yummynoodlebar.events.menu.AllMenuItemsEvent;
+import com.yummynoodlebar.events.menu.RequestAllMenuItemsEvent;
+import com.yummynoodlebar.events.orders.MenuItemOrdinals;
+import com.yummynoodlebar.events.orders.OrderCharges;
+import com.yummynoodlebar.events.orders.OrderLines;
+
+import java.util.Map;
+
+/*
+ * Checks an order's items against the current menu and works out its subtotal, tax, delivery
+ * charge and total. Prices come from a PriceTable kept for the current menu version, and all the
+ * arithmetic is on longs, so pricing an order allocates nothing but its OrderCharges. The results
+ * are exactly what the same sums give in BigDecimal with tax rounded half up to the penny.
+ */
+public class OrderPricer {
+
+  //Anything bigger could overflow working out the tax, and is not a noodle order
+  static final long MAX_SUBTOTAL = Long.MAX_VALUE / PricingPolicy.BASIS_POINTS;
+
+  private final MenuService menuService;
+  private final PricingPolicy policy;
+  private volatile PriceTable prices;
+
+  public OrderPricer(MenuService menuService, PricingPolicy policy) {
+    this.menuService = menuService;
+    this.policy = policy;
+  }
+
+  public OrderCharges price(Map<String, Integer> orderItems) {
+    OrderLines lines = OrderLines.of(orderItems);
+    PriceTable table = currentPrices();
+
+    long subtotal = 0;
+    for (int line = 0; line < lines.lineCount(); line++) {
+      int ordinal = lines.ordinalAt(line);
+      long price = table.priceOf(ordinal);
+      String rejection = rejection(MenuItemOrdinals.idOf(ordinal), price, lines.quantityAt(line), subtotal);
+      if (rejection != null) {
+        return OrderCharges.rejected(rejection);
+      }
+      subtotal += price * lines.quantityAt(line);
+    }
+    for (int line = 0; line < lines.unknownCount(); line++) {
+      //the menu may have registered the id since the lines were built, in which case it is priced as usual
+      String id = lines.unknownIdAt(line);
+      int ordinal = MenuItemOrdinals.find(id);
+      long price = ordinal < 0 ? PriceTable.NOT_ON_MENU : table.priceOf(ordinal);
+      String rejection = rejection(id, price, lines.unknownQuantityAt(line), subtotal);
+      if (rejection != null) {
+        return OrderCharges.rejected(rejection);
+      }
+      subtotal += price * lines.unknownQuantityAt(line);
+    }
+
+    long tax = (subtotal * policy.getTaxBasisPoints() + PricingPolicy.BASIS_POINTS / 2) / PricingPolicy.BASIS_POINTS;
+    long delivery = subtotal >= policy.getFreeDeliveryFrom() ? 0 : policy.getDeliveryCharge();
+    return new OrderCharges(subtotal, tax, delivery);
+  }
+
+  //why a line cannot be added to the subtotal so far, or null if it can
+  private static String rejection(String id, long price, int quantity, long subtotal) {
+    if (price == PriceTable.NOT_ON_MENU) {
+      return id + " is not on the menu";
+    }
+    if (quantity < 1) {
+      return "Quantity of " + id + " must be at least 1";
+    }
+    if (price > 0 && quantity > (MAX_SUBTOTAL - subtotal) / price) {
+      return "Order is too large to price";
+    }
+    return null;
+  }
+
+  private PriceTable currentPrices() {
+    AllMenuItemsEvent menu = menuService.requestAllMenuItems(new RequestAllMenuItemsEvent());
+    PriceTable table = prices;
+    //version 0 means the menu did not say which it is, so the table cannot be kept
+    if (table == null || menu.getVersion() == 0 || table.getVersion() != menu.getVersion()) {
+      table = PriceTable.of(menu);
+      prices = table;
+    }
+    return table;
+  }
+}
@@ -0,0 +1,52 @@
+package com.yummynoodlebar.core.pricing;
+
+import com.yummynoodlebar.events.menu.AllMenuItemsEvent;
+import com.yummynoodlebar.events.menu.MenuItemDetails;
+import com.yummynoodlebar.events.orders.MenuItemOrdinals;
+
+import java.util.Arrays;
+
+/*
+ * The price of every item on one version of the menu, in minor units, indexed by menu item
+ * ordinal so an order's lines can be priced by array lookup. Built once per menu version.
+ */
+final class PriceTable {
+
+  //what the table holds for an ordinal that is not on this menu
+  static final long NOT_ON_MENU = -1;
+
+  private final long version;
+  private final long[] prices;
+
+  private PriceTable(long version, long[] prices) {
+    this.version = version;
+    this.prices = prices;
+  }
+
+  static PriceTable of(AllMenuItemsEvent menu) {
+    int highest = -1;
+    int[] ordinals = new int[menu.getMenuItemDetails().size()];
+    for (int i = 0; i < ordinals.length; i++) {
+      ordinals[i] = MenuItemOrdinals.register(menu.getMenuItemDetails().get(i).getId());
+      highest = Math.max(highest, ordinals[i]);
+    }
+    long[] prices = new long[highest + 1];
+    Arrays.fill(prices, NOT_ON_MENU);
+    for (int i = 0; i < ordinals.length; i++) {
+      MenuItemDetails item = menu.getMenuItemDetails().get(i);
+      if (item.getCost() == null || item.getCost().signum() < 0) {
+        throw new IllegalArgumentException("Menu item " + item.getId() + " has no valid price");
+      }
+      prices[ordinals[i]] = Money.toMinorUnits(item.getCost());
+    }
+    return new PriceTable(menu.getVersion(), prices);
+  }
+
+  long getVersion() {
+    return version;
+  }
+
+  long priceOf(int ordinal) {
+    return ordinal < prices.length ? prices[ordinal] : NOT_ON_MENU;
+  }
+}
@@ -0,0 +1,42 @@
+package com.yummynoodlebar.core.pricing;
+
+import java.math.BigDecimal;
+
+/*
+ * Tax and delivery charges. Given as BigDecimal amounts and a tax rate, and held as minor units and
+ * basis points, so pricing an order only needs long arithmetic.
+ */
+public final class PricingPolicy {
+
+  //Tax is applied to the subtotal and rounded half up to the penny
+  public static final int BASIS_POINTS = 10000;
+
+  private final int taxBasisPoints;
+  private final long deliveryCharge;
+  private final long freeDeliveryFrom;
+
+  /**
+   * @param taxRate fraction of the subtotal, eg 0.20, to at most four decimal places, at most 1
+   * @param freeDeliveryFrom subtotal from which delivery is free, null if it never is
+   */
+  public PricingPolicy(BigDecimal taxRate, BigDecimal deliveryCharge, BigDecimal freeDeliveryFrom) {
+    if (taxRate.signum() < 0 || taxRate.compareTo(BigDecimal.ONE) > 0 || deliveryCharge.signum() < 0) {
+      throw new IllegalArgumentException("Tax rate must be between 0 and 1 and delivery charge not negative");
+    }
+    this.taxBasisPoints = taxRate.movePointRight(4).intValueExact();
+    this.deliveryCharge = Money.toMinorUnits(deliveryCharge);
+    this.freeDeliveryFrom = freeDeliveryFrom == null ? Long.MAX_VALUE : Money.toMinorUnits(freeDeliveryFrom);
+  }
+
+  public int getTaxBasisPoints() {
+    return taxBasisPoints;
+  }
+
+  public long getDeliveryCharge() {
+    return deliveryCharge;
+  }
+
+  public long getFreeDeliveryFrom() {
+    return freeDeliveryFrom;
+  }
+}
@@ -0,0 +1,82 @@
+package com.yummynoodlebar.core.services;
+
+import com.yummynoodlebar.events.menu.*;
+
+import java.util.concurrent.Callable;
+
+/*
+ * Sits in front of a MenuService so that a burst of home page hits shares one read of the whole
+ * menu. See SingleFlight. A menu item created through here is seen by every request after it.
+ */
+public class CoalescingMenuService implements MenuService {
+
+  //there is only the one menu
+  private static final String ALL_ITEMS = "all";
+
+  private final MenuService delegate;
+  private final SingleFlight<String, AllMenuItemsEvent> allItems = new SingleFlight<String, AllMenuItemsEvent>();
+
+  public CoalescingMenuService(MenuService delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public AllMenuItemsEvent requestAllMenuItems(final RequestAllMenuItemsEvent requestAllMenuItemsEvent) {
+    return allItems.call(ALL_ITEMS, new Callable<AllMenuItemsEvent>() {
+      @Override
+      public AllMenuItemsEvent call() {
+        return delegate.requestAllMenuItems(requestAllMenuItemsEvent);
+      }
+    });
+  }
+
+  @Override
+  public EventFuture<AllMenuItemsEvent> requestAllMenuItemsAsync(final RequestAllMenuItemsEvent requestAllMenuItemsEvent) {
+    return allItems.callAsync(ALL_ITEMS, new SingleFlight.AsyncCall<AllMenuItemsEvent>() {
+      @Override
+      public EventFuture<AllMenuItemsEvent> start() {
+        return delegate.requestAllMenuItemsAsync(requestAllMenuItemsEvent);
+      }
+    });
+  }
+
+  @Override
+  public MenuItemDetailsEvent requestMenuItemDetails(RequestMenuItemDetailsEvent requestMenuItemDetailsEvent) {
+    return delegate.requestMenuItemDetails(requestMenuItemDetailsEvent);
+  }
+
+  @Override
+  public EventFuture<MenuItemDetailsEvent> requestMenuItemDetailsAsync(RequestMenuItemDetailsEvent requestMenuItemDetailsEvent) {
+    return delegate.requestMenuItemDetailsAsync(requestMenuItemDetailsEvent);
+  }
+
+  @Override
+  public MenuItemDetailsEvent createMenuItem(CreateMenuItemEvent createMenuItemEvent) {
+    MenuItemDetailsEvent created = delegate.createMenuItem(createMenuItemEvent);
+    allItems.forget(ALL_ITEMS);
+    return created;
+  }
+
+  @Override
+  public EventFuture<MenuItemDetailsEvent> createMenuItemAsync(CreateMenuItemEvent createMenuItemEvent) {
+    final EventFuture<MenuItemDetailsEvent> created = new EventFuture<MenuItemDetailsEvent>();
+    delegate.createMenuItemAsync(createMenuItemEvent).addCallback(new EventFuture.Callback<MenuItemDetailsEvent>() {
+      @Override
+      public void onEvent(MenuItemDetailsEvent event) {
+        allItems.forget(ALL_ITEMS);
+        created.complete(event);
+      }
+
+      @Override
+      public void onFailure(Throwable failure) {
+        allItems.forget(ALL_ITEMS);
+        created.fail(failure);
+      }
+    });
+    return created;
+  }
+
+  public long getSharedCount() {
+    return allItems.getSharedCount();
+  }
+}
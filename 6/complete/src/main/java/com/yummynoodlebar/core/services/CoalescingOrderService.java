@@ -0,0 +1,188 @@
+package com.yummynoodlebar.core.services;
+
+import com.yummynoodlebar.events.orders.*;
+
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+/*
+ * Sits in front of an OrderService so that concurrent requests for the details or status of the
+ * same order, such as several people refreshing one order's page, share a single lookup.
+ * See SingleFlight. A payment or deletion made through here is seen by every request after it.
+ */
+public class CoalescingOrderService implements OrderService {
+
+  private final OrderService delegate;
+  private final SingleFlight<UUID, OrderDetailsEvent> details = new SingleFlight<UUID, OrderDetailsEvent>();
+  private final SingleFlight<UUID, OrderStatusEvent> statuses = new SingleFlight<UUID, OrderStatusEvent>();
+
+  public CoalescingOrderService(OrderService delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public OrderDetailsEvent requestOrderDetails(final RequestOrderDetailsEvent requestOrderDetailsEvent) {
+    return details.call(requestOrderDetailsEvent.getKey(), new Callable<OrderDetailsEvent>() {
+      @Override
+      public OrderDetailsEvent call() {
+        return delegate.requestOrderDetails(requestOrderDetailsEvent);
+      }
+    });
+  }
+
+  @Override
+  public EventFuture<OrderDetailsEvent> requestOrderDetailsAsync(final RequestOrderDetailsEvent requestOrderDetailsEvent) {
+    return details.callAsync(requestOrderDetailsEvent.getKey(), new SingleFlight.AsyncCall<OrderDetailsEvent>() {
+      @Override
+      public EventFuture<OrderDetailsEvent> start() {
+        return delegate.requestOrderDetailsAsync(requestOrderDetailsEvent);
+      }
+    });
+  }
+
+  @Override
+  public OrderStatusEvent requestOrderStatus(final RequestOrderStatusEvent requestOrderStatusEvent) {
+    return statuses.call(requestOrderStatusEvent.getKey(), new Callable<OrderStatusEvent>() {
+      @Override
+      public OrderStatusEvent call() {
+        return delegate.requestOrderStatus(requestOrderStatusEvent);
+      }
+    });
+  }
+
+  @Override
+  public EventFuture<OrderStatusEvent> requestOrderStatusAsync(final RequestOrderStatusEvent requestOrderStatusEvent) {
+    return statuses.callAsync(requestOrderStatusEvent.getKey(), new SingleFlight.AsyncCall<OrderStatusEvent>() {
+      @Override
+      public EventFuture<OrderStatusEvent> start() {
+        return delegate.requestOrderStatusAsync(requestOrderStatusEvent);
+      }
+    });
+  }
+
+  @Override
+  public OrderUpdatedEvent setOrderPayment(SetOrderPaymentEvent setOrderPaymentEvent) {
+    OrderUpdatedEvent updated = delegate.setOrderPayment(setOrderPaymentEvent);
+    wrote(setOrderPaymentEvent.getKey());
+    return updated;
+  }
+
+  @Override
+  public EventFuture<OrderUpdatedEvent> setOrderPaymentAsync(SetOrderPaymentEvent setOrderPaymentEvent) {
+    return afterWrite(setOrderPaymentEvent.getKey(), delegate.setOrderPaymentAsync(setOrderPaymentEvent));
+  }
+
+  @Override
+  public OrderDeletedEvent deleteOrder(DeleteOrderEvent deleteOrderEvent) {
+    OrderDeletedEvent deleted = delegate.deleteOrder(deleteOrderEvent);
+    wrote(deleteOrderEvent.getKey());
+    return deleted;
+  }
+
+  @Override
+  public EventFuture<OrderDeletedEvent> deleteOrderAsync(DeleteOrderEvent deleteOrderEvent) {
+    return afterWrite(deleteOrderEvent.getKey(), delegate.deleteOrderAsync(deleteOrderEvent));
+  }
+
+  @Override
+  public OrdersStreamEvent requestOrdersStream(RequestAllOrdersEvent requestAllOrdersEvent) {
+    return delegate.requestOrdersStream(requestAllOrdersEvent);
+  }
+
+  @Override
+  public AllOrdersEvent requestAllOrders(RequestAllOrdersEvent requestAllOrdersEvent) {
+    return delegate.requestAllOrders(requestAllOrdersEvent);
+  }
+
+  @Override
+  public EventFuture<AllOrdersEvent> requestAllOrdersAsync(RequestAllOrdersEvent requestAllOrdersEvent) {
+    return delegate.requestAllOrdersAsync(requestAllOrdersEvent);
+  }
+
+  @Override
+  public OrdersPageEvent requestOrdersPage(RequestOrdersPageEvent requestOrdersPageEvent) {
+    return delegate.requestOrdersPage(requestOrdersPageEvent);
+  }
+
+  @Override
+  public EventFuture<OrdersPageEvent> requestOrdersPageAsync(RequestOrdersPageEvent requestOrdersPageEvent) {
+    return delegate.requestOrdersPageAsync(requestOrdersPageEvent);
+  }
+
+  @Override
+  public OrdersByStatusEvent requestOrdersByStatus(RequestOrdersByStatusEvent requestOrdersByStatusEvent) {
+    return delegate.requestOrdersByStatus(requestOrdersByStatusEvent);
+  }
+
+  @Override
+  public EventFuture<OrdersByStatusEvent> requestOrdersByStatusAsync(RequestOrdersByStatusEvent requestOrdersByStatusEvent) {
+    return delegate.requestOrdersByStatusAsync(requestOrdersByStatusEvent);
+  }
+
+  @Override
+  public CustomerOrdersEvent requestCustomerOrders(RequestCustomerOrdersEvent requestCustomerOrdersEvent) {
+    return delegate.requestCustomerOrders(requestCustomerOrdersEvent);
+  }
+
+  @Override
+  public OrdersSubmittedBetweenEvent requestOrdersSubmittedBetween(RequestOrdersSubmittedBetweenEvent requestOrdersSubmittedBetweenEvent) {
+    return delegate.requestOrdersSubmittedBetween(requestOrdersSubmittedBetweenEvent);
+  }
+
+  @Override
+  public EventFuture<CustomerOrdersEvent> requestCustomerOrdersAsync(RequestCustomerOrdersEvent requestCustomerOrdersEvent) {
+    return delegate.requestCustomerOrdersAsync(requestCustomerOrdersEvent);
+  }
+
+  @Override
+  public EventFuture<OrdersSubmittedBetweenEvent> requestOrdersSubmittedBetweenAsync(RequestOrdersSubmittedBetweenEvent requestOrdersSubmittedBetweenEvent) {
+    return delegate.requestOrdersSubmittedBetweenAsync(requestOrdersSubmittedBetweenEvent);
+  }
+
+  @Override
+  public OrderOwnershipEvent requestOrderOwnership(RequestOrderOwnershipEvent requestOrderOwnershipEvent) {
+    return delegate.requestOrderOwnership(requestOrderOwnershipEvent);
+  }
+
+  @Override
+  public EventFuture<OrderOwnershipEvent> requestOrderOwnershipAsync(RequestOrderOwnershipEvent requestOrderOwnershipEvent) {
+    return delegate.requestOrderOwnershipAsync(requestOrderOwnershipEvent);
+  }
+
+  @Override
+  public OrderCreatedEvent createOrder(CreateOrderEvent createOrderEvent) {
+    return delegate.createOrder(createOrderEvent);
+  }
+
+  @Override
+  public EventFuture<OrderCreatedEvent> createOrderAsync(CreateOrderEvent createOrderEvent) {
+    return delegate.createOrderAsync(createOrderEvent);
+  }
+
+  public long getSharedCount() {
+    return details.getSharedCount() + statuses.getSharedCount();
+  }
+
+  private void wrote(UUID key) {
+    details.forget(key);
+    statuses.forget(key);
+  }
+
+  private <T> EventFuture<T> afterWrite(final UUID key, EventFuture<T> write) {
+    final EventFuture<T> written = new EventFuture<T>();
+    write.addCallback(new EventFuture.Callback<T>() {
+      @Override
+      public void onEvent(T event) {
+        wrote(key);
+        written.complete(event);
+      }
+
+      @Override
+      public void onFailure(Throwable failure) {
+        wrote(key);
+        written.fail(failure);
+      }
+    });
+    return written;
+  }
+}
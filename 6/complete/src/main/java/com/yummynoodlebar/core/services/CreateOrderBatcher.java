@@ -0,0 +1,146 @@
+package com.yummynoodlebar.core.services;
+
+import com.yummynoodlebar.events.orders.*;
+import com.yummynoodlebar.persistence.services.OrderPersistenceService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Gathers orders created at about the same time and persists them with one bulk
+ * createOrdersWithStatus, so a burst of checkouts shares a single journal sync rather than
+ * queueing for one each. A batch is written once it holds maxOrders, or maxWaitMicros after its
+ * first order arrived, whichever comes first. No caller waits longer than that plus the write of
+ * the batch ahead of it.
+ */
+public class CreateOrderBatcher implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CreateOrderBatcher.class);
+
+  private static final class Pending {
+    final CreateOrderWithStatusEvent event;
+    final EventFuture<OrderCreatedEvent> reply = new EventFuture<OrderCreatedEvent>();
+
+    Pending(CreateOrderWithStatusEvent event) {
+      this.event = event;
+    }
+  }
+
+  private final OrderPersistenceService persistence;
+  private final int maxOrders;
+  private final long maxWaitNanos;
+  private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<Pending>();
+  private final Thread writer;
+  private final AtomicLong batches = new AtomicLong();
+  private final AtomicLong orders = new AtomicLong();
+  private volatile boolean closed;
+
+  public CreateOrderBatcher(OrderPersistenceService persistence, int maxOrders, long maxWaitMicros) {
+    if (maxOrders < 1) {
+      throw new IllegalArgumentException("A batch must hold at least one order, not " + maxOrders);
+    }
+    this.persistence = persistence;
+    this.maxOrders = maxOrders;
+    this.maxWaitNanos = TimeUnit.MICROSECONDS.toNanos(maxWaitMicros);
+    this.writer = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        writeBatches();
+      }
+    }, "order-create-batcher");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  public EventFuture<OrderCreatedEvent> submit(CreateOrderWithStatusEvent event) {
+    if (closed) {
+      throw new IllegalStateException("The order batcher has been closed");
+    }
+    Pending pending = new Pending(event);
+    queue.add(pending);
+    //closed while adding, the writer may already have gone
+    if (closed && queue.remove(pending)) {
+      pending.reply.fail(new IllegalStateException("The order batcher has been closed"));
+    }
+    return pending.reply;
+  }
+
+  public long getBatchCount() {
+    return batches.get();
+  }
+
+  public long getOrderCount() {
+    return orders.get();
+  }
+
+  //Writes every order already submitted, then stops
+  @Override
+  public void close() {
+    closed = true;
+    try {
+      writer.join();
+    } catch (InterruptedException interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void writeBatches() {
+    List<Pending> batch = new ArrayList<Pending>(maxOrders);
+    try {
+      while (true) {
+        Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          if (closed) {
+            return;
+          }
+          continue;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + maxWaitNanos;
+        queue.drainTo(batch, maxOrders - batch.size());
+        while (batch.size() < maxOrders) {
+          long remaining = deadline - System.nanoTime();
+          Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+          queue.drainTo(batch, maxOrders - batch.size());
+        }
+        write(batch);
+        batch.clear();
+      }
+    } catch (InterruptedException interrupted) {
+      for (Pending pending : batch) {
+        pending.reply.fail(interrupted);
+      }
+    }
+  }
+
+  private void write(List<Pending> batch) {
+    List<CreateOrderWithStatusEvent> events = new ArrayList<CreateOrderWithStatusEvent>(batch.size());
+    for (Pending pending : batch) {
+      events.add(pending.event);
+    }
+    try {
+      List<OrderCreatedEvent> created = persistence.createOrdersWithStatus(new CreateOrdersWithStatusEvent(events)).getCreated();
+      batches.incrementAndGet();
+      orders.addAndGet(batch.size());
+      for (int i = 0; i < batch.size(); i++) {
+        batch.get(i).reply.complete(created.get(i));
+      }
+    } catch (RuntimeException | Error failure) {
+      LOG.warn("Creating a batch of {} orders failed", batch.size(), failure);
+      for (Pending pending : batch) {
+        pending.reply.fail(failure);
+      }
+    }
+  }
+}
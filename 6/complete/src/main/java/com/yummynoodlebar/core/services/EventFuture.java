@@ -0,0 +1,172 @@
+package com.yummynoodlebar.core.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/*
+ * The eventual result of an async service call. The code base still targets Java 7, so this stands
+ * in for CompletableFuture: it can be waited on like any Future, or given callbacks that run once
+ * the event is there, on the thread that completed it or straight away if it already is.
+ */
+public class EventFuture<T> implements Future<T> {
+
+  public interface Callback<T> {
+    void onEvent(T event);
+
+    void onFailure(Throwable failure);
+  }
+
+  private final CountDownLatch done = new CountDownLatch(1);
+  private final List<Callback<? super T>> callbacks = new ArrayList<Callback<? super T>>();
+  private boolean completed;
+  private boolean cancelled;
+  private T event;
+  private Throwable failure;
+
+  //Runs the call on the executor, the future completes with whatever it returns or throws
+  public static <T> EventFuture<T> submit(Executor executor, final Callable<T> call) {
+    final EventFuture<T> future = new EventFuture<T>();
+    try {
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          if (future.isDone()) {
+            return;
+          }
+          try {
+            future.complete(call.call());
+          } catch (Throwable failure) {
+            future.fail(failure);
+          }
+        }
+      });
+    } catch (RejectedExecutionException rejected) {
+      future.fail(rejected);
+    }
+    return future;
+  }
+
+  public static <T> EventFuture<T> completed(T event) {
+    EventFuture<T> future = new EventFuture<T>();
+    future.complete(event);
+    return future;
+  }
+
+  /**
+   * @return false if the future was already done
+   */
+  public boolean complete(T event) {
+    return finish(event, null, false);
+  }
+
+  /**
+   * @return false if the future was already done
+   */
+  public boolean fail(Throwable failure) {
+    return finish(null, failure, false);
+  }
+
+  public void addCallback(Callback<? super T> callback) {
+    synchronized (this) {
+      if (!completed) {
+        callbacks.add(callback);
+        return;
+      }
+    }
+    deliverTo(callback);
+  }
+
+  //Waits for the event, a failure is rethrown as it was if unchecked and wrapped otherwise
+  public T join() {
+    try {
+      return get();
+    } catch (InterruptedException interrupted) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted waiting for an event", interrupted);
+    } catch (ExecutionException failed) {
+      Throwable cause = failed.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  //Cancelling does not stop a call that is already running, it only stops anyone waiting for it
+  @Override
+  public boolean cancel(boolean mayInterruptIfRunning) {
+    return finish(null, new CancellationException(), true);
+  }
+
+  @Override
+  public synchronized boolean isCancelled() {
+    return cancelled;
+  }
+
+  @Override
+  public synchronized boolean isDone() {
+    return completed;
+  }
+
+  @Override
+  public T get() throws InterruptedException, ExecutionException {
+    done.await();
+    return result();
+  }
+
+  @Override
+  public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+    if (!done.await(timeout, unit)) {
+      throw new TimeoutException();
+    }
+    return result();
+  }
+
+  private synchronized T result() throws ExecutionException {
+    if (cancelled) {
+      throw (CancellationException) failure;
+    }
+    if (failure != null) {
+      throw new ExecutionException(failure);
+    }
+    return event;
+  }
+
+  private boolean finish(T event, Throwable failure, boolean cancel) {
+    List<Callback<? super T>> toNotify;
+    synchronized (this) {
+      if (completed) {
+        return false;
+      }
+      this.completed = true;
+      this.cancelled = cancel;
+      this.event = event;
+      this.failure = failure;
+      toNotify = new ArrayList<Callback<? super T>>(callbacks);
+      callbacks.clear();
+    }
+    done.countDown();
+    for (Callback<? super T> callback : toNotify) {
+      deliverTo(callback);
+    }
+    return true;
+  }
+
+  private void deliverTo(Callback<? super T> callback) {
+    T event;
+    Throwable failure;
+    synchronized (this) {
+      event = this.event;
+      failure = this.failure;
+    }
+    if (failure == null) {
+      callback.onEvent(event);
+    } else {
+      callback.onFailure(failure);
+    }
+  }
+}
@@ -3,12 +3,21 @@ package com.yummynoodlebar.core.services;
 import com.yummynoodlebar.events.menu.*;
 import com.yummynoodlebar.persistence.services.MenuPersistenceService;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
 public class MenuEventHandler implements MenuService {
 
   private MenuPersistenceService menuPersistenceService;
+  private final Executor executor;
 
   public MenuEventHandler(MenuPersistenceService menuPersistenceService) {
+    this(menuPersistenceService, SameThreadExecutor.INSTANCE);
+  }
+
+  public MenuEventHandler(MenuPersistenceService menuPersistenceService, Executor executor) {
     this.menuPersistenceService = menuPersistenceService;
+    this.executor = executor;
   }
 
   @Override
@@ -25,4 +34,34 @@ public class MenuEventHandler implements MenuService {
   public MenuItemDetailsEvent createMenuItem(CreateMenuItemEvent createMenuItemEvent) {
     return menuPersistenceService.createMenuItem(createMenuItemEvent);
   }
+
+  @Override
+  public EventFuture<AllMenuItemsEvent> requestAllMenuItemsAsync(final RequestAllMenuItemsEvent requestAllMenuItemsEvent) {
+    return EventFuture.submit(executor, new Callable<AllMenuItemsEvent>() {
+      @Override
+      public AllMenuItemsEvent call() {
+        return requestAllMenuItems(requestAllMenuItemsEvent);
+      }
+    });
+  }
+
+  @Override
+  public EventFuture<MenuItemDetailsEvent> requestMenuItemDetailsAsync(final RequestMenuItemDetailsEvent requestMenuItemDetailsEvent) {
+    return EventFuture.submit(executor, new Callable<MenuItemDetailsEvent>() {
+      @Override
+      public MenuItemDetailsEvent call() {
+        return requestMenuItemDetails(requestMenuItemDetailsEvent);
+      }
+    });
+  }
+
+  @Override
+  public EventFuture<MenuItemDetailsEvent> createMenuItemAsync(final CreateMenuItemEvent createMenuItemEvent) {
+    return EventFuture.submit(executor, new Callable<MenuItemDetailsEvent>() {
+      @Override
+      public MenuItemDetailsEvent call() {
+        return createMenuItem(createMenuItemEvent);
+      }
+    });
+  }
 }
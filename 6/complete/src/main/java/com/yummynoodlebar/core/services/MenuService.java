@@ -6,4 +6,9 @@ public interface MenuService {
   AllMenuItemsEvent requestAllMenuItems(RequestAllMenuItemsEvent requestAllMenuItemsEvent);
   MenuItemDetailsEvent requestMenuItemDetails(RequestMenuItemDetailsEvent requestMenuItemDetailsEvent);
   MenuItemDetailsEvent createMenuItem(CreateMenuItemEvent createMenuItemEvent);
+
+  //The same calls run on the service's executor
+  EventFuture<AllMenuItemsEvent> requestAllMenuItemsAsync(RequestAllMenuItemsEvent requestAllMenuItemsEvent);
+  EventFuture<MenuItemDetailsEvent> requestMenuItemDetailsAsync(RequestMenuItemDetailsEvent requestMenuItemDetailsEvent);
+  EventFuture<MenuItemDetailsEvent> createMenuItemAsync(CreateMenuItemEvent createMenuItemEvent);
 }
@@ -1,35 +1,72 @@
 package com.yummynoodlebar.core.services;
 
 import com.yummynoodlebar.core.domain.Order;
+import com.yummynoodlebar.core.pricing.OrderPricer;
 import com.yummynoodlebar.events.orders.*;
 import com.yummynoodlebar.persistence.services.OrderPersistenceService;
 
 import java.util.Date;
-import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 
 public class OrderEventHandler implements OrderService {
 
   private final OrderPersistenceService ordersPersistenceService;
+  private final Executor executor;
+  //null unless created orders are written in batches
+  private final CreateOrderBatcher createOrderBatcher;
+  //null unless orders are checked against the menu and priced
+  private final OrderPricer orderPricer;
 
+  //Async calls run on the calling thread, and are done by the time they return
   public OrderEventHandler(final OrderPersistenceService ordersPersistenceService) {
+    this(ordersPersistenceService, SameThreadExecutor.INSTANCE);
+  }
+
+  public OrderEventHandler(final OrderPersistenceService ordersPersistenceService, final Executor executor) {
+    this(ordersPersistenceService, executor, null);
+  }
+
+  public OrderEventHandler(final OrderPersistenceService ordersPersistenceService, final Executor executor,
+      final CreateOrderBatcher createOrderBatcher) {
+    this(ordersPersistenceService, executor, createOrderBatcher, null);
+  }
+
+  public OrderEventHandler(final OrderPersistenceService ordersPersistenceService, final Executor executor,
+      final CreateOrderBatcher createOrderBatcher, final OrderPricer orderPricer) {
     this.ordersPersistenceService = ordersPersistenceService;
+    this.executor = executor;
+    this.createOrderBatcher = createOrderBatcher;
+    this.orderPricer = orderPricer;
   }
 
   @Override
   public OrderCreatedEvent createOrder(CreateOrderEvent createOrderEvent) {
+    OrderCharges charges = price(createOrderEvent);
+    if (charges != null && !charges.isValid()) {
+      return OrderCreatedEvent.rejected(createOrderEvent.getDetails(), charges);
+    }
 
-    //TODO, add validation of menu items
-    //TODO, add order total calculation
+    OrderCreatedEvent created;
+    if (createOrderBatcher != null) {
+      created = createOrderBatcher.submit(withFirstStatus(createOrderEvent)).join();
+    } else {
+      created = ordersPersistenceService.createOrderWithStatus(withFirstStatus(createOrderEvent));
+    }
+    return withCharges(created, charges);
+  }
+
+  private static CreateOrderWithStatusEvent withFirstStatus(CreateOrderEvent createOrderEvent) {
     //TODO, add order time estimate calculation
-	//TODO  Think transaction boundary. Order and OrderStatus should be atomic
-    OrderCreatedEvent event = ordersPersistenceService.createOrder(createOrderEvent);
+    return new CreateOrderWithStatusEvent(createOrderEvent.getDetails(), new Date(), "Order Created");
+  }
 
-    //TODO, where should this go?
-    OrderStatusEvent orderStatusEvent = ordersPersistenceService.setOrderStatus(
-            new SetOrderStatusEvent(event.getNewOrderKey(), new OrderStatusDetails(event.getNewOrderKey(),
-            UUID.randomUUID(), new Date(), "Order Created")));
+  private OrderCharges price(CreateOrderEvent createOrderEvent) {
+    return orderPricer == null ? null : orderPricer.price(createOrderEvent.getDetails().getOrderItems());
+  }
 
-    return event;
+  private static OrderCreatedEvent withCharges(OrderCreatedEvent created, OrderCharges charges) {
+    return charges == null ? created : new OrderCreatedEvent(created.getNewOrderKey(), created.getDetails(), charges);
   }
 
   @Override
@@ -37,6 +74,16 @@ public class OrderEventHandler implements OrderService {
     return ordersPersistenceService.requestAllOrders(requestAllCurrentOrdersEvent);
   }
 
+  @Override
+  public OrdersPageEvent requestOrdersPage(RequestOrdersPageEvent requestOrdersPageEvent) {
+    return ordersPersistenceService.requestOrdersPage(requestOrdersPageEvent);
+  }
+
+  @Override
+  public OrdersStreamEvent requestOrdersStream(RequestAllOrdersEvent requestAllOrdersEvent) {
+    return ordersPersistenceService.requestOrdersStream(requestAllOrdersEvent);
+  }
+
   @Override
   public OrderDetailsEvent requestOrderDetails(RequestOrderDetailsEvent requestOrderDetailsEvent) {
     return ordersPersistenceService.requestOrderDetails(requestOrderDetailsEvent);
@@ -71,4 +118,154 @@ public class OrderEventHandler implements OrderService {
   public OrderStatusEvent requestOrderStatus(RequestOrderStatusEvent requestOrderDetailsEvent) {
     return ordersPersistenceService.requestOrderStatus(requestOrderDetailsEvent);
   }
+
+  @Override
+  public OrdersByStatusEvent requestOrdersByStatus(RequestOrdersByStatusEvent requestOrdersByStatusEvent) {
+    return ordersPersistenceService.requestOrdersByStatus(requestOrdersByStatusEvent);
+  }
+
+  @Override
+  public CustomerOrdersEvent requestCustomerOrders(RequestCustomerOrdersEvent requestCustomerOrdersEvent) {
+    return ordersPersistenceService.requestCustomerOrders(requestCustomerOrdersEvent);
+  }
+
+  @Override
+  public OrdersSubmittedBetweenEvent requestOrdersSubmittedBetween(RequestOrdersSubmittedBetweenEvent requestOrdersSubmittedBetweenEvent) {
+    return ordersPersistenceService.requestOrdersSubmittedBetween(requestOrdersSubmittedBetweenEvent);
+  }
+
+  @Override
+  public OrderOwnershipEvent requestOrderOwnership(RequestOrderOwnershipEvent requestOrderOwnershipEvent) {
+    return ordersPersistenceService.requestOrderOwnership(requestOrderOwnershipEvent);
+  }
+
+  @Override
+  public EventFuture<AllOrdersEvent> requestAllOrdersAsync(final RequestAllOrdersEvent requestAllOrdersEvent) {
+    return EventFuture.submit(executor, new Callable<AllOrdersEvent>() {
+      @Override
+      public AllOrdersEvent call() {
+        return requestAllOrders(requestAllOrdersEvent);
+      }
+    });
+  }
+
+  @Override
+  public EventFuture<OrdersPageEvent> requestOrdersPageAsync(final RequestOrdersPageEvent requestOrdersPageEvent) {
+    return EventFuture.submit(executor, new Callable<OrdersPageEvent>() {
+      @Override
+      public OrdersPageEvent call() {
+        return requestOrdersPage(requestOrdersPageEvent);
+      }
+    });
+  }
+
+  @Override
+  public EventFuture<OrderDetailsEvent> requestOrderDetailsAsync(final RequestOrderDetailsEvent requestOrderDetailsEvent) {
+    return EventFuture.submit(executor, new Callable<OrderDetailsEvent>() {
+      @Override
+      public OrderDetailsEvent call() {
+        return requestOrderDetails(requestOrderDetailsEvent);
+      }
+    });
+  }
+
+  @Override
+  public EventFuture<OrderStatusEvent> requestOrderStatusAsync(final RequestOrderStatusEvent requestOrderStatusEvent) {
+    return EventFuture.submit(executor, new Callable<OrderStatusEvent>() {
+      @Override
+      public OrderStatusEvent call() {
+        return requestOrderStatus(requestOrderStatusEvent);
+      }
+    });
+  }
+
+  @Override
+  public EventFuture<OrdersByStatusEvent> requestOrdersByStatusAsync(final RequestOrdersByStatusEvent requestOrdersByStatusEvent) {
+    return EventFuture.submit(executor, new Callable<OrdersByStatusEvent>() {
+      @Override
+      public OrdersByStatusEvent call() {
+        return requestOrdersByStatus(requestOrdersByStatusEvent);
+      }
+    });
+  }
+
+  @Override
+  public EventFuture<CustomerOrdersEvent> requestCustomerOrdersAsync(final RequestCustomerOrdersEvent requestCustomerOrdersEvent) {
+    return EventFuture.submit(executor, new Callable<CustomerOrdersEvent>() {
+      @Override
+      public CustomerOrdersEvent call() {
+        return requestCustomerOrders(requestCustomerOrdersEvent);
+      }
+    });
+  }
+
+  @Override
+  public EventFuture<OrdersSubmittedBetweenEvent> requestOrdersSubmittedBetweenAsync(final RequestOrdersSubmittedBetweenEvent requestOrdersSubmittedBetweenEvent) {
+    return EventFuture.submit(executor, new Callable<OrdersSubmittedBetweenEvent>() {
+      @Override
+      public OrdersSubmittedBetweenEvent call() {
+        return requestOrdersSubmittedBetween(requestOrdersSubmittedBetweenEvent);
+      }
+    });
+  }
+
+  @Override
+  public EventFuture<OrderOwnershipEvent> requestOrderOwnershipAsync(final RequestOrderOwnershipEvent requestOrderOwnershipEvent) {
+    return EventFuture.submit(executor, new Callable<OrderOwnershipEvent>() {
+      @Override
+      public OrderOwnershipEvent call() {
+        return requestOrderOwnership(requestOrderOwnershipEvent);
+      }
+    });
+  }
+
+  @Override
+  public EventFuture<OrderCreatedEvent> createOrderAsync(final CreateOrderEvent createOrderEvent) {
+    if (createOrderBatcher != null) {
+      //the batcher already hands back a future, there is no need to tie up a thread waiting on it
+      final OrderCharges charges = price(createOrderEvent);
+      if (charges != null && !charges.isValid()) {
+        return EventFuture.completed(OrderCreatedEvent.rejected(createOrderEvent.getDetails(), charges));
+      }
+      final EventFuture<OrderCreatedEvent> priced = new EventFuture<OrderCreatedEvent>();
+      createOrderBatcher.submit(withFirstStatus(createOrderEvent)).addCallback(new EventFuture.Callback<OrderCreatedEvent>() {
+        @Override
+        public void onEvent(OrderCreatedEvent created) {
+          priced.complete(withCharges(created, charges));
+        }
+
+        @Override
+        public void onFailure(Throwable failure) {
+          priced.fail(failure);
+        }
+      });
+      return priced;
+    }
+    return EventFuture.submit(executor, new Callable<OrderCreatedEvent>() {
+      @Override
+      public OrderCreatedEvent call() {
+        return createOrder(createOrderEvent);
+      }
+    });
+  }
+
+  @Override
+  public EventFuture<OrderUpdatedEvent> setOrderPaymentAsync(final SetOrderPaymentEvent setOrderPaymentEvent) {
+    return EventFuture.submit(executor, new Callable<OrderUpdatedEvent>() {
+      @Override
+      public OrderUpdatedEvent call() {
+        return setOrderPayment(setOrderPaymentEvent);
+      }
+    });
+  }
+
+  @Override
+  public EventFuture<OrderDeletedEvent> deleteOrderAsync(final DeleteOrderEvent deleteOrderEvent) {
+    return EventFuture.submit(executor, new Callable<OrderDeletedEvent>() {
+      @Override
+      public OrderDeletedEvent call() {
+        return deleteOrder(deleteOrderEvent);
+      }
+    });
+  }
 }
@@ -5,17 +5,58 @@ import com.yummynoodlebar.events.orders.*;
 //TODOCUMENT THis is an event driven service.
 // Used to interact with the core domain.
 //All methods are guaranteed to return something, null will never be returned.
-public interface OrderService {
+public interface OrderService extends OrdersPageSource {
 
   public AllOrdersEvent requestAllOrders(RequestAllOrdersEvent requestAllCurrentOrdersEvent);
 
+  public OrdersPageEvent requestOrdersPage(RequestOrdersPageEvent requestOrdersPageEvent);
+
+  //Every order without holding them all at once, pages are fetched as the details are iterated
+  public OrdersStreamEvent requestOrdersStream(RequestAllOrdersEvent requestAllOrdersEvent);
+
   public OrderDetailsEvent requestOrderDetails(RequestOrderDetailsEvent requestOrderDetailsEvent);
 
   public OrderStatusEvent requestOrderStatus(RequestOrderStatusEvent requestOrderStatusEvent);
 
+  //Orders currently in the given status, such as the kitchen's queue of new orders, longest waiting first
+  public OrdersByStatusEvent requestOrdersByStatus(RequestOrdersByStatusEvent requestOrdersByStatusEvent);
+
+  //The user's most recent orders, newest first
+  public CustomerOrdersEvent requestCustomerOrders(RequestCustomerOrdersEvent requestCustomerOrdersEvent);
+
+  //Orders submitted at or after the start of the range and before its end, oldest first
+  public OrdersSubmittedBetweenEvent requestOrdersSubmittedBetween(RequestOrdersSubmittedBetweenEvent requestOrdersSubmittedBetweenEvent);
+
+  //Whether the user placed the order, cheap enough to ask on every view of an order
+  public OrderOwnershipEvent requestOrderOwnership(RequestOrderOwnershipEvent requestOrderOwnershipEvent);
+
   public OrderCreatedEvent createOrder(CreateOrderEvent event);
 
   public OrderUpdatedEvent setOrderPayment(SetOrderPaymentEvent setOrderPaymentEvent);
 
   public OrderDeletedEvent deleteOrder(DeleteOrderEvent deleteOrderEvent);
+
+  //The same calls run on the service's executor, for callers that should not wait on a slow store.
+  //The stream is left out, it already fetches lazily as it is iterated
+  public EventFuture<AllOrdersEvent> requestAllOrdersAsync(RequestAllOrdersEvent requestAllOrdersEvent);
+
+  public EventFuture<OrdersPageEvent> requestOrdersPageAsync(RequestOrdersPageEvent requestOrdersPageEvent);
+
+  public EventFuture<OrderDetailsEvent> requestOrderDetailsAsync(RequestOrderDetailsEvent requestOrderDetailsEvent);
+
+  public EventFuture<OrderStatusEvent> requestOrderStatusAsync(RequestOrderStatusEvent requestOrderStatusEvent);
+
+  public EventFuture<OrdersByStatusEvent> requestOrdersByStatusAsync(RequestOrdersByStatusEvent requestOrdersByStatusEvent);
+
+  public EventFuture<CustomerOrdersEvent> requestCustomerOrdersAsync(RequestCustomerOrdersEvent requestCustomerOrdersEvent);
+
+  public EventFuture<OrdersSubmittedBetweenEvent> requestOrdersSubmittedBetweenAsync(RequestOrdersSubmittedBetweenEvent requestOrdersSubmittedBetweenEvent);
+
+  public EventFuture<OrderOwnershipEvent> requestOrderOwnershipAsync(RequestOrderOwnershipEvent requestOrderOwnershipEvent);
+
+  public EventFuture<OrderCreatedEvent> createOrderAsync(CreateOrderEvent createOrderEvent);
+
+  public EventFuture<OrderUpdatedEvent> setOrderPaymentAsync(SetOrderPaymentEvent setOrderPaymentEvent);
+
+  public EventFuture<OrderDeletedEvent> deleteOrderAsync(DeleteOrderEvent deleteOrderEvent);
 }
@@ -0,0 +1,15 @@
+package com.yummynoodlebar.core.services;
+
+import java.util.concurrent.Executor;
+
+/*
+ * Runs each task on the thread that hands it over, for services built without an executor.
+ */
+enum SameThreadExecutor implements Executor {
+  INSTANCE;
+
+  @Override
+  public void execute(Runnable command) {
+    command.run();
+  }
+}
@@ -0,0 +1,104 @@
+package com.yummynoodlebar.core.services;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Lets concurrent identical calls share one execution. The first caller for a key runs the call,
+ * anyone asking for the same key before it finishes is handed the same result, or failure.
+ * Only calls in flight are tracked, once a call finishes the next caller for its key starts afresh,
+ * so nothing is ever served stale. Callers share the result object and must not change it.
+ *
+ * Async callers each get their own future following the shared one, so one caller cancelling
+ * only stops its own wait and never fails the call for the others.
+ */
+final class SingleFlight<K, V> {
+
+  interface AsyncCall<V> {
+    EventFuture<V> start();
+  }
+
+  private final ConcurrentMap<K, EventFuture<V>> inFlight = new ConcurrentHashMap<K, EventFuture<V>>();
+  private final AtomicLong shared = new AtomicLong();
+
+  V call(K key, Callable<V> call) {
+    EventFuture<V> flight = new EventFuture<V>();
+    EventFuture<V> running = inFlight.putIfAbsent(key, flight);
+    if (running != null) {
+      shared.incrementAndGet();
+      return running.join();
+    }
+    try {
+      V result = call.call();
+      flight.complete(result);
+      return result;
+    } catch (RuntimeException | Error failure) {
+      flight.fail(failure);
+      throw failure;
+    } catch (Exception failure) {
+      flight.fail(failure);
+      throw new IllegalStateException(failure);
+    } finally {
+      inFlight.remove(key, flight);
+    }
+  }
+
+  EventFuture<V> callAsync(final K key, AsyncCall<V> call) {
+    final EventFuture<V> flight = new EventFuture<V>();
+    EventFuture<V> running = inFlight.putIfAbsent(key, flight);
+    if (running != null) {
+      shared.incrementAndGet();
+      return follow(running);
+    }
+    EventFuture<V> started;
+    try {
+      started = call.start();
+    } catch (RuntimeException | Error failure) {
+      inFlight.remove(key, flight);
+      flight.fail(failure);
+      return follow(flight);
+    }
+    started.addCallback(new EventFuture.Callback<V>() {
+      @Override
+      public void onEvent(V event) {
+        inFlight.remove(key, flight);
+        flight.complete(event);
+      }
+
+      @Override
+      public void onFailure(Throwable failure) {
+        inFlight.remove(key, flight);
+        flight.fail(failure);
+      }
+    });
+    return follow(flight);
+  }
+
+  private static <V> EventFuture<V> follow(EventFuture<V> flight) {
+    final EventFuture<V> follower = new EventFuture<V>();
+    flight.addCallback(new EventFuture.Callback<V>() {
+      @Override
+      public void onEvent(V event) {
+        follower.complete(event);
+      }
+
+      @Override
+      public void onFailure(Throwable failure) {
+        follower.fail(failure);
+      }
+    });
+    return follower;
+  }
+
+  //Whoever asks for the key next starts a new call, for after a write the caller must see
+  void forget(K key) {
+    inFlight.remove(key);
+  }
+
+  //Calls answered from another caller's execution rather than their own
+  long getSharedCount() {
+    return shared.get();
+  }
+}
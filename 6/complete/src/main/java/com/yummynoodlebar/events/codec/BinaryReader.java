@@ -0,0 +1,135 @@
+package com.yummynoodlebar.events.codec;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Date;
+import java.util.UUID;
+
+/*
+ * Reads what BinaryWriter wrote. Running off the end or a malformed varint is a CodecException,
+ * the bytes came from disk or the network and cannot be trusted.
+ */
+public final class BinaryReader {
+
+  private final byte[] bytes;
+  private final int limit;
+  private int position;
+
+  public BinaryReader(byte[] bytes) {
+    this(bytes, 0, bytes.length);
+  }
+
+  public BinaryReader(byte[] bytes, int offset, int length) {
+    this.bytes = bytes;
+    this.position = offset;
+    this.limit = offset + length;
+  }
+
+  /**
+   * Reads the remaining bytes of a heap buffer, without moving its position.
+   */
+  public static BinaryReader of(ByteBuffer buffer) {
+    return new BinaryReader(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+  }
+
+  public byte readByte() {
+    require(1);
+    return bytes[position++];
+  }
+
+  public int readVarInt() {
+    int value = 0;
+    for (int shift = 0; shift < 35; shift += 7) {
+      byte b = readByte();
+      value |= (b & 0x7F) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+    throw new CodecException("Malformed varint");
+  }
+
+  public long readVarLong() {
+    long value = 0;
+    for (int shift = 0; shift < 70; shift += 7) {
+      byte b = readByte();
+      value |= (long) (b & 0x7F) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+    throw new CodecException("Malformed varint");
+  }
+
+  public int readSignedVarInt() {
+    int value = readVarInt();
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  public long readLong() {
+    require(8);
+    long value = 0;
+    for (int i = 0; i < 8; i++) {
+      value = (value << 8) | (bytes[position++] & 0xFF);
+    }
+    return value;
+  }
+
+  public UUID readUuid() {
+    if (readByte() == 0) {
+      return null;
+    }
+    return new UUID(readLong(), readLong());
+  }
+
+  public Date readDate() {
+    long value = readVarLong();
+    if (value == 0) {
+      return null;
+    }
+    value -= 1;
+    return new Date((value >>> 1) ^ -(value & 1));
+  }
+
+  public String readString() {
+    int length = readVarInt() - 1;
+    if (length < 0) {
+      return null;
+    }
+    require(length);
+    String value = new String(bytes, position, length, BinaryWriter.UTF_8);
+    position += length;
+    return value;
+  }
+
+  public BigDecimal readDecimal() {
+    int length = readVarInt() - 1;
+    if (length < 0) {
+      return null;
+    }
+    require(length);
+    byte[] unscaled = new byte[length];
+    System.arraycopy(bytes, position, unscaled, 0, length);
+    position += length;
+    return new BigDecimal(new BigInteger(unscaled), readSignedVarInt());
+  }
+
+  public String readStatus() {
+    int code = readVarInt();
+    if (code == StatusDictionary.LITERAL) {
+      return readString();
+    }
+    return StatusDictionary.statusOf(code);
+  }
+
+  public int remaining() {
+    return limit - position;
+  }
+
+  private void require(int needed) {
+    if (needed > limit - position) {
+      throw new CodecException("Unexpected end of input, needed " + needed + " bytes but " + (limit - position) + " remain");
+    }
+  }
+}
@@ -0,0 +1,147 @@
+package com.yummynoodlebar.events.codec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.UUID;
+
+/*
+ * Growable byte buffer with the primitives of the details codec. Lengths and small numbers are
+ * varints (seven bits a byte, high bit set while more follow), signed values are zig-zag encoded
+ * first so small negatives stay small. Nullable values fold the null into the varint as zero.
+ */
+public final class BinaryWriter {
+
+  static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private byte[] bytes;
+  private int position;
+
+  public BinaryWriter() {
+    this(64);
+  }
+
+  public BinaryWriter(int initialCapacity) {
+    bytes = new byte[initialCapacity];
+  }
+
+  public BinaryWriter writeByte(int value) {
+    ensure(1);
+    bytes[position++] = (byte) value;
+    return this;
+  }
+
+  public BinaryWriter writeVarInt(int value) {
+    ensure(5);
+    while ((value & ~0x7F) != 0) {
+      bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    bytes[position++] = (byte) value;
+    return this;
+  }
+
+  public BinaryWriter writeVarLong(long value) {
+    ensure(10);
+    while ((value & ~0x7FL) != 0) {
+      bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    bytes[position++] = (byte) value;
+    return this;
+  }
+
+  public BinaryWriter writeSignedVarInt(int value) {
+    return writeVarInt((value << 1) ^ (value >> 31));
+  }
+
+  public BinaryWriter writeLong(long value) {
+    ensure(8);
+    for (int shift = 56; shift >= 0; shift -= 8) {
+      bytes[position++] = (byte) (value >>> shift);
+    }
+    return this;
+  }
+
+  public BinaryWriter writeBytes(byte[] value) {
+    ensure(value.length);
+    System.arraycopy(value, 0, bytes, position, value.length);
+    position += value.length;
+    return this;
+  }
+
+  //a presence byte, then the two halves as fixed longs, random bits do not shrink as varints
+  public BinaryWriter writeUuid(UUID value) {
+    if (value == null) {
+      return writeByte(0);
+    }
+    writeByte(1);
+    writeLong(value.getMostSignificantBits());
+    return writeLong(value.getLeastSignificantBits());
+  }
+
+  public BinaryWriter writeDate(Date value) {
+    if (value == null) {
+      return writeVarLong(0);
+    }
+    long time = value.getTime();
+    return writeVarLong(((time << 1) ^ (time >> 63)) + 1);
+  }
+
+  public BinaryWriter writeString(String value) {
+    if (value == null) {
+      return writeVarInt(0);
+    }
+    byte[] encoded = value.getBytes(UTF_8);
+    writeVarInt(encoded.length + 1);
+    return writeBytes(encoded);
+  }
+
+  public BinaryWriter writeDecimal(BigDecimal value) {
+    if (value == null) {
+      return writeVarInt(0);
+    }
+    byte[] unscaled = value.unscaledValue().toByteArray();
+    writeVarInt(unscaled.length + 1);
+    writeBytes(unscaled);
+    return writeSignedVarInt(value.scale());
+  }
+
+  /**
+   * Writes a status as its index in the {@link StatusDictionary}, falling back to the string.
+   */
+  public BinaryWriter writeStatus(String status) {
+    int code = StatusDictionary.codeOf(status);
+    writeVarInt(code);
+    if (code == StatusDictionary.LITERAL) {
+      writeString(status);
+    }
+    return this;
+  }
+
+  public int size() {
+    return position;
+  }
+
+  public byte[] toByteArray() {
+    return Arrays.copyOf(bytes, position);
+  }
+
+  public void writeTo(OutputStream out) throws IOException {
+    out.write(bytes, 0, position);
+  }
+
+  public BinaryWriter reset() {
+    position = 0;
+    return this;
+  }
+
+  private void ensure(int needed) {
+    if (position + needed > bytes.length) {
+      bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, position + needed));
+    }
+  }
+}
@@ -0,0 +1,10 @@
+package com.yummynoodlebar.events.codec;
+
+public class CodecException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  public CodecException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,130 @@
+package com.yummynoodlebar.events.codec;
+
+import com.yummynoodlebar.events.menu.MenuItemDetails;
+import com.yummynoodlebar.events.orders.OrderDetails;
+import com.yummynoodlebar.events.orders.OrderLines;
+import com.yummynoodlebar.events.orders.OrderStatusDetails;
+import com.yummynoodlebar.events.orders.PaymentDetails;
+
+import java.util.Map;
+
+/*
+ * Hand written binary form of the detail types, shared by the journal, snapshots and anything
+ * else that needs their bytes. Fields are written in declaration order with no names or type
+ * tags, so adding a field means a new format version for whoever stores the bytes.
+ */
+public final class DetailsCodec {
+
+  private DetailsCodec() {
+  }
+
+  public static void writeOrderDetails(BinaryWriter out, OrderDetails details) {
+    out.writeUuid(details.getKey());
+    out.writeDate(details.getDateTimeOfSubmission());
+    Map<String, Integer> items = details.getOrderItems();
+    if (items == null) {
+      out.writeVarInt(0);
+    } else {
+      out.writeVarInt(items.size() + 1);
+      for (Map.Entry<String, Integer> item : items.entrySet()) {
+        out.writeString(item.getKey());
+        out.writeSignedVarInt(item.getValue());
+      }
+    }
+    out.writeString(details.getName());
+    out.writeString(details.getAddress1());
+    out.writeString(details.getPostcode());
+    out.writeString(details.getUserName());
+  }
+
+  public static OrderDetails readOrderDetails(BinaryReader in) {
+    OrderDetails details = new OrderDetails(in.readUuid());
+    details.setDateTimeOfSubmission(in.readDate());
+    int itemCount = in.readVarInt() - 1;
+    if (itemCount >= 0) {
+      OrderLines.Builder lines = new OrderLines.Builder(itemCount);
+      for (int i = 0; i < itemCount; i++) {
+        lines.add(in.readString(), in.readSignedVarInt());
+      }
+      details.setOrderItems(lines.build());
+    }
+    details.setName(in.readString());
+    details.setAddress1(in.readString());
+    details.setPostcode(in.readString());
+    details.setUserName(in.readString());
+    return details;
+  }
+
+  public static void writeOrderStatusDetails(BinaryWriter out, OrderStatusDetails details) {
+    out.writeUuid(details.getOrderId());
+    out.writeUuid(details.getId());
+    out.writeDate(details.getStatusDate());
+    out.writeStatus(details.getStatus());
+  }
+
+  public static OrderStatusDetails readOrderStatusDetails(BinaryReader in) {
+    return new OrderStatusDetails(in.readUuid(), in.readUuid(), in.readDate(), in.readStatus());
+  }
+
+  public static void writeMenuItemDetails(BinaryWriter out, MenuItemDetails details) {
+    out.writeString(details.getId());
+    out.writeString(details.getName());
+    out.writeDecimal(details.getCost());
+    out.writeSignedVarInt(details.getMinutesToPrepare());
+  }
+
+  public static MenuItemDetails readMenuItemDetails(BinaryReader in) {
+    return new MenuItemDetails(in.readString(), in.readString(), in.readDecimal(), in.readSignedVarInt());
+  }
+
+  public static void writePaymentDetails(BinaryWriter out, PaymentDetails details) {
+    out.writeUuid(details.getKey());
+    out.writeDate(details.getDateTimeOfSubmission());
+  }
+
+  public static PaymentDetails readPaymentDetails(BinaryReader in) {
+    PaymentDetails details = new PaymentDetails(in.readUuid());
+    details.setDateTimeOfSubmission(in.readDate());
+    return details;
+  }
+
+  public static byte[] encode(OrderDetails details) {
+    BinaryWriter out = new BinaryWriter(96);
+    writeOrderDetails(out, details);
+    return out.toByteArray();
+  }
+
+  public static OrderDetails decodeOrderDetails(byte[] bytes) {
+    return readOrderDetails(new BinaryReader(bytes));
+  }
+
+  public static byte[] encode(OrderStatusDetails details) {
+    BinaryWriter out = new BinaryWriter(48);
+    writeOrderStatusDetails(out, details);
+    return out.toByteArray();
+  }
+
+  public static OrderStatusDetails decodeOrderStatusDetails(byte[] bytes) {
+    return readOrderStatusDetails(new BinaryReader(bytes));
+  }
+
+  public static byte[] encode(MenuItemDetails details) {
+    BinaryWriter out = new BinaryWriter(48);
+    writeMenuItemDetails(out, details);
+    return out.toByteArray();
+  }
+
+  public static MenuItemDetails decodeMenuItemDetails(byte[] bytes) {
+    return readMenuItemDetails(new BinaryReader(bytes));
+  }
+
+  public static byte[] encode(PaymentDetails details) {
+    BinaryWriter out = new BinaryWriter(32);
+    writePaymentDetails(out, details);
+    return out.toByteArray();
+  }
+
+  public static PaymentDetails decodePaymentDetails(byte[] bytes) {
+    return readPaymentDetails(new BinaryReader(bytes));
+  }
+}
@@ -0,0 +1,43 @@
+package com.yummynoodlebar.events.codec;
+
+/*
+ * The handful of statuses an order moves through, written as a one byte code. Codes are part of
+ * the journal and snapshot formats, only ever append to this list.
+ */
+final class StatusDictionary {
+
+  //followed by the status written out in full
+  static final int LITERAL = 0;
+
+  private static final String[] STATUSES = {
+      null,
+      "Order Created",
+      "Payment Received",
+      "Cooking",
+      "Ready",
+      "Out For Delivery",
+      "Delivered",
+      "Cancelled"
+  };
+
+  private StatusDictionary() {
+  }
+
+  static int codeOf(String status) {
+    if (status != null) {
+      for (int code = 1; code < STATUSES.length; code++) {
+        if (STATUSES[code].equals(status)) {
+          return code;
+        }
+      }
+    }
+    return LITERAL;
+  }
+
+  static String statusOf(int code) {
+    if (code <= LITERAL || code >= STATUSES.length) {
+      throw new CodecException("Unknown status code " + code);
+    }
+    return STATUSES[code];
+  }
+}
@@ -7,11 +7,22 @@ import java.util.List;
 
 public class AllMenuItemsEvent extends ReadEvent {
   private List<MenuItemDetails> menuItemDetails;
+  private long version;
 
   public AllMenuItemsEvent(List<MenuItemDetails> menuItemDetails) {
     this.menuItemDetails = menuItemDetails;
   }
 
+  public AllMenuItemsEvent(List<MenuItemDetails> menuItemDetails, long version) {
+    this.menuItemDetails = menuItemDetails;
+    this.version = version;
+  }
+
+  //The menu version these items were read from, 0 if unknown
+  public long getVersion() {
+    return version;
+  }
+
   public List<MenuItemDetails> getMenuItemDetails() {
     return menuItemDetails;
   }
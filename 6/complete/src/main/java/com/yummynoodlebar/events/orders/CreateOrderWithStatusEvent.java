@@ -0,0 +1,31 @@
+package com.yummynoodlebar.events.orders;
+
+import com.yummynoodlebar.events.CreateEvent;
+
+import java.util.Date;
+
+//Creates an order together with its first status, nobody can see one without the other
+public class CreateOrderWithStatusEvent extends CreateEvent {
+
+  private final OrderDetails details;
+  private final Date statusDate;
+  private final String status;
+
+  public CreateOrderWithStatusEvent(OrderDetails details, Date statusDate, String status) {
+    this.details = details;
+    this.statusDate = statusDate;
+    this.status = status;
+  }
+
+  public OrderDetails getDetails() {
+    return details;
+  }
+
+  public Date getStatusDate() {
+    return statusDate;
+  }
+
+  public String getStatus() {
+    return status;
+  }
+}
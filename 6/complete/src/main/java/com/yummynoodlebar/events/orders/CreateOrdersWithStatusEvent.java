@@ -0,0 +1,19 @@
+package com.yummynoodlebar.events.orders;
+
+import com.yummynoodlebar.events.CreateEvent;
+
+import java.util.List;
+
+//Creates several orders, each with its first status, in one bulk write
+public class CreateOrdersWithStatusEvent extends CreateEvent {
+
+  private final List<CreateOrderWithStatusEvent> orders;
+
+  public CreateOrdersWithStatusEvent(List<CreateOrderWithStatusEvent> orders) {
+    this.orders = orders;
+  }
+
+  public List<CreateOrderWithStatusEvent> getOrders() {
+    return orders;
+  }
+}
@@ -0,0 +1,26 @@
+package com.yummynoodlebar.events.orders;
+
+import com.yummynoodlebar.events.ReadEvent;
+
+import java.util.Collections;
+import java.util.List;
+
+//A user's most recent orders, newest first
+public class CustomerOrdersEvent extends ReadEvent {
+
+  private final String userName;
+  private final List<OrderDetails> ordersDetails;
+
+  public CustomerOrdersEvent(String userName, List<OrderDetails> orders) {
+    this.userName = userName;
+    this.ordersDetails = Collections.unmodifiableList(orders);
+  }
+
+  public String getUserName() {
+    return userName;
+  }
+
+  public List<OrderDetails> getOrdersDetails() {
+    return ordersDetails;
+  }
+}
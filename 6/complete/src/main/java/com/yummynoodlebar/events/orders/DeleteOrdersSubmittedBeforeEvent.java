@@ -0,0 +1,22 @@
+package com.yummynoodlebar.events.orders;
+
+import com.yummynoodlebar.events.DeleteEvent;
+
+import java.util.Date;
+
+public class DeleteOrdersSubmittedBeforeEvent extends DeleteEvent {
+
+  private final Date cutoff;
+
+  //Exclusive, an order submitted at the cutoff is kept
+  public DeleteOrdersSubmittedBeforeEvent(Date cutoff) {
+    if (cutoff == null) {
+      throw new IllegalArgumentException("A cutoff is required");
+    }
+    this.cutoff = cutoff;
+  }
+
+  public Date getCutoff() {
+    return cutoff;
+  }
+}
@@ -0,0 +1,58 @@
+package com.yummynoodlebar.events.orders;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/*
+ * Numbers menu item ids densely in the order they are first seen, so order lines can hold an int
+ * instead of a String. Ordinals only mean something inside this process, anything written down
+ * uses the ids.
+ *
+ * Only the menu registers ids. Everything else, baskets and orders included, looks ids up with
+ * find and keeps the ones it does not know as strings, so ids made up by a client never get a slot.
+ */
+public final class MenuItemOrdinals {
+
+  private static final ConcurrentMap<String, Integer> ORDINALS = new ConcurrentHashMap<String, Integer>();
+  private static volatile String[] ids = new String[16];
+  private static int count;
+
+  private MenuItemOrdinals() {
+  }
+
+  //For ids that are on the menu, gives the id an ordinal if it has none yet
+  public static int register(String id) {
+    Integer ordinal = ORDINALS.get(id);
+    return ordinal != null ? ordinal : add(id);
+  }
+
+  //-1 if the id has never been registered, without registering it
+  public static int find(String id) {
+    Integer ordinal = id == null ? null : ORDINALS.get(id);
+    return ordinal != null ? ordinal : -1;
+  }
+
+  public static String idOf(int ordinal) {
+    return ids[ordinal];
+  }
+
+  private static synchronized int add(String id) {
+    if (id == null) {
+      throw new IllegalArgumentException("Menu item id is required");
+    }
+    Integer ordinal = ORDINALS.get(id);
+    if (ordinal != null) {
+      return ordinal;
+    }
+    String[] current = ids;
+    if (count == current.length) {
+      current = Arrays.copyOf(current, current.length * 2);
+    }
+    current[count] = id;
+    //publish the id before the ordinal, anyone who can see the ordinal can then look it up
+    ids = current;
+    ORDINALS.put(id, count);
+    return count++;
+  }
+}
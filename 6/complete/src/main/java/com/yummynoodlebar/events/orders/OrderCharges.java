@@ -0,0 +1,70 @@
+package com.yummynoodlebar.events.orders;
+
+import java.math.BigDecimal;
+
+/*
+ * What an order costs, worked out when it is placed. Amounts are whole minor currency units,
+ * pence, so they add up exactly without BigDecimal, the BigDecimal getters are for display.
+ */
+public final class OrderCharges {
+
+  //decimal places in a currency amount, 100 minor units to the major one
+  public static final int SCALE = 2;
+
+  private final long subtotal;
+  private final long tax;
+  private final long delivery;
+  private final String rejection;
+
+  public OrderCharges(long subtotal, long tax, long delivery) {
+    this.subtotal = subtotal;
+    this.tax = tax;
+    this.delivery = delivery;
+    this.rejection = null;
+  }
+
+  private OrderCharges(String rejection) {
+    this.subtotal = 0;
+    this.tax = 0;
+    this.delivery = 0;
+    this.rejection = rejection;
+  }
+
+  //The order cannot be priced, and so cannot be placed, for the given reason
+  public static OrderCharges rejected(String rejection) {
+    return new OrderCharges(rejection);
+  }
+
+  public boolean isValid() {
+    return rejection == null;
+  }
+
+  public String getRejection() {
+    return rejection;
+  }
+
+  public long getSubtotal() {
+    return subtotal;
+  }
+
+  public long getTax() {
+    return tax;
+  }
+
+  public long getDelivery() {
+    return delivery;
+  }
+
+  public long getTotal() {
+    return subtotal + tax + delivery;
+  }
+
+  public BigDecimal getTotalCost() {
+    return BigDecimal.valueOf(getTotal(), SCALE);
+  }
+
+  @Override
+  public String toString() {
+    return isValid() ? getTotalCost().toPlainString() : "rejected: " + rejection;
+  }
+}
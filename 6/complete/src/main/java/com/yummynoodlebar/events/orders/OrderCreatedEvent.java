@@ -8,10 +8,16 @@ public class OrderCreatedEvent extends CreatedEvent {
 
   private final UUID newOrderKey;
   private final OrderDetails details;
+  private final OrderCharges charges;
 
   public OrderCreatedEvent(final UUID newOrderKey, final OrderDetails details) {
+    this(newOrderKey, details, null);
+  }
+
+  public OrderCreatedEvent(final UUID newOrderKey, final OrderDetails details, final OrderCharges charges) {
     this.newOrderKey = newOrderKey;
     this.details = details;
+    this.charges = charges;
   }
 
   public OrderDetails getDetails() {
@@ -21,4 +27,18 @@ public class OrderCreatedEvent extends CreatedEvent {
   public UUID getNewOrderKey() {
     return newOrderKey;
   }
+
+  //null when the order was not priced
+  public OrderCharges getCharges() {
+    return charges;
+  }
+
+  //false if the order was turned away, see the charges for why, and nothing was saved
+  public boolean isAccepted() {
+    return newOrderKey != null;
+  }
+
+  public static OrderCreatedEvent rejected(OrderDetails details, OrderCharges charges) {
+    return new OrderCreatedEvent(null, details, charges);
+  }
 }
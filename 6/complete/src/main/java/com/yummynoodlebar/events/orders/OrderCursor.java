@@ -0,0 +1,64 @@
+package com.yummynoodlebar.events.orders;
+
+import java.util.Date;
+import java.util.UUID;
+
+/*
+ * Position in the orders ordered by submission time, ties broken by key. Pages are asked for
+ * "after" a cursor rather than at an offset, so orders arriving or leaving between pages never
+ * shift what comes next.
+ */
+public final class OrderCursor implements Comparable<OrderCursor> {
+
+  private final long submitted;
+  private final UUID key;
+
+  public OrderCursor(Date dateTimeOfSubmission, UUID key) {
+    this.submitted = dateTimeOfSubmission == null ? Long.MIN_VALUE : dateTimeOfSubmission.getTime();
+    this.key = key;
+  }
+
+  public OrderCursor(long submitted, UUID key) {
+    this.submitted = submitted;
+    this.key = key;
+  }
+
+  public static OrderCursor of(OrderDetails details) {
+    return new OrderCursor(details.getDateTimeOfSubmission(), details.getKey());
+  }
+
+  public long getSubmitted() {
+    return submitted;
+  }
+
+  public UUID getKey() {
+    return key;
+  }
+
+  @Override
+  public int compareTo(OrderCursor other) {
+    if (submitted != other.submitted) {
+      return submitted < other.submitted ? -1 : 1;
+    }
+    return key.compareTo(other.key);
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (!(other instanceof OrderCursor)) {
+      return false;
+    }
+    OrderCursor cursor = (OrderCursor) other;
+    return submitted == cursor.submitted && key.equals(cursor.key);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * (int) (submitted ^ (submitted >>> 32)) + key.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return submitted + "/" + key;
+  }
+}
@@ -1,6 +1,5 @@
 package com.yummynoodlebar.events.orders;
 
-import java.util.Collections;
 import java.util.Date;
 import java.util.Map;
 import java.util.UUID;
@@ -39,11 +38,7 @@ public class OrderDetails {
   }
 
   public void setOrderItems(Map<String, Integer> orderItems) {
-    if (orderItems == null) {
-      this.orderItems = Collections.emptyMap();
-    } else {
-      this.orderItems = Collections.unmodifiableMap(orderItems);
-    }
+    this.orderItems = OrderLines.of(orderItems);
   }
 
   public UUID getKey() {
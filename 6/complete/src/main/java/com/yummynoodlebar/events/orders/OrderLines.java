@@ -0,0 +1,231 @@
+package com.yummynoodlebar.events.orders;
+
+import java.util.*;
+
+/*
+ * The lines of an order as one int array of menu item ordinals and quantities, sorted by ordinal,
+ * behind a read only Map view. Replaces a HashMap of boxed quantities plus an unmodifiable
+ * wrapper, and being immutable one instance is shared as an order moves between layers.
+ *
+ * Ids that were not registered by the menu when the lines were built are kept apart as strings,
+ * so they take no ordinal and can still be seen, and rejected, by whoever prices the order.
+ */
+public final class OrderLines extends AbstractMap<String, Integer> {
+
+  private static final String[] NO_IDS = new String[0];
+  private static final int[] NO_QUANTITIES = new int[0];
+
+  public static final OrderLines EMPTY = new OrderLines(new int[0], NO_IDS, NO_QUANTITIES);
+
+  //ordinal, quantity, ordinal, quantity...
+  private final int[] lines;
+  //ids with no ordinal and their quantities, almost always empty
+  private final String[] unknownIds;
+  private final int[] unknownQuantities;
+
+  private OrderLines(int[] lines, String[] unknownIds, int[] unknownQuantities) {
+    this.lines = lines;
+    this.unknownIds = unknownIds;
+    this.unknownQuantities = unknownQuantities;
+  }
+
+  public static OrderLines of(Map<String, Integer> items) {
+    if (items == null || items.isEmpty()) {
+      return EMPTY;
+    }
+    if (items instanceof OrderLines) {
+      return (OrderLines) items;
+    }
+    Builder builder = new Builder(items.size());
+    for (Map.Entry<String, Integer> item : items.entrySet()) {
+      if (item.getValue() == null) {
+        throw new IllegalArgumentException("No quantity for menu item " + item.getKey());
+      }
+      builder.add(item.getKey(), item.getValue());
+    }
+    return builder.build();
+  }
+
+  public int quantityOf(String id) {
+    Integer quantity = get(id);
+    return quantity == null ? 0 : quantity;
+  }
+
+  //The lines by position, in ordinal order, for walking an order without the Map view's boxing
+  public int lineCount() {
+    return lines.length / 2;
+  }
+
+  public int ordinalAt(int line) {
+    return lines[2 * line];
+  }
+
+  public int quantityAt(int line) {
+    return lines[2 * line + 1];
+  }
+
+  //The lines whose ids had no ordinal when they were built, not part of the lines above
+  public int unknownCount() {
+    return unknownIds.length;
+  }
+
+  public String unknownIdAt(int line) {
+    return unknownIds[line];
+  }
+
+  public int unknownQuantityAt(int line) {
+    return unknownQuantities[line];
+  }
+
+  @Override
+  public int size() {
+    return lines.length / 2 + unknownIds.length;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return get(key) != null;
+  }
+
+  @Override
+  public Integer get(Object key) {
+    int at = indexOf(key);
+    if (at >= 0) {
+      return lines[at + 1];
+    }
+    at = unknownIndexOf(unknownIds, unknownIds.length, key);
+    return at < 0 ? null : unknownQuantities[at];
+  }
+
+  @Override
+  public Set<Map.Entry<String, Integer>> entrySet() {
+    return new AbstractSet<Map.Entry<String, Integer>>() {
+      @Override
+      public int size() {
+        return OrderLines.this.size();
+      }
+
+      @Override
+      public Iterator<Map.Entry<String, Integer>> iterator() {
+        return new Iterator<Map.Entry<String, Integer>>() {
+          private int next;
+
+          @Override
+          public boolean hasNext() {
+            return next < lines.length + 2 * unknownIds.length;
+          }
+
+          @Override
+          public Map.Entry<String, Integer> next() {
+            if (!hasNext()) {
+              throw new NoSuchElementException();
+            }
+            Map.Entry<String, Integer> entry;
+            if (next < lines.length) {
+              entry = new AbstractMap.SimpleImmutableEntry<String, Integer>(
+                  MenuItemOrdinals.idOf(lines[next]), lines[next + 1]);
+            } else {
+              int unknown = (next - lines.length) / 2;
+              entry = new AbstractMap.SimpleImmutableEntry<String, Integer>(
+                  unknownIds[unknown], unknownQuantities[unknown]);
+            }
+            next += 2;
+            return entry;
+          }
+
+          @Override
+          public void remove() {
+            throw new UnsupportedOperationException();
+          }
+        };
+      }
+    };
+  }
+
+  private int indexOf(Object key) {
+    int ordinal = key instanceof String ? MenuItemOrdinals.find((String) key) : -1;
+    for (int i = 0; i < lines.length && ordinal >= 0; i += 2) {
+      if (lines[i] == ordinal) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static int unknownIndexOf(String[] ids, int count, Object key) {
+    for (int i = 0; i < count; i++) {
+      if (ids[i].equals(key)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /*
+   * Collects lines without the boxing of a Map, adding an item twice adds the quantities.
+   */
+  public static final class Builder {
+
+    private int[] lines;
+    private int size;
+    private String[] unknownIds = NO_IDS;
+    private int[] unknownQuantities = NO_QUANTITIES;
+    private int unknownCount;
+
+    public Builder(int expectedItems) {
+      lines = new int[Math.max(expectedItems, 1) * 2];
+    }
+
+    public Builder add(String id, int quantity) {
+      if (id == null) {
+        throw new IllegalArgumentException("Menu item id is required");
+      }
+      int ordinal = MenuItemOrdinals.find(id);
+      //an id seen before the menu registered it stays where it was first put
+      int unknown = unknownIndexOf(unknownIds, unknownCount, id);
+      if (unknown >= 0) {
+        unknownQuantities[unknown] += quantity;
+        return this;
+      }
+      if (ordinal < 0) {
+        addUnknown(id, quantity);
+        return this;
+      }
+      int at = 0;
+      while (at < size && lines[at] < ordinal) {
+        at += 2;
+      }
+      if (at < size && lines[at] == ordinal) {
+        lines[at + 1] += quantity;
+        return this;
+      }
+      if (size == lines.length) {
+        lines = Arrays.copyOf(lines, lines.length * 2);
+      }
+      System.arraycopy(lines, at, lines, at + 2, size - at);
+      lines[at] = ordinal;
+      lines[at + 1] = quantity;
+      size += 2;
+      return this;
+    }
+
+    private void addUnknown(String id, int quantity) {
+      if (unknownCount == unknownIds.length) {
+        unknownIds = Arrays.copyOf(unknownIds, Math.max(unknownCount * 2, 2));
+        unknownQuantities = Arrays.copyOf(unknownQuantities, unknownIds.length);
+      }
+      unknownIds[unknownCount] = id;
+      unknownQuantities[unknownCount] = quantity;
+      unknownCount++;
+    }
+
+    public OrderLines build() {
+      if (size == 0 && unknownCount == 0) {
+        return EMPTY;
+      }
+      return new OrderLines(Arrays.copyOf(lines, size),
+          unknownCount == 0 ? NO_IDS : Arrays.copyOf(unknownIds, unknownCount),
+          unknownCount == 0 ? NO_QUANTITIES : Arrays.copyOf(unknownQuantities, unknownCount));
+    }
+  }
+}
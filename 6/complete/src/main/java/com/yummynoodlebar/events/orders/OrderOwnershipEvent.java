@@ -0,0 +1,30 @@
+package com.yummynoodlebar.events.orders;
+
+import com.yummynoodlebar.events.ReadEvent;
+
+import java.util.UUID;
+
+public class OrderOwnershipEvent extends ReadEvent {
+  private final UUID key;
+  private final boolean owned;
+
+  public OrderOwnershipEvent(UUID key, boolean owned) {
+    this.key = key;
+    this.owned = owned;
+  }
+
+  public UUID getKey() {
+    return key;
+  }
+
+  //Whether the order was placed by the user asked about, never true for an order that was not found
+  public boolean isOwned() {
+    return owned;
+  }
+
+  public static OrderOwnershipEvent notFound(UUID key) {
+    OrderOwnershipEvent ev = new OrderOwnershipEvent(key, false);
+    ev.entityFound=false;
+    return ev;
+  }
+}
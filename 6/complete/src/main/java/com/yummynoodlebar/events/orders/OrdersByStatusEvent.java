@@ -0,0 +1,26 @@
+package com.yummynoodlebar.events.orders;
+
+import com.yummynoodlebar.events.ReadEvent;
+
+import java.util.Collections;
+import java.util.List;
+
+//The orders whose latest status is the one asked for, in the order they reached it
+public class OrdersByStatusEvent extends ReadEvent {
+
+  private final String status;
+  private final List<OrderDetails> ordersDetails;
+
+  public OrdersByStatusEvent(String status, List<OrderDetails> orders) {
+    this.status = status;
+    this.ordersDetails = Collections.unmodifiableList(orders);
+  }
+
+  public String getStatus() {
+    return status;
+  }
+
+  public List<OrderDetails> getOrdersDetails() {
+    return ordersDetails;
+  }
+}
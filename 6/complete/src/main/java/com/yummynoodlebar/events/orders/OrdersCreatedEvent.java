@@ -0,0 +1,19 @@
+package com.yummynoodlebar.events.orders;
+
+import com.yummynoodlebar.events.CreatedEvent;
+
+import java.util.List;
+
+public class OrdersCreatedEvent extends CreatedEvent {
+
+  private final List<OrderCreatedEvent> created;
+
+  public OrdersCreatedEvent(List<OrderCreatedEvent> created) {
+    this.created = created;
+  }
+
+  //In the same order as the orders asked for
+  public List<OrderCreatedEvent> getCreated() {
+    return created;
+  }
+}
@@ -0,0 +1,20 @@
+package com.yummynoodlebar.events.orders;
+
+import com.yummynoodlebar.events.DeletedEvent;
+
+import java.util.List;
+import java.util.UUID;
+
+public class OrdersDeletedEvent extends DeletedEvent {
+
+  private final List<UUID> keys;
+
+  public OrdersDeletedEvent(List<UUID> keys) {
+    this.keys = keys;
+    this.entityFound = !keys.isEmpty();
+  }
+
+  public List<UUID> getKeys() {
+    return keys;
+  }
+}
@@ -0,0 +1,30 @@
+package com.yummynoodlebar.events.orders;
+
+import com.yummynoodlebar.events.ReadEvent;
+
+import java.util.Collections;
+import java.util.List;
+
+public class OrdersPageEvent extends ReadEvent {
+
+  private final List<OrderDetails> ordersDetails;
+  private final OrderCursor next;
+
+  public OrdersPageEvent(List<OrderDetails> ordersDetails, OrderCursor next) {
+    this.ordersDetails = Collections.unmodifiableList(ordersDetails);
+    this.next = next;
+  }
+
+  public List<OrderDetails> getOrdersDetails() {
+    return ordersDetails;
+  }
+
+  //Cursor to ask for the following page with, null once this is the last page
+  public OrderCursor getNext() {
+    return next;
+  }
+
+  public boolean isLastPage() {
+    return next == null;
+  }
+}
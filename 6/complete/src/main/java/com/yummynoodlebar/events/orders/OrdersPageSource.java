@@ -0,0 +1,7 @@
+package com.yummynoodlebar.events.orders;
+
+//Anything that can answer a page of orders, lets an OrdersStreamEvent pull pages as it is iterated
+public interface OrdersPageSource {
+
+  OrdersPageEvent requestOrdersPage(RequestOrdersPageEvent requestOrdersPageEvent);
+}
@@ -0,0 +1,55 @@
+package com.yummynoodlebar.events.orders;
+
+import com.yummynoodlebar.events.ReadEvent;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/*
+ * Every order, fetched a page at a time as the details are iterated. Only one page is held at
+ * once however many orders there are. Each iteration starts again from the first page.
+ */
+public class OrdersStreamEvent extends ReadEvent {
+
+  private final OrdersPageSource source;
+  private final int pageSize;
+
+  public OrdersStreamEvent(OrdersPageSource source, int pageSize) {
+    this.source = source;
+    this.pageSize = pageSize;
+  }
+
+  public Iterable<OrderDetails> getOrdersDetails() {
+    return new Iterable<OrderDetails>() {
+      @Override
+      public Iterator<OrderDetails> iterator() {
+        return new Iterator<OrderDetails>() {
+          private OrdersPageEvent page = source.requestOrdersPage(new RequestOrdersPageEvent(null, pageSize));
+          private Iterator<OrderDetails> current = page.getOrdersDetails().iterator();
+
+          @Override
+          public boolean hasNext() {
+            while (!current.hasNext() && !page.isLastPage()) {
+              page = source.requestOrdersPage(new RequestOrdersPageEvent(page.getNext(), pageSize));
+              current = page.getOrdersDetails().iterator();
+            }
+            return current.hasNext();
+          }
+
+          @Override
+          public OrderDetails next() {
+            if (!hasNext()) {
+              throw new NoSuchElementException();
+            }
+            return current.next();
+          }
+
+          @Override
+          public void remove() {
+            throw new UnsupportedOperationException();
+          }
+        };
+      }
+    };
+  }
+}
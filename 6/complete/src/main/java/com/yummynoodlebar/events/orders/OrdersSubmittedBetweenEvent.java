@@ -0,0 +1,33 @@
+package com.yummynoodlebar.events.orders;
+
+import com.yummynoodlebar.events.ReadEvent;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+//The orders submitted in a range of time, oldest first
+public class OrdersSubmittedBetweenEvent extends ReadEvent {
+
+  private final Date from;
+  private final Date to;
+  private final List<OrderDetails> ordersDetails;
+
+  public OrdersSubmittedBetweenEvent(Date from, Date to, List<OrderDetails> orders) {
+    this.from = from;
+    this.to = to;
+    this.ordersDetails = Collections.unmodifiableList(orders);
+  }
+
+  public Date getFrom() {
+    return from;
+  }
+
+  public Date getTo() {
+    return to;
+  }
+
+  public List<OrderDetails> getOrdersDetails() {
+    return ordersDetails;
+  }
+}
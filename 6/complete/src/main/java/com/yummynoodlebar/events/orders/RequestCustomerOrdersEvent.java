@@ -0,0 +1,31 @@
+package com.yummynoodlebar.events.orders;
+
+import com.yummynoodlebar.events.RequestReadEvent;
+
+public class RequestCustomerOrdersEvent extends RequestReadEvent {
+
+  public static final int DEFAULT_COUNT = 10;
+
+  private final String userName;
+  private final int count;
+
+  public RequestCustomerOrdersEvent(String userName) {
+    this(userName, DEFAULT_COUNT);
+  }
+
+  public RequestCustomerOrdersEvent(String userName, int count) {
+    if (count < 1) {
+      throw new IllegalArgumentException("Count must be at least 1, not " + count);
+    }
+    this.userName = userName;
+    this.count = count;
+  }
+
+  public String getUserName() {
+    return userName;
+  }
+
+  public int getCount() {
+    return count;
+  }
+}
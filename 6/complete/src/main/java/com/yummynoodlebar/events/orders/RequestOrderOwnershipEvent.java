@@ -0,0 +1,23 @@
+package com.yummynoodlebar.events.orders;
+
+import com.yummynoodlebar.events.RequestReadEvent;
+
+import java.util.UUID;
+
+public class RequestOrderOwnershipEvent extends RequestReadEvent {
+  private final UUID key;
+  private final String userName;
+
+  public RequestOrderOwnershipEvent(UUID key, String userName) {
+    this.key = key;
+    this.userName = userName;
+  }
+
+  public UUID getKey() {
+    return key;
+  }
+
+  public String getUserName() {
+    return userName;
+  }
+}
@@ -0,0 +1,15 @@
+package com.yummynoodlebar.events.orders;
+
+import com.yummynoodlebar.events.RequestReadEvent;
+
+public class RequestOrdersByStatusEvent extends RequestReadEvent {
+  private final String status;
+
+  public RequestOrdersByStatusEvent(String status) {
+    this.status = status;
+  }
+
+  public String getStatus() {
+    return status;
+  }
+}
@@ -0,0 +1,28 @@
+package com.yummynoodlebar.events.orders;
+
+import com.yummynoodlebar.events.RequestReadEvent;
+
+public class RequestOrdersPageEvent extends RequestReadEvent {
+
+  public static final int MAX_PAGE_SIZE = 1000;
+
+  private final OrderCursor after;
+  private final int pageSize;
+
+  //after is null for the first page
+  public RequestOrdersPageEvent(OrderCursor after, int pageSize) {
+    if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+      throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+    }
+    this.after = after;
+    this.pageSize = pageSize;
+  }
+
+  public OrderCursor getAfter() {
+    return after;
+  }
+
+  public int getPageSize() {
+    return pageSize;
+  }
+}
@@ -0,0 +1,28 @@
+package com.yummynoodlebar.events.orders;
+
+import com.yummynoodlebar.events.RequestReadEvent;
+
+import java.util.Date;
+
+public class RequestOrdersSubmittedBetweenEvent extends RequestReadEvent {
+
+  private final Date from;
+  private final Date to;
+
+  //From is inclusive and to exclusive, so consecutive ranges never both hold an order
+  public RequestOrdersSubmittedBetweenEvent(Date from, Date to) {
+    if (from == null || to == null) {
+      throw new IllegalArgumentException("Both ends of the range are required");
+    }
+    this.from = from;
+    this.to = to;
+  }
+
+  public Date getFrom() {
+    return from;
+  }
+
+  public Date getTo() {
+    return to;
+  }
+}
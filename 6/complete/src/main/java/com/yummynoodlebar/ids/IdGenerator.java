@@ -0,0 +1,11 @@
+package com.yummynoodlebar.ids;
+
+import java.util.UUID;
+
+/*
+ * Source of the keys given to new orders and statuses.
+ */
+public interface IdGenerator {
+
+  UUID nextId();
+}
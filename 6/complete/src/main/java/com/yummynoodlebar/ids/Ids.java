@@ -0,0 +1,26 @@
+package com.yummynoodlebar.ids;
+
+import java.util.UUID;
+
+/*
+ * Where domain objects get new keys from. Time ordered unless the system property
+ * yummynoodlebar.ids=random asks for the original random keys.
+ */
+public final class Ids {
+
+  public static final String GENERATOR = "yummynoodlebar.ids";
+
+  private static volatile IdGenerator generator =
+      "random".equals(System.getProperty(GENERATOR)) ? new RandomIdGenerator() : new TimeOrderedIdGenerator();
+
+  private Ids() {
+  }
+
+  public static UUID next() {
+    return generator.nextId();
+  }
+
+  public static void use(IdGenerator idGenerator) {
+    generator = idGenerator;
+  }
+}
@@ -0,0 +1,14 @@
+package com.yummynoodlebar.ids;
+
+import java.util.UUID;
+
+/*
+ * The original random (version 4) keys. Every call draws from the one shared SecureRandom.
+ */
+public class RandomIdGenerator implements IdGenerator {
+
+  @Override
+  public UUID nextId() {
+    return UUID.randomUUID();
+  }
+}
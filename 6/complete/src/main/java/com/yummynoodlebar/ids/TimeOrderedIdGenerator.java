@@ -0,0 +1,59 @@
+package com.yummynoodlebar.ids;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+ * Version 7 style UUIDs: 48 bits of Unix milliseconds, the version, a 12 bit sequence, the
+ * variant and 62 random bits. Keys sort by creation time, so keys made together sit together in
+ * sorted and time-partitioned stores, and they are still ordinary UUIDs in URLs and journals.
+ *
+ * Each thread keeps its own last timestamp and sequence and draws from ThreadLocalRandom, there is
+ * no lock or shared state. Within a thread keys strictly increase: the sequence starts from a
+ * random point below half its range each millisecond, and if it runs out the timestamp is moved
+ * on by a millisecond rather than going back. Threads are told apart by the random bits.
+ */
+public class TimeOrderedIdGenerator implements IdGenerator {
+
+  private static final long VERSION = 7L << 12;
+  private static final long VARIANT = 2L << 62;
+  private static final int SEQUENCE_MASK = 0xfff;
+
+  private final ThreadLocal<State> state = new ThreadLocal<State>() {
+    @Override
+    protected State initialValue() {
+      return new State();
+    }
+  };
+
+  @Override
+  public UUID nextId() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    State current = state.get();
+    long now = System.currentTimeMillis();
+    if (now > current.millis) {
+      current.millis = now;
+      current.sequence = random.nextInt(SEQUENCE_MASK + 1) >>> 1;
+    } else if (current.sequence < SEQUENCE_MASK) {
+      current.sequence++;
+    } else {
+      current.millis++;
+      current.sequence = 0;
+    }
+    long msb = (current.millis << 16) | VERSION | current.sequence;
+    long lsb = VARIANT | (random.nextLong() >>> 2);
+    return new UUID(msb, lsb);
+  }
+
+  /**
+   * @return the Unix milliseconds a time ordered key was made at
+   */
+  public static long timestampOf(UUID id) {
+    return id.getMostSignificantBits() >>> 16;
+  }
+
+  private static class State {
+    long millis = Long.MIN_VALUE;
+    int sequence;
+  }
+}
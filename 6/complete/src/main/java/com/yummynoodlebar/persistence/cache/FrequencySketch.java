@@ -0,0 +1,68 @@
+package com.yummynoodlebar.persistence.cache;
+
+/*
+ * Count-min sketch of how often keys were asked for, four 4 bit counters per key packed sixteen to
+ * a long. Once there have been ten times as many increments as the cache holds, every counter is
+ * halved, so popularity fades and a key that was hot yesterday does not squat in the cache.
+ * Not thread safe.
+ */
+final class FrequencySketch {
+
+  private static final long[] SEEDS = {
+      0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+  private static final long RESET_MASK = 0x7777777777777777L;
+
+  private final long[] table;
+  private final int mask;
+  private final int sampleSize;
+  private int additions;
+
+  FrequencySketch(int capacity) {
+    int size = 8;
+    while (size < capacity) {
+      size <<= 1;
+    }
+    table = new long[size];
+    mask = size - 1;
+    sampleSize = 10 * Math.max(capacity, 1);
+  }
+
+  int frequency(int hash) {
+    int frequency = 15;
+    for (int i = 0; i < 4; i++) {
+      long index = indexOf(hash, i);
+      frequency = Math.min(frequency, (int) ((table[(int) (index >>> 4)] >>> ((index & 15) << 2)) & 15));
+    }
+    return frequency;
+  }
+
+  void increment(int hash) {
+    boolean added = false;
+    for (int i = 0; i < 4; i++) {
+      long index = indexOf(hash, i);
+      int slot = (int) (index >>> 4);
+      int shift = (int) ((index & 15) << 2);
+      if (((table[slot] >>> shift) & 15) != 15) {
+        table[slot] += 1L << shift;
+        added = true;
+      }
+    }
+    if (added && ++additions == sampleSize) {
+      reset();
+    }
+  }
+
+  private void reset() {
+    for (int i = 0; i < table.length; i++) {
+      table[i] = (table[i] >>> 1) & RESET_MASK;
+    }
+    additions /= 2;
+  }
+
+  //the slot in the bottom bits above the nibble in the bottom four
+  private long indexOf(int hash, int i) {
+    long h = (hash + SEEDS[i]) * SEEDS[i];
+    h += h >>> 32;
+    return ((h >>> 4) & mask) << 4 | (h & 15);
+  }
+}
@@ -0,0 +1,218 @@
+package com.yummynoodlebar.persistence.cache;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Size bounded cache with W-TinyLFU eviction. New entries go into a small LRU window, the rest is
+ * a segmented LRU of probation and protected entries. An entry pushed out of the window only gets
+ * into the main space if it has been asked for more often than the entry it would replace, as
+ * counted by a FrequencySketch, so a burst of one-off reads cannot flush the popular entries.
+ *
+ * Split into independently locked segments by key hash once it is big enough for that to matter.
+ *
+ * A value read from somewhere slower should be put with startLoad and finishLoad rather than put,
+ * so that an invalidate that lands while the read is in flight stops the read's value from being
+ * cached. Each load holds a stamp against its key, invalidating the key drops the stamp.
+ */
+public class TinyLfuCache<K, V> {
+
+  private final Segment<K, V>[] segments;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public TinyLfuCache(int maximumSize) {
+    if (maximumSize < 1) {
+      throw new IllegalArgumentException("Maximum size must be at least 1, not " + maximumSize);
+    }
+    int count = maximumSize >= 1024 ? 16 : 1;
+    segments = new Segment[count];
+    for (int i = 0; i < count; i++) {
+      segments[i] = new Segment<K, V>(maximumSize / count);
+    }
+  }
+
+  /**
+   * @return the cached value, or null
+   */
+  public V get(K key) {
+    int hash = spread(key.hashCode());
+    V value = segmentFor(hash).get(key, hash);
+    (value == null ? misses : hits).incrementAndGet();
+    return value;
+  }
+
+  public void put(K key, V value) {
+    int hash = spread(key.hashCode());
+    if (segmentFor(hash).put(key, value, hash)) {
+      evictions.incrementAndGet();
+    }
+  }
+
+  /**
+   * @return the stamp to finish the load with
+   */
+  public long startLoad(K key) {
+    int hash = spread(key.hashCode());
+    return segmentFor(hash).startLoad(key);
+  }
+
+  /**
+   * Caches the value unless the key has been invalidated, or loaded again, since the load started.
+   *
+   * @param value null to end the load without caching anything
+   */
+  public void finishLoad(K key, long stamp, V value) {
+    int hash = spread(key.hashCode());
+    if (segmentFor(hash).finishLoad(key, stamp, value, hash)) {
+      evictions.incrementAndGet();
+    }
+  }
+
+  public void invalidate(K key) {
+    int hash = spread(key.hashCode());
+    segmentFor(hash).invalidate(key);
+  }
+
+  public int size() {
+    int size = 0;
+    for (Segment<K, V> segment : segments) {
+      size += segment.size();
+    }
+    return size;
+  }
+
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  public long getEvictionCount() {
+    return evictions.get();
+  }
+
+  private Segment<K, V> segmentFor(int hash) {
+    return segments[(hash >>> 28) % segments.length];
+  }
+
+  private static int spread(int hash) {
+    hash *= 0x9E3779B9;
+    return hash ^ (hash >>> 16);
+  }
+
+  private static final class Segment<K, V> {
+    private final int windowCapacity;
+    private final int protectedCapacity;
+    private final int mainCapacity;
+    private final FrequencySketch sketch;
+
+    //access ordered, eldest first
+    private final LinkedHashMap<K, V> window = new LinkedHashMap<K, V>(16, 0.75f, true);
+    private final LinkedHashMap<K, V> probation = new LinkedHashMap<K, V>(16, 0.75f, true);
+    private final LinkedHashMap<K, V> protectedEntries = new LinkedHashMap<K, V>(16, 0.75f, true);
+    //the latest stamp of each key with a load in flight, only as big as the loads are
+    private final HashMap<K, Long> loads = new HashMap<K, Long>();
+    private long lastStamp;
+
+    Segment(int capacity) {
+      capacity = Math.max(capacity, 1);
+      windowCapacity = Math.max(1, capacity / 100);
+      mainCapacity = Math.max(1, capacity - windowCapacity);
+      protectedCapacity = mainCapacity * 4 / 5;
+      sketch = new FrequencySketch(capacity);
+    }
+
+    synchronized V get(K key, int hash) {
+      sketch.increment(hash);
+      V value = window.get(key);
+      if (value != null) {
+        return value;
+      }
+      value = protectedEntries.get(key);
+      if (value != null) {
+        return value;
+      }
+      value = probation.remove(key);
+      if (value != null) {
+        //asked for again while on probation, promote it and demote the least recent protected one
+        protectedEntries.put(key, value);
+        if (protectedEntries.size() > protectedCapacity) {
+          K demoted = eldest(protectedEntries);
+          probation.put(demoted, protectedEntries.remove(demoted));
+        }
+      }
+      return value;
+    }
+
+    /**
+     * @return true if an entry was evicted to make room
+     */
+    synchronized boolean put(K key, V value, int hash) {
+      if (window.containsKey(key)) {
+        window.put(key, value);
+        return false;
+      }
+      if (probation.containsKey(key)) {
+        probation.put(key, value);
+        return false;
+      }
+      if (protectedEntries.containsKey(key)) {
+        protectedEntries.put(key, value);
+        return false;
+      }
+      window.put(key, value);
+      if (window.size() <= windowCapacity) {
+        return false;
+      }
+      K candidate = eldest(window);
+      V candidateValue = window.remove(candidate);
+      if (probation.size() + protectedEntries.size() < mainCapacity) {
+        probation.put(candidate, candidateValue);
+        return false;
+      }
+      LinkedHashMap<K, V> victims = probation.isEmpty() ? protectedEntries : probation;
+      K victim = eldest(victims);
+      if (sketch.frequency(spread(candidate.hashCode())) > sketch.frequency(spread(victim.hashCode()))) {
+        victims.remove(victim);
+        probation.put(candidate, candidateValue);
+      }
+      return true;
+    }
+
+    synchronized long startLoad(K key) {
+      long stamp = ++lastStamp;
+      loads.put(key, stamp);
+      return stamp;
+    }
+
+    synchronized boolean finishLoad(K key, long stamp, V value, int hash) {
+      Long current = loads.get(key);
+      if (current == null || current != stamp) {
+        return false;
+      }
+      loads.remove(key);
+      return value != null && put(key, value, hash);
+    }
+
+    synchronized void invalidate(K key) {
+      loads.remove(key);
+      if (window.remove(key) == null && probation.remove(key) == null) {
+        protectedEntries.remove(key);
+      }
+    }
+
+    synchronized int size() {
+      return window.size() + probation.size() + protectedEntries.size();
+    }
+
+    private static <K> K eldest(LinkedHashMap<K, ?> entries) {
+      return entries.keySet().iterator().next();
+    }
+  }
+}
@@ -1,8 +1,8 @@
 package com.yummynoodlebar.persistence.domain;
 
 import com.yummynoodlebar.events.orders.OrderDetails;
-
-import org.springframework.beans.BeanUtils;
+import com.yummynoodlebar.events.orders.OrderLines;
+import com.yummynoodlebar.ids.Ids;
 
 import java.util.*;
 
@@ -18,9 +18,14 @@ public class Order {
   private String name;
   private String address1;
   private String postcode;
+  private String userName;
 
   public Order(final Date dateTimeOfSubmission) {
-    this.key = UUID.randomUUID();
+    this(Ids.next(), dateTimeOfSubmission);
+  }
+
+  public Order(final UUID key, final Date dateTimeOfSubmission) {
+    this.key = key;
     this.dateTimeOfSubmission = dateTimeOfSubmission;
     statusHistory = new ArrayList<OrderStatus>();
   }
@@ -43,11 +48,7 @@ public class Order {
   }
 
   public void setOrderItems(Map<String, Integer> orderItems) {
-    if (orderItems == null) {
-      this.orderItems = Collections.emptyMap();
-    } else {
-      this.orderItems = Collections.unmodifiableMap(orderItems);
-    }
+    this.orderItems = OrderLines.of(orderItems);
   }
 
   public Map<String, Integer> getOrderItems() {
@@ -55,9 +56,14 @@ public class Order {
   }
 
   public OrderDetails toOrderDetails() {
-    OrderDetails details = new OrderDetails();
+    OrderDetails details = new OrderDetails(key);
 
-    BeanUtils.copyProperties(this, details);
+    details.setDateTimeOfSubmission(dateTimeOfSubmission);
+    details.setOrderItems(orderItems);
+    details.setName(name);
+    details.setAddress1(address1);
+    details.setPostcode(postcode);
+    details.setUserName(userName);
 
     return details;
   }
@@ -65,7 +71,11 @@ public class Order {
   public static Order fromOrderDetails(OrderDetails orderDetails) {
     Order order = new Order(orderDetails.getDateTimeOfSubmission());
 
-    BeanUtils.copyProperties(orderDetails, order);
+    order.setOrderItems(orderDetails.getOrderItems());
+    order.setName(orderDetails.getName());
+    order.setAddress1(orderDetails.getAddress1());
+    order.setPostcode(orderDetails.getPostcode());
+    order.setUserName(orderDetails.getUserName());
 
     return order;
   }
@@ -102,6 +112,14 @@ public void setPostcode(String postcode) {
 	this.postcode = postcode;
 }
 
+public String getUserName() {
+	return userName;
+}
+
+public void setUserName(String userName) {
+	this.userName = userName;
+}
+
 public void setStatus(OrderStatus status) {
 	this.status = status;
 }
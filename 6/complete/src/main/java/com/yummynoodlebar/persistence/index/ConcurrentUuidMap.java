@@ -0,0 +1,248 @@
+package com.yummynoodlebar.persistence.index;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/*
+ * Concurrent map from a UUID to an object, with the keys held as pairs of longs in flat arrays and
+ * no node, entry or boxed key per mapping.
+ *
+ * Split into segments by hash, each an open addressing table with its own lock for writers.
+ * Readers never lock. A slot goes from empty to holding a key exactly once, its state is set only
+ * after the key and value are written, so a reader that sees the state sees both. A removed
+ * mapping keeps its slot, with a null value, until the segment next resizes, so a reader can never
+ * find a slot that has been handed to another key.
+ */
+public class ConcurrentUuidMap<V> {
+
+  private static final int SEGMENT_BITS = 4;
+  private static final int SEGMENTS = 1 << SEGMENT_BITS;
+
+  private static final int EMPTY = 0;
+  private static final int CLAIMED = 1;
+
+  private final Segment<V>[] segments;
+
+  public ConcurrentUuidMap() {
+    this(16);
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public ConcurrentUuidMap(int expectedSize) {
+    segments = new Segment[SEGMENTS];
+    for (int i = 0; i < SEGMENTS; i++) {
+      segments[i] = new Segment<V>(UuidLongHashMap.capacityFor(expectedSize / SEGMENTS + 1));
+    }
+  }
+
+  public ConcurrentUuidMap(Map<UUID, ? extends V> entries) {
+    this(entries.size());
+    for (Map.Entry<UUID, ? extends V> entry : entries.entrySet()) {
+      put(entry.getKey(), entry.getValue());
+    }
+  }
+
+  public V get(UUID key) {
+    return get(key.getMostSignificantBits(), key.getLeastSignificantBits());
+  }
+
+  public V get(long msb, long lsb) {
+    int hash = UuidLongHashMap.hash(msb, lsb);
+    return segmentFor(hash).get(msb, lsb, hash);
+  }
+
+  public boolean containsKey(UUID key) {
+    return get(key) != null;
+  }
+
+  /**
+   * @return the previous value, or null
+   */
+  public V put(UUID key, V value) {
+    if (value == null) {
+      throw new NullPointerException("Values must not be null");
+    }
+    long msb = key.getMostSignificantBits();
+    long lsb = key.getLeastSignificantBits();
+    int hash = UuidLongHashMap.hash(msb, lsb);
+    return segmentFor(hash).put(msb, lsb, hash, value, false);
+  }
+
+  /**
+   * @return the current value if there is one, otherwise null having put the given value
+   */
+  public V putIfAbsent(UUID key, V value) {
+    if (value == null) {
+      throw new NullPointerException("Values must not be null");
+    }
+    long msb = key.getMostSignificantBits();
+    long lsb = key.getLeastSignificantBits();
+    int hash = UuidLongHashMap.hash(msb, lsb);
+    return segmentFor(hash).put(msb, lsb, hash, value, true);
+  }
+
+  /**
+   * @return the removed value, or null
+   */
+  public V remove(UUID key) {
+    long msb = key.getMostSignificantBits();
+    long lsb = key.getLeastSignificantBits();
+    int hash = UuidLongHashMap.hash(msb, lsb);
+    return segmentFor(hash).remove(msb, lsb, hash, null);
+  }
+
+  //Removes the mapping only if the key is mapped to this very value
+  public boolean remove(UUID key, V value) {
+    if (value == null) {
+      return false;
+    }
+    long msb = key.getMostSignificantBits();
+    long lsb = key.getLeastSignificantBits();
+    int hash = UuidLongHashMap.hash(msb, lsb);
+    return segmentFor(hash).remove(msb, lsb, hash, value) != null;
+  }
+
+  public int size() {
+    int size = 0;
+    for (Segment<V> segment : segments) {
+      size += segment.size;
+    }
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  /**
+   * @return a copy of the values, which may or may not include changes made while it is taken
+   */
+  public List<V> values() {
+    List<V> values = new ArrayList<V>(size());
+    for (Segment<V> segment : segments) {
+      Table<V> table = segment.table;
+      for (int slot = 0; slot < table.capacity; slot++) {
+        V value = table.values.get(slot);
+        if (value != null) {
+          values.add(value);
+        }
+      }
+    }
+    return values;
+  }
+
+  private Segment<V> segmentFor(int hash) {
+    //the top bits pick the segment, the table inside it probes from the bottom bits
+    return segments[hash >>> (32 - SEGMENT_BITS)];
+  }
+
+  private static final class Table<V> {
+    final int capacity;
+    final int mask;
+    final long[] keys;
+    final AtomicIntegerArray states;
+    final AtomicReferenceArray<V> values;
+
+    Table(int capacity) {
+      this.capacity = capacity;
+      this.mask = capacity - 1;
+      this.keys = new long[capacity * 2];
+      this.states = new AtomicIntegerArray(capacity);
+      this.values = new AtomicReferenceArray<V>(capacity);
+    }
+
+    //the slot holding the key, or the empty slot that ends its probe sequence
+    int slotFor(long msb, long lsb, int hash) {
+      int slot = hash & mask;
+      while (states.get(slot) != EMPTY) {
+        if (keys[2 * slot] == msb && keys[2 * slot + 1] == lsb) {
+          return slot;
+        }
+        slot = (slot + 1) & mask;
+      }
+      return slot;
+    }
+  }
+
+  private static final class Segment<V> {
+    volatile Table<V> table;
+    volatile int size;
+    //slots ever claimed in the current table, live or removed
+    private int claimed;
+
+    Segment(int capacity) {
+      table = new Table<V>(capacity);
+    }
+
+    V get(long msb, long lsb, int hash) {
+      Table<V> current = table;
+      int slot = current.slotFor(msb, lsb, hash);
+      return current.states.get(slot) == EMPTY ? null : current.values.get(slot);
+    }
+
+    synchronized V put(long msb, long lsb, int hash, V value, boolean onlyIfAbsent) {
+      Table<V> current = table;
+      int slot = current.slotFor(msb, lsb, hash);
+      if (current.states.get(slot) != EMPTY) {
+        V previous = current.values.get(slot);
+        if (previous == null) {
+          size++;
+        } else if (onlyIfAbsent) {
+          return previous;
+        }
+        current.values.set(slot, value);
+        return previous;
+      }
+      if (claimed + 1 > current.capacity * 3 / 4) {
+        current = resize();
+        slot = current.slotFor(msb, lsb, hash);
+      }
+      current.keys[2 * slot] = msb;
+      current.keys[2 * slot + 1] = lsb;
+      current.values.set(slot, value);
+      current.states.set(slot, CLAIMED);
+      claimed++;
+      size++;
+      return null;
+    }
+
+    synchronized V remove(long msb, long lsb, int hash, V expected) {
+      Table<V> current = table;
+      int slot = current.slotFor(msb, lsb, hash);
+      if (current.states.get(slot) == EMPTY) {
+        return null;
+      }
+      V previous = current.values.get(slot);
+      if (previous == null || (expected != null && previous != expected)) {
+        return null;
+      }
+      current.values.set(slot, null);
+      size--;
+      return previous;
+    }
+
+    //copies the live mappings into a new table, readers carry on with the old one until it is published.
+    //Leaves room for half as many again, so churn that only leaves removed slots behind does not
+    //resize over and over at the same capacity
+    private Table<V> resize() {
+      Table<V> old = table;
+      Table<V> resized = new Table<V>(UuidLongHashMap.capacityFor(size + size / 2 + 1));
+      for (int slot = 0; slot < old.capacity; slot++) {
+        V value = old.values.get(slot);
+        if (value != null) {
+          long msb = old.keys[2 * slot];
+          long lsb = old.keys[2 * slot + 1];
+          int to = resized.slotFor(msb, lsb, UuidLongHashMap.hash(msb, lsb));
+          resized.keys[2 * to] = msb;
+          resized.keys[2 * to + 1] = lsb;
+          resized.values.set(to, value);
+          resized.states.set(to, CLAIMED);
+        }
+      }
+      claimed = size;
+      table = resized;
+      return resized;
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package com.yummynoodlebar.persistence.index;
+
+import com.yummynoodlebar.events.orders.OrderCursor;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/*
+ * Who placed each order, and each user's orders in submission order. Answers "whose order is this"
+ * with one lookup and "what has this user ordered lately" without looking at anyone else's orders.
+ *
+ * Writers for the same order are serialised on a stripe, readers never lock. A user keeps their
+ * (possibly empty) set once they have ordered, there are far fewer users than orders.
+ */
+public class CustomerOrderIndex {
+
+  private static final int STRIPES = 64;
+
+  private final ConcurrentUuidMap<Placed> owners = new ConcurrentUuidMap<Placed>();
+  private final ConcurrentMap<String, ConcurrentSkipListSet<OrderCursor>> byUser =
+      new ConcurrentHashMap<String, ConcurrentSkipListSet<OrderCursor>>();
+  private final Object[] stripes = new Object[STRIPES];
+
+  public CustomerOrderIndex() {
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new Object();
+    }
+  }
+
+  /**
+   * Records or updates who placed an order, an order saved without a user name has no owner.
+   */
+  public void add(UUID key, Date dateTimeOfSubmission, String userName) {
+    synchronized (stripeOf(key)) {
+      removeUnlocked(key);
+      if (userName != null) {
+        OrderCursor cursor = new OrderCursor(dateTimeOfSubmission, key);
+        owners.put(key, new Placed(userName, cursor));
+        ordersOf(userName).add(cursor);
+      }
+    }
+  }
+
+  public void remove(UUID key) {
+    synchronized (stripeOf(key)) {
+      removeUnlocked(key);
+    }
+  }
+
+  /**
+   * @return the user name the order was placed under, or null if it is unknown or has none
+   */
+  public String ownerOf(UUID key) {
+    Placed placed = owners.get(key);
+    return placed == null ? null : placed.userName;
+  }
+
+  public boolean isOwnedBy(UUID key, String userName) {
+    return userName != null && userName.equals(ownerOf(key));
+  }
+
+  /**
+   * @return the keys of up to limit of the user's orders, most recently submitted first
+   */
+  public List<UUID> recentOrders(String userName, int limit) {
+    ConcurrentSkipListSet<OrderCursor> orders = byUser.get(userName);
+    if (orders == null) {
+      return Collections.emptyList();
+    }
+    List<UUID> keys = new ArrayList<UUID>(Math.min(limit, 16));
+    Iterator<OrderCursor> newestFirst = orders.descendingIterator();
+    while (keys.size() < limit && newestFirst.hasNext()) {
+      keys.add(newestFirst.next().getKey());
+    }
+    return keys;
+  }
+
+  public int size() {
+    return owners.size();
+  }
+
+  private void removeUnlocked(UUID key) {
+    Placed previous = owners.remove(key);
+    if (previous != null) {
+      byUser.get(previous.userName).remove(previous.cursor);
+    }
+  }
+
+  private ConcurrentSkipListSet<OrderCursor> ordersOf(String userName) {
+    ConcurrentSkipListSet<OrderCursor> orders = byUser.get(userName);
+    if (orders == null) {
+      ConcurrentSkipListSet<OrderCursor> created = new ConcurrentSkipListSet<OrderCursor>();
+      orders = byUser.putIfAbsent(userName, created);
+      if (orders == null) {
+        orders = created;
+      }
+    }
+    return orders;
+  }
+
+  private Object stripeOf(UUID key) {
+    return stripes[(key.hashCode() & Integer.MAX_VALUE) % STRIPES];
+  }
+
+  private static final class Placed {
+    final String userName;
+    final OrderCursor cursor;
+
+    Placed(String userName, OrderCursor cursor) {
+      this.userName = userName;
+      this.cursor = cursor;
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package com.yummynoodlebar.persistence.index;
+
+import com.yummynoodlebar.events.orders.OrderCursor;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/*
+ * The orders currently in each status, longest in it first, so a queue such as "everything still
+ * at Order Created" costs the length of the queue rather than a pass over every order.
+ *
+ * An order's current status is a single entry in one map and a bucket only reports the orders
+ * that entry still points at, so an order moving on is never seen in two queues at once.
+ * Callers serialise updates to any one order, readers never lock.
+ */
+public class OrderStatusIndex {
+
+  private final ConcurrentUuidMap<Current> current = new ConcurrentUuidMap<Current>();
+  private final ConcurrentMap<String, ConcurrentSkipListSet<OrderCursor>> byStatus =
+      new ConcurrentHashMap<String, ConcurrentSkipListSet<OrderCursor>>();
+
+  /**
+   * Moves the order into the given status, having entered it at the given time.
+   */
+  public void put(UUID orderId, String status, Date since) {
+    if (status == null) {
+      remove(orderId);
+      return;
+    }
+    OrderCursor cursor = new OrderCursor(since, orderId);
+    Current previous = current.get(orderId);
+    if (previous != null && previous.status.equals(status) && previous.cursor.equals(cursor)) {
+      return;
+    }
+    //into the new bucket before the switch and out of the old one after, readers filter on the switch
+    ordersIn(status).add(cursor);
+    current.put(orderId, new Current(status, cursor));
+    if (previous != null) {
+      byStatus.get(previous.status).remove(previous.cursor);
+    }
+  }
+
+  public void remove(UUID orderId) {
+    Current previous = current.remove(orderId);
+    if (previous != null) {
+      byStatus.get(previous.status).remove(previous.cursor);
+    }
+  }
+
+  /**
+   * @return the orders currently in the status, the one that entered it first first
+   */
+  public List<UUID> findByStatus(String status) {
+    ConcurrentSkipListSet<OrderCursor> orders = byStatus.get(status);
+    if (orders == null) {
+      return Collections.emptyList();
+    }
+    List<UUID> orderIds = new ArrayList<UUID>();
+    for (OrderCursor cursor : orders) {
+      Current now = current.get(cursor.getKey());
+      if (now != null && now.cursor.equals(cursor) && now.status.equals(status)) {
+        orderIds.add(cursor.getKey());
+      }
+    }
+    return orderIds;
+  }
+
+  public String statusOf(UUID orderId) {
+    Current now = current.get(orderId);
+    return now == null ? null : now.status;
+  }
+
+  private ConcurrentSkipListSet<OrderCursor> ordersIn(String status) {
+    ConcurrentSkipListSet<OrderCursor> orders = byStatus.get(status);
+    if (orders == null) {
+      ConcurrentSkipListSet<OrderCursor> created = new ConcurrentSkipListSet<OrderCursor>();
+      orders = byStatus.putIfAbsent(status, created);
+      if (orders == null) {
+        orders = created;
+      }
+    }
+    return orders;
+  }
+
+  private static final class Current {
+    final String status;
+    //when the order entered the status and its id, the position in the status' bucket
+    final OrderCursor cursor;
+
+    Current(String status, OrderCursor cursor) {
+      this.status = status;
+      this.cursor = cursor;
+    }
+  }
+}
@@ -0,0 +1,162 @@
+package com.yummynoodlebar.persistence.index;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/*
+ * Open addressing map from a UUID, held as its two longs, to a non-negative long. Keys and values
+ * live in flat primitive arrays, so there are no per-entry objects for the collector to trace.
+ * Not thread safe, callers guard it.
+ */
+public class UuidLongHashMap {
+
+  public static final long NO_VALUE = -1;
+  private static final long TOMBSTONE = -2;
+
+  private long[] keys;
+  private long[] values;
+  private int size;
+  private int used;
+
+  public UuidLongHashMap() {
+    this(16);
+  }
+
+  public UuidLongHashMap(int expectedSize) {
+    allocate(capacityFor(expectedSize));
+  }
+
+  public long get(UUID key) {
+    return get(key.getMostSignificantBits(), key.getLeastSignificantBits());
+  }
+
+  public long get(long msb, long lsb) {
+    int slot = find(msb, lsb);
+    return slot < 0 ? NO_VALUE : values[slot];
+  }
+
+  /**
+   * @return the previous value, or NO_VALUE
+   */
+  public long put(UUID key, long value) {
+    return put(key.getMostSignificantBits(), key.getLeastSignificantBits(), value);
+  }
+
+  public long put(long msb, long lsb, long value) {
+    if (value < 0) {
+      throw new IllegalArgumentException("Values must not be negative");
+    }
+    int mask = values.length - 1;
+    int slot = hash(msb, lsb) & mask;
+    int firstTombstone = -1;
+    while (values[slot] != NO_VALUE) {
+      if (values[slot] == TOMBSTONE) {
+        if (firstTombstone < 0) {
+          firstTombstone = slot;
+        }
+      } else if (keys[2 * slot] == msb && keys[2 * slot + 1] == lsb) {
+        long previous = values[slot];
+        values[slot] = value;
+        return previous;
+      }
+      slot = (slot + 1) & mask;
+    }
+    if (firstTombstone >= 0) {
+      slot = firstTombstone;
+    } else {
+      used++;
+    }
+    keys[2 * slot] = msb;
+    keys[2 * slot + 1] = lsb;
+    values[slot] = value;
+    size++;
+    if (used > values.length * 3 / 4) {
+      rehash(size * 2 > values.length / 2 ? values.length * 2 : values.length);
+    }
+    return NO_VALUE;
+  }
+
+  /**
+   * @return the removed value, or NO_VALUE
+   */
+  public long remove(UUID key) {
+    return remove(key.getMostSignificantBits(), key.getLeastSignificantBits());
+  }
+
+  public long remove(long msb, long lsb) {
+    int slot = find(msb, lsb);
+    if (slot < 0) {
+      return NO_VALUE;
+    }
+    long previous = values[slot];
+    values[slot] = TOMBSTONE;
+    size--;
+    return previous;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return the keys as msb, lsb pairs
+   */
+  public long[] keys() {
+    long[] copy = new long[size * 2];
+    int next = 0;
+    for (int slot = 0; slot < values.length; slot++) {
+      if (values[slot] >= 0) {
+        copy[next++] = keys[2 * slot];
+        copy[next++] = keys[2 * slot + 1];
+      }
+    }
+    return copy;
+  }
+
+  private int find(long msb, long lsb) {
+    int mask = values.length - 1;
+    int slot = hash(msb, lsb) & mask;
+    while (values[slot] != NO_VALUE) {
+      if (values[slot] != TOMBSTONE && keys[2 * slot] == msb && keys[2 * slot + 1] == lsb) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  private void rehash(int capacity) {
+    long[] oldKeys = keys;
+    long[] oldValues = values;
+    allocate(capacity);
+    for (int slot = 0; slot < oldValues.length; slot++) {
+      if (oldValues[slot] >= 0) {
+        put(oldKeys[2 * slot], oldKeys[2 * slot + 1], oldValues[slot]);
+      }
+    }
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity * 2];
+    values = new long[capacity];
+    Arrays.fill(values, NO_VALUE);
+    size = 0;
+    used = 0;
+  }
+
+  static int capacityFor(int expectedSize) {
+    int capacity = 16;
+    while (capacity * 3 / 4 < expectedSize) {
+      capacity <<= 1;
+    }
+    return capacity;
+  }
+
+  static int hash(long msb, long lsb) {
+    long h = msb * 0x9E3779B97F4A7C15L ^ lsb;
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    return (int) h;
+  }
+}
@@ -0,0 +1,14 @@
+package com.yummynoodlebar.persistence.journal;
+
+/*
+ * Raised through the repository interfaces, which have no checked exceptions, when the journal
+ * cannot be written. The mutation has already been applied in memory but is not durable.
+ */
+public class JournalException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  public JournalException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
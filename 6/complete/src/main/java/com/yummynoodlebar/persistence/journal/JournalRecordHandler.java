@@ -0,0 +1,8 @@
+package com.yummynoodlebar.persistence.journal;
+
+import java.nio.ByteBuffer;
+
+public interface JournalRecordHandler {
+
+  void onRecord(ByteBuffer record);
+}
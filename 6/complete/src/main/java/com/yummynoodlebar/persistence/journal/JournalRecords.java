@@ -0,0 +1,144 @@
+package com.yummynoodlebar.persistence.journal;
+
+import com.yummynoodlebar.events.codec.BinaryReader;
+import com.yummynoodlebar.events.codec.BinaryWriter;
+import com.yummynoodlebar.events.codec.DetailsCodec;
+import com.yummynoodlebar.events.orders.OrderDetails;
+import com.yummynoodlebar.persistence.domain.Order;
+import com.yummynoodlebar.persistence.domain.OrderStatus;
+
+import java.nio.ByteBuffer;
+import java.util.Date;
+import java.util.UUID;
+
+/*
+ * Encodes repository mutations as journal records and dispatches them back on replay.
+ * Only what the repositories hold is written, an order's statuses are journaled as status records.
+ * A record is a type byte followed by the DetailsCodec form of the order or status.
+ */
+public final class JournalRecords {
+
+  static final byte ORDER_SAVED = 1;
+  static final byte ORDER_DELETED = 2;
+  static final byte STATUS_SAVED = 3;
+  static final byte STATUS_DELETED = 4;
+  static final byte STATUSES_DELETED = 5;
+  static final byte ORDER_CREATED = 6;
+  static final byte ORDERS_DELETED_BEFORE = 7;
+
+  private JournalRecords() {
+  }
+
+  public interface Visitor {
+    void orderSaved(Order order);
+
+    void orderDeleted(UUID key);
+
+    void statusSaved(OrderStatus status);
+
+    void statusDeleted(UUID key);
+
+    void statusesDeleted(UUID orderKey);
+
+    void ordersDeletedBefore(Date cutoff, boolean withStatuses);
+  }
+
+  public static byte[] orderSaved(Order order) {
+    BinaryWriter out = new BinaryWriter(128);
+    out.writeByte(ORDER_SAVED);
+    DetailsCodec.writeOrderDetails(out, order.toOrderDetails());
+    return out.toByteArray();
+  }
+
+  //an order and its first status, replayed as the status then the order
+  public static byte[] orderCreated(Order order, OrderStatus status) {
+    BinaryWriter out = new BinaryWriter(160);
+    out.writeByte(ORDER_CREATED);
+    DetailsCodec.writeOrderStatusDetails(out, status.toStatusDetails());
+    DetailsCodec.writeOrderDetails(out, order.toOrderDetails());
+    return out.toByteArray();
+  }
+
+  public static byte[] orderDeleted(UUID key) {
+    return keyRecord(ORDER_DELETED, key);
+  }
+
+  public static byte[] statusSaved(OrderStatus status) {
+    BinaryWriter out = new BinaryWriter(48);
+    out.writeByte(STATUS_SAVED);
+    DetailsCodec.writeOrderStatusDetails(out, status.toStatusDetails());
+    return out.toByteArray();
+  }
+
+  public static byte[] statusDeleted(UUID key) {
+    return keyRecord(STATUS_DELETED, key);
+  }
+
+  public static byte[] statusesDeleted(UUID orderKey) {
+    return keyRecord(STATUSES_DELETED, orderKey);
+  }
+
+  //every order submitted before the cutoff, replayed against the same store it deletes the same orders
+  public static byte[] ordersDeletedBefore(Date cutoff, boolean withStatuses) {
+    return new BinaryWriter(10).writeByte(ORDERS_DELETED_BEFORE).writeLong(cutoff.getTime())
+        .writeByte(withStatuses ? 1 : 0).toByteArray();
+  }
+
+  public static void dispatch(ByteBuffer record, Visitor visitor) {
+    BinaryReader in = BinaryReader.of(record);
+    byte type = in.readByte();
+    switch (type) {
+      case ORDER_SAVED:
+        visitor.orderSaved(readOrder(in));
+        break;
+      case ORDER_DELETED:
+        visitor.orderDeleted(in.readUuid());
+        break;
+      case STATUS_SAVED:
+        visitor.statusSaved(OrderStatus.fromStatusDetails(DetailsCodec.readOrderStatusDetails(in)));
+        break;
+      case STATUS_DELETED:
+        visitor.statusDeleted(in.readUuid());
+        break;
+      case ORDER_CREATED:
+        visitor.statusSaved(OrderStatus.fromStatusDetails(DetailsCodec.readOrderStatusDetails(in)));
+        visitor.orderSaved(readOrder(in));
+        break;
+      case STATUSES_DELETED:
+        visitor.statusesDeleted(in.readUuid());
+        break;
+      case ORDERS_DELETED_BEFORE:
+        visitor.ordersDeletedBefore(new Date(in.readLong()), in.readByte() != 0);
+        break;
+      default:
+        throw new IllegalStateException("Unknown journal record type " + type);
+    }
+  }
+
+  /**
+   * Decodes a record written by {@link #orderSaved(Order)}.
+   */
+  public static Order readOrderSaved(ByteBuffer record) {
+    BinaryReader in = BinaryReader.of(record);
+    if (in.readByte() != ORDER_SAVED) {
+      throw new IllegalStateException("Not an order record");
+    }
+    return readOrder(in);
+  }
+
+  //unlike Order.fromOrderDetails the order keeps the key it was saved with
+  private static Order readOrder(BinaryReader in) {
+    OrderDetails details = DetailsCodec.readOrderDetails(in);
+    Order order = new Order(details.getKey(), details.getDateTimeOfSubmission());
+    order.setOrderItems(details.getOrderItems());
+    order.setName(details.getName());
+    order.setAddress1(details.getAddress1());
+    order.setPostcode(details.getPostcode());
+    order.setUserName(details.getUserName());
+    return order;
+  }
+
+  private static byte[] keyRecord(byte type, UUID key) {
+    return new BinaryWriter(18).writeByte(type).writeUuid(key).toByteArray();
+  }
+}
@@ -0,0 +1,147 @@
+package com.yummynoodlebar.persistence.journal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/*
+ * One memory-mapped journal file. Each record is framed as [int length][int crc32][payload],
+ * a zero length (the file is pre-sized and zero filled) marks the end of the written records.
+ */
+class JournalSegment {
+
+  static final int HEADER_SIZE = 8;
+
+  private final long index;
+  private final File file;
+  private final RandomAccessFile raf;
+  private final MappedByteBuffer buffer;
+  private int position;
+
+  private JournalSegment(long index, File file, RandomAccessFile raf, MappedByteBuffer buffer) {
+    this.index = index;
+    this.file = file;
+    this.raf = raf;
+    this.buffer = buffer;
+  }
+
+  static JournalSegment open(File directory, long index, int size) throws IOException {
+    File file = new File(directory, fileName(index));
+    RandomAccessFile raf = new RandomAccessFile(file, "rw");
+    try {
+      if (raf.length() < size) {
+        raf.setLength(size);
+      }
+      MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, raf.length());
+      JournalSegment segment = new JournalSegment(index, file, raf, buffer);
+      segment.position = segment.read(null);
+      return segment;
+    } catch (IOException e) {
+      raf.close();
+      throw e;
+    }
+  }
+
+  static String fileName(long index) {
+    return String.format("orders-%016d.journal", index);
+  }
+
+  static long indexOf(String fileName) {
+    if (!fileName.startsWith("orders-") || !fileName.endsWith(".journal")) {
+      return -1;
+    }
+    try {
+      return Long.parseLong(fileName.substring("orders-".length(), fileName.length() - ".journal".length()));
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  long getIndex() {
+    return index;
+  }
+
+  File getFile() {
+    return file;
+  }
+
+  /**
+   * @return false if the record does not fit in what is left of this segment
+   */
+  boolean append(byte[] record) {
+    if (position + HEADER_SIZE + record.length > buffer.capacity()) {
+      return false;
+    }
+    CRC32 crc = new CRC32();
+    crc.update(record);
+
+    ByteBuffer target = buffer.duplicate();
+    target.position(position + HEADER_SIZE);
+    target.put(record);
+    buffer.putInt(position + 4, (int) crc.getValue());
+    buffer.putInt(position, record.length);
+
+    position += HEADER_SIZE + record.length;
+    return true;
+  }
+
+  int capacity() {
+    return buffer.capacity();
+  }
+
+  void force() {
+    buffer.force();
+  }
+
+  /**
+   * Hands every intact record to the handler, stopping at the end marker or at a torn record.
+   * The bytes of a torn record are zeroed so that later appends start from a clean tail.
+   *
+   * @return the position after the last intact record
+   */
+  int read(JournalRecordHandler handler) {
+    int offset = 0;
+    while (offset + HEADER_SIZE <= buffer.capacity()) {
+      int length = buffer.getInt(offset);
+      if (length == 0) {
+        return offset;
+      }
+      if (length < 0 || offset + HEADER_SIZE + length > buffer.capacity()) {
+        return truncate(offset);
+      }
+      byte[] record = new byte[length];
+      ByteBuffer source = buffer.duplicate();
+      source.position(offset + HEADER_SIZE);
+      source.get(record);
+
+      CRC32 crc = new CRC32();
+      crc.update(record);
+      if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+        return truncate(offset);
+      }
+      if (handler != null) {
+        handler.onRecord(ByteBuffer.wrap(record));
+      }
+      offset += HEADER_SIZE + length;
+    }
+    return offset;
+  }
+
+  private int truncate(int offset) {
+    for (int i = offset; i < buffer.capacity(); i++) {
+      if (buffer.get(i) != 0) {
+        buffer.put(i, (byte) 0);
+      }
+    }
+    return offset;
+  }
+
+  void close() throws IOException {
+    buffer.force();
+    raf.close();
+  }
+}
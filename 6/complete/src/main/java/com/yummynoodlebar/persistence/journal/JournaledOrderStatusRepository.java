@@ -0,0 +1,89 @@
+package com.yummynoodlebar.persistence.journal;
+
+import com.yummynoodlebar.persistence.domain.OrderStatus;
+import com.yummynoodlebar.persistence.repository.OrderStatusRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+/*
+ * Makes an in-memory OrderStatusRepository durable, see JournaledOrdersRepository.
+ */
+public class JournaledOrderStatusRepository implements OrderStatusRepository {
+
+  private final RecordSink sink;
+  private final OrderStatusRepository statuses;
+  private final KeyStripes stripes;
+
+  public JournaledOrderStatusRepository(RecordSink sink, OrderStatusRepository statuses, KeyStripes stripes) {
+    this.sink = sink;
+    this.statuses = statuses;
+    this.stripes = stripes;
+  }
+
+  //a status is locked by its own key and its order's, so it is ordered against both kinds of delete
+  @Override
+  public OrderStatus save(OrderStatus orderStatus) {
+    long locked = KeyStripes.of(orderStatus.getId()) | KeyStripes.of(orderStatus.getOrderId());
+    long sequence;
+    stripes.lock(locked);
+    try {
+      statuses.save(orderStatus);
+      sequence = sink.append(JournalRecords.statusSaved(orderStatus));
+    } finally {
+      stripes.unlock(locked);
+    }
+    sink.sync(sequence);
+    return orderStatus;
+  }
+
+  @Override
+  public void delete(UUID key) {
+    long locked = KeyStripes.of(key);
+    long sequence;
+    stripes.lock(locked);
+    try {
+      statuses.delete(key);
+      sequence = sink.append(JournalRecords.statusDeleted(key));
+    } finally {
+      stripes.unlock(locked);
+    }
+    sink.sync(sequence);
+  }
+
+  @Override
+  public OrderStatus findLatestById(UUID key) {
+    return statuses.findLatestById(key);
+  }
+
+  @Override
+  public List<OrderStatus> findHistoryById(UUID key) {
+    return statuses.findHistoryById(key);
+  }
+
+  @Override
+  public List<OrderStatus> deleteByOrderId(UUID key) {
+    long locked = KeyStripes.of(key);
+    List<OrderStatus> removed;
+    long sequence;
+    stripes.lock(locked);
+    try {
+      removed = statuses.deleteByOrderId(key);
+      sequence = sink.append(JournalRecords.statusesDeleted(key));
+    } finally {
+      stripes.unlock(locked);
+    }
+    sink.sync(sequence);
+    return removed;
+  }
+
+  @Override
+  public List<UUID> findOrderIdsByLatestStatus(String status) {
+    return statuses.findOrderIdsByLatestStatus(status);
+  }
+
+  @Override
+  public List<OrderStatus> findAll() {
+    return statuses.findAll();
+  }
+}
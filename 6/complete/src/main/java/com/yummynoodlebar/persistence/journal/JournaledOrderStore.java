@@ -0,0 +1,123 @@
+package com.yummynoodlebar.persistence.journal;
+
+import com.yummynoodlebar.persistence.domain.Order;
+import com.yummynoodlebar.persistence.domain.OrderStatus;
+import com.yummynoodlebar.persistence.repository.OrderMemoryUnitOfWork;
+import com.yummynoodlebar.persistence.repository.OrderStatusRepository;
+import com.yummynoodlebar.persistence.repository.OrderUnitOfWork;
+import com.yummynoodlebar.persistence.repository.OrdersRepository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Date;
+import java.util.UUID;
+
+/*
+ * Rebuilds the in-memory order and status repositories on startup, from the newest snapshot and
+ * the journal written since, and hands out the journaled views of them that the persistence
+ * services should use from then on.
+ */
+public class JournaledOrderStore implements Closeable {
+
+  private final OrderJournal journal;
+  private final OrdersRepository memoryOrders;
+  private final OrderStatusRepository memoryStatuses;
+  private final OrdersRepository orders;
+  private final OrderStatusRepository statuses;
+  private final OrderUnitOfWork unitOfWork;
+  private final OrderSnapshotter snapshotter;
+
+  public JournaledOrderStore(OrderJournal journal, OrdersRepository orders, OrderStatusRepository statuses) throws IOException {
+    this.journal = journal;
+    long firstSegment = OrderSnapshotter.restore(journal.getDirectory(), orders, statuses);
+    journal.replayFrom(firstSegment, replayInto(orders, statuses));
+    this.memoryOrders = orders;
+    this.memoryStatuses = statuses;
+    KeyStripes stripes = new KeyStripes();
+    this.orders = new JournaledOrdersRepository(journal, orders, stripes);
+    this.statuses = new JournaledOrderStatusRepository(journal, statuses, stripes);
+    this.unitOfWork = new JournaledOrderUnitOfWork(journal, new OrderMemoryUnitOfWork(orders, statuses), stripes);
+    this.snapshotter = new OrderSnapshotter(journal, orders, statuses);
+  }
+
+  public OrdersRepository getOrdersRepository() {
+    return orders;
+  }
+
+  public OrderStatusRepository getOrderStatusRepository() {
+    return statuses;
+  }
+
+  public OrderUnitOfWork getUnitOfWork() {
+    return unitOfWork;
+  }
+
+  //What the journal was replayed into, for a decorator that appends to the journal itself. Writes
+  //made straight to these are not journaled
+  public OrdersRepository getMemoryOrdersRepository() {
+    return memoryOrders;
+  }
+
+  public OrderStatusRepository getMemoryOrderStatusRepository() {
+    return memoryStatuses;
+  }
+
+  public OrderJournal getJournal() {
+    return journal;
+  }
+
+  public OrderSnapshotter getSnapshotter() {
+    return snapshotter;
+  }
+
+  @Override
+  public void close() throws IOException {
+    snapshotter.close();
+    journal.close();
+  }
+
+  public static JournalRecordHandler replayInto(final OrdersRepository orders, final OrderStatusRepository statuses) {
+    final JournalRecords.Visitor visitor = new JournalRecords.Visitor() {
+      @Override
+      public void orderSaved(Order order) {
+        orders.save(order);
+      }
+
+      @Override
+      public void orderDeleted(UUID key) {
+        orders.delete(key);
+      }
+
+      @Override
+      public void statusSaved(OrderStatus status) {
+        statuses.save(status);
+      }
+
+      @Override
+      public void statusDeleted(UUID key) {
+        statuses.delete(key);
+      }
+
+      @Override
+      public void statusesDeleted(UUID orderKey) {
+        statuses.deleteByOrderId(orderKey);
+      }
+
+      @Override
+      public void ordersDeletedBefore(Date cutoff, boolean withStatuses) {
+        for (UUID key : orders.deleteSubmittedBefore(cutoff)) {
+          if (withStatuses) {
+            statuses.deleteByOrderId(key);
+          }
+        }
+      }
+    };
+    return new JournalRecordHandler() {
+      @Override
+      public void onRecord(ByteBuffer record) {
+        JournalRecords.dispatch(record, visitor);
+      }
+    };
+  }
+}
@@ -0,0 +1,81 @@
+package com.yummynoodlebar.persistence.journal;
+
+import com.yummynoodlebar.persistence.domain.Order;
+import com.yummynoodlebar.persistence.domain.OrderStatus;
+import com.yummynoodlebar.persistence.repository.OrderUnitOfWork;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/*
+ * Journals an order and its first status as one record, so checkout pays for one write and one
+ * sync, and a crash can never recover one without the other.
+ */
+public class JournaledOrderUnitOfWork implements OrderUnitOfWork {
+
+  private final RecordSink sink;
+  private final OrderUnitOfWork unitOfWork;
+  private final KeyStripes stripes;
+
+  public JournaledOrderUnitOfWork(RecordSink sink, OrderUnitOfWork unitOfWork, KeyStripes stripes) {
+    this.sink = sink;
+    this.unitOfWork = unitOfWork;
+    this.stripes = stripes;
+  }
+
+  @Override
+  public void saveWithStatus(Order order, OrderStatus status) {
+    long locked = KeyStripes.of(order.getKey()) | KeyStripes.of(status.getId());
+    long sequence;
+    stripes.lock(locked);
+    try {
+      unitOfWork.saveWithStatus(order, status);
+      sequence = sink.append(JournalRecords.orderCreated(order, status));
+    } finally {
+      stripes.unlock(locked);
+    }
+    sink.sync(sequence);
+  }
+
+  //Still one record per order, but appended together so they share one sync, taken once the stripes are released
+  @Override
+  public void saveAllWithStatus(List<Order> orders, List<OrderStatus> statuses) {
+    long locked = 0;
+    List<byte[]> records = new ArrayList<byte[]>(orders.size());
+    for (int i = 0; i < orders.size(); i++) {
+      locked |= KeyStripes.of(orders.get(i).getKey()) | KeyStripes.of(statuses.get(i).getId());
+      records.add(JournalRecords.orderCreated(orders.get(i), statuses.get(i)));
+    }
+    long last = 0;
+    stripes.lock(locked);
+    try {
+      unitOfWork.saveAllWithStatus(orders, statuses);
+      for (byte[] record : records) {
+        last = sink.append(record);
+      }
+    } finally {
+      stripes.unlock(locked);
+    }
+    if (!records.isEmpty()) {
+      sink.sync(last);
+    }
+  }
+
+  //One record for the lot, whatever it removed, so retiring a partition journals in constant space
+  @Override
+  public List<UUID> deleteSubmittedBefore(Date cutoff) {
+    List<UUID> deleted;
+    long sequence;
+    stripes.lock(KeyStripes.ALL);
+    try {
+      deleted = unitOfWork.deleteSubmittedBefore(cutoff);
+      sequence = sink.append(JournalRecords.ordersDeletedBefore(cutoff, true));
+    } finally {
+      stripes.unlock(KeyStripes.ALL);
+    }
+    sink.sync(sequence);
+    return deleted;
+  }
+}
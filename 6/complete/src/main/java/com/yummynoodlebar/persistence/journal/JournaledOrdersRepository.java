@@ -0,0 +1,95 @@
+package com.yummynoodlebar.persistence.journal;
+
+import com.yummynoodlebar.events.orders.OrderCursor;
+import com.yummynoodlebar.persistence.domain.Order;
+import com.yummynoodlebar.persistence.repository.OrdersRepository;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/*
+ * Makes an in-memory OrdersRepository durable. Mutations are applied to the delegate before they
+ * are journaled, so that anything a snapshot misses is guaranteed to be in a later segment, with
+ * the order's stripe held across both so the journal sees them in the order memory did. The
+ * stripe is released before waiting for the sync, other writers to it never wait on the disk.
+ * Written to a replication leader instead, the same records keep followers up to date.
+ */
+public class JournaledOrdersRepository implements OrdersRepository {
+
+  private final RecordSink sink;
+  private final OrdersRepository orders;
+  private final KeyStripes stripes;
+
+  //Give every journaled view written to the same sink the same stripes
+  public JournaledOrdersRepository(RecordSink sink, OrdersRepository orders, KeyStripes stripes) {
+    this.sink = sink;
+    this.orders = orders;
+    this.stripes = stripes;
+  }
+
+  @Override
+  public Order save(Order order) {
+    long locked = KeyStripes.of(order.getKey());
+    long sequence;
+    stripes.lock(locked);
+    try {
+      orders.save(order);
+      sequence = sink.append(JournalRecords.orderSaved(order));
+    } finally {
+      stripes.unlock(locked);
+    }
+    sink.sync(sequence);
+    return order;
+  }
+
+  @Override
+  public void delete(UUID key) {
+    long locked = KeyStripes.of(key);
+    long sequence;
+    stripes.lock(locked);
+    try {
+      orders.delete(key);
+      sequence = sink.append(JournalRecords.orderDeleted(key));
+    } finally {
+      stripes.unlock(locked);
+    }
+    sink.sync(sequence);
+  }
+
+  @Override
+  public Order findById(UUID key) {
+    return orders.findById(key);
+  }
+
+  @Override
+  public Iterable<Order> findAll() {
+    return orders.findAll();
+  }
+
+  @Override
+  public List<Order> findPage(OrderCursor after, int limit) {
+    return orders.findPage(after, limit);
+  }
+
+  @Override
+  public List<Order> findSubmittedBetween(Date from, Date to) {
+    return orders.findSubmittedBetween(from, to);
+  }
+
+  //the orders it deletes are only known once it has run, so it holds every stripe
+  @Override
+  public List<UUID> deleteSubmittedBefore(Date cutoff) {
+    List<UUID> deleted;
+    long sequence;
+    stripes.lock(KeyStripes.ALL);
+    try {
+      deleted = orders.deleteSubmittedBefore(cutoff);
+      sequence = sink.append(JournalRecords.ordersDeletedBefore(cutoff, false));
+    } finally {
+      stripes.unlock(KeyStripes.ALL);
+    }
+    sink.sync(sequence);
+    return deleted;
+  }
+}
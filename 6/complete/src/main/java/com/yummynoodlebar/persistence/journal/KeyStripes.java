@@ -0,0 +1,47 @@
+package com.yummynoodlebar.persistence.journal;
+
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * Locks shared by the journaled views of one store, held across applying a mutation and writing
+ * its record, so two writes to the same order reach the sink in the order memory applied them.
+ * Without it replay, or a follower, could rebuild a different store from the same records.
+ *
+ * A mutation locks the stripes of every key it touches, as a mask with one bit per stripe, taken
+ * lowest first so two mutations sharing stripes cannot deadlock.
+ */
+public final class KeyStripes {
+
+  private static final int STRIPES = 64;
+  //every stripe, for a mutation whose keys are only known once it has been applied
+  static final long ALL = -1L;
+
+  private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+  public KeyStripes() {
+    for (int i = 0; i < STRIPES; i++) {
+      locks[i] = new ReentrantLock();
+    }
+  }
+
+  static long of(UUID key) {
+    return 1L << ((key.hashCode() & Integer.MAX_VALUE) % STRIPES);
+  }
+
+  void lock(long stripes) {
+    for (int i = 0; i < STRIPES; i++) {
+      if ((stripes & (1L << i)) != 0) {
+        locks[i].lock();
+      }
+    }
+  }
+
+  void unlock(long stripes) {
+    for (int i = STRIPES - 1; i >= 0; i--) {
+      if ((stripes & (1L << i)) != 0) {
+        locks[i].unlock();
+      }
+    }
+  }
+}
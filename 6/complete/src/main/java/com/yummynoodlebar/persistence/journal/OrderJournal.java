@@ -0,0 +1,211 @@
+package com.yummynoodlebar.persistence.journal;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * Append-only log of order and status mutations, split across fixed size memory-mapped segment
+ * files. Appends are serialised on a lock that only covers copying the record into the mapping.
+ * The fsync happens outside that lock, and under GROUP_COMMIT one fsync makes durable every
+ * record appended before it started, so concurrent checkouts share the cost.
+ */
+public class OrderJournal implements RecordSink, Closeable {
+
+  public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+  private final File directory;
+  private final int segmentSize;
+  private final SyncPolicy syncPolicy;
+
+  private final ReentrantLock appendLock = new ReentrantLock();
+  private final Object syncLock = new Object();
+
+  //guarded by appendLock
+  private JournalSegment current;
+  private long appended;
+
+  private volatile long synced;
+  private final AtomicLong syncCount = new AtomicLong();
+
+  public OrderJournal(File directory, int segmentSize, SyncPolicy syncPolicy) throws IOException {
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Cannot create journal directory " + directory);
+    }
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    this.syncPolicy = syncPolicy;
+
+    List<Long> indexes = segmentIndexes();
+    long last = indexes.isEmpty() ? 1 : indexes.get(indexes.size() - 1);
+    this.current = JournalSegment.open(directory, last, segmentSize);
+  }
+
+  /**
+   * Replays every record in the journal, oldest first. Call before the journal is written to.
+   */
+  public void replay(JournalRecordHandler handler) throws IOException {
+    replayFrom(0, handler);
+  }
+
+  /**
+   * Replays the records in segments with an index of at least fromSegment.
+   */
+  public void replayFrom(long fromSegment, JournalRecordHandler handler) throws IOException {
+    for (long index : segmentIndexes()) {
+      if (index < fromSegment) {
+        continue;
+      }
+      JournalSegment segment = JournalSegment.open(directory, index, segmentSize);
+      try {
+        segment.read(handler);
+      } finally {
+        segment.close();
+      }
+    }
+  }
+
+  /**
+   * Appends the record without waiting for it to be durable.
+   *
+   * @return the sequence of the record, to pass to {@link #sync(long)}
+   */
+  @Override
+  public long append(byte[] record) {
+    if (record.length + JournalSegment.HEADER_SIZE > segmentSize) {
+      throw new IllegalArgumentException("Record of " + record.length + " bytes exceeds the journal segment size");
+    }
+    appendLock.lock();
+    try {
+      if (!current.append(record)) {
+        rollLocked();
+        current.append(record);
+      }
+      return ++appended;
+    } finally {
+      appendLock.unlock();
+    }
+  }
+
+  /**
+   * Blocks until the record with the given sequence, and everything before it, is on disk.
+   * Under EVERY_WRITE each call forces the segment, under GROUP_COMMIT one that finds its record
+   * already covered by another's force returns straight away.
+   */
+  @Override
+  public void sync(long sequence) {
+    if (syncPolicy == SyncPolicy.GROUP_COMMIT && synced >= sequence) {
+      return;
+    }
+    synchronized (syncLock) {
+      if (syncPolicy == SyncPolicy.GROUP_COMMIT && synced >= sequence) {
+        return;
+      }
+      JournalSegment segment;
+      long upTo;
+      appendLock.lock();
+      try {
+        segment = current;
+        upTo = appended;
+      } finally {
+        appendLock.unlock();
+      }
+      //earlier segments were forced when they were rolled
+      segment.force();
+      syncCount.incrementAndGet();
+      if (upTo > synced) {
+        synced = upTo;
+      }
+    }
+  }
+
+  /**
+   * Closes the current segment and starts a new one.
+   *
+   * @return the index of the new segment, every record appended before the call is in a lower one
+   */
+  public long roll() {
+    appendLock.lock();
+    try {
+      rollLocked();
+      return current.getIndex();
+    } finally {
+      appendLock.unlock();
+    }
+  }
+
+  /**
+   * Deletes the segments with an index lower than the given one, never the segment being written.
+   */
+  public void deleteSegmentsBefore(long index) {
+    long currentIndex;
+    appendLock.lock();
+    try {
+      currentIndex = current.getIndex();
+    } finally {
+      appendLock.unlock();
+    }
+    for (long segment : segmentIndexes()) {
+      if (segment < index && segment < currentIndex) {
+        new File(directory, JournalSegment.fileName(segment)).delete();
+      }
+    }
+  }
+
+  public long getSyncCount() {
+    return syncCount.get();
+  }
+
+  public long getAppendedCount() {
+    appendLock.lock();
+    try {
+      return appended;
+    } finally {
+      appendLock.unlock();
+    }
+  }
+
+  public File getDirectory() {
+    return directory;
+  }
+
+  @Override
+  public void close() throws IOException {
+    appendLock.lock();
+    try {
+      current.close();
+    } finally {
+      appendLock.unlock();
+    }
+  }
+
+  private void rollLocked() {
+    try {
+      JournalSegment next = JournalSegment.open(directory, current.getIndex() + 1, segmentSize);
+      current.close();
+      current = next;
+    } catch (IOException e) {
+      throw new JournalException("Cannot roll the journal in " + directory, e);
+    }
+  }
+
+  private List<Long> segmentIndexes() {
+    List<Long> indexes = new ArrayList<Long>();
+    String[] names = directory.list();
+    if (names != null) {
+      for (String name : names) {
+        long index = JournalSegment.indexOf(name);
+        if (index >= 0) {
+          indexes.add(index);
+        }
+      }
+    }
+    Collections.sort(indexes);
+    return indexes;
+  }
+}
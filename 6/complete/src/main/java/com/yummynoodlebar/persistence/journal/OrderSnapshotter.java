@@ -0,0 +1,187 @@
+package com.yummynoodlebar.persistence.journal;
+
+import com.yummynoodlebar.persistence.domain.Order;
+import com.yummynoodlebar.persistence.domain.OrderStatus;
+import com.yummynoodlebar.persistence.repository.OrderStatusRepository;
+import com.yummynoodlebar.persistence.repository.OrdersRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/*
+ * Writes point-in-time copies of the in-memory repositories next to the journal so that a restart
+ * loads the newest snapshot and only replays the segments written after it.
+ *
+ * A snapshot starts by rolling the journal. Mutations reach memory before the journal, so anything
+ * journaled in an earlier segment is already visible to the copy, and anything the copy misses is
+ * in the new segment or later. Saves carry on while the copy is written; replaying a mutation the
+ * copy already holds is harmless because saves and deletes are idempotent.
+ */
+public class OrderSnapshotter implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(OrderSnapshotter.class);
+
+  private static final int MAGIC = 0x594e4253;
+  private static final int VERSION = 2;
+
+  private final OrderJournal journal;
+  private final OrdersRepository orders;
+  private final OrderStatusRepository statuses;
+  private ScheduledExecutorService scheduler;
+
+  public OrderSnapshotter(OrderJournal journal, OrdersRepository orders, OrderStatusRepository statuses) {
+    this.journal = journal;
+    this.orders = orders;
+    this.statuses = statuses;
+  }
+
+  /**
+   * Takes a snapshot every period, on a background thread.
+   */
+  public synchronized void start(long period, TimeUnit unit) {
+    if (scheduler != null) {
+      return;
+    }
+    scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "order-snapshotter");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    scheduler.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          LOG.debug("Wrote order snapshot {}", snapshot());
+        } catch (IOException | RuntimeException e) {
+          //the journal still holds everything, try again next time round
+          LOG.warn("Order snapshot failed", e);
+        }
+      }
+    }, period, period, unit);
+  }
+
+  /**
+   * Writes a snapshot, then deletes the journal segments and older snapshots it makes redundant.
+   *
+   * @return the snapshot file
+   */
+  public synchronized File snapshot() throws IOException {
+    long tailSegment = journal.roll();
+    File directory = journal.getDirectory();
+    File snapshot = new File(directory, fileName(tailSegment));
+    File partial = new File(directory, fileName(tailSegment) + ".partial");
+
+    FileOutputStream file = new FileOutputStream(partial);
+    try {
+      DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 64 * 1024));
+      CRC32 crc = new CRC32();
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeLong(tailSegment);
+      for (Order order : orders.findAll()) {
+        writeRecord(out, crc, JournalRecords.orderSaved(order));
+      }
+      for (OrderStatus status : statuses.findAll()) {
+        writeRecord(out, crc, JournalRecords.statusSaved(status));
+      }
+      out.writeInt(0);
+      out.writeLong(crc.getValue());
+      out.flush();
+      file.getFD().sync();
+    } finally {
+      file.close();
+    }
+    Files.move(partial.toPath(), snapshot.toPath(), StandardCopyOption.ATOMIC_MOVE);
+
+    journal.deleteSegmentsBefore(tailSegment);
+    for (String name : directory.list()) {
+      long index = indexOf(name);
+      if (index >= 0 && index < tailSegment) {
+        new File(directory, name).delete();
+      }
+    }
+    return snapshot;
+  }
+
+  @Override
+  public synchronized void close() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+      scheduler = null;
+    }
+  }
+
+  /**
+   * Loads the newest snapshot in the directory into the repositories.
+   *
+   * @return the first journal segment to replay on top of it, 0 when there is no snapshot
+   */
+  public static long restore(File directory, OrdersRepository orders, OrderStatusRepository statuses) throws IOException {
+    long newest = -1;
+    String[] names = directory.list();
+    if (names != null) {
+      for (String name : names) {
+        newest = Math.max(newest, indexOf(name));
+      }
+    }
+    if (newest < 0) {
+      return 0;
+    }
+
+    JournalRecordHandler replay = JournaledOrderStore.replayInto(orders, statuses);
+    DataInputStream in = new DataInputStream(new BufferedInputStream(
+        new FileInputStream(new File(directory, fileName(newest))), 64 * 1024));
+    try {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        throw new IOException("Not an order snapshot: " + fileName(newest));
+      }
+      long tailSegment = in.readLong();
+      CRC32 crc = new CRC32();
+      for (int length = in.readInt(); length > 0; length = in.readInt()) {
+        byte[] record = new byte[length];
+        in.readFully(record);
+        crc.update(record);
+        replay.onRecord(ByteBuffer.wrap(record));
+      }
+      if (in.readLong() != crc.getValue()) {
+        throw new IOException("Corrupt order snapshot: " + fileName(newest));
+      }
+      return tailSegment;
+    } finally {
+      in.close();
+    }
+  }
+
+  private static void writeRecord(DataOutputStream out, CRC32 crc, byte[] record) throws IOException {
+    out.writeInt(record.length);
+    out.write(record);
+    crc.update(record);
+  }
+
+  static String fileName(long tailSegment) {
+    return String.format("orders-%016d.snapshot", tailSegment);
+  }
+
+  static long indexOf(String fileName) {
+    if (!fileName.startsWith("orders-") || !fileName.endsWith(".snapshot")) {
+      return -1;
+    }
+    try {
+      return Long.parseLong(fileName.substring("orders-".length(), fileName.length() - ".snapshot".length()));
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+}
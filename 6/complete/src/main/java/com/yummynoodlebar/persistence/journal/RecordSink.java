@@ -0,0 +1,25 @@
+package com.yummynoodlebar.persistence.journal;
+
+/*
+ * Somewhere the JournalRecords of mutations are written to once they have been applied in memory:
+ * the journal on disk, or a replication leader streaming them to followers.
+ *
+ * Appending fixes a record's place after every record appended before it, and is all a writer
+ * needs to do while it holds the locks that order its mutations. Waiting for the record to be
+ * safe comes after they are released, so writers that overlap can share one sync.
+ */
+public interface RecordSink {
+
+  /**
+   * Adds the record after everything appended before it, without waiting for it to be safe.
+   *
+   * @return the sequence of the record, to pass to {@link #sync(long)}
+   */
+  long append(byte[] record);
+
+  /**
+   * Returns once the record with the given sequence, and everything appended before it, is as
+   * safe as this sink makes it.
+   */
+  void sync(long sequence);
+}
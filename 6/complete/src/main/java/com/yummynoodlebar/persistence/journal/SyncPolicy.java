@@ -0,0 +1,10 @@
+package com.yummynoodlebar.persistence.journal;
+
+public enum SyncPolicy {
+
+  //every write forces its own fsync before returning
+  EVERY_WRITE,
+
+  //concurrent writers share an fsync, whichever arrives first forces everything written so far
+  GROUP_COMMIT
+}
@@ -0,0 +1,263 @@
+package com.yummynoodlebar.persistence.replication;
+
+import com.yummynoodlebar.events.orders.OrderCursor;
+import com.yummynoodlebar.persistence.domain.Order;
+import com.yummynoodlebar.persistence.domain.OrderStatus;
+import com.yummynoodlebar.persistence.journal.JournalRecordHandler;
+import com.yummynoodlebar.persistence.journal.JournaledOrderStore;
+import com.yummynoodlebar.persistence.repository.OrderStatusMemoryRepository;
+import com.yummynoodlebar.persistence.repository.OrderStatusRepository;
+import com.yummynoodlebar.persistence.repository.OrdersConcurrentMemoryRepository;
+import com.yummynoodlebar.persistence.repository.OrdersRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * A read-only copy of a leader's orders and statuses, kept up to date over a socket. Reconnects
+ * if the leader goes away, building a fresh copy from the new snapshot while the old one carries
+ * on serving reads.
+ *
+ * The lag is how long ago, by the leader's clock, the copy was last known to hold everything the
+ * leader held. Heartbeats keep it to about HEARTBEAT_MILLIS while the follower keeps up.
+ */
+public class ReplicationFollower implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ReplicationFollower.class);
+
+  private static final long RECONNECT_MILLIS = 500;
+
+  private final String host;
+  private final int port;
+  private final OrdersRepository orders = new ReadOnlyOrders();
+  private final OrderStatusRepository statuses = new ReadOnlyStatuses();
+
+  private volatile Copy copy = new Copy();
+  private final Object progress = new Object();
+  //guarded by progress, read without it for the metrics
+  private volatile long appliedSequence;
+  private volatile long caughtUpAt;
+
+  private volatile Socket socket;
+  private volatile boolean closed;
+
+  public ReplicationFollower(String host, int port) {
+    this.host = host;
+    this.port = port;
+  }
+
+  public void start() {
+    Thread reader = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        follow();
+      }
+    }, "replication-follower-" + port);
+    reader.setDaemon(true);
+    reader.start();
+  }
+
+  //Reads only, saving or deleting throws UnsupportedOperationException
+  public OrdersRepository getOrdersRepository() {
+    return orders;
+  }
+
+  public OrderStatusRepository getOrderStatusRepository() {
+    return statuses;
+  }
+
+  public long getAppliedSequence() {
+    return appliedSequence;
+  }
+
+  /**
+   * @return how stale reads may be, Long.MAX_VALUE until the first snapshot has arrived
+   */
+  public long getLagMillis() {
+    long at = caughtUpAt;
+    return at == 0 ? Long.MAX_VALUE : Math.max(0, System.currentTimeMillis() - at);
+  }
+
+  /**
+   * @return true once the follower has applied the leader's mutation with the given sequence
+   */
+  public boolean awaitSequence(long sequence, long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    synchronized (progress) {
+      while (appliedSequence < sequence) {
+        long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (remaining <= 0) {
+          return false;
+        }
+        progress.wait(remaining);
+      }
+      return true;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    Socket current = socket;
+    if (current != null) {
+      current.close();
+    }
+  }
+
+  private void follow() {
+    while (!closed) {
+      try {
+        socket = new Socket(host, port);
+        socket.setTcpNoDelay(true);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 64 * 1024));
+        Copy building = null;
+        while (true) {
+          ReplicationFrame frame = ReplicationFrame.readFrom(in);
+          switch (frame.kind) {
+            case ReplicationFrame.SNAPSHOT_START:
+              building = new Copy();
+              break;
+            case ReplicationFrame.SNAPSHOT_RECORD:
+              building.apply(frame.record);
+              break;
+            case ReplicationFrame.SNAPSHOT_END:
+              copy = building;
+              building = null;
+              //a new snapshot may come from a restarted leader counting from the beginning again
+              synchronized (progress) {
+                appliedSequence = frame.sequence;
+              }
+              caughtUp(frame);
+              break;
+            case ReplicationFrame.RECORD:
+              copy.apply(frame.record);
+              caughtUp(frame);
+              break;
+            default:
+              caughtUp(frame);
+          }
+        }
+      } catch (IOException e) {
+        if (!closed) {
+          LOG.info("Lost replication leader {}:{}, reconnecting: {}", host, port, e.toString());
+          try {
+            Thread.sleep(RECONNECT_MILLIS);
+          } catch (InterruptedException interrupted) {
+            return;
+          }
+        }
+      } finally {
+        try {
+          if (socket != null) {
+            socket.close();
+          }
+        } catch (IOException e) {
+          LOG.debug("Closing replication leader socket", e);
+        }
+      }
+    }
+  }
+
+  private void caughtUp(ReplicationFrame frame) {
+    synchronized (progress) {
+      appliedSequence = Math.max(appliedSequence, frame.sequence);
+      caughtUpAt = frame.leaderTime;
+      progress.notifyAll();
+    }
+  }
+
+  private static final class Copy {
+    final OrdersRepository orders = new OrdersConcurrentMemoryRepository(new HashMap<UUID, Order>());
+    final OrderStatusRepository statuses = new OrderStatusMemoryRepository();
+    final JournalRecordHandler handler = JournaledOrderStore.replayInto(orders, statuses);
+
+    void apply(byte[] record) {
+      handler.onRecord(ByteBuffer.wrap(record));
+    }
+  }
+
+  private final class ReadOnlyOrders implements OrdersRepository {
+    @Override
+    public Order save(Order order) {
+      throw new UnsupportedOperationException("Replicated orders are read only");
+    }
+
+    @Override
+    public void delete(UUID key) {
+      throw new UnsupportedOperationException("Replicated orders are read only");
+    }
+
+    @Override
+    public Order findById(UUID key) {
+      return copy.orders.findById(key);
+    }
+
+    @Override
+    public Iterable<Order> findAll() {
+      return copy.orders.findAll();
+    }
+
+    @Override
+    public List<Order> findPage(OrderCursor after, int limit) {
+      return copy.orders.findPage(after, limit);
+    }
+
+    @Override
+    public List<Order> findSubmittedBetween(Date from, Date to) {
+      return copy.orders.findSubmittedBetween(from, to);
+    }
+
+    @Override
+    public List<UUID> deleteSubmittedBefore(Date cutoff) {
+      throw new UnsupportedOperationException("Replicated orders are read only");
+    }
+  }
+
+  private final class ReadOnlyStatuses implements OrderStatusRepository {
+    @Override
+    public OrderStatus save(OrderStatus orderStatus) {
+      throw new UnsupportedOperationException("Replicated statuses are read only");
+    }
+
+    @Override
+    public void delete(UUID key) {
+      throw new UnsupportedOperationException("Replicated statuses are read only");
+    }
+
+    @Override
+    public OrderStatus findLatestById(UUID key) {
+      return copy.statuses.findLatestById(key);
+    }
+
+    @Override
+    public List<OrderStatus> findHistoryById(UUID key) {
+      return copy.statuses.findHistoryById(key);
+    }
+
+    @Override
+    public List<OrderStatus> deleteByOrderId(UUID key) {
+      throw new UnsupportedOperationException("Replicated statuses are read only");
+    }
+
+    @Override
+    public List<UUID> findOrderIdsByLatestStatus(String status) {
+      return copy.statuses.findOrderIdsByLatestStatus(status);
+    }
+
+    @Override
+    public List<OrderStatus> findAll() {
+      return copy.statuses.findAll();
+    }
+  }
+}
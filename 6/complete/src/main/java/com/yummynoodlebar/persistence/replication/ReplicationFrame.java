@@ -0,0 +1,67 @@
+package com.yummynoodlebar.persistence.replication;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/*
+ * What goes down the socket from a leader to a follower. A follower that connects is first sent
+ * the whole store as SNAPSHOT_START, SNAPSHOT_RECORDs and SNAPSHOT_END, then every mutation as a
+ * RECORD, with HEARTBEATs while there are none. Records are the same JournalRecords the journal
+ * holds.
+ *
+ * Every frame after the snapshot carries the leader's sequence and clock when it was queued.
+ * Frames are queued in sequence order, so once a follower has applied a frame it holds everything
+ * the leader held at that time.
+ */
+final class ReplicationFrame {
+
+  static final byte SNAPSHOT_START = 1;
+  static final byte SNAPSHOT_RECORD = 2;
+  static final byte SNAPSHOT_END = 3;
+  static final byte RECORD = 4;
+  static final byte HEARTBEAT = 5;
+
+  final byte kind;
+  final long sequence;
+  final long leaderTime;
+  final byte[] record;
+
+  ReplicationFrame(byte kind, long sequence, long leaderTime, byte[] record) {
+    this.kind = kind;
+    this.sequence = sequence;
+    this.leaderTime = leaderTime;
+    this.record = record;
+  }
+
+  void writeTo(DataOutputStream out) throws IOException {
+    out.writeByte(kind);
+    if (kind != SNAPSHOT_START && kind != SNAPSHOT_RECORD) {
+      out.writeLong(sequence);
+      out.writeLong(leaderTime);
+    }
+    if (kind == SNAPSHOT_RECORD || kind == RECORD) {
+      out.writeInt(record.length);
+      out.write(record);
+    }
+  }
+
+  static ReplicationFrame readFrom(DataInputStream in) throws IOException {
+    byte kind = in.readByte();
+    if (kind < SNAPSHOT_START || kind > HEARTBEAT) {
+      throw new IOException("Unknown replication frame " + kind);
+    }
+    long sequence = 0;
+    long leaderTime = 0;
+    byte[] record = null;
+    if (kind != SNAPSHOT_START && kind != SNAPSHOT_RECORD) {
+      sequence = in.readLong();
+      leaderTime = in.readLong();
+    }
+    if (kind == SNAPSHOT_RECORD || kind == RECORD) {
+      record = new byte[in.readInt()];
+      in.readFully(record);
+    }
+    return new ReplicationFrame(kind, sequence, leaderTime, record);
+  }
+}
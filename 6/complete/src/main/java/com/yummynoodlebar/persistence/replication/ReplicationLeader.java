@@ -0,0 +1,282 @@
+package com.yummynoodlebar.persistence.replication;
+
+import com.yummynoodlebar.persistence.domain.Order;
+import com.yummynoodlebar.persistence.domain.OrderStatus;
+import com.yummynoodlebar.persistence.journal.JournalRecords;
+import com.yummynoodlebar.persistence.journal.KeyStripes;
+import com.yummynoodlebar.persistence.journal.JournaledOrderStatusRepository;
+import com.yummynoodlebar.persistence.journal.JournaledOrderUnitOfWork;
+import com.yummynoodlebar.persistence.journal.JournaledOrdersRepository;
+import com.yummynoodlebar.persistence.journal.RecordSink;
+import com.yummynoodlebar.persistence.repository.OrderStatusRepository;
+import com.yummynoodlebar.persistence.repository.OrderUnitOfWork;
+import com.yummynoodlebar.persistence.repository.OrdersRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.*;
+
+/*
+ * Streams every mutation of the order and status repositories to followers connected over a
+ * loopback socket. The repositories handed out by the leader apply each mutation to the ones it
+ * was given and then queue the record for every follower, the writer never waits on a follower.
+ *
+ * Given the journal as well, the leader's repositories append each record to the journal and queue
+ * it for followers under the same stripe, then wait for the journal's sync with the stripe
+ * released. A follower can then see a record a moment before it is durable, a leader that crashes
+ * in that moment starts its followers again from a new snapshot when it comes back.
+ *
+ * A new follower is registered before the store is read for its snapshot, anything the snapshot
+ * misses is already queued behind it. Replaying a record twice does no harm. A follower that falls
+ * more than MAX_QUEUED frames behind is dropped, and starts again from a new snapshot when it
+ * reconnects.
+ */
+public class ReplicationLeader implements RecordSink, Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ReplicationLeader.class);
+
+  public static final long HEARTBEAT_MILLIS = 100;
+  static final int MAX_QUEUED = 100000;
+
+  private final OrdersRepository orders;
+  private final OrderStatusRepository statuses;
+  private final OrdersRepository replicatedOrders;
+  private final OrderStatusRepository replicatedStatuses;
+  private final OrderUnitOfWork replicatedUnitOfWork;
+  private final int port;
+
+  private final Object lock = new Object();
+  //guarded by lock
+  private long sequence;
+  private final List<Link> links = new CopyOnWriteArrayList<Link>();
+
+  private ServerSocket serverSocket;
+  private ScheduledExecutorService heartbeats;
+  private volatile boolean closed;
+
+  /**
+   * @param port 0 for any free port, see {@link #getPort()}
+   */
+  public ReplicationLeader(OrdersRepository orders, OrderStatusRepository statuses, OrderUnitOfWork unitOfWork, int port) {
+    this(null, orders, statuses, unitOfWork, port);
+  }
+
+  /**
+   * @param journal appended to ahead of the followers, or null for none. The repositories are then
+   *                the unjournaled ones it was replayed into, the leader's are the only journaled views
+   * @param port 0 for any free port, see {@link #getPort()}
+   */
+  public ReplicationLeader(RecordSink journal, OrdersRepository orders, OrderStatusRepository statuses,
+                           OrderUnitOfWork unitOfWork, int port) {
+    this.orders = orders;
+    this.statuses = statuses;
+    RecordSink sink = journal == null ? this : new JournalThenFollowers(journal);
+    KeyStripes stripes = new KeyStripes();
+    this.replicatedOrders = new JournaledOrdersRepository(sink, orders, stripes);
+    this.replicatedStatuses = new JournaledOrderStatusRepository(sink, statuses, stripes);
+    this.replicatedUnitOfWork = new JournaledOrderUnitOfWork(sink, unitOfWork, stripes);
+    this.port = port;
+  }
+
+  public synchronized void start() throws IOException {
+    if (serverSocket != null) {
+      return;
+    }
+    serverSocket = new ServerSocket();
+    serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    Thread acceptor = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        accept();
+      }
+    }, "replication-leader");
+    acceptor.setDaemon(true);
+    acceptor.start();
+
+    heartbeats = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "replication-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    heartbeats.scheduleAtFixedRate(new Runnable() {
+      @Override
+      public void run() {
+        synchronized (lock) {
+          queue(new ReplicationFrame(ReplicationFrame.HEARTBEAT, sequence, System.currentTimeMillis(), null));
+        }
+      }
+    }, HEARTBEAT_MILLIS, HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public long append(byte[] record) {
+    synchronized (lock) {
+      sequence++;
+      queue(new ReplicationFrame(ReplicationFrame.RECORD, sequence, System.currentTimeMillis(), record));
+      return sequence;
+    }
+  }
+
+  //queued is as safe as a follower's record gets, the writer never waits on one
+  @Override
+  public void sync(long sequence) {
+  }
+
+  public OrdersRepository getOrdersRepository() {
+    return replicatedOrders;
+  }
+
+  public OrderStatusRepository getOrderStatusRepository() {
+    return replicatedStatuses;
+  }
+
+  public OrderUnitOfWork getUnitOfWork() {
+    return replicatedUnitOfWork;
+  }
+
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  //The sequence of the latest mutation, a follower that has applied it is fully up to date
+  public long getSequence() {
+    synchronized (lock) {
+      return sequence;
+    }
+  }
+
+  public int getFollowerCount() {
+    return links.size();
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    closed = true;
+    if (heartbeats != null) {
+      heartbeats.shutdownNow();
+    }
+    if (serverSocket != null) {
+      serverSocket.close();
+    }
+    for (Link link : links) {
+      link.close();
+    }
+  }
+
+  //under lock, so frames reach every follower in sequence order
+  private void queue(ReplicationFrame frame) {
+    for (Link link : links) {
+      if (!link.frames.offer(frame)) {
+        LOG.warn("Dropping replication follower {}, more than {} frames behind", link.socket.getRemoteSocketAddress(), MAX_QUEUED);
+        link.close();
+      }
+    }
+  }
+
+  private void accept() {
+    while (!closed) {
+      try {
+        Socket socket = serverSocket.accept();
+        socket.setTcpNoDelay(true);
+        final Link link = new Link(socket);
+        final ReplicationFrame registered;
+        synchronized (lock) {
+          links.add(link);
+          registered = new ReplicationFrame(ReplicationFrame.SNAPSHOT_END, sequence, System.currentTimeMillis(), null);
+        }
+        Thread sender = new Thread(new Runnable() {
+          @Override
+          public void run() {
+            link.send(registered);
+          }
+        }, "replication-sender-" + socket.getPort());
+        sender.setDaemon(true);
+        sender.start();
+      } catch (IOException e) {
+        if (!closed) {
+          LOG.warn("Replication leader stopped accepting followers", e);
+        }
+        return;
+      }
+    }
+  }
+
+  private final class JournalThenFollowers implements RecordSink {
+    private final RecordSink journal;
+
+    JournalThenFollowers(RecordSink journal) {
+      this.journal = journal;
+    }
+
+    @Override
+    public long append(byte[] record) {
+      long sequence = journal.append(record);
+      ReplicationLeader.this.append(record);
+      return sequence;
+    }
+
+    @Override
+    public void sync(long sequence) {
+      journal.sync(sequence);
+    }
+  }
+
+  private final class Link {
+    final Socket socket;
+    final BlockingQueue<ReplicationFrame> frames = new LinkedBlockingQueue<ReplicationFrame>(MAX_QUEUED);
+
+    Link(Socket socket) {
+      this.socket = socket;
+    }
+
+    void send(ReplicationFrame snapshotEnd) {
+      try {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 64 * 1024));
+        new ReplicationFrame(ReplicationFrame.SNAPSHOT_START, 0, 0, null).writeTo(out);
+        for (Order order : orders.findAll()) {
+          new ReplicationFrame(ReplicationFrame.SNAPSHOT_RECORD, 0, 0, JournalRecords.orderSaved(order)).writeTo(out);
+        }
+        for (OrderStatus status : statuses.findAll()) {
+          new ReplicationFrame(ReplicationFrame.SNAPSHOT_RECORD, 0, 0, JournalRecords.statusSaved(status)).writeTo(out);
+        }
+        snapshotEnd.writeTo(out);
+        while (!socket.isClosed()) {
+          ReplicationFrame frame = frames.poll();
+          if (frame == null) {
+            out.flush();
+            frame = frames.take();
+          }
+          frame.writeTo(out);
+        }
+      } catch (IOException e) {
+        if (!socket.isClosed()) {
+          LOG.info("Replication follower {} went away: {}", socket.getRemoteSocketAddress(), e.toString());
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        close();
+      }
+    }
+
+    void close() {
+      links.remove(this);
+      try {
+        socket.close();
+      } catch (IOException e) {
+        LOG.debug("Closing replication follower socket", e);
+      }
+      //wakes the sender if it is waiting for a frame
+      frames.offer(new ReplicationFrame(ReplicationFrame.HEARTBEAT, 0, 0, null));
+    }
+  }
+}
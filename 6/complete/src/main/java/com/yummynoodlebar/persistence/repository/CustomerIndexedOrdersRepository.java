@@ -0,0 +1,69 @@
+package com.yummynoodlebar.persistence.repository;
+
+import com.yummynoodlebar.events.orders.OrderCursor;
+import com.yummynoodlebar.persistence.domain.Order;
+import com.yummynoodlebar.persistence.index.CustomerOrderIndex;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/*
+ * Keeps a CustomerOrderIndex in step with another OrdersRepository. Placed innermost, under the
+ * journal, so orders replayed at start up and saved by a unit of work are indexed too.
+ */
+public class CustomerIndexedOrdersRepository implements OrdersRepository {
+
+  private final OrdersRepository delegate;
+  private final CustomerOrderIndex index;
+
+  public CustomerIndexedOrdersRepository(OrdersRepository delegate, CustomerOrderIndex index) {
+    this.delegate = delegate;
+    this.index = index;
+    for (Order order : delegate.findAll()) {
+      index.add(order.getKey(), order.getDateTimeOfSubmission(), order.getUserName());
+    }
+  }
+
+  @Override
+  public Order save(Order order) {
+    Order saved = delegate.save(order);
+    index.add(saved.getKey(), saved.getDateTimeOfSubmission(), saved.getUserName());
+    return saved;
+  }
+
+  @Override
+  public void delete(UUID key) {
+    delegate.delete(key);
+    index.remove(key);
+  }
+
+  @Override
+  public Order findById(UUID key) {
+    return delegate.findById(key);
+  }
+
+  @Override
+  public Iterable<Order> findAll() {
+    return delegate.findAll();
+  }
+
+  @Override
+  public List<Order> findPage(OrderCursor after, int limit) {
+    return delegate.findPage(after, limit);
+  }
+
+  @Override
+  public List<Order> findSubmittedBetween(Date from, Date to) {
+    return delegate.findSubmittedBetween(from, to);
+  }
+
+  @Override
+  public List<UUID> deleteSubmittedBefore(Date cutoff) {
+    List<UUID> deleted = delegate.deleteSubmittedBefore(cutoff);
+    for (UUID key : deleted) {
+      index.remove(key);
+    }
+    return deleted;
+  }
+}
@@ -2,47 +2,56 @@ package com.yummynoodlebar.persistence.repository;
 
 import com.yummynoodlebar.persistence.domain.MenuItem;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
+/*
+ * The menu is read on every page and changed a few times a day, so readers take whatever
+ * snapshot is current without locking and writers publish a whole new one.
+ */
 public class MenuItemMemoryRepository implements MenuItemRepository {
 
-	private Map<String, MenuItem> items = new HashMap<String, MenuItem>();
+	private final AtomicReference<MenuSnapshot> current;
 
 	
 	public MenuItemMemoryRepository() {
-		
+		current = new AtomicReference<MenuSnapshot>(MenuSnapshot.EMPTY);
 	}
 
 	public MenuItemMemoryRepository(Map<String, MenuItem> items) {
-		this.items = items;
+		current = new AtomicReference<MenuSnapshot>(MenuSnapshot.of(items));
 	}
 
 	@Override
 	public MenuItem save(MenuItem item) {
-		items.put(item.getId(), item);
+		MenuSnapshot snapshot;
+		do {
+			snapshot = current.get();
+		} while (!current.compareAndSet(snapshot, snapshot.withSaved(item)));
 		return item;
 	}
 
 	@Override
 	public void delete(String key) {
-		items.remove(key);
+		MenuSnapshot snapshot;
+		do {
+			snapshot = current.get();
+		} while (!current.compareAndSet(snapshot, snapshot.withDeleted(key)));
 	}
 
 	@Override
 	public MenuItem findById(String key) {
-		for (MenuItem item : items.values()) {
-			if (item.getId().equals(key)) {
-				return item;
-			}
-		}
-		return null;
+		return current.get().findById(key);
 	}
 
 	@Override
 	public List<MenuItem> findAll() {
-		return new ArrayList<MenuItem>(items.values());
+		return current.get().getItems();
+	}
+
+	@Override
+	public MenuSnapshot getSnapshot() {
+		return current.get();
 	}
 }
@@ -11,4 +11,7 @@ public interface MenuItemRepository {
   MenuItem findById(String key);
 
   Iterable<MenuItem> findAll();
+
+  //The whole menu as of now, consistent across items and carrying its version
+  MenuSnapshot getSnapshot();
 }
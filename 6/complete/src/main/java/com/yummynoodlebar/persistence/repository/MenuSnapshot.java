@@ -0,0 +1,67 @@
+package com.yummynoodlebar.persistence.repository;
+
+import com.yummynoodlebar.events.orders.MenuItemOrdinals;
+import com.yummynoodlebar.persistence.domain.MenuItem;
+
+import java.util.*;
+
+/*
+ * One published version of the menu. Never changes once built, a change to the menu is a new
+ * snapshot with the next version number, so anything derived from a snapshot can be cached
+ * against its version. Items are copied in, treat the ones handed out as read only.
+ */
+public final class MenuSnapshot {
+
+  static final MenuSnapshot EMPTY = new MenuSnapshot(1, new LinkedHashMap<String, MenuItem>());
+
+  private final long version;
+  private final Map<String, MenuItem> itemsById;
+  private final List<MenuItem> items;
+
+  private MenuSnapshot(long version, LinkedHashMap<String, MenuItem> itemsById) {
+    this.version = version;
+    this.itemsById = Collections.unmodifiableMap(itemsById);
+    this.items = Collections.unmodifiableList(new ArrayList<MenuItem>(itemsById.values()));
+  }
+
+  static MenuSnapshot of(Map<String, MenuItem> items) {
+    LinkedHashMap<String, MenuItem> copy = new LinkedHashMap<String, MenuItem>();
+    for (MenuItem item : items.values()) {
+      copy.put(item.getId(), copyOf(item));
+    }
+    return new MenuSnapshot(1, copy);
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public MenuItem findById(String id) {
+    return itemsById.get(id);
+  }
+
+  public List<MenuItem> getItems() {
+    return items;
+  }
+
+  MenuSnapshot withSaved(MenuItem item) {
+    LinkedHashMap<String, MenuItem> next = new LinkedHashMap<String, MenuItem>(itemsById);
+    next.put(item.getId(), copyOf(item));
+    return new MenuSnapshot(version + 1, next);
+  }
+
+  MenuSnapshot withDeleted(String id) {
+    if (!itemsById.containsKey(id)) {
+      return this;
+    }
+    LinkedHashMap<String, MenuItem> next = new LinkedHashMap<String, MenuItem>(itemsById);
+    next.remove(id);
+    return new MenuSnapshot(version + 1, next);
+  }
+
+  //every item that makes it onto the menu gets an ordinal, so order lines can hold it compactly
+  private static MenuItem copyOf(MenuItem item) {
+    MenuItemOrdinals.register(item.getId());
+    return MenuItem.fromStatusDetails(item.toStatusDetails());
+  }
+}
@@ -0,0 +1,46 @@
+package com.yummynoodlebar.persistence.repository;
+
+import com.yummynoodlebar.persistence.domain.Order;
+import com.yummynoodlebar.persistence.domain.OrderStatus;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/*
+ * The status goes in first. Nobody asks for the status of an order they have not been given the
+ * key of, and the key is only handed out once the order is visible, so the status is always there.
+ */
+public class OrderMemoryUnitOfWork implements OrderUnitOfWork {
+
+  private final OrdersRepository orders;
+  private final OrderStatusRepository statuses;
+
+  public OrderMemoryUnitOfWork(OrdersRepository orders, OrderStatusRepository statuses) {
+    this.orders = orders;
+    this.statuses = statuses;
+  }
+
+  @Override
+  public void saveWithStatus(Order order, OrderStatus status) {
+    statuses.save(status);
+    orders.save(order);
+  }
+
+  @Override
+  public void saveAllWithStatus(List<Order> orders, List<OrderStatus> statuses) {
+    for (int i = 0; i < orders.size(); i++) {
+      saveWithStatus(orders.get(i), statuses.get(i));
+    }
+  }
+
+  //The reverse, orders first, so no order is left showing without its statuses
+  @Override
+  public List<UUID> deleteSubmittedBefore(Date cutoff) {
+    List<UUID> deleted = orders.deleteSubmittedBefore(cutoff);
+    for (UUID key : deleted) {
+      statuses.deleteByOrderId(key);
+    }
+    return deleted;
+  }
+}
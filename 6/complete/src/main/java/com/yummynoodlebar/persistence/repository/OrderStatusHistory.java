@@ -0,0 +1,111 @@
+package com.yummynoodlebar.persistence.repository;
+
+import com.yummynoodlebar.persistence.domain.OrderStatus;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/*
+ * The statuses of a single order, oldest first. An order only ever has a handful of statuses,
+ * so writers copy the array under the history's monitor and readers just take the current one.
+ */
+class OrderStatusHistory {
+
+  private static final OrderStatus[] EMPTY = new OrderStatus[0];
+
+  private volatile OrderStatus[] statuses = EMPTY;
+  private boolean retired;
+
+  /**
+   * @return false if the history has been retired because it emptied, callers should start a new one
+   */
+  synchronized boolean add(OrderStatus status) {
+    if (retired) {
+      return false;
+    }
+    OrderStatus[] current = statuses;
+    int insertAt = current.length;
+    while (insertAt > 0 && time(current[insertAt - 1]) > time(status)) {
+      insertAt--;
+    }
+    OrderStatus[] updated = new OrderStatus[current.length + 1];
+    System.arraycopy(current, 0, updated, 0, insertAt);
+    updated[insertAt] = status;
+    System.arraycopy(current, insertAt, updated, insertAt + 1, current.length - insertAt);
+    statuses = updated;
+    return true;
+  }
+
+  /**
+   * Swaps a status for a new version of it in one write, readers never see the history without
+   * either of them.
+   *
+   * @return false if the old status is not in the history, or it has been retired
+   */
+  synchronized boolean replace(OrderStatus previous, OrderStatus status) {
+    if (retired) {
+      return false;
+    }
+    OrderStatus[] current = statuses;
+    int at = -1;
+    for (int i = 0; i < current.length; i++) {
+      if (current[i] == previous) {
+        at = i;
+        break;
+      }
+    }
+    if (at < 0) {
+      return false;
+    }
+    OrderStatus[] updated = new OrderStatus[current.length];
+    int to = 0;
+    boolean inserted = false;
+    for (int i = 0; i < current.length; i++) {
+      if (i == at) {
+        continue;
+      }
+      if (!inserted && time(current[i]) > time(status)) {
+        updated[to++] = status;
+        inserted = true;
+      }
+      updated[to++] = current[i];
+    }
+    if (!inserted) {
+      updated[to] = status;
+    }
+    statuses = updated;
+    return true;
+  }
+
+  /**
+   * @return true if this removed the last status, the history is then retired
+   */
+  synchronized boolean remove(OrderStatus status) {
+    OrderStatus[] current = statuses;
+    for (int i = 0; i < current.length; i++) {
+      if (current[i] == status) {
+        OrderStatus[] updated = new OrderStatus[current.length - 1];
+        System.arraycopy(current, 0, updated, 0, i);
+        System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+        statuses = updated;
+        break;
+      }
+    }
+    retired = statuses.length == 0;
+    return retired;
+  }
+
+  OrderStatus latest() {
+    OrderStatus[] current = statuses;
+    return current.length == 0 ? null : current[current.length - 1];
+  }
+
+  List<OrderStatus> all() {
+    return Collections.unmodifiableList(Arrays.asList(statuses));
+  }
+
+  private static long time(OrderStatus status) {
+    return status.getStatusDate() == null ? Long.MIN_VALUE : status.getStatusDate().getTime();
+  }
+}
@@ -1,36 +1,128 @@
 package com.yummynoodlebar.persistence.repository;
 
 import com.yummynoodlebar.persistence.domain.OrderStatus;
+import com.yummynoodlebar.persistence.index.ConcurrentUuidMap;
+import com.yummynoodlebar.persistence.index.OrderStatusIndex;
 
 import java.util.*;
 
 public class OrderStatusMemoryRepository implements OrderStatusRepository {
 
-  private Map<UUID, OrderStatus> orderStatuses = new HashMap<UUID, OrderStatus>();
+  private static final int STRIPES = 64;
+
+  private final ConcurrentUuidMap<OrderStatus> orderStatuses = new ConcurrentUuidMap<OrderStatus>();
+
+  //keyed by order id, so the order status page never has to scan every status
+  private final ConcurrentUuidMap<OrderStatusHistory> histories = new ConcurrentUuidMap<OrderStatusHistory>();
+
+  //each order's latest status, for the kitchen queues
+  private final OrderStatusIndex byLatestStatus = new OrderStatusIndex();
+  private final Object[] stripes = new Object[STRIPES];
+
+  public OrderStatusMemoryRepository() {
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new Object();
+    }
+  }
 
   @Override
   public OrderStatus save(OrderStatus order) {
-    orderStatuses.put(order.getId(), order);
+    OrderStatus previous = orderStatuses.put(order.getId(), order);
+    if (previous != null) {
+      //saved again for the same order, as replaying a journal does, swapped in place so the order never goes without it
+      if (previous.getOrderId().equals(order.getOrderId()) && replaceInHistory(previous, order)) {
+        reindex(order.getOrderId());
+        return order;
+      }
+      removeFromHistory(previous);
+      if (!previous.getOrderId().equals(order.getOrderId())) {
+        reindex(previous.getOrderId());
+      }
+    }
+    while (!history(order.getOrderId()).add(order)) {
+      //raced with the removal of the order's last status, the retired history has gone from the map
+    }
+    reindex(order.getOrderId());
     return order;
   }
 
   @Override
   public void delete(UUID key) {
-    orderStatuses.remove(key);
+    OrderStatus removed = orderStatuses.remove(key);
+    if (removed != null) {
+      removeFromHistory(removed);
+      reindex(removed.getOrderId());
+    }
   }
 
   @Override
   public OrderStatus findLatestById(UUID key) {
-    for(OrderStatus item: orderStatuses.values()) {
-      if (item.getOrderId().equals(key)) {
-        return item;
+    OrderStatusHistory history = histories.get(key);
+    return history == null ? null : history.latest();
+  }
+
+  @Override
+  public List<OrderStatus> findHistoryById(UUID key) {
+    OrderStatusHistory history = histories.get(key);
+    return history == null ? Collections.<OrderStatus>emptyList() : history.all();
+  }
+
+  @Override
+  public List<OrderStatus> deleteByOrderId(UUID key) {
+    List<OrderStatus> removed = new ArrayList<OrderStatus>();
+    for (OrderStatus status : findHistoryById(key)) {
+      if (orderStatuses.remove(status.getId(), status)) {
+        removeFromHistory(status);
+        removed.add(status);
       }
     }
-    return null;
+    reindex(key);
+    return removed;
+  }
+
+  @Override
+  public List<UUID> findOrderIdsByLatestStatus(String status) {
+    return byLatestStatus.findByStatus(status);
   }
 
   @Override
   public List<OrderStatus> findAll() {
-    return new ArrayList<OrderStatus>(orderStatuses.values());
+    return orderStatuses.values();
+  }
+
+  private OrderStatusHistory history(UUID orderId) {
+    OrderStatusHistory history = histories.get(orderId);
+    if (history == null) {
+      OrderStatusHistory created = new OrderStatusHistory();
+      history = histories.putIfAbsent(orderId, created);
+      if (history == null) {
+        history = created;
+      }
+    }
+    return history;
+  }
+
+  //re-reads the order's latest status under its stripe, whichever writer gets here last sees every change
+  private void reindex(UUID orderId) {
+    synchronized (stripes[(orderId.hashCode() & Integer.MAX_VALUE) % STRIPES]) {
+      OrderStatus latest = findLatestById(orderId);
+      if (latest == null) {
+        byLatestStatus.remove(orderId);
+      } else {
+        byLatestStatus.put(orderId, latest.getStatus(), latest.getStatusDate());
+      }
+    }
+  }
+
+  private boolean replaceInHistory(OrderStatus previous, OrderStatus status) {
+    OrderStatusHistory history = histories.get(status.getOrderId());
+    return history != null && history.replace(previous, status);
+  }
+
+  private void removeFromHistory(OrderStatus status) {
+    OrderStatusHistory history = histories.get(status.getOrderId());
+    if (history != null && history.remove(status)) {
+      histories.remove(status.getOrderId(), history);
+    }
   }
 }
@@ -13,5 +13,14 @@ public interface OrderStatusRepository {
 
   OrderStatus findLatestById(UUID key);
 
+  //All statuses of the order with the given key, oldest first
+  List<OrderStatus> findHistoryById(UUID key);
+
+  //Removes all statuses of the order with the given key, returning what was removed
+  List<OrderStatus> deleteByOrderId(UUID key);
+
+  //Orders whose latest status is the given one, the longest in it first
+  List<UUID> findOrderIdsByLatestStatus(String status);
+
   List<OrderStatus> findAll();
 }
@@ -0,0 +1,20 @@
+package com.yummynoodlebar.persistence.repository;
+
+import com.yummynoodlebar.persistence.domain.Order;
+import com.yummynoodlebar.persistence.domain.OrderStatus;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+public interface OrderUnitOfWork {
+
+  //Saves a new order and its first status so that a reader who can find the order finds the status
+  void saveWithStatus(Order order, OrderStatus status);
+
+  //Saves each order with the status at the same position, as one write where the store can
+  void saveAllWithStatus(List<Order> orders, List<OrderStatus> statuses);
+
+  //Deletes every order submitted before the cutoff and all their statuses, returning the orders' keys
+  List<UUID> deleteSubmittedBefore(Date cutoff);
+}
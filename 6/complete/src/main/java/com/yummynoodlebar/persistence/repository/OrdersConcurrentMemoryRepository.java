@@ -0,0 +1,173 @@
+package com.yummynoodlebar.persistence.repository;
+
+import com.yummynoodlebar.events.orders.OrderCursor;
+import com.yummynoodlebar.persistence.domain.Order;
+import com.yummynoodlebar.persistence.index.ConcurrentUuidMap;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Order store for the checkout path. Writes only lock the hash segment they land in and reads
+ * never lock at all, so save and delete stay O(1) however many orders the day has retained.
+ * Keys are held as primitive longs, there is no map entry object per order.
+ *
+ * Paging by submission time uses a sorted index that writes never touch. A write only queues the
+ * key it changed, and whoever asks for the next page first brings the index up to date from the
+ * queue under the index lock. If nobody pages for long enough that the queue fills, writes stop
+ * queueing and the next page rebuilds the index from scratch instead.
+ */
+public class OrdersConcurrentMemoryRepository implements OrdersRepository {
+
+  private static final int MAX_QUEUED_CHANGES = 65536;
+  //sorts before every other key, so a cursor with it starts a range at its submission time
+  private static final UUID FIRST_KEY = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+
+  private final ConcurrentUuidMap<Order> orders;
+
+  private final ConcurrentLinkedQueue<UUID> changed = new ConcurrentLinkedQueue<UUID>();
+  private final AtomicInteger queued = new AtomicInteger();
+  private volatile boolean indexStale;
+
+  //guarded by itself, along with indexed
+  private final NavigableMap<OrderCursor, Order> byTime = new TreeMap<OrderCursor, Order>();
+  private final Map<UUID, OrderCursor> indexed = new HashMap<UUID, OrderCursor>();
+
+  public OrdersConcurrentMemoryRepository(final Map<UUID, Order> orders) {
+    this.orders = new ConcurrentUuidMap<Order>(orders);
+    for (Order order : orders.values()) {
+      reindex(order.getKey());
+    }
+  }
+
+  @Override
+  public Order save(Order order) {
+    orders.put(order.getKey(), order);
+    changed(order.getKey());
+    return order;
+  }
+
+  @Override
+  public void delete(UUID key) {
+    if (orders.remove(key) != null) {
+      changed(key);
+    }
+  }
+
+  @Override
+  public Order findById(UUID key) {
+    return orders.get(key);
+  }
+
+  @Override
+  public List<Order> findAll() {
+    return Collections.unmodifiableList(orders.values());
+  }
+
+  @Override
+  public List<Order> findPage(OrderCursor after, int limit) {
+    List<Order> page = new ArrayList<Order>(Math.min(limit, 64));
+    synchronized (byTime) {
+      catchUp();
+      Map<OrderCursor, Order> candidates = after == null ? byTime : byTime.tailMap(after, false);
+      for (Order order : candidates.values()) {
+        if (page.size() == limit) {
+          break;
+        }
+        page.add(order);
+      }
+    }
+    return page;
+  }
+
+  @Override
+  public List<Order> findSubmittedBetween(Date from, Date to) {
+    List<Order> found = new ArrayList<Order>();
+    if (from.getTime() >= to.getTime()) {
+      return found;
+    }
+    synchronized (byTime) {
+      catchUp();
+      for (Order order : byTime.subMap(new OrderCursor(from.getTime(), FIRST_KEY), new OrderCursor(to.getTime(), FIRST_KEY)).values()) {
+        //an order with no submission time sorts first, and is in no range
+        if (order.getDateTimeOfSubmission() != null) {
+          found.add(order);
+        }
+      }
+    }
+    return found;
+  }
+
+  @Override
+  public List<UUID> deleteSubmittedBefore(Date cutoff) {
+    List<Order> expired = new ArrayList<Order>();
+    synchronized (byTime) {
+      catchUp();
+      for (Order order : byTime.headMap(new OrderCursor(cutoff.getTime(), FIRST_KEY)).values()) {
+        if (order.getDateTimeOfSubmission() != null) {
+          expired.add(order);
+        }
+      }
+    }
+    List<UUID> deleted = new ArrayList<UUID>(expired.size());
+    for (Order order : expired) {
+      //saved again since the index was read, it is no longer the order that expired
+      if (orders.remove(order.getKey(), order)) {
+        changed(order.getKey());
+        deleted.add(order.getKey());
+      }
+    }
+    return deleted;
+  }
+
+  //queued after the map changes, so catching up from the queue always sees the change
+  private void changed(UUID key) {
+    if (indexStale) {
+      return;
+    }
+    if (queued.incrementAndGet() > MAX_QUEUED_CHANGES) {
+      //the count only ever stands for keys actually in the queue
+      queued.decrementAndGet();
+      indexStale = true;
+      return;
+    }
+    changed.add(key);
+  }
+
+  private void catchUp() {
+    if (indexStale) {
+      //anything written from here on is queued again, and picked up by the next page if not this one
+      indexStale = false;
+      //drained one at a time like the fast path, a writer between its increment and its add is still counted
+      while (changed.poll() != null) {
+        queued.decrementAndGet();
+      }
+      byTime.clear();
+      indexed.clear();
+      for (Order order : orders.values()) {
+        reindex(order.getKey());
+      }
+      return;
+    }
+    UUID key;
+    while ((key = changed.poll()) != null) {
+      queued.decrementAndGet();
+      reindex(key);
+    }
+  }
+
+  //makes the index agree with whatever the map holds for the key now, however many changes ago it was queued
+  private void reindex(UUID key) {
+    OrderCursor previous = indexed.remove(key);
+    if (previous != null) {
+      byTime.remove(previous);
+    }
+    Order current = orders.get(key);
+    if (current != null) {
+      OrderCursor cursor = new OrderCursor(current.getDateTimeOfSubmission(), key);
+      byTime.put(cursor, current);
+      indexed.put(key, cursor);
+    }
+  }
+}
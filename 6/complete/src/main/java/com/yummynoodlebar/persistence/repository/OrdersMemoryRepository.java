@@ -1,5 +1,6 @@
 package com.yummynoodlebar.persistence.repository;
 
+import com.yummynoodlebar.events.orders.OrderCursor;
 import com.yummynoodlebar.persistence.domain.Order;
 
 import java.util.*;
@@ -36,6 +37,43 @@ public class OrdersMemoryRepository implements OrdersRepository {
     return orders.get(key);
   }
 
+  @Override
+  public List<Order> findPage(OrderCursor after, int limit) {
+    PageCollector<Order> page = new PageCollector<Order>(after, limit);
+    for (Order order : orders.values()) {
+      page.offer(new OrderCursor(order.getDateTimeOfSubmission(), order.getKey()), order);
+    }
+    return page.sorted();
+  }
+
+  @Override
+  public List<Order> findSubmittedBetween(Date from, Date to) {
+    List<Order> found = new ArrayList<Order>();
+    for (Order order : orders.values()) {
+      if (SubmissionOrder.isBetween(order, from.getTime(), to.getTime())) {
+        found.add(order);
+      }
+    }
+    return SubmissionOrder.sort(found);
+  }
+
+  @Override
+  public synchronized List<UUID> deleteSubmittedBefore(Date cutoff) {
+    List<UUID> deleted = new ArrayList<UUID>();
+    Map<UUID, Order> modifiableOrders = new HashMap<UUID, Order>(orders);
+    for (Iterator<Order> it = modifiableOrders.values().iterator(); it.hasNext(); ) {
+      Order order = it.next();
+      if (SubmissionOrder.isBetween(order, Long.MIN_VALUE, cutoff.getTime())) {
+        deleted.add(order.getKey());
+        it.remove();
+      }
+    }
+    if (!deleted.isEmpty()) {
+      this.orders = Collections.unmodifiableMap(modifiableOrders);
+    }
+    return deleted;
+  }
+
   @Override
   public List<Order> findAll() {
     return Collections.unmodifiableList(new ArrayList<Order>(orders.values()));
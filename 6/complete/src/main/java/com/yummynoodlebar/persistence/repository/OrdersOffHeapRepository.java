@@ -0,0 +1,380 @@
+package com.yummynoodlebar.persistence.repository;
+
+import com.yummynoodlebar.events.orders.OrderCursor;
+import com.yummynoodlebar.persistence.domain.Order;
+import com.yummynoodlebar.persistence.index.UuidLongHashMap;
+import com.yummynoodlebar.persistence.journal.JournalRecords;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+ * Keeps orders serialised in direct buffers outside the Java heap, with an index of primitive
+ * longs from order key to record location. An Order object only exists while a caller holds the
+ * result of findById or findAll, so millions of retained orders add next to nothing to the old
+ * generation.
+ *
+ * Records are appended to fixed size slabs. Overwritten and deleted records leave garbage behind,
+ * a slab whose live bytes drop below a quarter has its survivors copied out and is released.
+ */
+public class OrdersOffHeapRepository implements OrdersRepository {
+
+  public static final int DEFAULT_SLAB_SIZE = 16 * 1024 * 1024;
+
+  //record length, the order key and submission time, enough to page through without decoding
+  private static final int HEADER_SIZE = 4 + 16 + 8;
+
+  private final int slabSize;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  //guarded by lock
+  private final List<Slab> slabs = new ArrayList<Slab>();
+  private final UuidLongHashMap index = new UuidLongHashMap();
+  private Slab active;
+
+  public OrdersOffHeapRepository() {
+    this(DEFAULT_SLAB_SIZE);
+  }
+
+  public OrdersOffHeapRepository(int slabSize) {
+    this.slabSize = slabSize;
+  }
+
+  @Override
+  public Order save(Order order) {
+    byte[] record = JournalRecords.orderSaved(order);
+    if (record.length + HEADER_SIZE > slabSize) {
+      throw new IllegalArgumentException("Order of " + record.length + " bytes does not fit in a slab");
+    }
+    lock.writeLock().lock();
+    try {
+      UUID key = order.getKey();
+      long submitted = new OrderCursor(order.getDateTimeOfSubmission(), key).getSubmitted();
+      long previous = index.put(key,
+          append(key.getMostSignificantBits(), key.getLeastSignificantBits(), submitted, record));
+      if (previous != UuidLongHashMap.NO_VALUE) {
+        release(previous);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+    return order;
+  }
+
+  @Override
+  public void delete(UUID key) {
+    lock.writeLock().lock();
+    try {
+      long previous = index.remove(key);
+      if (previous != UuidLongHashMap.NO_VALUE) {
+        release(previous);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public Order findById(UUID key) {
+    byte[] record;
+    lock.readLock().lock();
+    try {
+      long location = index.get(key);
+      if (location == UuidLongHashMap.NO_VALUE) {
+        return null;
+      }
+      record = read(location);
+    } finally {
+      lock.readLock().unlock();
+    }
+    return JournalRecords.readOrderSaved(ByteBuffer.wrap(record));
+  }
+
+  /**
+   * Orders are materialised one at a time as the result is iterated, orders deleted in the
+   * meantime are skipped.
+   */
+  @Override
+  public Iterable<Order> findAll() {
+    final long[] keys;
+    lock.readLock().lock();
+    try {
+      keys = index.keys();
+    } finally {
+      lock.readLock().unlock();
+    }
+    return new Iterable<Order>() {
+      @Override
+      public Iterator<Order> iterator() {
+        return new Iterator<Order>() {
+          private int next;
+          private Order order = advance();
+
+          @Override
+          public boolean hasNext() {
+            return order != null;
+          }
+
+          @Override
+          public Order next() {
+            if (order == null) {
+              throw new NoSuchElementException();
+            }
+            Order current = order;
+            order = advance();
+            return current;
+          }
+
+          @Override
+          public void remove() {
+            throw new UnsupportedOperationException();
+          }
+
+          private Order advance() {
+            while (next < keys.length) {
+              Order found = findById(new UUID(keys[next], keys[next + 1]));
+              next += 2;
+              if (found != null) {
+                return found;
+              }
+            }
+            return null;
+          }
+        };
+      }
+    };
+  }
+
+  /**
+   * Walks the record headers in the slabs, only the orders on the page are decoded.
+   */
+  @Override
+  public List<Order> findPage(OrderCursor after, int limit) {
+    List<byte[]> records = new ArrayList<byte[]>();
+    lock.readLock().lock();
+    try {
+      PageCollector<Long> page = new PageCollector<Long>(after, limit);
+      for (Slab slab : slabs) {
+        if (slab == null) {
+          continue;
+        }
+        ByteBuffer buffer = slab.buffer.duplicate();
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+          int offset = buffer.position();
+          int length = buffer.getInt();
+          long msb = buffer.getLong();
+          long lsb = buffer.getLong();
+          long submitted = buffer.getLong();
+          buffer.position(buffer.position() + length);
+          long location = location(slab.index, offset);
+          if (index.get(msb, lsb) == location) {
+            page.offer(new OrderCursor(submitted, new UUID(msb, lsb)), location);
+          }
+        }
+      }
+      for (long location : page.sorted()) {
+        records.add(read(location));
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    List<Order> orders = new ArrayList<Order>(records.size());
+    for (byte[] record : records) {
+      orders.add(JournalRecords.readOrderSaved(ByteBuffer.wrap(record)));
+    }
+    return orders;
+  }
+
+  /**
+   * Walks the record headers like findPage, only the orders in the range are decoded.
+   */
+  @Override
+  public List<Order> findSubmittedBetween(Date from, Date to) {
+    long fromMillis = from.getTime();
+    long toMillis = to.getTime();
+    List<byte[]> records = new ArrayList<byte[]>();
+    lock.readLock().lock();
+    try {
+      NavigableMap<OrderCursor, Long> found = new TreeMap<OrderCursor, Long>();
+      for (Slab slab : slabs) {
+        if (slab == null) {
+          continue;
+        }
+        ByteBuffer buffer = slab.buffer.duplicate();
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+          int offset = buffer.position();
+          int length = buffer.getInt();
+          long msb = buffer.getLong();
+          long lsb = buffer.getLong();
+          long submitted = buffer.getLong();
+          buffer.position(buffer.position() + length);
+          long location = location(slab.index, offset);
+          //Long.MIN_VALUE stands for no submission time, which is in no range
+          if (submitted != Long.MIN_VALUE && submitted >= fromMillis && submitted < toMillis
+              && index.get(msb, lsb) == location) {
+            found.put(new OrderCursor(submitted, new UUID(msb, lsb)), location);
+          }
+        }
+      }
+      for (long location : found.values()) {
+        records.add(read(location));
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    List<Order> orders = new ArrayList<Order>(records.size());
+    for (byte[] record : records) {
+      orders.add(JournalRecords.readOrderSaved(ByteBuffer.wrap(record)));
+    }
+    return orders;
+  }
+
+  @Override
+  public List<UUID> deleteSubmittedBefore(Date cutoff) {
+    long cutoffMillis = cutoff.getTime();
+    List<UUID> deleted = new ArrayList<UUID>();
+    lock.writeLock().lock();
+    try {
+      for (Slab slab : slabs) {
+        if (slab == null) {
+          continue;
+        }
+        ByteBuffer buffer = slab.buffer.duplicate();
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+          int offset = buffer.position();
+          int length = buffer.getInt();
+          long msb = buffer.getLong();
+          long lsb = buffer.getLong();
+          long submitted = buffer.getLong();
+          buffer.position(buffer.position() + length);
+          if (submitted != Long.MIN_VALUE && submitted < cutoffMillis
+              && index.get(msb, lsb) == location(slab.index, offset)) {
+            deleted.add(new UUID(msb, lsb));
+          }
+        }
+      }
+      //released once the walk is done, releasing can compact a slab and move what is left in it
+      for (UUID key : deleted) {
+        release(index.remove(key));
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+    return deleted;
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return index.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @return the off-heap bytes currently allocated to slabs
+   */
+  public long allocatedBytes() {
+    lock.readLock().lock();
+    try {
+      long allocated = 0;
+      for (Slab slab : slabs) {
+        if (slab != null) {
+          allocated += slab.buffer.capacity();
+        }
+      }
+      return allocated;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private long append(long msb, long lsb, long submitted, byte[] record) {
+    if (active == null || active.buffer.remaining() < record.length + HEADER_SIZE) {
+      active = newSlab();
+    }
+    int offset = active.buffer.position();
+    active.buffer.putInt(record.length);
+    active.buffer.putLong(msb);
+    active.buffer.putLong(lsb);
+    active.buffer.putLong(submitted);
+    active.buffer.put(record);
+    active.live += record.length + HEADER_SIZE;
+    return location(active.index, offset);
+  }
+
+  private byte[] read(long location) {
+    ByteBuffer buffer = slabs.get(slabOf(location)).buffer.duplicate();
+    buffer.position(offsetOf(location));
+    byte[] record = new byte[buffer.getInt()];
+    buffer.position(buffer.position() + HEADER_SIZE - 4);
+    buffer.get(record);
+    return record;
+  }
+
+  private void release(long location) {
+    Slab slab = slabs.get(slabOf(location));
+    slab.live -= slab.buffer.getInt(offsetOf(location)) + HEADER_SIZE;
+    if (slab != active && slab.live < slabSize / 4) {
+      compact(slab);
+    }
+  }
+
+  private void compact(Slab slab) {
+    slabs.set(slab.index, null);
+    ByteBuffer buffer = slab.buffer.duplicate();
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      int offset = buffer.position();
+      byte[] record = new byte[buffer.getInt()];
+      long msb = buffer.getLong();
+      long lsb = buffer.getLong();
+      long submitted = buffer.getLong();
+      buffer.get(record);
+      //a record is live if the index still points at it
+      if (index.get(msb, lsb) == location(slab.index, offset)) {
+        index.put(msb, lsb, append(msb, lsb, submitted, record));
+      }
+    }
+  }
+
+  private Slab newSlab() {
+    int slot = slabs.indexOf(null);
+    if (slot < 0) {
+      slot = slabs.size();
+      slabs.add(null);
+    }
+    Slab slab = new Slab(slot, ByteBuffer.allocateDirect(slabSize));
+    slabs.set(slot, slab);
+    return slab;
+  }
+
+  private static long location(int slab, int offset) {
+    return ((long) slab << 32) | offset;
+  }
+
+  private static int slabOf(long location) {
+    return (int) (location >>> 32);
+  }
+
+  private static int offsetOf(long location) {
+    return (int) location;
+  }
+
+  private static class Slab {
+    final int index;
+    final ByteBuffer buffer;
+    int live;
+
+    Slab(int index, ByteBuffer buffer) {
+      this.index = index;
+      this.buffer = buffer;
+    }
+  }
+}
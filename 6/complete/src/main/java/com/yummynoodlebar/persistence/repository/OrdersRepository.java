@@ -1,7 +1,10 @@
 package com.yummynoodlebar.persistence.repository;
 
+import com.yummynoodlebar.events.orders.OrderCursor;
 import com.yummynoodlebar.persistence.domain.Order;
 
+import java.util.Date;
+import java.util.List;
 import java.util.UUID;
 
 public interface OrdersRepository {
@@ -13,4 +16,13 @@ public interface OrdersRepository {
   Order findById(UUID key);
 
   Iterable<Order> findAll();
+
+  //Up to limit orders after the cursor (from the start if null), by submission time then key
+  List<Order> findPage(OrderCursor after, int limit);
+
+  //Orders submitted at or after from and before to, by submission time then key
+  List<Order> findSubmittedBetween(Date from, Date to);
+
+  //Deletes every order submitted before the cutoff in one go, orders with no submission time are kept
+  List<UUID> deleteSubmittedBefore(Date cutoff);
 }
@@ -0,0 +1,60 @@
+package com.yummynoodlebar.persistence.repository;
+
+import com.yummynoodlebar.events.orders.OrderCursor;
+
+import java.util.*;
+
+/*
+ * Keeps the first limit candidates after a cursor while the rest stream past, for repositories
+ * with no time ordered index of their own. Memory is bounded by the page, not the repository.
+ */
+final class PageCollector<T> {
+
+  private final OrderCursor after;
+  private final int limit;
+  //largest cursor on top, so it is the one to go when something earlier turns up
+  private final PriorityQueue<Map.Entry<OrderCursor, T>> page;
+
+  PageCollector(OrderCursor after, int limit) {
+    this.after = after;
+    this.limit = limit;
+    this.page = new PriorityQueue<Map.Entry<OrderCursor, T>>(limit + 1, new Comparator<Map.Entry<OrderCursor, T>>() {
+      @Override
+      public int compare(Map.Entry<OrderCursor, T> left, Map.Entry<OrderCursor, T> right) {
+        return right.getKey().compareTo(left.getKey());
+      }
+    });
+  }
+
+  void offer(OrderCursor cursor, T value) {
+    if (after != null && cursor.compareTo(after) <= 0) {
+      return;
+    }
+    if (page.size() == limit) {
+      if (cursor.compareTo(page.peek().getKey()) >= 0) {
+        return;
+      }
+      page.poll();
+    }
+    page.add(new AbstractMap.SimpleImmutableEntry<OrderCursor, T>(cursor, value));
+  }
+
+  boolean isFull() {
+    return page.size() == limit;
+  }
+
+  //only meaningful once full
+  OrderCursor last() {
+    return page.peek().getKey();
+  }
+
+  List<T> sorted() {
+    List<Map.Entry<OrderCursor, T>> entries = new ArrayList<Map.Entry<OrderCursor, T>>(page);
+    Collections.sort(entries, Collections.reverseOrder(page.comparator()));
+    List<T> values = new ArrayList<T>(entries.size());
+    for (Map.Entry<OrderCursor, T> entry : entries) {
+      values.add(entry.getValue());
+    }
+    return values;
+  }
+}
@@ -0,0 +1,40 @@
+package com.yummynoodlebar.persistence.repository;
+
+import com.yummynoodlebar.events.orders.OrderCursor;
+import com.yummynoodlebar.persistence.domain.Order;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/*
+ * Range queries on repositories with no time ordered index of their own, they filter what they
+ * hold and then sort it the way pages are sorted.
+ */
+final class SubmissionOrder {
+
+  private static final Comparator<Order> BY_CURSOR = new Comparator<Order>() {
+    @Override
+    public int compare(Order left, Order right) {
+      return new OrderCursor(left.getDateTimeOfSubmission(), left.getKey())
+          .compareTo(new OrderCursor(right.getDateTimeOfSubmission(), right.getKey()));
+    }
+  };
+
+  private SubmissionOrder() {
+  }
+
+  //orders with no submission time are in no range
+  static boolean isBetween(Order order, long fromMillis, long toMillis) {
+    if (order.getDateTimeOfSubmission() == null) {
+      return false;
+    }
+    long submitted = order.getDateTimeOfSubmission().getTime();
+    return submitted >= fromMillis && submitted < toMillis;
+  }
+
+  static List<Order> sort(List<Order> orders) {
+    Collections.sort(orders, BY_CURSOR);
+    return orders;
+  }
+}
@@ -0,0 +1,201 @@
+package com.yummynoodlebar.persistence.repository;
+
+import com.yummynoodlebar.events.orders.OrderCursor;
+import com.yummynoodlebar.persistence.domain.Order;
+import com.yummynoodlebar.persistence.index.ConcurrentUuidMap;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+ * Buckets orders by the hour (or day, or any fixed period) they were submitted in. A time range
+ * query only visits the partitions overlapping the range, and retiring a period removes its
+ * whole partition in one step, handing back the keys that went with it so the journal, the
+ * customer index and the status repository can follow.
+ *
+ * Each key also points straight at the partition holding it, so findById and delete never look
+ * through the partitions, and a dropped partition's keys are cleared from it after the drop.
+ *
+ * Saves into a closed period, as when a journal is replayed, share a lock with dropping a
+ * partition so they cannot land in one that is on its way out. Saves into the current period never
+ * take it. A partition is only dropped once a whole further period has passed since it closed, a
+ * save would have to stall for that long between picking the partition and writing to it to miss.
+ */
+public class TimePartitionedOrdersRepository implements OrdersRepository {
+
+  private final long partitionMillis;
+
+  //keyed by the start of the period, in epoch millis
+  private final ConcurrentNavigableMap<Long, ConcurrentUuidMap<Order>> partitions =
+      new ConcurrentSkipListMap<Long, ConcurrentUuidMap<Order>>();
+  //the partition each order is in
+  private final ConcurrentUuidMap<ConcurrentUuidMap<Order>> locations = new ConcurrentUuidMap<ConcurrentUuidMap<Order>>();
+  //read locked to save into a closed period, write locked to drop a partition
+  private final ReadWriteLock closed = new ReentrantReadWriteLock();
+
+  public TimePartitionedOrdersRepository(long partitionPeriod, TimeUnit unit) {
+    this.partitionMillis = unit.toMillis(partitionPeriod);
+    if (partitionMillis <= 0) {
+      throw new IllegalArgumentException("Partition period must be at least a millisecond");
+    }
+  }
+
+  @Override
+  public Order save(Order order) {
+    if (order.getDateTimeOfSubmission() == null) {
+      throw new IllegalArgumentException("Order " + order.getKey() + " has no submission time to partition by");
+    }
+    long start = partitionStart(order.getDateTimeOfSubmission().getTime());
+    if (start + partitionMillis > System.currentTimeMillis()) {
+      put(start, order);
+      return order;
+    }
+    closed.readLock().lock();
+    try {
+      put(start, order);
+    } finally {
+      closed.readLock().unlock();
+    }
+    return order;
+  }
+
+  @Override
+  public void delete(UUID key) {
+    ConcurrentUuidMap<Order> partition = locations.remove(key);
+    if (partition != null) {
+      partition.remove(key);
+    }
+  }
+
+  @Override
+  public Order findById(UUID key) {
+    ConcurrentUuidMap<Order> partition = locations.get(key);
+    return partition == null ? null : partition.get(key);
+  }
+
+  @Override
+  public List<Order> findAll() {
+    List<Order> orders = new ArrayList<Order>();
+    for (ConcurrentUuidMap<Order> partition : partitions.values()) {
+      orders.addAll(partition.values());
+    }
+    return Collections.unmodifiableList(orders);
+  }
+
+  //partitions are already in time order, only those up to the end of the page are visited
+  @Override
+  public List<Order> findPage(OrderCursor after, int limit) {
+    PageCollector<Order> page = new PageCollector<Order>(after, limit);
+    Map<Long, ConcurrentUuidMap<Order>> candidates =
+        after == null || after.getSubmitted() == Long.MIN_VALUE ? partitions : partitions.tailMap(partitionStart(after.getSubmitted()));
+    for (Map.Entry<Long, ConcurrentUuidMap<Order>> partition : candidates.entrySet()) {
+      if (page.isFull() && partition.getKey() > page.last().getSubmitted()) {
+        break;
+      }
+      for (Order order : partition.getValue().values()) {
+        page.offer(new OrderCursor(order.getDateTimeOfSubmission(), order.getKey()), order);
+      }
+    }
+    return page.sorted();
+  }
+
+  //only the partitions overlapping the range are visited, and only those it cuts across are filtered
+  @Override
+  public List<Order> findSubmittedBetween(Date from, Date to) {
+    long fromMillis = from.getTime();
+    long toMillis = to.getTime();
+    List<Order> orders = new ArrayList<Order>();
+    if (fromMillis >= toMillis) {
+      return orders;
+    }
+    Long first = partitions.floorKey(fromMillis);
+    for (Map.Entry<Long, ConcurrentUuidMap<Order>> partition :
+        partitions.subMap(first != null ? first : fromMillis, true, toMillis, false).entrySet()) {
+      boolean inside = partition.getKey() >= fromMillis && partition.getKey() + partitionMillis <= toMillis;
+      for (Order order : partition.getValue().values()) {
+        long submitted = order.getDateTimeOfSubmission().getTime();
+        if (inside || (submitted >= fromMillis && submitted < toMillis)) {
+          orders.add(order);
+        }
+      }
+    }
+    return SubmissionOrder.sort(orders);
+  }
+
+  /**
+   * Drops every partition that ended before the cutoff, and a whole period before now, in one step
+   * each. Orders before the cutoff in a partition too young to drop are deleted one by one.
+   *
+   * @return the keys of the orders deleted
+   */
+  @Override
+  public List<UUID> deleteSubmittedBefore(Date cutoff) {
+    long cutoffMillis = cutoff.getTime();
+    long droppable = Math.min(partitionStart(cutoffMillis), partitionStart(System.currentTimeMillis()) - partitionMillis);
+    List<ConcurrentUuidMap<Order>> dropped = new ArrayList<ConcurrentUuidMap<Order>>();
+    closed.writeLock().lock();
+    try {
+      for (Iterator<ConcurrentUuidMap<Order>> it = partitions.headMap(droppable).values().iterator(); it.hasNext(); ) {
+        dropped.add(it.next());
+        it.remove();
+      }
+    } finally {
+      closed.writeLock().unlock();
+    }
+    List<UUID> deleted = new ArrayList<UUID>();
+    for (ConcurrentUuidMap<Order> partition : dropped) {
+      for (Order order : partition.values()) {
+        locations.remove(order.getKey(), partition);
+        deleted.add(order.getKey());
+      }
+    }
+    for (ConcurrentUuidMap<Order> partition : partitions.headMap(cutoffMillis).values()) {
+      for (Order order : partition.values()) {
+        if (order.getDateTimeOfSubmission().getTime() < cutoffMillis && partition.remove(order.getKey(), order)) {
+          locations.remove(order.getKey(), partition);
+          deleted.add(order.getKey());
+        }
+      }
+    }
+    return deleted;
+  }
+
+  public int partitionCount() {
+    return partitions.size();
+  }
+
+  //a save moving an order to another period takes it out of the one it was in
+  private void put(long start, Order order) {
+    ConcurrentUuidMap<Order> partition = partition(start);
+    partition.put(order.getKey(), order);
+    ConcurrentUuidMap<Order> previous = locations.put(order.getKey(), partition);
+    if (previous != null && previous != partition) {
+      previous.remove(order.getKey());
+    }
+  }
+
+  private ConcurrentUuidMap<Order> partition(long start) {
+    ConcurrentUuidMap<Order> partition = partitions.get(start);
+    if (partition == null) {
+      ConcurrentUuidMap<Order> created = new ConcurrentUuidMap<Order>();
+      partition = partitions.putIfAbsent(start, created);
+      if (partition == null) {
+        partition = created;
+      }
+    }
+    return partition;
+  }
+
+  private long partitionStart(long millis) {
+    return millis - floorMod(millis, partitionMillis);
+  }
+
+  private static long floorMod(long x, long y) {
+    long mod = x % y;
+    return mod < 0 ? mod + y : mod;
+  }
+}
@@ -0,0 +1,45 @@
+package com.yummynoodlebar.persistence.retention;
+
+import com.yummynoodlebar.events.codec.BinaryWriter;
+import com.yummynoodlebar.events.codec.DetailsCodec;
+import com.yummynoodlebar.persistence.domain.Order;
+import com.yummynoodlebar.persistence.domain.OrderStatus;
+
+import java.io.*;
+import java.util.List;
+
+/*
+ * Appends each archived order to a file as a length prefixed DetailsCodec record: the order, a
+ * varint count, then its statuses oldest first.
+ */
+public class FileOrderArchive implements OrderArchive, Closeable {
+
+  private final DataOutputStream out;
+  private final BinaryWriter record = new BinaryWriter(256);
+
+  public FileOrderArchive(File file) throws IOException {
+    this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true), 64 * 1024));
+  }
+
+  @Override
+  public synchronized void archive(Order order, List<OrderStatus> history) throws IOException {
+    record.reset();
+    DetailsCodec.writeOrderDetails(record, order.toOrderDetails());
+    record.writeVarInt(history.size());
+    for (OrderStatus status : history) {
+      DetailsCodec.writeOrderStatusDetails(record, status.toStatusDetails());
+    }
+    out.writeInt(record.size());
+    record.writeTo(out);
+  }
+
+  @Override
+  public synchronized void flush() throws IOException {
+    out.flush();
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    out.close();
+  }
+}
@@ -0,0 +1,52 @@
+package com.yummynoodlebar.persistence.retention;
+
+import com.yummynoodlebar.persistence.domain.Order;
+import com.yummynoodlebar.persistence.domain.OrderStatus;
+
+import java.util.Map;
+
+/*
+ * Rough retained size of orders and statuses on a 64 bit JVM with compressed references, counting
+ * the repository map entry that pointed at them. Good enough to see what a sweep is worth, not a
+ * substitute for a heap dump.
+ */
+final class HeapFootprint {
+
+  private static final int OBJECT_HEADER = 12;
+  private static final int ARRAY_HEADER = 16;
+  private static final int REFERENCE = 4;
+
+  private static final long DATE = 24;
+  private static final long UUID = 32;
+  private static final long MAP_ENTRY = 32;
+
+  private HeapFootprint() {
+  }
+
+  static long of(Order order) {
+    long size = align(OBJECT_HEADER + 9 * REFERENCE) + UUID + DATE + MAP_ENTRY;
+    size += of(order.getName()) + of(order.getAddress1()) + of(order.getPostcode());
+    size += of(order.getUserName());
+    Map<String, Integer> items = order.getOrderItems();
+    if (items != null) {
+      //an OrderLines and its int array, the menu ids are shared
+      size += align(OBJECT_HEADER + 3 * REFERENCE) + align(ARRAY_HEADER + 8 * items.size());
+    }
+    return size;
+  }
+
+  static long of(OrderStatus status) {
+    return align(OBJECT_HEADER + 4 * REFERENCE) + 2 * UUID + DATE + of(status.getStatus()) + MAP_ENTRY;
+  }
+
+  private static long of(String value) {
+    if (value == null) {
+      return 0;
+    }
+    return align(OBJECT_HEADER + REFERENCE + 8) + align(ARRAY_HEADER + 2 * value.length());
+  }
+
+  private static long align(long size) {
+    return (size + 7) & ~7L;
+  }
+}
@@ -0,0 +1,17 @@
+package com.yummynoodlebar.persistence.retention;
+
+import com.yummynoodlebar.persistence.domain.Order;
+import com.yummynoodlebar.persistence.domain.OrderStatus;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.List;
+
+/*
+ * Somewhere for expired orders to go before they are removed. The sweeper archives everything a
+ * sweep found and flushes before it removes any of it.
+ */
+public interface OrderArchive extends Flushable {
+
+  void archive(Order order, List<OrderStatus> history) throws IOException;
+}
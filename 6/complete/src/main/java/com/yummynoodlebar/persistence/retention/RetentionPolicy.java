@@ -0,0 +1,41 @@
+package com.yummynoodlebar.persistence.retention;
+
+import com.yummynoodlebar.persistence.domain.Order;
+import com.yummynoodlebar.persistence.domain.OrderStatus;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * An order may go once it was submitted longer ago than the maximum age and its latest status is
+ * terminal. Orders still in progress are kept however old they are, someone has to finish them.
+ */
+public class RetentionPolicy {
+
+  private final long maxAgeMillis;
+  private final Set<String> terminalStatuses;
+
+  public RetentionPolicy(long maxAge, TimeUnit unit, Set<String> terminalStatuses) {
+    this.maxAgeMillis = unit.toMillis(maxAge);
+    this.terminalStatuses = Collections.unmodifiableSet(new HashSet<String>(terminalStatuses));
+  }
+
+  public boolean isExpired(Order order, OrderStatus latest, Date now) {
+    Date submitted = order.getDateTimeOfSubmission();
+    return latest != null
+        && terminalStatuses.contains(latest.getStatus())
+        && submitted != null
+        && submitted.getTime() < now.getTime() - maxAgeMillis;
+  }
+
+  public long getMaxAgeMillis() {
+    return maxAgeMillis;
+  }
+
+  public Set<String> getTerminalStatuses() {
+    return terminalStatuses;
+  }
+}
@@ -0,0 +1,46 @@
+package com.yummynoodlebar.persistence.retention;
+
+/*
+ * What one sweep removed. Bytes are an estimate of the heap the removed orders and statuses held,
+ * see HeapFootprint.
+ */
+public class RetentionReport {
+
+  private final int ordersRemoved;
+  private final int statusesRemoved;
+  private final long bytesReclaimed;
+  private final long elapsedMillis;
+
+  public RetentionReport(int ordersRemoved, int statusesRemoved, long bytesReclaimed, long elapsedMillis) {
+    this.ordersRemoved = ordersRemoved;
+    this.statusesRemoved = statusesRemoved;
+    this.bytesReclaimed = bytesReclaimed;
+    this.elapsedMillis = elapsedMillis;
+  }
+
+  public int getOrdersRemoved() {
+    return ordersRemoved;
+  }
+
+  public int getStatusesRemoved() {
+    return statusesRemoved;
+  }
+
+  public int getObjectsReclaimed() {
+    return ordersRemoved + statusesRemoved;
+  }
+
+  public long getBytesReclaimed() {
+    return bytesReclaimed;
+  }
+
+  public long getElapsedMillis() {
+    return elapsedMillis;
+  }
+
+  @Override
+  public String toString() {
+    return "removed " + ordersRemoved + " orders and " + statusesRemoved + " statuses, about "
+        + bytesReclaimed + " bytes, in " + elapsedMillis + "ms";
+  }
+}
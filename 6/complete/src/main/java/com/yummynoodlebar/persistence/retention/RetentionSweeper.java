@@ -0,0 +1,174 @@
+package com.yummynoodlebar.persistence.retention;
+
+import com.yummynoodlebar.events.orders.DeleteOrderEvent;
+import com.yummynoodlebar.events.orders.DeleteOrdersSubmittedBeforeEvent;
+import com.yummynoodlebar.persistence.domain.Order;
+import com.yummynoodlebar.persistence.domain.OrderStatus;
+import com.yummynoodlebar.persistence.repository.OrderStatusRepository;
+import com.yummynoodlebar.persistence.repository.OrdersRepository;
+import com.yummynoodlebar.persistence.services.OrderPersistenceEventHandler;
+import com.yummynoodlebar.persistence.services.OrderPersistenceService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Removes orders the RetentionPolicy says are done with, together with their status history,
+ * after handing them to the archive if there is one. Finds them in the repositories but removes
+ * them through an OrderPersistenceService like any other caller, so journaled repositories journal
+ * the removals and a cache in front of the repositories drops them.
+ *
+ * Only orders submitted longer ago than the maximum age are looked at, so a time-partitioned
+ * repository only visits its old partitions. Everything submitted before the oldest order the
+ * policy keeps goes in one bulk delete, which drops whole partitions and is journaled as a single
+ * record that also clears the statuses and the customer index. Expired orders after that one are
+ * deleted one by one.
+ */
+public class RetentionSweeper implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(RetentionSweeper.class);
+
+  private final OrdersRepository orders;
+  private final OrderStatusRepository statuses;
+  private final OrderPersistenceService removals;
+  private final RetentionPolicy policy;
+  private final OrderArchive archive;
+  private ScheduledExecutorService scheduler;
+  private volatile RetentionReport lastReport;
+
+  public RetentionSweeper(OrdersRepository orders, OrderStatusRepository statuses, RetentionPolicy policy) {
+    this(orders, statuses, policy, null);
+  }
+
+  public RetentionSweeper(OrdersRepository orders, OrderStatusRepository statuses, RetentionPolicy policy,
+                          OrderArchive archive) {
+    this(orders, statuses, new OrderPersistenceEventHandler(orders, statuses), policy, archive);
+  }
+
+  /**
+   * @param removals the service the rest of the application changes orders through, over the same repositories
+   */
+  public RetentionSweeper(OrdersRepository orders, OrderStatusRepository statuses, OrderPersistenceService removals,
+                          RetentionPolicy policy, OrderArchive archive) {
+    this.orders = orders;
+    this.statuses = statuses;
+    this.removals = removals;
+    this.policy = policy;
+    this.archive = archive;
+  }
+
+  /**
+   * Sweeps every period, on a background thread.
+   */
+  public synchronized void start(long period, TimeUnit unit) {
+    if (scheduler != null) {
+      return;
+    }
+    scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "order-retention");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    scheduler.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          LOG.info("Order retention {}", sweep());
+        } catch (IOException | RuntimeException e) {
+          //anything not archived is still in the repositories, try again next time round
+          LOG.warn("Order retention sweep failed", e);
+        }
+      }
+    }, period, period, unit);
+  }
+
+  public RetentionReport sweep() throws IOException {
+    return sweep(new Date());
+  }
+
+  public synchronized RetentionReport sweep(Date now) throws IOException {
+    long started = System.currentTimeMillis();
+    List<Order> expired = new ArrayList<Order>();
+    Date oldest = new Date(now.getTime() - policy.getMaxAgeMillis());
+    //oldest first, so everything before the first order kept can go in one bulk delete
+    Date firstKept = null;
+    for (Order order : orders.findSubmittedBetween(new Date(Long.MIN_VALUE), oldest)) {
+      if (policy.isExpired(order, statuses.findLatestById(order.getKey()), now)) {
+        expired.add(order);
+      } else if (firstKept == null) {
+        firstKept = order.getDateTimeOfSubmission();
+      }
+    }
+    Date bulkCutoff = firstKept == null ? oldest : firstKept;
+    Map<UUID, List<OrderStatus>> histories = new HashMap<UUID, List<OrderStatus>>();
+    for (Order order : expired) {
+      histories.put(order.getKey(), statuses.findHistoryById(order.getKey()));
+    }
+    if (archive != null) {
+      for (Order order : expired) {
+        archive.archive(order, histories.get(order.getKey()));
+      }
+      archive.flush();
+    }
+    Set<UUID> removed = new HashSet<UUID>();
+    int unarchived = 0;
+    for (UUID key : removals.deleteOrdersSubmittedBefore(new DeleteOrdersSubmittedBeforeEvent(bulkCutoff)).getKeys()) {
+      if (histories.containsKey(key)) {
+        removed.add(key);
+      } else {
+        unarchived++;
+      }
+    }
+    if (unarchived > 0) {
+      LOG.warn("{} orders saved before {} while the sweep was under way were removed without being archived",
+          unarchived, bulkCutoff);
+    }
+    for (Order order : expired) {
+      if (!order.getDateTimeOfSubmission().before(bulkCutoff)
+          && removals.deleteOrder(new DeleteOrderEvent(order.getKey())).isEntityFound()) {
+        removed.add(order.getKey());
+      }
+    }
+    int statusesRemoved = 0;
+    long bytes = 0;
+    for (Order order : expired) {
+      if (removed.contains(order.getKey())) {
+        List<OrderStatus> history = histories.get(order.getKey());
+        statusesRemoved += history.size();
+        bytes += HeapFootprint.of(order);
+        for (OrderStatus status : history) {
+          bytes += HeapFootprint.of(status);
+        }
+      }
+    }
+    RetentionReport report = new RetentionReport(removed.size(), statusesRemoved, bytes,
+        System.currentTimeMillis() - started);
+    lastReport = report;
+    return report;
+  }
+
+  public RetentionReport getLastReport() {
+    return lastReport;
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+      scheduler = null;
+    }
+    if (archive instanceof Closeable) {
+      ((Closeable) archive).close();
+    }
+  }
+}
@@ -0,0 +1,165 @@
+package com.yummynoodlebar.persistence.services;
+
+import com.yummynoodlebar.events.orders.*;
+import com.yummynoodlebar.persistence.cache.TinyLfuCache;
+
+import java.util.UUID;
+
+/*
+ * Keeps recently read order details and statuses, found ones only, in front of another
+ * OrderPersistenceService. Writes through this service drop what they change, so it has to be the
+ * outermost service that orders are changed through. The cached events are shared between callers
+ * and must not be modified.
+ *
+ * A read that started before a write finished could otherwise put back what the write just
+ * dropped. Reads go through the cache's startLoad and finishLoad, so a write to the same order
+ * while the read is in flight stops its result being cached. Writes to other orders do not.
+ */
+public class CachingOrderPersistenceService implements OrderPersistenceService {
+
+  private final OrderPersistenceService delegate;
+  private final TinyLfuCache<UUID, OrderDetailsEvent> details;
+  private final TinyLfuCache<UUID, OrderStatusEvent> statuses;
+
+  public CachingOrderPersistenceService(OrderPersistenceService delegate, int maximumSize) {
+    this.delegate = delegate;
+    this.details = new TinyLfuCache<UUID, OrderDetailsEvent>(maximumSize);
+    this.statuses = new TinyLfuCache<UUID, OrderStatusEvent>(maximumSize);
+  }
+
+  @Override
+  public OrderDetailsEvent requestOrderDetails(RequestOrderDetailsEvent requestOrderDetailsEvent) {
+    UUID key = requestOrderDetailsEvent.getKey();
+    OrderDetailsEvent cached = details.get(key);
+    if (cached != null) {
+      return cached;
+    }
+    long stamp = details.startLoad(key);
+    OrderDetailsEvent read = null;
+    try {
+      read = delegate.requestOrderDetails(requestOrderDetailsEvent);
+    } finally {
+      details.finishLoad(key, stamp, read != null && read.isEntityFound() ? read : null);
+    }
+    return read;
+  }
+
+  @Override
+  public OrderStatusEvent requestOrderStatus(RequestOrderStatusEvent requestOrderStatusEvent) {
+    UUID key = requestOrderStatusEvent.getKey();
+    OrderStatusEvent cached = statuses.get(key);
+    if (cached != null) {
+      return cached;
+    }
+    long stamp = statuses.startLoad(key);
+    OrderStatusEvent read = null;
+    try {
+      read = delegate.requestOrderStatus(requestOrderStatusEvent);
+    } finally {
+      statuses.finishLoad(key, stamp, read != null && read.isEntityFound() ? read : null);
+    }
+    return read;
+  }
+
+  @Override
+  public OrderCreatedEvent createOrder(CreateOrderEvent event) {
+    OrderCreatedEvent created = delegate.createOrder(event);
+    wrote(created.getNewOrderKey());
+    return created;
+  }
+
+  @Override
+  public OrderCreatedEvent createOrderWithStatus(CreateOrderWithStatusEvent event) {
+    OrderCreatedEvent created = delegate.createOrderWithStatus(event);
+    wrote(created.getNewOrderKey());
+    return created;
+  }
+
+  @Override
+  public OrdersCreatedEvent createOrdersWithStatus(CreateOrdersWithStatusEvent event) {
+    OrdersCreatedEvent created = delegate.createOrdersWithStatus(event);
+    for (OrderCreatedEvent each : created.getCreated()) {
+      wrote(each.getNewOrderKey());
+    }
+    return created;
+  }
+
+  @Override
+  public OrderStatusEvent setOrderStatus(SetOrderStatusEvent event) {
+    OrderStatusEvent status = delegate.setOrderStatus(event);
+    wrote(event.getOrderStatus().getOrderId());
+    return status;
+  }
+
+  @Override
+  public OrderUpdatedEvent setOrderPayment(SetOrderPaymentEvent setOrderPaymentEvent) {
+    OrderUpdatedEvent updated = delegate.setOrderPayment(setOrderPaymentEvent);
+    wrote(setOrderPaymentEvent.getKey());
+    return updated;
+  }
+
+  @Override
+  public OrderDeletedEvent deleteOrder(DeleteOrderEvent deleteOrderEvent) {
+    OrderDeletedEvent deleted = delegate.deleteOrder(deleteOrderEvent);
+    wrote(deleteOrderEvent.getKey());
+    return deleted;
+  }
+
+  @Override
+  public OrdersDeletedEvent deleteOrdersSubmittedBefore(DeleteOrdersSubmittedBeforeEvent deleteOrdersSubmittedBeforeEvent) {
+    OrdersDeletedEvent deleted = delegate.deleteOrdersSubmittedBefore(deleteOrdersSubmittedBeforeEvent);
+    for (UUID key : deleted.getKeys()) {
+      wrote(key);
+    }
+    return deleted;
+  }
+
+  @Override
+  public AllOrdersEvent requestAllOrders(RequestAllOrdersEvent requestAllCurrentOrdersEvent) {
+    return delegate.requestAllOrders(requestAllCurrentOrdersEvent);
+  }
+
+  @Override
+  public OrdersPageEvent requestOrdersPage(RequestOrdersPageEvent requestOrdersPageEvent) {
+    return delegate.requestOrdersPage(requestOrdersPageEvent);
+  }
+
+  @Override
+  public OrdersStreamEvent requestOrdersStream(RequestAllOrdersEvent requestAllOrdersEvent) {
+    return delegate.requestOrdersStream(requestAllOrdersEvent);
+  }
+
+  @Override
+  public OrdersByStatusEvent requestOrdersByStatus(RequestOrdersByStatusEvent requestOrdersByStatusEvent) {
+    return delegate.requestOrdersByStatus(requestOrdersByStatusEvent);
+  }
+
+  @Override
+  public CustomerOrdersEvent requestCustomerOrders(RequestCustomerOrdersEvent requestCustomerOrdersEvent) {
+    return delegate.requestCustomerOrders(requestCustomerOrdersEvent);
+  }
+
+  @Override
+  public OrdersSubmittedBetweenEvent requestOrdersSubmittedBetween(RequestOrdersSubmittedBetweenEvent requestOrdersSubmittedBetweenEvent) {
+    return delegate.requestOrdersSubmittedBetween(requestOrdersSubmittedBetweenEvent);
+  }
+
+  @Override
+  public OrderOwnershipEvent requestOrderOwnership(RequestOrderOwnershipEvent requestOrderOwnershipEvent) {
+    return delegate.requestOrderOwnership(requestOrderOwnershipEvent);
+  }
+
+  public TinyLfuCache<UUID, OrderDetailsEvent> getDetailsCache() {
+    return details;
+  }
+
+  public TinyLfuCache<UUID, OrderStatusEvent> getStatusCache() {
+    return statuses;
+  }
+
+  //after the delegate, a read that started before the write then cannot cache what it saw
+  private void wrote(UUID key) {
+    details.invalidate(key);
+    statuses.invalidate(key);
+  }
+}
@@ -3,29 +3,41 @@ package com.yummynoodlebar.persistence.services;
 import com.yummynoodlebar.events.menu.*;
 import com.yummynoodlebar.persistence.domain.MenuItem;
 import com.yummynoodlebar.persistence.repository.MenuItemRepository;
+import com.yummynoodlebar.persistence.repository.MenuSnapshot;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class MenuPersistenceEventHandler implements MenuPersistenceService {
 
   private MenuItemRepository menuItemRepository;
 
+  //The whole menu as last read, handed to every caller until the menu version moves on
+  private volatile AllMenuItemsEvent allMenuItems;
+
   public MenuPersistenceEventHandler(MenuItemRepository menuItemRepository) {
     this.menuItemRepository = menuItemRepository;
   }
 
   @Override
   public AllMenuItemsEvent requestAllMenuItems(RequestAllMenuItemsEvent requestAllMenuItemsEvent) {
-    Iterable<MenuItem> menuItems = menuItemRepository.findAll();
+    MenuSnapshot snapshot = menuItemRepository.getSnapshot();
+
+    AllMenuItemsEvent cached = allMenuItems;
+    if (cached != null && cached.getVersion() == snapshot.getVersion()) {
+      return cached;
+    }
 
     List<MenuItemDetails> details = new ArrayList<MenuItemDetails>();
 
-    for(MenuItem item: menuItems) {
+    for(MenuItem item: snapshot.getItems()) {
       details.add(item.toStatusDetails());
     }
 
-    return new AllMenuItemsEvent(details);
+    AllMenuItemsEvent read = new AllMenuItemsEvent(Collections.unmodifiableList(details), snapshot.getVersion());
+    allMenuItems = read;
+    return read;
   }
 
   @Override
@@ -45,6 +57,7 @@ public class MenuPersistenceEventHandler implements MenuPersistenceService {
   public MenuItemDetailsEvent createMenuItem(CreateMenuItemEvent createMenuItemEvent) {
     MenuItem item = menuItemRepository.save(
         MenuItem.fromStatusDetails(createMenuItemEvent.getDetails()));
+    allMenuItems = null;
 
     return new MenuItemDetailsEvent(
         item.getId(),
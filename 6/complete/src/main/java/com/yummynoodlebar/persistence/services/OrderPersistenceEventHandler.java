@@ -1,24 +1,49 @@
 package com.yummynoodlebar.persistence.services;
 
 import com.yummynoodlebar.events.orders.*;
+import com.yummynoodlebar.ids.Ids;
 import com.yummynoodlebar.persistence.domain.Order;
 import com.yummynoodlebar.persistence.domain.OrderStatus;
+import com.yummynoodlebar.persistence.index.CustomerOrderIndex;
+import com.yummynoodlebar.persistence.repository.OrderMemoryUnitOfWork;
 import com.yummynoodlebar.persistence.repository.OrderStatusRepository;
+import com.yummynoodlebar.persistence.repository.OrderUnitOfWork;
 import com.yummynoodlebar.persistence.repository.OrdersRepository;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 public class OrderPersistenceEventHandler implements OrderPersistenceService {
 
+  private static final int STREAM_PAGE_SIZE = 500;
+
   private final OrdersRepository orderRepository;
   private final OrderStatusRepository orderStatusRepository;
+  private final OrderUnitOfWork orderUnitOfWork;
+  //null if orders are not indexed by customer, customer queries then scan every order
+  private final CustomerOrderIndex customerOrderIndex;
 
   public OrderPersistenceEventHandler(
       final OrdersRepository orderRepository,
       final OrderStatusRepository orderStatusRepository) {
+    this(orderRepository, orderStatusRepository, new OrderMemoryUnitOfWork(orderRepository, orderStatusRepository));
+  }
+
+  public OrderPersistenceEventHandler(
+      final OrdersRepository orderRepository,
+      final OrderStatusRepository orderStatusRepository,
+      final OrderUnitOfWork orderUnitOfWork) {
+    this(orderRepository, orderStatusRepository, orderUnitOfWork, null);
+  }
+
+  public OrderPersistenceEventHandler(
+      final OrdersRepository orderRepository,
+      final OrderStatusRepository orderStatusRepository,
+      final OrderUnitOfWork orderUnitOfWork,
+      final CustomerOrderIndex customerOrderIndex) {
     this.orderRepository = orderRepository;
     this.orderStatusRepository = orderStatusRepository;
+    this.orderUnitOfWork = orderUnitOfWork;
+    this.customerOrderIndex = customerOrderIndex;
   }
 
   @Override
@@ -40,6 +65,37 @@ public class OrderPersistenceEventHandler implements OrderPersistenceService {
     return new OrderCreatedEvent(order.getKey(), order.toOrderDetails());
   }
 
+  @Override
+  public OrdersCreatedEvent createOrdersWithStatus(CreateOrdersWithStatusEvent createOrdersWithStatusEvent) {
+    List<CreateOrderWithStatusEvent> requests = createOrdersWithStatusEvent.getOrders();
+    List<Order> orders = new ArrayList<Order>(requests.size());
+    List<OrderStatus> statuses = new ArrayList<OrderStatus>(requests.size());
+    for (CreateOrderWithStatusEvent request : requests) {
+      Order order = Order.fromOrderDetails(request.getDetails());
+      orders.add(order);
+      statuses.add(new OrderStatus(order.getKey(), Ids.next(), request.getStatusDate(), request.getStatus()));
+    }
+
+    orderUnitOfWork.saveAllWithStatus(orders, statuses);
+
+    List<OrderCreatedEvent> created = new ArrayList<OrderCreatedEvent>(orders.size());
+    for (Order order : orders) {
+      created.add(new OrderCreatedEvent(order.getKey(), order.toOrderDetails()));
+    }
+    return new OrdersCreatedEvent(created);
+  }
+
+  @Override
+  public OrderCreatedEvent createOrderWithStatus(CreateOrderWithStatusEvent createOrderWithStatusEvent) {
+    Order order = Order.fromOrderDetails(createOrderWithStatusEvent.getDetails());
+    OrderStatus status = new OrderStatus(order.getKey(), Ids.next(),
+        createOrderWithStatusEvent.getStatusDate(), createOrderWithStatusEvent.getStatus());
+
+    orderUnitOfWork.saveWithStatus(order, status);
+
+    return new OrderCreatedEvent(order.getKey(), order.toOrderDetails());
+  }
+
   @Override
   public AllOrdersEvent requestAllOrders(RequestAllOrdersEvent requestAllCurrentOrdersEvent) {
     List<OrderDetails> generatedDetails = new ArrayList<OrderDetails>();
@@ -49,6 +105,28 @@ public class OrderPersistenceEventHandler implements OrderPersistenceService {
     return new AllOrdersEvent(generatedDetails);
   }
 
+  @Override
+  public OrdersPageEvent requestOrdersPage(RequestOrdersPageEvent requestOrdersPageEvent) {
+    int pageSize = requestOrdersPageEvent.getPageSize();
+    //one more than asked for says whether there is a next page
+    List<Order> orders = orderRepository.findPage(requestOrdersPageEvent.getAfter(), pageSize + 1);
+
+    List<OrderDetails> details = new ArrayList<OrderDetails>(Math.min(orders.size(), pageSize));
+    for (Order order : orders.subList(0, Math.min(orders.size(), pageSize))) {
+      details.add(order.toOrderDetails());
+    }
+    OrderCursor next = null;
+    if (orders.size() > pageSize) {
+      next = OrderCursor.of(details.get(details.size() - 1));
+    }
+    return new OrdersPageEvent(details, next);
+  }
+
+  @Override
+  public OrdersStreamEvent requestOrdersStream(RequestAllOrdersEvent requestAllOrdersEvent) {
+    return new OrdersStreamEvent(this, STREAM_PAGE_SIZE);
+  }
+
   @Override
   public OrderDetailsEvent requestOrderDetails(RequestOrderDetailsEvent requestOrderDetailsEvent) {
 
@@ -63,6 +141,82 @@ public class OrderPersistenceEventHandler implements OrderPersistenceService {
             order.toOrderDetails());
   }
 
+  @Override
+  public CustomerOrdersEvent requestCustomerOrders(RequestCustomerOrdersEvent requestCustomerOrdersEvent) {
+    String userName = requestCustomerOrdersEvent.getUserName();
+    int count = requestCustomerOrdersEvent.getCount();
+    List<OrderDetails> details = new ArrayList<OrderDetails>();
+
+    if (customerOrderIndex != null) {
+      for (UUID key : customerOrderIndex.recentOrders(userName, count)) {
+        Order order = orderRepository.findById(key);
+        //deleted since the index was read
+        if (order != null) {
+          details.add(order.toOrderDetails());
+        }
+      }
+      return new CustomerOrdersEvent(userName, details);
+    }
+
+    for (Order order : orderRepository.findAll()) {
+      if (userName != null && userName.equals(order.getUserName())) {
+        details.add(order.toOrderDetails());
+      }
+    }
+    Collections.sort(details, new Comparator<OrderDetails>() {
+      @Override
+      public int compare(OrderDetails left, OrderDetails right) {
+        return OrderCursor.of(right).compareTo(OrderCursor.of(left));
+      }
+    });
+    return new CustomerOrdersEvent(userName, details.subList(0, Math.min(count, details.size())));
+  }
+
+  @Override
+  public OrdersSubmittedBetweenEvent requestOrdersSubmittedBetween(RequestOrdersSubmittedBetweenEvent requestOrdersSubmittedBetweenEvent) {
+    Date from = requestOrdersSubmittedBetweenEvent.getFrom();
+    Date to = requestOrdersSubmittedBetweenEvent.getTo();
+    List<OrderDetails> details = new ArrayList<OrderDetails>();
+    for (Order order : orderRepository.findSubmittedBetween(from, to)) {
+      details.add(order.toOrderDetails());
+    }
+    return new OrdersSubmittedBetweenEvent(from, to, details);
+  }
+
+  @Override
+  public OrderOwnershipEvent requestOrderOwnership(RequestOrderOwnershipEvent requestOrderOwnershipEvent) {
+    UUID key = requestOrderOwnershipEvent.getKey();
+    String userName = requestOrderOwnershipEvent.getUserName();
+
+    if (customerOrderIndex != null && customerOrderIndex.isOwnedBy(key, userName)) {
+      return new OrderOwnershipEvent(key, true);
+    }
+
+    //not owned by this user, only now is it worth finding out whether the order exists at all
+    Order order = orderRepository.findById(key);
+
+    if (order == null) {
+      return OrderOwnershipEvent.notFound(key);
+    }
+
+    return new OrderOwnershipEvent(key, userName != null && userName.equals(order.getUserName()));
+  }
+
+  @Override
+  public OrdersByStatusEvent requestOrdersByStatus(RequestOrdersByStatusEvent requestOrdersByStatusEvent) {
+    String status = requestOrdersByStatusEvent.getStatus();
+    List<OrderDetails> details = new ArrayList<OrderDetails>();
+
+    for (UUID orderId : orderStatusRepository.findOrderIdsByLatestStatus(status)) {
+      Order order = orderRepository.findById(orderId);
+      //statuses can briefly outlive their order while it is being deleted
+      if (order != null) {
+        details.add(order.toOrderDetails());
+      }
+    }
+    return new OrdersByStatusEvent(status, details);
+  }
+
   @Override
   public OrderUpdatedEvent setOrderPayment(SetOrderPaymentEvent setOrderPaymentEvent) {
     Order order = orderRepository.findById(setOrderPaymentEvent.getKey());
@@ -86,10 +240,16 @@ public class OrderPersistenceEventHandler implements OrderPersistenceService {
     }
 
     orderRepository.delete(deleteOrderEvent.getKey());
+    orderStatusRepository.deleteByOrderId(deleteOrderEvent.getKey());
 
     return new OrderDeletedEvent(deleteOrderEvent.getKey(), order.toOrderDetails());
   }
 
+  @Override
+  public OrdersDeletedEvent deleteOrdersSubmittedBefore(DeleteOrdersSubmittedBeforeEvent deleteOrdersSubmittedBeforeEvent) {
+    return new OrdersDeletedEvent(orderUnitOfWork.deleteSubmittedBefore(deleteOrdersSubmittedBeforeEvent.getCutoff()));
+  }
+
   @Override
   public OrderStatusEvent requestOrderStatus(RequestOrderStatusEvent requestOrderDetailsEvent) {
     
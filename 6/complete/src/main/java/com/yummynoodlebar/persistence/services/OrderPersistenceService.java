@@ -2,20 +2,44 @@ package com.yummynoodlebar.persistence.services;
 
 import com.yummynoodlebar.events.orders.*;
 
-public interface OrderPersistenceService {
+public interface OrderPersistenceService extends OrdersPageSource {
 
   public AllOrdersEvent requestAllOrders(RequestAllOrdersEvent requestAllCurrentOrdersEvent);
 
+  public OrdersPageEvent requestOrdersPage(RequestOrdersPageEvent requestOrdersPageEvent);
+
+  public OrdersStreamEvent requestOrdersStream(RequestAllOrdersEvent requestAllOrdersEvent);
+
   public OrderDetailsEvent requestOrderDetails(RequestOrderDetailsEvent requestOrderDetailsEvent);
 
   public OrderStatusEvent requestOrderStatus(RequestOrderStatusEvent requestOrderStatusEvent);
 
+  //Orders currently in the given status, such as the kitchen's queue of new orders, longest waiting first
+  public OrdersByStatusEvent requestOrdersByStatus(RequestOrdersByStatusEvent requestOrdersByStatusEvent);
+
+  //The user's most recent orders, newest first
+  public CustomerOrdersEvent requestCustomerOrders(RequestCustomerOrdersEvent requestCustomerOrdersEvent);
+
+  //Orders submitted at or after the start of the range and before its end, oldest first
+  public OrdersSubmittedBetweenEvent requestOrdersSubmittedBetween(RequestOrdersSubmittedBetweenEvent requestOrdersSubmittedBetweenEvent);
+
+  //Whether the user placed the order, cheap enough to ask on every view of an order
+  public OrderOwnershipEvent requestOrderOwnership(RequestOrderOwnershipEvent requestOrderOwnershipEvent);
+
   public OrderCreatedEvent createOrder(CreateOrderEvent event);
 
+  public OrderCreatedEvent createOrderWithStatus(CreateOrderWithStatusEvent event);
+
+  //Creates every order in one bulk write, cheaper than one at a time when the store syncs each write
+  public OrdersCreatedEvent createOrdersWithStatus(CreateOrdersWithStatusEvent event);
+
   public OrderStatusEvent setOrderStatus(SetOrderStatusEvent event);
 
   public OrderUpdatedEvent setOrderPayment(SetOrderPaymentEvent setOrderPaymentEvent);
 
   public OrderDeletedEvent deleteOrder(DeleteOrderEvent deleteOrderEvent);
 
+  //Deletes every order submitted before the cutoff with its statuses, as one write however many there are
+  public OrdersDeletedEvent deleteOrdersSubmittedBefore(DeleteOrdersSubmittedBeforeEvent deleteOrdersSubmittedBeforeEvent);
+
 }
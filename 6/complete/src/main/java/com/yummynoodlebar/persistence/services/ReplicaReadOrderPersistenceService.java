@@ -0,0 +1,206 @@
+package com.yummynoodlebar.persistence.services;
+
+import com.yummynoodlebar.events.orders.*;
+import com.yummynoodlebar.persistence.replication.ReplicationFollower;
+import com.yummynoodlebar.persistence.replication.ReplicationLeader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Serves order details and status reads from followers, taking turns, as long as the follower is
+ * no more than maxStalenessMillis behind. Everything else goes to the leader.
+ *
+ * Orders written through this service remember the leader's sequence after the write. Reads of
+ * such an order only go to a follower that has applied that far, so whoever just checked out, or
+ * just moved an order on, always sees their own change.
+ */
+public class ReplicaReadOrderPersistenceService implements OrderPersistenceService, Closeable {
+
+  //past this many remembered writes, forget those every follower has applied
+  private static final int PRUNE_AT = 4096;
+
+  private final OrderPersistenceService leader;
+  private final ReplicationLeader replicationLeader;
+  private final List<ReplicationFollower> followers;
+  private final List<OrderPersistenceService> replicas = new ArrayList<OrderPersistenceService>();
+  private final long maxStalenessMillis;
+
+  private final ConcurrentMap<UUID, Long> unreplicatedWrites = new ConcurrentHashMap<UUID, Long>();
+  private final AtomicInteger nextReplica = new AtomicInteger();
+  private final AtomicLong replicaReads = new AtomicLong();
+  private final AtomicLong leaderReads = new AtomicLong();
+
+  public ReplicaReadOrderPersistenceService(OrderPersistenceService leader, ReplicationLeader replicationLeader,
+      List<ReplicationFollower> followers, long maxStalenessMillis) {
+    this.leader = leader;
+    this.replicationLeader = replicationLeader;
+    this.followers = followers;
+    this.maxStalenessMillis = maxStalenessMillis;
+    for (ReplicationFollower follower : followers) {
+      replicas.add(new OrderPersistenceEventHandler(follower.getOrdersRepository(), follower.getOrderStatusRepository()));
+    }
+  }
+
+  @Override
+  public OrderDetailsEvent requestOrderDetails(RequestOrderDetailsEvent requestOrderDetailsEvent) {
+    return readerFor(requestOrderDetailsEvent.getKey()).requestOrderDetails(requestOrderDetailsEvent);
+  }
+
+  @Override
+  public OrderStatusEvent requestOrderStatus(RequestOrderStatusEvent requestOrderStatusEvent) {
+    return readerFor(requestOrderStatusEvent.getKey()).requestOrderStatus(requestOrderStatusEvent);
+  }
+
+  @Override
+  public OrderCreatedEvent createOrder(CreateOrderEvent event) {
+    OrderCreatedEvent created = leader.createOrder(event);
+    wrote(created.getNewOrderKey());
+    return created;
+  }
+
+  @Override
+  public OrderCreatedEvent createOrderWithStatus(CreateOrderWithStatusEvent event) {
+    OrderCreatedEvent created = leader.createOrderWithStatus(event);
+    wrote(created.getNewOrderKey());
+    return created;
+  }
+
+  @Override
+  public OrdersCreatedEvent createOrdersWithStatus(CreateOrdersWithStatusEvent event) {
+    OrdersCreatedEvent created = leader.createOrdersWithStatus(event);
+    for (OrderCreatedEvent each : created.getCreated()) {
+      wrote(each.getNewOrderKey());
+    }
+    return created;
+  }
+
+  @Override
+  public OrderStatusEvent setOrderStatus(SetOrderStatusEvent event) {
+    OrderStatusEvent status = leader.setOrderStatus(event);
+    wrote(event.getOrderStatus().getOrderId());
+    return status;
+  }
+
+  @Override
+  public OrderUpdatedEvent setOrderPayment(SetOrderPaymentEvent setOrderPaymentEvent) {
+    OrderUpdatedEvent updated = leader.setOrderPayment(setOrderPaymentEvent);
+    wrote(setOrderPaymentEvent.getKey());
+    return updated;
+  }
+
+  @Override
+  public OrderDeletedEvent deleteOrder(DeleteOrderEvent deleteOrderEvent) {
+    OrderDeletedEvent deleted = leader.deleteOrder(deleteOrderEvent);
+    wrote(deleteOrderEvent.getKey());
+    return deleted;
+  }
+
+  @Override
+  public OrdersDeletedEvent deleteOrdersSubmittedBefore(DeleteOrdersSubmittedBeforeEvent deleteOrdersSubmittedBeforeEvent) {
+    OrdersDeletedEvent deleted = leader.deleteOrdersSubmittedBefore(deleteOrdersSubmittedBeforeEvent);
+    long sequence = replicationLeader.getSequence();
+    for (UUID key : deleted.getKeys()) {
+      unreplicatedWrites.put(key, sequence);
+    }
+    pruneUnreplicatedWrites();
+    return deleted;
+  }
+
+  @Override
+  public AllOrdersEvent requestAllOrders(RequestAllOrdersEvent requestAllCurrentOrdersEvent) {
+    return leader.requestAllOrders(requestAllCurrentOrdersEvent);
+  }
+
+  @Override
+  public OrdersPageEvent requestOrdersPage(RequestOrdersPageEvent requestOrdersPageEvent) {
+    return leader.requestOrdersPage(requestOrdersPageEvent);
+  }
+
+  @Override
+  public OrdersStreamEvent requestOrdersStream(RequestAllOrdersEvent requestAllOrdersEvent) {
+    return leader.requestOrdersStream(requestAllOrdersEvent);
+  }
+
+  @Override
+  public OrdersByStatusEvent requestOrdersByStatus(RequestOrdersByStatusEvent requestOrdersByStatusEvent) {
+    return leader.requestOrdersByStatus(requestOrdersByStatusEvent);
+  }
+
+  @Override
+  public CustomerOrdersEvent requestCustomerOrders(RequestCustomerOrdersEvent requestCustomerOrdersEvent) {
+    return leader.requestCustomerOrders(requestCustomerOrdersEvent);
+  }
+
+  @Override
+  public OrdersSubmittedBetweenEvent requestOrdersSubmittedBetween(RequestOrdersSubmittedBetweenEvent requestOrdersSubmittedBetweenEvent) {
+    return leader.requestOrdersSubmittedBetween(requestOrdersSubmittedBetweenEvent);
+  }
+
+  @Override
+  public OrderOwnershipEvent requestOrderOwnership(RequestOrderOwnershipEvent requestOrderOwnershipEvent) {
+    return leader.requestOrderOwnership(requestOrderOwnershipEvent);
+  }
+
+  public long getReplicaReads() {
+    return replicaReads.get();
+  }
+
+  public long getLeaderReads() {
+    return leaderReads.get();
+  }
+
+  //Closes the followers this service reads from
+  @Override
+  public void close() throws IOException {
+    for (ReplicationFollower follower : followers) {
+      follower.close();
+    }
+  }
+
+  private OrderPersistenceService readerFor(UUID key) {
+    Long written = unreplicatedWrites.get(key);
+    int start = nextReplica.getAndIncrement() & Integer.MAX_VALUE;
+    for (int i = 0; i < followers.size(); i++) {
+      int at = (start + i) % followers.size();
+      ReplicationFollower follower = followers.get(at);
+      if (follower.getLagMillis() > maxStalenessMillis) {
+        continue;
+      }
+      if (written != null && follower.getAppliedSequence() < written) {
+        continue;
+      }
+      replicaReads.incrementAndGet();
+      return replicas.get(at);
+    }
+    leaderReads.incrementAndGet();
+    return leader;
+  }
+
+  private void wrote(UUID key) {
+    unreplicatedWrites.put(key, replicationLeader.getSequence());
+    pruneUnreplicatedWrites();
+  }
+
+  private void pruneUnreplicatedWrites() {
+    if (unreplicatedWrites.size() > PRUNE_AT) {
+      long everywhere = Long.MAX_VALUE;
+      for (ReplicationFollower follower : followers) {
+        everywhere = Math.min(everywhere, follower.getAppliedSequence());
+      }
+      for (UUID written : unreplicatedWrites.keySet()) {
+        Long sequence = unreplicatedWrites.get(written);
+        if (sequence != null && sequence <= everywhere) {
+          unreplicatedWrites.remove(written, sequence);
+        }
+      }
+    }
+  }
+}
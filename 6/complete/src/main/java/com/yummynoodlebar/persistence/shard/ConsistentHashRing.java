@@ -0,0 +1,93 @@
+package com.yummynoodlebar.persistence.shard;
+
+import java.util.*;
+
+/*
+ * Immutable ring of node names, each placed at many pseudo random points so that keys spread
+ * evenly. A key belongs to the first node point at or after its own hash, going round past the
+ * end. Adding a node only takes over the keys just before its points, about 1/N of them, every
+ * other key stays where it was.
+ */
+public final class ConsistentHashRing {
+
+  public static final int DEFAULT_POINTS_PER_NODE = 160;
+
+  private final int pointsPerNode;
+  private final List<String> nodes;
+  private final long[] points;
+  private final String[] owners;
+
+  public ConsistentHashRing(Collection<String> nodes) {
+    this(nodes, DEFAULT_POINTS_PER_NODE);
+  }
+
+  public ConsistentHashRing(Collection<String> nodes, int pointsPerNode) {
+    if (nodes.isEmpty()) {
+      throw new IllegalArgumentException("A ring needs at least one node");
+    }
+    if (new HashSet<String>(nodes).size() != nodes.size()) {
+      throw new IllegalArgumentException("Node names must be unique, not " + nodes);
+    }
+    this.pointsPerNode = pointsPerNode;
+    this.nodes = Collections.unmodifiableList(new ArrayList<String>(nodes));
+
+    long[][] placed = new long[nodes.size() * pointsPerNode][];
+    int next = 0;
+    int nodeIndex = 0;
+    for (String node : this.nodes) {
+      long seed = seedOf(node);
+      for (int point = 0; point < pointsPerNode; point++) {
+        placed[next++] = new long[] {mix(seed + point * 0x9E3779B97F4A7C15L), nodeIndex};
+      }
+      nodeIndex++;
+    }
+    Arrays.sort(placed, new Comparator<long[]>() {
+      @Override
+      public int compare(long[] left, long[] right) {
+        return left[0] < right[0] ? -1 : left[0] == right[0] ? 0 : 1;
+      }
+    });
+    points = new long[placed.length];
+    owners = new String[placed.length];
+    for (int i = 0; i < placed.length; i++) {
+      points[i] = placed[i][0];
+      owners[i] = this.nodes.get((int) placed[i][1]);
+    }
+  }
+
+  public ConsistentHashRing withNode(String node) {
+    List<String> grown = new ArrayList<String>(nodes);
+    grown.add(node);
+    return new ConsistentHashRing(grown, pointsPerNode);
+  }
+
+  public String nodeFor(UUID key) {
+    int at = Arrays.binarySearch(points, mix(key.getMostSignificantBits() ^ mix(key.getLeastSignificantBits())));
+    if (at < 0) {
+      at = -at - 1;
+    }
+    return owners[at == points.length ? 0 : at];
+  }
+
+  public List<String> getNodes() {
+    return nodes;
+  }
+
+  private static long seedOf(String node) {
+    long seed = 1125899906842597L;
+    for (int i = 0; i < node.length(); i++) {
+      seed = 31 * seed + node.charAt(i);
+    }
+    return seed;
+  }
+
+  //the murmur3 finaliser, neighbouring inputs land far apart
+  private static long mix(long value) {
+    value ^= value >>> 33;
+    value *= 0xff51afd7ed558ccdL;
+    value ^= value >>> 33;
+    value *= 0xc4ceb9fe1a85ec53L;
+    value ^= value >>> 33;
+    return value;
+  }
+}
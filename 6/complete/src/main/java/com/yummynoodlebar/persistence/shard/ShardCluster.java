@@ -0,0 +1,171 @@
+package com.yummynoodlebar.persistence.shard;
+
+import com.yummynoodlebar.persistence.domain.Order;
+import com.yummynoodlebar.persistence.domain.OrderStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+ * The shard nodes and the ring routing order keys to them. Single order operations run on the
+ * calling thread against the owning node, operations over every order are sent to all nodes at
+ * once and gathered.
+ *
+ * Adding a node copies the orders that now belong to it across and only then removes them from
+ * where they were. Reads and writes wait while that happens, nothing is ever routed to a node
+ * that does not have the key yet.
+ */
+public class ShardCluster implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ShardCluster.class);
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final ExecutorService scatter;
+
+  //replaced, never changed, under the write lock
+  private volatile Map<String, ShardNode> nodes;
+  private volatile ConsistentHashRing ring;
+
+  public ShardCluster(List<ShardNode> nodes) {
+    Map<String, ShardNode> byName = new LinkedHashMap<String, ShardNode>();
+    for (ShardNode node : nodes) {
+      byName.put(node.getName(), node);
+    }
+    this.ring = new ConsistentHashRing(byName.keySet());
+    this.nodes = byName;
+    final AtomicInteger threads = new AtomicInteger();
+    this.scatter = Executors.newCachedThreadPool(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "order-shard-" + threads.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+  }
+
+  public static ShardCluster inMemory(int nodeCount) {
+    List<ShardNode> nodes = new ArrayList<ShardNode>();
+    for (int i = 0; i < nodeCount; i++) {
+      nodes.add(ShardNode.inMemory("shard-" + i));
+    }
+    return new ShardCluster(nodes);
+  }
+
+  /**
+   * Adds a node and moves the orders, and their statuses, that now hash to it.
+   *
+   * @return how many orders moved
+   */
+  public int addNode(ShardNode added) {
+    lock.writeLock().lock();
+    try {
+      if (nodes.containsKey(added.getName())) {
+        throw new IllegalArgumentException("There is already a node called " + added.getName());
+      }
+      ConsistentHashRing grown = ring.withNode(added.getName());
+      int moved = 0;
+      for (ShardNode node : nodes.values()) {
+        moved += migrate(node, added, grown);
+      }
+      Map<String, ShardNode> byName = new LinkedHashMap<String, ShardNode>(nodes);
+      byName.put(added.getName(), added);
+      nodes = byName;
+      ring = grown;
+      LOG.info("Added shard {}, moved {} orders to it", added.getName(), moved);
+      return moved;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public Collection<ShardNode> getNodes() {
+    return Collections.unmodifiableCollection(nodes.values());
+  }
+
+  @Override
+  public void close() {
+    scatter.shutdownNow();
+  }
+
+  <T> T onOwner(UUID key, ShardCall<T> call) {
+    lock.readLock().lock();
+    try {
+      return call.call(nodes.get(ring.nodeFor(key)));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  //runs the call on every node in parallel, results are in node order
+  <T> List<T> onAll(final ShardCall<T> call) {
+    lock.readLock().lock();
+    try {
+      List<Callable<T>> calls = new ArrayList<Callable<T>>();
+      for (final ShardNode node : nodes.values()) {
+        calls.add(new Callable<T>() {
+          @Override
+          public T call() {
+            return call.call(node);
+          }
+        });
+      }
+      List<T> results = new ArrayList<T>(calls.size());
+      for (Future<T> result : scatter.invokeAll(calls)) {
+        results.add(result.get());
+      }
+      return results;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted waiting for the shards", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException("A shard failed", e.getCause());
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private static int migrate(ShardNode from, ShardNode to, ConsistentHashRing grown) {
+    Set<UUID> leaving = new LinkedHashSet<UUID>();
+    for (Order order : from.getOrders().findAll()) {
+      if (grown.nodeFor(order.getKey()).equals(to.getName())) {
+        leaving.add(order.getKey());
+      }
+    }
+    for (OrderStatus status : from.getStatuses().findAll()) {
+      if (grown.nodeFor(status.getOrderId()).equals(to.getName())) {
+        leaving.add(status.getOrderId());
+      }
+    }
+    int moved = 0;
+    for (UUID key : leaving) {
+      //copy before removing, a failure part way leaves an order in two places rather than none
+      Order order = from.getOrders().findById(key);
+      if (order != null) {
+        to.getOrders().save(order);
+      }
+      for (OrderStatus status : from.getStatuses().findHistoryById(key)) {
+        to.getStatuses().save(status);
+      }
+      from.getStatuses().deleteByOrderId(key);
+      if (order != null) {
+        from.getOrders().delete(key);
+        moved++;
+      }
+    }
+    return moved;
+  }
+
+  interface ShardCall<T> {
+    T call(ShardNode node);
+  }
+}
@@ -0,0 +1,45 @@
+package com.yummynoodlebar.persistence.shard;
+
+import com.yummynoodlebar.persistence.domain.Order;
+import com.yummynoodlebar.persistence.repository.OrderStatusMemoryRepository;
+import com.yummynoodlebar.persistence.repository.OrderStatusRepository;
+import com.yummynoodlebar.persistence.repository.OrdersConcurrentMemoryRepository;
+import com.yummynoodlebar.persistence.repository.OrdersRepository;
+
+import java.util.HashMap;
+import java.util.UUID;
+
+/*
+ * One shard: the orders whose keys hash to it and every status of those orders, so an order and
+ * its history are always read and deleted together.
+ */
+public class ShardNode {
+
+  private final String name;
+  private final OrdersRepository orders;
+  private final OrderStatusRepository statuses;
+
+  public ShardNode(String name, OrdersRepository orders, OrderStatusRepository statuses) {
+    this.name = name;
+    this.orders = orders;
+    this.statuses = statuses;
+  }
+
+  //A node living in this JVM, for running a sharded store on one machine
+  public static ShardNode inMemory(String name) {
+    return new ShardNode(name,
+        new OrdersConcurrentMemoryRepository(new HashMap<UUID, Order>()), new OrderStatusMemoryRepository());
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public OrdersRepository getOrders() {
+    return orders;
+  }
+
+  public OrderStatusRepository getStatuses() {
+    return statuses;
+  }
+}
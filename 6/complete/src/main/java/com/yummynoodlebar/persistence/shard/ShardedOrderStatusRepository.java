@@ -0,0 +1,116 @@
+package com.yummynoodlebar.persistence.shard;
+
+import com.yummynoodlebar.events.orders.OrderCursor;
+import com.yummynoodlebar.persistence.domain.OrderStatus;
+import com.yummynoodlebar.persistence.repository.OrderStatusRepository;
+
+import java.util.*;
+
+/*
+ * Statuses kept on the same node as their order. A status is only known by its own id when it is
+ * deleted on its own, that rare case asks every node.
+ */
+public class ShardedOrderStatusRepository implements OrderStatusRepository {
+
+  private final ShardCluster cluster;
+
+  public ShardedOrderStatusRepository(ShardCluster cluster) {
+    this.cluster = cluster;
+  }
+
+  @Override
+  public OrderStatus save(final OrderStatus orderStatus) {
+    return cluster.onOwner(orderStatus.getOrderId(), new ShardCluster.ShardCall<OrderStatus>() {
+      @Override
+      public OrderStatus call(ShardNode node) {
+        return node.getStatuses().save(orderStatus);
+      }
+    });
+  }
+
+  @Override
+  public void delete(final UUID key) {
+    cluster.onAll(new ShardCluster.ShardCall<Void>() {
+      @Override
+      public Void call(ShardNode node) {
+        node.getStatuses().delete(key);
+        return null;
+      }
+    });
+  }
+
+  @Override
+  public OrderStatus findLatestById(final UUID key) {
+    return cluster.onOwner(key, new ShardCluster.ShardCall<OrderStatus>() {
+      @Override
+      public OrderStatus call(ShardNode node) {
+        return node.getStatuses().findLatestById(key);
+      }
+    });
+  }
+
+  @Override
+  public List<OrderStatus> findHistoryById(final UUID key) {
+    return cluster.onOwner(key, new ShardCluster.ShardCall<List<OrderStatus>>() {
+      @Override
+      public List<OrderStatus> call(ShardNode node) {
+        return node.getStatuses().findHistoryById(key);
+      }
+    });
+  }
+
+  @Override
+  public List<OrderStatus> deleteByOrderId(final UUID key) {
+    return cluster.onOwner(key, new ShardCluster.ShardCall<List<OrderStatus>>() {
+      @Override
+      public List<OrderStatus> call(ShardNode node) {
+        return node.getStatuses().deleteByOrderId(key);
+      }
+    });
+  }
+
+  /**
+   * Each node's queue comes back with when its orders entered the status, so the queues can be
+   * merged longest waiting first.
+   */
+  @Override
+  public List<UUID> findOrderIdsByLatestStatus(final String status) {
+    List<OrderCursor> merged = new ArrayList<OrderCursor>();
+    for (List<OrderCursor> shard : cluster.onAll(new ShardCluster.ShardCall<List<OrderCursor>>() {
+      @Override
+      public List<OrderCursor> call(ShardNode node) {
+        List<OrderCursor> queue = new ArrayList<OrderCursor>();
+        for (UUID orderId : node.getStatuses().findOrderIdsByLatestStatus(status)) {
+          OrderStatus latest = node.getStatuses().findLatestById(orderId);
+          //moved on since the queue was read
+          if (latest != null && status.equals(latest.getStatus())) {
+            queue.add(new OrderCursor(latest.getStatusDate(), orderId));
+          }
+        }
+        return queue;
+      }
+    })) {
+      merged.addAll(shard);
+    }
+    Collections.sort(merged);
+    List<UUID> orderIds = new ArrayList<UUID>(merged.size());
+    for (OrderCursor cursor : merged) {
+      orderIds.add(cursor.getKey());
+    }
+    return orderIds;
+  }
+
+  @Override
+  public List<OrderStatus> findAll() {
+    List<OrderStatus> all = new ArrayList<OrderStatus>();
+    for (List<OrderStatus> shard : cluster.onAll(new ShardCluster.ShardCall<List<OrderStatus>>() {
+      @Override
+      public List<OrderStatus> call(ShardNode node) {
+        return node.getStatuses().findAll();
+      }
+    })) {
+      all.addAll(shard);
+    }
+    return all;
+  }
+}
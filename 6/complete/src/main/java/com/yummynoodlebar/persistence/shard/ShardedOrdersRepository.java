@@ -0,0 +1,124 @@
+package com.yummynoodlebar.persistence.shard;
+
+import com.yummynoodlebar.events.orders.OrderCursor;
+import com.yummynoodlebar.persistence.domain.Order;
+import com.yummynoodlebar.persistence.repository.OrdersRepository;
+
+import java.util.*;
+
+/*
+ * Orders spread over the nodes of a ShardCluster by key. Whole-store reads ask every node at once,
+ * a page is the first limit orders of the merged pages of every node.
+ */
+public class ShardedOrdersRepository implements OrdersRepository {
+
+  private static final Comparator<Order> BY_CURSOR = new Comparator<Order>() {
+    @Override
+    public int compare(Order left, Order right) {
+      return cursorOf(left).compareTo(cursorOf(right));
+    }
+  };
+
+  private final ShardCluster cluster;
+
+  public ShardedOrdersRepository(ShardCluster cluster) {
+    this.cluster = cluster;
+  }
+
+  @Override
+  public Order save(final Order order) {
+    return cluster.onOwner(order.getKey(), new ShardCluster.ShardCall<Order>() {
+      @Override
+      public Order call(ShardNode node) {
+        return node.getOrders().save(order);
+      }
+    });
+  }
+
+  @Override
+  public void delete(final UUID key) {
+    cluster.onOwner(key, new ShardCluster.ShardCall<Void>() {
+      @Override
+      public Void call(ShardNode node) {
+        node.getOrders().delete(key);
+        return null;
+      }
+    });
+  }
+
+  @Override
+  public Order findById(final UUID key) {
+    return cluster.onOwner(key, new ShardCluster.ShardCall<Order>() {
+      @Override
+      public Order call(ShardNode node) {
+        return node.getOrders().findById(key);
+      }
+    });
+  }
+
+  @Override
+  public List<Order> findAll() {
+    List<Order> all = new ArrayList<Order>();
+    for (List<Order> shard : cluster.onAll(new ShardCluster.ShardCall<List<Order>>() {
+      @Override
+      public List<Order> call(ShardNode node) {
+        List<Order> orders = new ArrayList<Order>();
+        for (Order order : node.getOrders().findAll()) {
+          orders.add(order);
+        }
+        return orders;
+      }
+    })) {
+      all.addAll(shard);
+    }
+    return Collections.unmodifiableList(all);
+  }
+
+  @Override
+  public List<Order> findPage(final OrderCursor after, final int limit) {
+    List<Order> merged = new ArrayList<Order>();
+    for (List<Order> shard : cluster.onAll(new ShardCluster.ShardCall<List<Order>>() {
+      @Override
+      public List<Order> call(ShardNode node) {
+        return node.getOrders().findPage(after, limit);
+      }
+    })) {
+      merged.addAll(shard);
+    }
+    Collections.sort(merged, BY_CURSOR);
+    return new ArrayList<Order>(merged.subList(0, Math.min(limit, merged.size())));
+  }
+
+  @Override
+  public List<Order> findSubmittedBetween(final Date from, final Date to) {
+    List<Order> merged = new ArrayList<Order>();
+    for (List<Order> shard : cluster.onAll(new ShardCluster.ShardCall<List<Order>>() {
+      @Override
+      public List<Order> call(ShardNode node) {
+        return node.getOrders().findSubmittedBetween(from, to);
+      }
+    })) {
+      merged.addAll(shard);
+    }
+    Collections.sort(merged, BY_CURSOR);
+    return merged;
+  }
+
+  @Override
+  public List<UUID> deleteSubmittedBefore(final Date cutoff) {
+    List<UUID> deleted = new ArrayList<UUID>();
+    for (List<UUID> shard : cluster.onAll(new ShardCluster.ShardCall<List<UUID>>() {
+      @Override
+      public List<UUID> call(ShardNode node) {
+        return node.getOrders().deleteSubmittedBefore(cutoff);
+      }
+    })) {
+      deleted.addAll(shard);
+    }
+    return deleted;
+  }
+
+  private static OrderCursor cursorOf(Order order) {
+    return new OrderCursor(order.getDateTimeOfSubmission(), order.getKey());
+  }
+}
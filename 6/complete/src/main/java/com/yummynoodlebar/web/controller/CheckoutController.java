@@ -17,6 +17,7 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import javax.validation.Valid;
+import java.security.Principal;
 import java.util.UUID;
 
 @Controller
@@ -38,7 +39,7 @@ public class CheckoutController {
 	}
 
 	@RequestMapping(method = RequestMethod.POST)
-	public String doCheckout(@Valid @ModelAttribute("customerInfo") CustomerInfo customer, BindingResult result, RedirectAttributes redirectAttrs) {
+	public String doCheckout(@Valid @ModelAttribute("customerInfo") CustomerInfo customer, BindingResult result, RedirectAttributes redirectAttrs, Principal principal) {
 		if (result.hasErrors()) {
 			// errors in the form
 			// show the checkout form again
@@ -50,10 +51,20 @@ public class CheckoutController {
 
 		OrderDetails order = basket
 				.createOrderDetailsWithCustomerInfo(customer);
+		if (principal != null) {
+			//lets the order be found again by, and only shown to, whoever placed it
+			order.setUserName(principal.getName());
+		}
 
 		OrderCreatedEvent event = orderService
 				.createOrder(new CreateOrderEvent(order));
 
+		if (!event.isAccepted()) {
+			//the basket no longer matches the menu, the customer can change it and try again
+			redirectAttrs.addFlashAttribute("message", "Your order could not be placed: " + event.getCharges().getRejection());
+			return "redirect:/checkout";
+		}
+
 		UUID key = event.getNewOrderKey();
 
 		redirectAttrs.addFlashAttribute("message",
@@ -1,10 +1,12 @@
 package com.yummynoodlebar.web.controller;
 
+import java.security.Principal;
 import java.util.UUID;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -13,8 +15,10 @@ import org.springframework.web.bind.annotation.RequestMethod;
 
 import com.yummynoodlebar.core.services.OrderService;
 import com.yummynoodlebar.events.orders.OrderDetailsEvent;
+import com.yummynoodlebar.events.orders.OrderOwnershipEvent;
 import com.yummynoodlebar.events.orders.OrderStatusEvent;
 import com.yummynoodlebar.events.orders.RequestOrderDetailsEvent;
+import com.yummynoodlebar.events.orders.RequestOrderOwnershipEvent;
 import com.yummynoodlebar.events.orders.RequestOrderStatusEvent;
 import com.yummynoodlebar.web.domain.OrderStatus;
 
@@ -35,7 +39,14 @@ public class OrderStatusController {
 	}
 
 	@ModelAttribute("orderStatus")
-	private OrderStatus getOrderStatus(@PathVariable("orderId") String orderId) {
+	private OrderStatus getOrderStatus(@PathVariable("orderId") String orderId, Principal principal) {
+		if (principal != null) {
+			OrderOwnershipEvent ownership = orderService.requestOrderOwnership(
+					new RequestOrderOwnershipEvent(UUID.fromString(orderId), principal.getName()));
+			if (!ownership.isOwned()) {
+				throw new AccessDeniedException("Order " + orderId + " was not placed by " + principal.getName());
+			}
+		}
 		OrderDetailsEvent orderDetailsEvent = orderService.requestOrderDetails(new RequestOrderDetailsEvent(UUID.fromString(orderId)));
 		OrderStatusEvent orderStatusEvent = orderService.requestOrderStatus(new RequestOrderStatusEvent(UUID.fromString(orderId)));
 		OrderStatus status = new OrderStatus();
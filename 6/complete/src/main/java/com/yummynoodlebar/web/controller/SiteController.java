@@ -1,6 +1,7 @@
 package com.yummynoodlebar.web.controller;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.slf4j.Logger;
@@ -30,6 +31,9 @@ public class SiteController {
 	
 	@Autowired
 	private Basket basket;
+
+	//The view model for the last menu version seen, the menu changes a few times a day
+	private volatile MenuView menuView;
 		
 	@RequestMapping(method = RequestMethod.GET)
 	
@@ -40,13 +44,23 @@ public class SiteController {
 	}
 			
 	private List<MenuItem> getMenuItems(AllMenuItemsEvent requestAllMenuItems) {
+		MenuView cached = menuView;
+		if (cached != null && cached.version == requestAllMenuItems.getVersion()) {
+			return cached.items;
+		}
+
 		List<MenuItem> menuDetails = new ArrayList<MenuItem>();
 		
 		for (MenuItemDetails menuItemDetails : requestAllMenuItems.getMenuItemDetails()) {
 			menuDetails.add(MenuItem.fromMenuDetails(menuItemDetails));
 		}
 
-		return menuDetails;
+		List<MenuItem> items = Collections.unmodifiableList(menuDetails);
+		//version 0 means the source did not say which menu this is, so it cannot be reused
+		if (requestAllMenuItems.getVersion() != 0) {
+			menuView = new MenuView(requestAllMenuItems.getVersion(), items);
+		}
+		return items;
 	}
 	
 	@ModelAttribute("basket")
@@ -54,4 +68,14 @@ public class SiteController {
 		return basket;
 	}
 
+	private static final class MenuView {
+		private final long version;
+		private final List<MenuItem> items;
+
+		private MenuView(long version, List<MenuItem> items) {
+			this.version = version;
+			this.items = items;
+		}
+	}
+
 }
@@ -13,6 +13,7 @@ import org.springframework.context.annotation.ScopedProxyMode;
 import org.springframework.stereotype.Component;
 
 import com.yummynoodlebar.events.orders.OrderDetails;
+import com.yummynoodlebar.events.orders.OrderLines;
 
 @Component
 @Scope(value="session", proxyMode=ScopedProxyMode.TARGET_CLASS)
@@ -78,11 +79,11 @@ public class Basket  implements Serializable {
 	}
 	
 	private void copyItemsFromBasketToOrder(OrderDetails orderDetails) {
-		Map<String, Integer> items = new HashMap<String, Integer>();
+		OrderLines.Builder lines = new OrderLines.Builder(items.size());
 		for (MenuItem item : getItems()) {
 			//TODO need to get quantity from user input
-			items.put(item.getId(), 1);
+			lines.add(item.getId(), 1);
 		}
-		orderDetails.setOrderItems(items);
+		orderDetails.setOrderItems(lines.build());
 	}
 }
@@ -2,8 +2,6 @@ package com.yummynoodlebar.web.domain;
 
 import java.math.BigDecimal;
 
-import org.springframework.beans.BeanUtils;
-
 import com.yummynoodlebar.events.menu.MenuItemDetails;
 
 public class MenuItem {
@@ -49,7 +47,10 @@ public class MenuItem {
  
   public static MenuItem fromMenuDetails(MenuItemDetails menuItemDetails) {
 	MenuItem menuItem = new MenuItem();
-	BeanUtils.copyProperties(menuItemDetails, menuItem);
+	menuItem.setId(menuItemDetails.getId());
+	menuItem.setName(menuItemDetails.getName());
+	menuItem.setCost(menuItemDetails.getCost());
+	menuItem.setMinutesToPrepare(menuItemDetails.getMinutesToPrepare());
 	return menuItem;
   }
   
@@ -1,6 +1,14 @@
 package com.yummynoodlebar.config;
 
 import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+
+import java.util.HashMap;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -8,9 +16,20 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import com.yummynoodlebar.core.domain.fixtures.OrdersFixtures;
 import com.yummynoodlebar.core.services.MenuService;
+import com.yummynoodlebar.core.services.OrderEventHandler;
+import com.yummynoodlebar.core.services.OrderService;
 import com.yummynoodlebar.events.menu.AllMenuItemsEvent;
 import com.yummynoodlebar.events.menu.RequestAllMenuItemsEvent;
+import com.yummynoodlebar.events.orders.CreateOrderEvent;
+import com.yummynoodlebar.events.orders.OrderDetailsEvent;
+import com.yummynoodlebar.events.orders.RequestOrderDetailsEvent;
+import com.yummynoodlebar.persistence.domain.Order;
+import com.yummynoodlebar.persistence.repository.OrderStatusMemoryRepository;
+import com.yummynoodlebar.persistence.repository.OrdersConcurrentMemoryRepository;
+import com.yummynoodlebar.persistence.services.OrderPersistenceEventHandler;
+import com.yummynoodlebar.persistence.services.OrderPersistenceService;
 
 
 @RunWith(SpringJUnit4ClassRunner.class)
@@ -19,6 +38,12 @@ public class CoreDomainIntegrationTest {
 	
 	@Autowired
 	MenuService menuService;
+
+	@Autowired
+	OrderService orderService;
+
+	@Autowired
+	ExecutorService serviceExecutor;
 			
 	@Test
 	public void thatAllMenuItemsReturned() {
@@ -27,6 +52,29 @@ public class CoreDomainIntegrationTest {
 	
 	assertEquals(3, allMenuItems.getMenuItemDetails().size());
 			
-	}	
+	}
+
+	@Test
+	public void thatAsyncCallsRunOnTheServiceThreads() throws Exception {
+		assertEquals(3, menuService.requestAllMenuItemsAsync(new RequestAllMenuItemsEvent()).get(5, TimeUnit.SECONDS).getMenuItemDetails().size());
+
+		UUID key = orderService.createOrderAsync(new CreateOrderEvent(OrdersFixtures.standardOrderDetails())).join().getNewOrderKey();
+
+		assertTrue(orderService.requestOrderDetailsAsync(new RequestOrderDetailsEvent(key)).get(5, TimeUnit.SECONDS).isEntityFound());
+
+		//the call itself, not just its callbacks, has to leave the calling thread
+		final BlockingQueue<String> calledOn = new LinkedBlockingQueue<String>();
+		OrderPersistenceService recording = new OrderPersistenceEventHandler(
+				new OrdersConcurrentMemoryRepository(new HashMap<UUID, Order>()), new OrderStatusMemoryRepository()) {
+			@Override
+			public OrderDetailsEvent requestOrderDetails(RequestOrderDetailsEvent requestOrderDetailsEvent) {
+				calledOn.add(Thread.currentThread().getName());
+				return super.requestOrderDetails(requestOrderDetailsEvent);
+			}
+		};
+		new OrderEventHandler(recording, serviceExecutor).requestOrderDetailsAsync(new RequestOrderDetailsEvent(key)).get(5, TimeUnit.SECONDS);
+
+		assertTrue(calledOn.poll(5, TimeUnit.SECONDS).startsWith("service-"));
+	}
 
 }
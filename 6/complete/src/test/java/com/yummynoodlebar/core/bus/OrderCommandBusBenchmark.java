@@ -0,0 +1,139 @@
+package com.yummynoodlebar.core.bus;
+
+import com.yummynoodlebar.core.services.EventFuture;
+import com.yummynoodlebar.events.orders.*;
+import com.yummynoodlebar.persistence.domain.Order;
+import com.yummynoodlebar.persistence.repository.OrderStatusMemoryRepository;
+import com.yummynoodlebar.persistence.repository.OrdersConcurrentMemoryRepository;
+import com.yummynoodlebar.persistence.services.OrderPersistenceEventHandler;
+import com.yummynoodlebar.persistence.services.OrderPersistenceService;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+
+/*
+ * Status changes against in-memory persistence, called directly and over the OrderCommandBus with
+ * each wait strategy. Prints throughput and the latency percentiles of a single command for
+ * callers that wait for each reply, then throughput for one caller keeping 256 commands in flight.
+ * Not run as part of the build, start it by hand:
+ *
+ *   java -cp <test classpath> com.yummynoodlebar.core.bus.OrderCommandBusBenchmark [threads]
+ */
+public class OrderCommandBusBenchmark {
+
+  private static final int COMMANDS_PER_THREAD = 200000;
+  private static final int IN_FLIGHT = 256;
+  private static final List<String> WAIT_STRATEGIES = Arrays.asList("blocking", "sleeping", "yielding", "busy-spin");
+
+  public static void main(String[] args) throws Exception {
+    int threads = args.length > 0 ? Integer.parseInt(args[0]) : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    System.out.printf("%-18s %8s %14s %10s %10s %10s%n", "path", "threads", "ops/sec", "p50 ns", "p99 ns", "p99.9 ns");
+    for (int round = 0; round < 2; round++) {
+      //the first round warms up
+      boolean print = round == 1;
+      waitingCallers("direct", null, threads, print);
+      for (String waitStrategy : WAIT_STRATEGIES) {
+        waitingCallers("bus " + waitStrategy, waitStrategy, threads, print);
+      }
+    }
+
+    System.out.println();
+    System.out.printf("%-18s %14s%n", "pipelined", "ops/sec");
+    for (String waitStrategy : WAIT_STRATEGIES) {
+      pipelined(waitStrategy);
+    }
+  }
+
+  private static void waitingCallers(String name, String waitStrategy, int threads, boolean print) throws Exception {
+    final OrderPersistenceEventHandler persistence = persistence();
+    final UUID key = persistence.createOrderWithStatus(new CreateOrderWithStatusEvent(details(), new Date(), "Order Created")).getNewOrderKey();
+    final OrderCommandBus bus = waitStrategy == null ? null : new OrderCommandBus(persistence, 1024, waitStrategy);
+    final OrderPersistenceService service = bus == null ? persistence : bus;
+    final long[][] latencies = new long[threads][COMMANDS_PER_THREAD];
+    final CountDownLatch start = new CountDownLatch(1);
+
+    List<Thread> callers = new ArrayList<Thread>();
+    for (int i = 0; i < threads; i++) {
+      final long[] mine = latencies[i];
+      Thread caller = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          OrderStatusDetails status = new OrderStatusDetails(key, UUID.randomUUID(), new Date(), "Cooking");
+          try {
+            start.await();
+          } catch (InterruptedException e) {
+            return;
+          }
+          for (int command = 0; command < COMMANDS_PER_THREAD; command++) {
+            long began = System.nanoTime();
+            service.setOrderStatus(new SetOrderStatusEvent(key, status));
+            mine[command] = System.nanoTime() - began;
+          }
+        }
+      });
+      callers.add(caller);
+      caller.start();
+    }
+    long began = System.nanoTime();
+    start.countDown();
+    for (Thread caller : callers) {
+      caller.join();
+    }
+    long elapsed = System.nanoTime() - began;
+    if (bus != null) {
+      bus.close();
+    }
+
+    if (print) {
+      long[] all = new long[threads * COMMANDS_PER_THREAD];
+      for (int i = 0; i < threads; i++) {
+        System.arraycopy(latencies[i], 0, all, i * COMMANDS_PER_THREAD, COMMANDS_PER_THREAD);
+      }
+      Arrays.sort(all);
+      System.out.printf("%-18s %8d %14d %10d %10d %10d%n", name, threads,
+          all.length * 1000000000L / elapsed, percentile(all, 0.5), percentile(all, 0.99), percentile(all, 0.999));
+    }
+  }
+
+  private static void pipelined(String waitStrategy) {
+    OrderPersistenceEventHandler persistence = persistence();
+    UUID key = persistence.createOrderWithStatus(new CreateOrderWithStatusEvent(details(), new Date(), "Order Created")).getNewOrderKey();
+    OrderCommandBus bus = new OrderCommandBus(persistence, 1024, waitStrategy);
+    OrderStatusDetails status = new OrderStatusDetails(key, UUID.randomUUID(), new Date(), "Cooking");
+
+    int commands = COMMANDS_PER_THREAD * 4;
+    List<EventFuture<OrderStatusEvent>> inFlight = new ArrayList<EventFuture<OrderStatusEvent>>(IN_FLIGHT);
+    long began = System.nanoTime();
+    for (int command = 0; command < commands; command++) {
+      inFlight.add(bus.setOrderStatusAsync(new SetOrderStatusEvent(key, status)));
+      if (inFlight.size() == IN_FLIGHT) {
+        for (EventFuture<OrderStatusEvent> reply : inFlight) {
+          reply.join();
+        }
+        inFlight.clear();
+      }
+    }
+    for (EventFuture<OrderStatusEvent> reply : inFlight) {
+      reply.join();
+    }
+    long elapsed = System.nanoTime() - began;
+    bus.close();
+    System.out.printf("%-18s %14d%n", "bus " + waitStrategy, commands * 1000000000L / elapsed);
+  }
+
+  private static long percentile(long[] sorted, double percentile) {
+    return sorted[Math.min(sorted.length - 1, (int) (sorted.length * percentile))];
+  }
+
+  private static OrderPersistenceEventHandler persistence() {
+    return new OrderPersistenceEventHandler(
+        new OrdersConcurrentMemoryRepository(new HashMap<UUID, Order>()), new OrderStatusMemoryRepository());
+  }
+
+  private static OrderDetails details() {
+    OrderDetails details = new OrderDetails();
+    details.setDateTimeOfSubmission(new Date());
+    return details;
+  }
+}
@@ -0,0 +1,92 @@
+package com.yummynoodlebar.core.bus;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+import com.yummynoodlebar.core.services.EventFuture;
+import com.yummynoodlebar.events.orders.*;
+import com.yummynoodlebar.persistence.domain.Order;
+import com.yummynoodlebar.persistence.repository.OrderStatusMemoryRepository;
+import com.yummynoodlebar.persistence.repository.OrdersConcurrentMemoryRepository;
+import com.yummynoodlebar.persistence.services.OrderPersistenceEventHandler;
+
+public class OrderCommandBusIntegrationTest {
+
+  @Test
+  public void thatCommandsFromManyThreadsAreAllAppliedWithEveryWaitStrategy() throws Exception {
+    for (String waitStrategy : Arrays.asList("blocking", "sleeping", "yielding", "busy-spin")) {
+      OrdersConcurrentMemoryRepository orders = new OrdersConcurrentMemoryRepository(new HashMap<UUID, Order>());
+      final OrderCommandBus bus = new OrderCommandBus(
+          new OrderPersistenceEventHandler(orders, new OrderStatusMemoryRepository()), 8, waitStrategy);
+      try {
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> producers = new ArrayList<Thread>();
+        for (int i = 0; i < 4; i++) {
+          Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+              try {
+                start.await();
+              } catch (InterruptedException e) {
+                return;
+              }
+              for (int order = 0; order < 500; order++) {
+                bus.createOrderWithStatus(new CreateOrderWithStatusEvent(details(), new Date(), "Order Created"));
+              }
+            }
+          });
+          producers.add(producer);
+          producer.start();
+        }
+        start.countDown();
+        for (Thread producer : producers) {
+          producer.join();
+        }
+
+        assertEquals(waitStrategy, 2000, orders.findAll().size());
+      } finally {
+        bus.close();
+      }
+    }
+  }
+
+  @Test
+  public void thatCommandsAreAppliedInTheOrderTheyWerePublished() {
+    OrderCommandBus bus = new OrderCommandBus(
+        new OrderPersistenceEventHandler(new OrdersConcurrentMemoryRepository(new HashMap<UUID, Order>()), new OrderStatusMemoryRepository()), 4, "yielding");
+    UUID key = bus.createOrderWithStatus(new CreateOrderWithStatusEvent(details(), new Date(0), "Order Created")).getNewOrderKey();
+
+    List<EventFuture<OrderStatusEvent>> replies = new ArrayList<EventFuture<OrderStatusEvent>>();
+    for (int i = 1; i <= 50; i++) {
+      replies.add(bus.setOrderStatusAsync(new SetOrderStatusEvent(key, new OrderStatusDetails(key, UUID.randomUUID(), new Date(i), "Status " + i))));
+    }
+    EventFuture<OrderDeletedEvent> deleted = bus.deleteOrderAsync(new DeleteOrderEvent(key));
+    bus.close();
+
+    for (EventFuture<OrderStatusEvent> reply : replies) {
+      assertTrue(reply.isDone());
+    }
+    assertTrue(deleted.join().isEntityFound());
+    assertEquals(false, bus.requestOrderDetails(new RequestOrderDetailsEvent(key)).isEntityFound());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void thatAClosedBusTakesNoMoreCommands() {
+    OrderCommandBus bus = new OrderCommandBus(
+        new OrderPersistenceEventHandler(new OrdersConcurrentMemoryRepository(new HashMap<UUID, Order>()), new OrderStatusMemoryRepository()), 4, "sleeping");
+    bus.close();
+
+    bus.createOrderWithStatus(new CreateOrderWithStatusEvent(details(), new Date(), "Order Created"));
+  }
+
+  private static OrderDetails details() {
+    OrderDetails details = new OrderDetails();
+    details.setDateTimeOfSubmission(new Date());
+    return details;
+  }
+}
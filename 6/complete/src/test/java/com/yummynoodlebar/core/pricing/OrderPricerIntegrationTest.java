@@ -0,0 +1,98 @@
+package com.yummynoodlebar.core.pricing;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+
+import org.junit.Test;
+
+import com.yummynoodlebar.core.services.MenuEventHandler;
+import com.yummynoodlebar.core.services.MenuService;
+import com.yummynoodlebar.events.menu.CreateMenuItemEvent;
+import com.yummynoodlebar.events.menu.MenuItemDetails;
+import com.yummynoodlebar.events.orders.MenuItemOrdinals;
+import com.yummynoodlebar.events.orders.OrderCharges;
+import com.yummynoodlebar.persistence.repository.MenuItemMemoryRepository;
+import com.yummynoodlebar.persistence.services.MenuPersistenceEventHandler;
+
+public class OrderPricerIntegrationTest {
+
+  private static final BigDecimal TAX_RATE = new BigDecimal("0.175");
+  private static final BigDecimal DELIVERY_CHARGE = new BigDecimal("2.50");
+  private static final BigDecimal FREE_DELIVERY_FROM = new BigDecimal("25.00");
+
+  private final MenuService menuService = new MenuEventHandler(new MenuPersistenceEventHandler(new MenuItemMemoryRepository()));
+  private final OrderPricer pricer = new OrderPricer(menuService, new PricingPolicy(TAX_RATE, DELIVERY_CHARGE, FREE_DELIVERY_FROM));
+
+  @Test
+  public void thatChargesMatchTheSameSumsInBigDecimal() {
+    Random random = new Random(42);
+    Map<String, BigDecimal> menu = new HashMap<String, BigDecimal>();
+    for (int i = 0; i < 20; i++) {
+      BigDecimal cost = BigDecimal.valueOf(random.nextInt(2000), 2);
+      addMenuItem("PRICED" + i, cost);
+      menu.put("PRICED" + i, cost);
+    }
+    List<String> ids = new ArrayList<String>(menu.keySet());
+
+    for (int order = 0; order < 1000; order++) {
+      Map<String, Integer> items = new HashMap<String, Integer>();
+      BigDecimal subtotal = BigDecimal.ZERO;
+      for (int line = random.nextInt(6); line >= 0; line--) {
+        String id = ids.get(random.nextInt(ids.size()));
+        if (!items.containsKey(id)) {
+          int quantity = 1 + random.nextInt(5);
+          items.put(id, quantity);
+          subtotal = subtotal.add(menu.get(id).multiply(BigDecimal.valueOf(quantity)));
+        }
+      }
+      BigDecimal tax = subtotal.multiply(TAX_RATE).setScale(2, RoundingMode.HALF_UP);
+      BigDecimal delivery = subtotal.compareTo(FREE_DELIVERY_FROM) >= 0 ? BigDecimal.ZERO : DELIVERY_CHARGE;
+
+      OrderCharges charges = pricer.price(items);
+
+      assertTrue(charges.isValid());
+      assertEquals(Money.toMinorUnits(subtotal), charges.getSubtotal());
+      assertEquals(Money.toMinorUnits(tax), charges.getTax());
+      assertEquals(Money.toMinorUnits(delivery), charges.getDelivery());
+      assertEquals(0, subtotal.add(tax).add(delivery).compareTo(charges.getTotalCost()));
+    }
+  }
+
+  @Test
+  public void thatItemsOffTheMenuAndBadQuantitiesAreRejected() {
+    addMenuItem("YM1", new BigDecimal("4.50"));
+
+    OrderCharges unknown = pricer.price(Collections.singletonMap("NOT-ON-MENU", 1));
+    assertFalse(unknown.isValid());
+    assertTrue(unknown.getRejection().contains("NOT-ON-MENU"));
+    assertEquals(-1, MenuItemOrdinals.find("NOT-ON-MENU"));
+
+    assertFalse(pricer.price(Collections.singletonMap("YM1", 0)).isValid());
+    assertFalse(pricer.price(Collections.singletonMap("YM1", -3)).isValid());
+
+    addMenuItem("BANQUET", new BigDecimal("10000000.00"));
+    assertFalse(pricer.price(Collections.singletonMap("BANQUET", Integer.MAX_VALUE)).isValid());
+  }
+
+  @Test
+  public void thatPricesFollowTheMenuVersion() {
+    addMenuItem("YM2", new BigDecimal("10.00"));
+    assertEquals(1000, pricer.price(Collections.singletonMap("YM2", 1)).getSubtotal());
+    assertFalse(pricer.price(Collections.singletonMap("YM3", 1)).isValid());
+
+    addMenuItem("YM2", new BigDecimal("12.00"));
+    addMenuItem("YM3", new BigDecimal("1.00"));
+
+    assertEquals(1200, pricer.price(Collections.singletonMap("YM2", 1)).getSubtotal());
+    assertEquals(100, pricer.price(Collections.singletonMap("YM3", 1)).getSubtotal());
+  }
+
+  private void addMenuItem(String id, BigDecimal cost) {
+    menuService.createMenuItem(new CreateMenuItemEvent(new MenuItemDetails(id, id, cost, 5)));
+  }
+}
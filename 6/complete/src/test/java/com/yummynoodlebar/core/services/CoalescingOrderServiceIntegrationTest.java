@@ -0,0 +1,130 @@
+package com.yummynoodlebar.core.services;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertSame;
+import static junit.framework.TestCase.assertTrue;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.yummynoodlebar.events.orders.*;
+import com.yummynoodlebar.persistence.domain.Order;
+import com.yummynoodlebar.persistence.repository.OrderStatusMemoryRepository;
+import com.yummynoodlebar.persistence.repository.OrdersConcurrentMemoryRepository;
+import com.yummynoodlebar.persistence.services.OrderPersistenceEventHandler;
+
+public class CoalescingOrderServiceIntegrationTest {
+
+  private final AtomicInteger lookups = new AtomicInteger();
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  //holds the first details lookup, having read the order, until released
+  private final OrderPersistenceEventHandler persistence = new OrderPersistenceEventHandler(
+      new OrdersConcurrentMemoryRepository(new HashMap<UUID, Order>()), new OrderStatusMemoryRepository()) {
+    @Override
+    public OrderDetailsEvent requestOrderDetails(RequestOrderDetailsEvent requestOrderDetailsEvent) {
+      OrderDetailsEvent details = super.requestOrderDetails(requestOrderDetailsEvent);
+      if (lookups.incrementAndGet() == 1) {
+        try {
+          release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      return details;
+    }
+  };
+
+  private final CoalescingOrderService orders = new CoalescingOrderService(
+      new OrderEventHandler(persistence, Executors.newCachedThreadPool()));
+
+  @Test
+  public void thatConcurrentRequestsForOneOrderShareOneLookup() throws Exception {
+    final UUID key = createOrder();
+    ExecutorService callers = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<OrderDetailsEvent>> details = new ArrayList<Future<OrderDetailsEvent>>();
+      for (int i = 0; i < 8; i++) {
+        details.add(callers.submit(new Callable<OrderDetailsEvent>() {
+          @Override
+          public OrderDetailsEvent call() {
+            return orders.requestOrderDetails(new RequestOrderDetailsEvent(key));
+          }
+        }));
+      }
+      EventFuture<OrderDetailsEvent> async = orders.requestOrderDetailsAsync(new RequestOrderDetailsEvent(key));
+      while (orders.getSharedCount() < 8) {
+        Thread.sleep(1);
+      }
+      release.countDown();
+
+      OrderDetailsEvent first = details.get(0).get(10, TimeUnit.SECONDS);
+      for (Future<OrderDetailsEvent> each : details) {
+        assertSame(first, each.get(10, TimeUnit.SECONDS));
+      }
+      assertSame(first, async.get(10, TimeUnit.SECONDS));
+      assertEquals(1, lookups.get());
+
+      orders.requestOrderDetails(new RequestOrderDetailsEvent(key));
+      assertEquals(2, lookups.get());
+    } finally {
+      callers.shutdown();
+    }
+  }
+
+  @Test
+  public void thatOneCallerCancellingLeavesTheSharedLookupRunning() throws Exception {
+    final UUID key = createOrder();
+    EventFuture<OrderDetailsEvent> cancelled = orders.requestOrderDetailsAsync(new RequestOrderDetailsEvent(key));
+    EventFuture<OrderDetailsEvent> kept = orders.requestOrderDetailsAsync(new RequestOrderDetailsEvent(key));
+    assertEquals(1, orders.getSharedCount());
+
+    assertTrue(cancelled.cancel(false));
+    ExecutorService callers = Executors.newSingleThreadExecutor();
+    try {
+      Future<OrderDetailsEvent> sync = callers.submit(new Callable<OrderDetailsEvent>() {
+        @Override
+        public OrderDetailsEvent call() {
+          return orders.requestOrderDetails(new RequestOrderDetailsEvent(key));
+        }
+      });
+      while (orders.getSharedCount() < 2) {
+        Thread.sleep(1);
+      }
+      release.countDown();
+
+      assertTrue(kept.get(10, TimeUnit.SECONDS).isEntityFound());
+      assertSame(kept.get(), sync.get(10, TimeUnit.SECONDS));
+      assertTrue(cancelled.isCancelled());
+      assertEquals(1, lookups.get());
+    } finally {
+      callers.shutdown();
+    }
+  }
+
+  @Test
+  public void thatARequestAfterADeletionDoesNotJoinALookupFromBeforeIt() throws Exception {
+    final UUID key = createOrder();
+    EventFuture<OrderDetailsEvent> before = orders.requestOrderDetailsAsync(new RequestOrderDetailsEvent(key));
+    while (lookups.get() < 1) {
+      Thread.sleep(1);
+    }
+
+    orders.deleteOrder(new DeleteOrderEvent(key));
+
+    assertFalse(orders.requestOrderDetails(new RequestOrderDetailsEvent(key)).isEntityFound());
+    assertFalse(before.isDone());
+    release.countDown();
+    assertTrue(before.get(10, TimeUnit.SECONDS).isEntityFound());
+  }
+
+  private UUID createOrder() {
+    OrderDetails details = new OrderDetails();
+    details.setDateTimeOfSubmission(new Date());
+    return orders.createOrder(new CreateOrderEvent(details)).getNewOrderKey();
+  }
+}
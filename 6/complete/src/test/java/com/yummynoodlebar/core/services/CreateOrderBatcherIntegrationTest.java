@@ -0,0 +1,73 @@
+package com.yummynoodlebar.core.services;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.Test;
+
+import com.yummynoodlebar.events.orders.*;
+import com.yummynoodlebar.persistence.domain.Order;
+import com.yummynoodlebar.persistence.repository.OrderStatusMemoryRepository;
+import com.yummynoodlebar.persistence.repository.OrdersConcurrentMemoryRepository;
+import com.yummynoodlebar.persistence.services.OrderPersistenceEventHandler;
+
+public class CreateOrderBatcherIntegrationTest {
+
+  private final OrderPersistenceEventHandler persistence = new OrderPersistenceEventHandler(
+      new OrdersConcurrentMemoryRepository(new HashMap<UUID, Order>()), new OrderStatusMemoryRepository());
+
+  @Test
+  public void thatEachCallerGetsItsOwnOrderBack() throws Exception {
+    CreateOrderBatcher batcher = new CreateOrderBatcher(persistence, 16, 2000);
+    final OrderService orders = new OrderEventHandler(persistence, SameThreadExecutor.INSTANCE, batcher);
+    ExecutorService callers = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<OrderCreatedEvent>> created = new ArrayList<Future<OrderCreatedEvent>>();
+      for (int i = 0; i < 200; i++) {
+        final String name = "Customer " + i;
+        created.add(callers.submit(new Callable<OrderCreatedEvent>() {
+          @Override
+          public OrderCreatedEvent call() {
+            OrderDetails details = new OrderDetails();
+            details.setName(name);
+            details.setDateTimeOfSubmission(new Date());
+            return orders.createOrder(new CreateOrderEvent(details));
+          }
+        }));
+      }
+
+      Set<UUID> keys = new HashSet<UUID>();
+      for (int i = 0; i < created.size(); i++) {
+        OrderCreatedEvent event = created.get(i).get(10, TimeUnit.SECONDS);
+        keys.add(event.getNewOrderKey());
+        assertEquals("Customer " + i, orders.requestOrderDetails(new RequestOrderDetailsEvent(event.getNewOrderKey())).getOrderDetails().getName());
+        assertEquals("Order Created", orders.requestOrderStatus(new RequestOrderStatusEvent(event.getNewOrderKey())).getOrderStatus().getStatus());
+      }
+      assertEquals(200, keys.size());
+      assertEquals(200, batcher.getOrderCount());
+      assertTrue(batcher.getBatchCount() < 200);
+    } finally {
+      callers.shutdown();
+      batcher.close();
+    }
+  }
+
+  @Test
+  public void thatALoneOrderWaitsNoLongerThanTheBatchWindow() {
+    CreateOrderBatcher batcher = new CreateOrderBatcher(persistence, 16, 50000);
+    try {
+      long began = System.nanoTime();
+      OrderCreatedEvent created = new OrderEventHandler(persistence, SameThreadExecutor.INSTANCE, batcher)
+          .createOrderAsync(new CreateOrderEvent(new OrderDetails())).join();
+      long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - began);
+
+      assertTrue(persistence.requestOrderDetails(new RequestOrderDetailsEvent(created.getNewOrderKey())).isEntityFound());
+      assertTrue("waited " + waitedMillis + "ms", waitedMillis >= 40 && waitedMillis < 5000);
+    } finally {
+      batcher.close();
+    }
+  }
+}
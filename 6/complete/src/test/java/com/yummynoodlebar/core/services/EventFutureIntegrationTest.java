@@ -0,0 +1,90 @@
+package com.yummynoodlebar.core.services;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertSame;
+import static junit.framework.TestCase.assertTrue;
+
+import java.util.concurrent.*;
+
+import org.junit.Test;
+
+public class EventFutureIntegrationTest {
+
+  @Test
+  public void thatAFailedCallIsRethrownToWhoeverJoins() {
+    final IllegalStateException failure = new IllegalStateException("store unavailable");
+    EventFuture<String> future = EventFuture.submit(SameThreadExecutor.INSTANCE, new Callable<String>() {
+      @Override
+      public String call() {
+        throw failure;
+      }
+    });
+
+    try {
+      future.join();
+      throw new AssertionError("Expected the failure to be rethrown");
+    } catch (IllegalStateException rethrown) {
+      assertSame(failure, rethrown);
+    }
+  }
+
+  @Test
+  public void thatCallbacksRunOnceTheEventArrives() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      final CountDownLatch release = new CountDownLatch(1);
+      EventFuture<String> future = EventFuture.submit(executor, new Callable<String>() {
+        @Override
+        public String call() throws Exception {
+          release.await();
+          return "Order Created";
+        }
+      });
+      final BlockingQueue<String> seen = new LinkedBlockingQueue<String>();
+      future.addCallback(new EventFuture.Callback<String>() {
+        @Override
+        public void onEvent(String event) {
+          seen.add(event);
+        }
+
+        @Override
+        public void onFailure(Throwable failure) {
+          seen.add("failed");
+        }
+      });
+
+      assertFalse(future.isDone());
+      release.countDown();
+
+      assertEquals("Order Created", seen.poll(5, TimeUnit.SECONDS));
+      assertEquals("Order Created", future.get());
+      assertFalse(future.complete("Ignored"));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void thatAFullExecutorFailsTheFutureRatherThanTheCaller() {
+    EventFuture<String> future = EventFuture.submit(new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        throw new RejectedExecutionException("full");
+      }
+    }, new Callable<String>() {
+      @Override
+      public String call() {
+        return "never";
+      }
+    });
+
+    assertTrue(future.isDone());
+    try {
+      future.get();
+      throw new AssertionError("Expected the rejection");
+    } catch (InterruptedException | ExecutionException failed) {
+      assertTrue(failed.getCause() instanceof RejectedExecutionException);
+    }
+  }
+}
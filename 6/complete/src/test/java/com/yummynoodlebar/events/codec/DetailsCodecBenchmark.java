@@ -0,0 +1,111 @@
+package com.yummynoodlebar.events.codec;
+
+import com.yummynoodlebar.events.orders.OrderDetails;
+import org.springframework.beans.BeanUtils;
+
+import java.io.*;
+import java.util.*;
+
+/*
+ * Encodes and decodes a typical order with DetailsCodec and with Java serialisation of the same
+ * fields, and copies it with BeanUtils.copyProperties as the layer conversions used to and with
+ * plain setters as they do now. Not run as part of the build, start it by hand:
+ *
+ *   java -cp <test classpath> com.yummynoodlebar.events.codec.DetailsCodecBenchmark
+ */
+public class DetailsCodecBenchmark {
+
+  private static final int ITERATIONS = 200000;
+
+  public static void main(String[] args) throws Exception {
+    OrderDetails details = order();
+
+    System.out.printf("%-22s %12s %10s%n", "", "ns/op", "bytes");
+    for (int round = 0; round < 3; round++) {
+      codec(details);
+      serialisation(details);
+      beanUtils(details);
+      explicitCopy(details);
+      System.out.println();
+    }
+  }
+
+  private static void codec(OrderDetails details) {
+    BinaryWriter out = new BinaryWriter(128);
+    long sink = 0;
+    long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      DetailsCodec.writeOrderDetails(out.reset(), details);
+      sink += DetailsCodec.decodeOrderDetails(out.toByteArray()).getOrderItems().size();
+    }
+    report("codec round trip", start, out.size(), sink);
+  }
+
+  private static void serialisation(OrderDetails details) throws Exception {
+    long sink = 0;
+    int size = 0;
+    long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+      ObjectOutputStream out = new ObjectOutputStream(bytes);
+      out.writeObject(new Object[] {details.getKey(), details.getDateTimeOfSubmission(),
+          new HashMap<String, Integer>(details.getOrderItems()), details.getName(), details.getAddress1(),
+          details.getPostcode(), details.getUserName()});
+      out.close();
+      size = bytes.size();
+      Object[] fields = (Object[]) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+      sink += ((Map<?, ?>) fields[2]).size();
+    }
+    report("serialisation round trip", start, size, sink);
+  }
+
+  private static void beanUtils(OrderDetails details) {
+    long sink = 0;
+    long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      OrderDetails copy = new OrderDetails();
+      BeanUtils.copyProperties(details, copy);
+      sink += copy.getOrderItems().size();
+    }
+    report("BeanUtils copy", start, 0, sink);
+  }
+
+  private static void explicitCopy(OrderDetails details) {
+    long sink = 0;
+    long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      OrderDetails copy = new OrderDetails(details.getKey());
+      copy.setDateTimeOfSubmission(details.getDateTimeOfSubmission());
+      copy.setOrderItems(details.getOrderItems());
+      copy.setName(details.getName());
+      copy.setAddress1(details.getAddress1());
+      copy.setPostcode(details.getPostcode());
+      copy.setUserName(details.getUserName());
+      sink += copy.getOrderItems().size();
+    }
+    report("explicit copy", start, 0, sink);
+  }
+
+  private static void report(String name, long start, int bytes, long sink) {
+    System.out.printf("%-22s %12d %10s%n", name, (System.nanoTime() - start) / ITERATIONS,
+        bytes == 0 ? "-" : String.valueOf(bytes));
+    if (sink == 42) {
+      System.out.println();
+    }
+  }
+
+  private static OrderDetails order() {
+    OrderDetails details = new OrderDetails(UUID.randomUUID());
+    details.setDateTimeOfSubmission(new Date());
+    Map<String, Integer> items = new HashMap<String, Integer>();
+    items.put("YM1", 2);
+    items.put("YM2", 1);
+    items.put("YM3", 3);
+    details.setOrderItems(items);
+    details.setName("Customer Name");
+    details.setAddress1("1 Noodle Street");
+    details.setPostcode("N1 1AA");
+    details.setUserName("letsnosh");
+    return details;
+  }
+}
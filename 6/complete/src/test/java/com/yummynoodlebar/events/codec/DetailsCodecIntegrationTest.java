@@ -0,0 +1,71 @@
+package com.yummynoodlebar.events.codec;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import org.junit.Test;
+
+import com.yummynoodlebar.events.menu.MenuItemDetails;
+import com.yummynoodlebar.events.orders.OrderDetails;
+import com.yummynoodlebar.events.orders.OrderStatusDetails;
+
+public class DetailsCodecIntegrationTest {
+
+  @Test
+  public void thatOrderDetailsSurviveARoundTrip() {
+    OrderDetails details = new OrderDetails(UUID.randomUUID());
+    details.setDateTimeOfSubmission(new Date());
+    Map<String, Integer> items = new HashMap<String, Integer>();
+    items.put("YM1", 2);
+    items.put("YM3", 1);
+    details.setOrderItems(items);
+    details.setName("Zo\u00eb");
+    details.setPostcode("N1 1AA");
+
+    OrderDetails decoded = DetailsCodec.decodeOrderDetails(DetailsCodec.encode(details));
+
+    assertEquals(details.getKey(), decoded.getKey());
+    assertEquals(details.getDateTimeOfSubmission(), decoded.getDateTimeOfSubmission());
+    assertEquals(items, decoded.getOrderItems());
+    assertEquals("Zo\u00eb", decoded.getName());
+    assertNull(decoded.getAddress1());
+    assertEquals("N1 1AA", decoded.getPostcode());
+    assertNull(decoded.getUserName());
+  }
+
+  @Test
+  public void thatKnownStatusesAreDictionaryEncoded() {
+    OrderStatusDetails known = new OrderStatusDetails(UUID.randomUUID(), UUID.randomUUID(), new Date(), "Order Created");
+    OrderStatusDetails unknown = new OrderStatusDetails(UUID.randomUUID(), UUID.randomUUID(), new Date(), "Lost In Space");
+
+    byte[] knownBytes = DetailsCodec.encode(known);
+    byte[] unknownBytes = DetailsCodec.encode(unknown);
+
+    assertEquals("Order Created", DetailsCodec.decodeOrderStatusDetails(knownBytes).getStatus());
+    assertEquals("Lost In Space", DetailsCodec.decodeOrderStatusDetails(unknownBytes).getStatus());
+    assertEquals(known.getId(), DetailsCodec.decodeOrderStatusDetails(knownBytes).getId());
+    assertTrue(knownBytes.length + "Lost In Space".length() < unknownBytes.length);
+  }
+
+  @Test
+  public void thatMenuItemCostsKeepTheirScale() {
+    MenuItemDetails details = new MenuItemDetails("YM1", "Yummy Noodles", new BigDecimal("10.50"), -3);
+
+    MenuItemDetails decoded = DetailsCodec.decodeMenuItemDetails(DetailsCodec.encode(details));
+
+    assertEquals("YM1", decoded.getId());
+    assertEquals(new BigDecimal("10.50"), decoded.getCost());
+    assertEquals(-3, decoded.getMinutesToPrepare());
+  }
+
+  @Test(expected = CodecException.class)
+  public void thatTruncatedInputIsRejected() {
+    byte[] bytes = DetailsCodec.encode(new OrderStatusDetails(UUID.randomUUID(), UUID.randomUUID(), new Date(), "Cooking"));
+
+    DetailsCodec.decodeOrderStatusDetails(Arrays.copyOf(bytes, bytes.length - 3));
+  }
+}
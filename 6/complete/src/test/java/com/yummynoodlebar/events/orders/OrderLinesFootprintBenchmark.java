@@ -0,0 +1,56 @@
+package com.yummynoodlebar.events.orders;
+
+import java.util.*;
+
+/*
+ * Heap held by the order lines of many retained orders, as the unmodifiable HashMap they used to
+ * be and as OrderLines. Not run as part of the build, start it by hand with a fixed heap so the
+ * numbers are stable:
+ *
+ *   java -Xms1g -Xmx1g -cp <test classpath> com.yummynoodlebar.events.orders.OrderLinesFootprintBenchmark [orders]
+ */
+public class OrderLinesFootprintBenchmark {
+
+  private static final String[] MENU = {"YM1", "YM2", "YM3", "YM4", "YM5", "YM6", "YM7", "YM8"};
+
+  public static void main(String[] args) {
+    int orders = args.length > 0 ? Integer.parseInt(args[0]) : 500000;
+    for (String id : MENU) {
+      MenuItemOrdinals.register(id);
+    }
+
+    long maps = retained(orders, false);
+    long lines = retained(orders, true);
+
+    System.out.printf("%-22s %14s %12s%n", "", "total bytes", "per order");
+    System.out.printf("%-22s %14d %12d%n", "unmodifiable HashMap", maps, maps / orders);
+    System.out.printf("%-22s %14d %12d%n", "OrderLines", lines, lines / orders);
+  }
+
+  private static long retained(int count, boolean compact) {
+    Random random = new Random(42);
+    long before = usedHeap();
+    List<Map<String, Integer>> kept = new ArrayList<Map<String, Integer>>(count);
+    for (int i = 0; i < count; i++) {
+      Map<String, Integer> items = new HashMap<String, Integer>();
+      for (int line = 0, lines = 1 + random.nextInt(4); line < lines; line++) {
+        //past the Integer cache, as real quantities mostly are not once boxed per order
+        items.put(MENU[random.nextInt(MENU.length)], 128 + random.nextInt(3));
+      }
+      kept.add(compact ? OrderLines.of(items) : Collections.unmodifiableMap(items));
+    }
+    long after = usedHeap();
+    if (kept.size() != count) {
+      throw new IllegalStateException();
+    }
+    return after - before - (long) count * 4;
+  }
+
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 4; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
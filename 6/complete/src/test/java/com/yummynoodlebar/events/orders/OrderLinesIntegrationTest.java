@@ -0,0 +1,77 @@
+package com.yummynoodlebar.events.orders;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertSame;
+import static junit.framework.TestCase.assertTrue;
+
+import java.util.*;
+
+import org.junit.Test;
+
+public class OrderLinesIntegrationTest {
+
+  @Test
+  public void thatOrderLinesBehaveLikeTheMapTheyWereMadeFrom() {
+    Map<String, Integer> items = new HashMap<String, Integer>();
+    items.put("YM2", 3);
+    items.put("YM1", 1);
+    items.put("never-seen-before-" + UUID.randomUUID(), 2);
+
+    OrderLines lines = OrderLines.of(items);
+
+    assertEquals(items, lines);
+    assertEquals(lines, items);
+    assertEquals(items.hashCode(), lines.hashCode());
+    assertEquals(Integer.valueOf(3), lines.get("YM2"));
+    assertEquals(3, lines.quantityOf("YM2"));
+    assertNull(lines.get("YM9-" + UUID.randomUUID()));
+    assertFalse(lines.containsKey(42));
+  }
+
+  @Test
+  public void thatOrderLinesAreSharedNotRewrapped() {
+    OrderDetails details = new OrderDetails();
+    details.setOrderItems(Collections.singletonMap("YM1", 2));
+    OrderDetails copy = new OrderDetails();
+
+    copy.setOrderItems(details.getOrderItems());
+
+    assertSame(details.getOrderItems(), copy.getOrderItems());
+  }
+
+  @Test
+  public void thatTheBuilderAddsUpRepeatedItems() {
+    OrderLines lines = new OrderLines.Builder(2).add("YM3", 1).add("YM1", 1).add("YM3", 2).build();
+
+    assertEquals(2, lines.size());
+    assertEquals(3, lines.quantityOf("YM3"));
+  }
+
+  @Test
+  public void thatIdsOffTheMenuAreKeptWithoutAnOrdinal() {
+    MenuItemOrdinals.register("YM1");
+    String madeUp = "made-up-" + UUID.randomUUID();
+
+    OrderLines lines = new OrderLines.Builder(2).add("YM1", 1).add(madeUp, 2).add(madeUp, 1).build();
+
+    assertEquals(-1, MenuItemOrdinals.find(madeUp));
+    assertEquals(1, lines.lineCount());
+    assertEquals(1, lines.unknownCount());
+    assertEquals(madeUp, lines.unknownIdAt(0));
+    assertEquals(3, lines.quantityOf(madeUp));
+    assertEquals(2, lines.size());
+    assertTrue(lines.keySet().contains(madeUp));
+
+    //registering the id later does not lose the line
+    MenuItemOrdinals.register(madeUp);
+    assertEquals(Integer.valueOf(3), lines.get(madeUp));
+    assertEquals(Integer.valueOf(4), new OrderLines.Builder(1).add(madeUp, 1).add(madeUp, 3).build().get(madeUp));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void thatOrderLinesCannotBeChanged() {
+    OrderLines.of(Collections.singletonMap("YM1", 2)).put("YM2", 1);
+  }
+}
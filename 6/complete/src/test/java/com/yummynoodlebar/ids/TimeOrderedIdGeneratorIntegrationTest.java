@@ -0,0 +1,64 @@
+package com.yummynoodlebar.ids;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.Test;
+
+public class TimeOrderedIdGeneratorIntegrationTest {
+
+  private final TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator();
+
+  @Test
+  public void thatIdsAreVersion7UuidsCarryingTheirCreationTime() {
+    long before = System.currentTimeMillis();
+    UUID id = generator.nextId();
+    long after = System.currentTimeMillis();
+
+    assertEquals(7, id.version());
+    assertEquals(2, id.variant());
+    assertTrue(TimeOrderedIdGenerator.timestampOf(id) >= before);
+    assertTrue(TimeOrderedIdGenerator.timestampOf(id) <= after + 1);
+    //still an ordinary UUID as far as /order/{orderId} is concerned
+    assertEquals(id, UUID.fromString(id.toString()));
+  }
+
+  @Test
+  public void thatIdsFromOneThreadStrictlyIncrease() {
+    UUID previous = generator.nextId();
+    for (int i = 0; i < 100000; i++) {
+      UUID next = generator.nextId();
+      assertTrue(previous + " then " + next, next.compareTo(previous) > 0);
+      assertTrue(next.toString().compareTo(previous.toString()) > 0);
+      previous = next;
+    }
+  }
+
+  @Test
+  public void thatIdsFromManyThreadsAreUnique() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    List<Future<List<UUID>>> results = new ArrayList<Future<List<UUID>>>();
+    for (int i = 0; i < 4; i++) {
+      results.add(executor.submit(new Callable<List<UUID>>() {
+        @Override
+        public List<UUID> call() {
+          List<UUID> ids = new ArrayList<UUID>();
+          for (int j = 0; j < 50000; j++) {
+            ids.add(generator.nextId());
+          }
+          return ids;
+        }
+      }));
+    }
+    Set<UUID> unique = new HashSet<UUID>();
+    for (Future<List<UUID>> result : results) {
+      unique.addAll(result.get());
+    }
+    executor.shutdown();
+
+    assertEquals(200000, unique.size());
+  }
+}
@@ -0,0 +1,78 @@
+package com.yummynoodlebar.persistence.cache;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertTrue;
+
+import org.junit.Test;
+
+public class TinyLfuCacheIntegrationTest {
+
+  @Test
+  public void thatTheCacheNeverHoldsMoreThanItsMaximumSize() {
+    TinyLfuCache<Integer, String> cache = new TinyLfuCache<Integer, String>(2000);
+
+    for (int i = 0; i < 10000; i++) {
+      cache.put(i, "order " + i);
+    }
+
+    assertTrue(cache.size() <= 2000);
+    assertEquals(10000 - cache.size(), cache.getEvictionCount());
+  }
+
+  @Test
+  public void thatAOneOffScanDoesNotFlushTheFrequentlyReadEntries() {
+    TinyLfuCache<Integer, String> cache = new TinyLfuCache<Integer, String>(100);
+    for (int round = 0; round < 10; round++) {
+      for (int hot = 0; hot < 50; hot++) {
+        if (cache.get(hot) == null) {
+          cache.put(hot, "hot " + hot);
+        }
+      }
+    }
+
+    for (int cold = 1000; cold < 11000; cold++) {
+      cache.put(cold, "cold " + cold);
+    }
+
+    int kept = 0;
+    for (int hot = 0; hot < 50; hot++) {
+      if (cache.get(hot) != null) {
+        kept++;
+      }
+    }
+    assertEquals(50, kept);
+  }
+
+  @Test
+  public void thatALoadOverlappingAnInvalidateIsNotCached() {
+    TinyLfuCache<Integer, String> cache = new TinyLfuCache<Integer, String>(100);
+
+    long stale = cache.startLoad(1);
+    long other = cache.startLoad(2);
+    cache.invalidate(1);
+    cache.finishLoad(1, stale, "Order Created");
+    cache.finishLoad(2, other, "Cooking");
+
+    assertNull(cache.get(1));
+    assertEquals("Cooking", cache.get(2));
+
+    long fresh = cache.startLoad(1);
+    cache.finishLoad(1, fresh, "Delivered");
+    assertEquals("Delivered", cache.get(1));
+  }
+
+  @Test
+  public void thatHitsAndMissesAreCounted() {
+    TinyLfuCache<Integer, String> cache = new TinyLfuCache<Integer, String>(10);
+
+    assertNull(cache.get(1));
+    cache.put(1, "one");
+    assertEquals("one", cache.get(1));
+    cache.invalidate(1);
+    assertNull(cache.get(1));
+
+    assertEquals(1, cache.getHitCount());
+    assertEquals(2, cache.getMissCount());
+  }
+}
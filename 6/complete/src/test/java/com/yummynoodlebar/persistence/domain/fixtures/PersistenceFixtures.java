@@ -0,0 +1,21 @@
+package com.yummynoodlebar.persistence.domain.fixtures;
+
+import com.yummynoodlebar.persistence.domain.Order;
+
+import java.util.Collections;
+import java.util.Date;
+
+public class PersistenceFixtures {
+
+  public static Order standardOrder(String name) {
+    Order order = new Order(new Date());
+
+    order.setName(name);
+    order.setAddress1("Where they live");
+    order.setPostcode("90210");
+    order.setOrderItems(Collections.singletonMap("YM1", 2));
+
+    return order;
+  }
+
+}
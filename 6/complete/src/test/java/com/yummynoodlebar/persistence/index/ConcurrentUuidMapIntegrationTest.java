@@ -0,0 +1,115 @@
+package com.yummynoodlebar.persistence.index;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertSame;
+import static junit.framework.TestCase.assertTrue;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+public class ConcurrentUuidMapIntegrationTest {
+
+  @Test
+  public void thatMappingsCanBeAddedReplacedAndRemoved() {
+    ConcurrentUuidMap<String> map = new ConcurrentUuidMap<String>();
+    UUID key = UUID.randomUUID();
+    UUID zero = new UUID(0, 0);
+
+    assertNull(map.put(key, "first"));
+    assertEquals("first", map.put(key, "second"));
+    assertEquals("second", map.putIfAbsent(key, "third"));
+    assertNull(map.put(zero, "zero"));
+
+    assertEquals("second", map.get(new UUID(key.getMostSignificantBits(), key.getLeastSignificantBits())));
+    assertEquals("zero", map.get(zero));
+    assertEquals(2, map.size());
+
+    assertFalse(map.remove(key, new String("second")));
+    assertEquals("second", map.remove(key));
+    assertNull(map.get(key));
+    assertNull(map.putIfAbsent(key, "back"));
+    assertEquals(2, map.size());
+  }
+
+  @Test
+  public void thatChurnDoesNotLoseOrResurrectMappings() {
+    ConcurrentUuidMap<Integer> map = new ConcurrentUuidMap<Integer>();
+    Map<UUID, Integer> expected = new HashMap<UUID, Integer>();
+    Random random = new Random(7);
+    List<UUID> keys = new ArrayList<UUID>();
+    for (int i = 0; i < 50000; i++) {
+      if (keys.isEmpty() || random.nextInt(3) > 0) {
+        UUID key = new UUID(random.nextLong(), random.nextLong());
+        keys.add(key);
+        map.put(key, i);
+        expected.put(key, i);
+      } else {
+        UUID key = keys.remove(random.nextInt(keys.size()));
+        assertEquals(expected.remove(key), map.remove(key));
+      }
+    }
+
+    assertEquals(expected.size(), map.size());
+    for (Map.Entry<UUID, Integer> entry : expected.entrySet()) {
+      assertEquals(entry.getValue(), map.get(entry.getKey()));
+    }
+    assertEquals(new HashSet<Integer>(expected.values()), new HashSet<Integer>(map.values()));
+  }
+
+  @Test
+  public void thatReadersAlwaysFindStableMappingsWhileWritersResize() throws Exception {
+    final ConcurrentUuidMap<UUID> map = new ConcurrentUuidMap<UUID>();
+    final List<UUID> stable = new ArrayList<UUID>();
+    for (int i = 0; i < 1000; i++) {
+      UUID key = UUID.randomUUID();
+      stable.add(key);
+      map.put(key, key);
+    }
+    final AtomicBoolean missed = new AtomicBoolean();
+    final CountDownLatch done = new CountDownLatch(2);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    for (int writer = 0; writer < 2; writer++) {
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          for (int i = 0; i < 100000; i++) {
+            UUID key = UUID.randomUUID();
+            map.put(key, key);
+            if (i % 2 == 0) {
+              map.remove(key);
+            }
+          }
+          done.countDown();
+        }
+      });
+    }
+    for (int reader = 0; reader < 2; reader++) {
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          while (done.getCount() > 0) {
+            for (UUID key : stable) {
+              if (map.get(key) != key) {
+                missed.set(true);
+              }
+            }
+          }
+        }
+      });
+    }
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+
+    assertFalse(missed.get());
+    assertEquals(1000 + 100000, map.size());
+    assertSame(stable.get(0), map.get(stable.get(0)));
+  }
+}
@@ -0,0 +1,89 @@
+package com.yummynoodlebar.persistence.index;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Heap per entry and lookup latency of ConcurrentUuidMap against HashMap<UUID, ...> and
+ * ConcurrentHashMap<UUID, ...>. Lookups use fresh UUID instances, as a request parsing an id would.
+ * Not run as part of the build, start it by hand with a fixed heap:
+ *
+ *   java -Xms2g -Xmx2g -cp <test classpath> com.yummynoodlebar.persistence.index.UuidMapBenchmark [entries]
+ */
+public class UuidMapBenchmark {
+
+  private static final Object VALUE = new Object();
+  private static final int LOOKUPS = 5000000;
+
+  public static void main(String[] args) {
+    int entries = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+    long[] keys = new long[entries * 2];
+    Random random = new Random(11);
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = random.nextLong();
+    }
+
+    System.out.printf("%-20s %14s %16s%n", "", "bytes/entry", "ns/lookup");
+    for (int round = 0; round < 2; round++) {
+      hashMap("HashMap", new HashMap<UUID, Object>(), keys);
+      hashMap("ConcurrentHashMap", new ConcurrentHashMap<UUID, Object>(), keys);
+      uuidMap(keys);
+    }
+  }
+
+  private static void hashMap(String name, Map<UUID, Object> map, long[] keys) {
+    int entries = keys.length / 2;
+    long before = usedHeap();
+    for (int i = 0; i < entries; i++) {
+      map.put(new UUID(keys[2 * i], keys[2 * i + 1]), VALUE);
+    }
+    long bytes = usedHeap() - before;
+
+    Random random = new Random(3);
+    int found = 0;
+    long start = System.nanoTime();
+    for (int i = 0; i < LOOKUPS; i++) {
+      int at = random.nextInt(entries);
+      if (map.get(new UUID(keys[2 * at], keys[2 * at + 1])) != null) {
+        found++;
+      }
+    }
+    report(name, bytes / entries, (System.nanoTime() - start) / LOOKUPS, found);
+  }
+
+  private static void uuidMap(long[] keys) {
+    int entries = keys.length / 2;
+    long before = usedHeap();
+    ConcurrentUuidMap<Object> map = new ConcurrentUuidMap<Object>();
+    for (int i = 0; i < entries; i++) {
+      map.put(new UUID(keys[2 * i], keys[2 * i + 1]), VALUE);
+    }
+    long bytes = usedHeap() - before;
+
+    Random random = new Random(3);
+    int found = 0;
+    long start = System.nanoTime();
+    for (int i = 0; i < LOOKUPS; i++) {
+      int at = random.nextInt(entries);
+      if (map.get(new UUID(keys[2 * at], keys[2 * at + 1])) != null) {
+        found++;
+      }
+    }
+    report("ConcurrentUuidMap", bytes / entries, (System.nanoTime() - start) / LOOKUPS, found);
+  }
+
+  private static void report(String name, long bytesPerEntry, long nanosPerLookup, int found) {
+    if (found != LOOKUPS) {
+      throw new IllegalStateException(name + " lost entries");
+    }
+    System.out.printf("%-20s %14d %16d%n", name, bytesPerEntry, nanosPerLookup);
+  }
+
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 4; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
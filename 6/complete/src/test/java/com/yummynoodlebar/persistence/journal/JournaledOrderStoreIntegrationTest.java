@@ -0,0 +1,355 @@
+package com.yummynoodlebar.persistence.journal;
+
+import static com.yummynoodlebar.persistence.domain.fixtures.PersistenceFixtures.standardOrder;
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertTrue;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.yummynoodlebar.persistence.domain.Order;
+import com.yummynoodlebar.persistence.domain.OrderStatus;
+import com.yummynoodlebar.persistence.repository.OrderStatusMemoryRepository;
+import com.yummynoodlebar.persistence.repository.OrderStatusRepository;
+import com.yummynoodlebar.persistence.repository.OrdersConcurrentMemoryRepository;
+import com.yummynoodlebar.persistence.repository.OrdersRepository;
+
+public class JournaledOrderStoreIntegrationTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void thatOrdersAndStatusesAreRebuiltOnRestart() throws Exception {
+    File directory = folder.newFolder("journal");
+    Order kept = standardOrder("Best Customer");
+    Order deleted = standardOrder("Fickle Customer");
+    OrderStatus created = new OrderStatus(kept.getKey(), UUID.randomUUID(), new Date(1000), "Order Created");
+    OrderStatus cooking = new OrderStatus(kept.getKey(), UUID.randomUUID(), new Date(2000), "Cooking");
+
+    JournaledOrderStore store = open(directory, 4096);
+    store.getOrdersRepository().save(kept);
+    store.getOrdersRepository().save(deleted);
+    store.getOrdersRepository().delete(deleted.getKey());
+    store.getOrderStatusRepository().save(created);
+    store.getOrderStatusRepository().save(cooking);
+    store.getOrderStatusRepository().save(new OrderStatus(deleted.getKey(), UUID.randomUUID(), new Date(1000), "Order Created"));
+    store.getOrderStatusRepository().deleteByOrderId(deleted.getKey());
+    store.close();
+
+    JournaledOrderStore restarted = open(directory, 4096);
+
+    Order recovered = restarted.getOrdersRepository().findById(kept.getKey());
+    assertEquals("Best Customer", recovered.getName());
+    assertEquals(kept.getDateTimeOfSubmission(), recovered.getDateTimeOfSubmission());
+    assertEquals(Integer.valueOf(2), recovered.getOrderItems().get("YM1"));
+    assertNull(restarted.getOrdersRepository().findById(deleted.getKey()));
+    assertNull(restarted.getOrderStatusRepository().findLatestById(deleted.getKey()));
+    assertEquals("Cooking", restarted.getOrderStatusRepository().findLatestById(kept.getKey()).getStatus());
+    assertEquals(2, restarted.getOrderStatusRepository().findHistoryById(kept.getKey()).size());
+    restarted.close();
+  }
+
+  @Test
+  public void thatRecordsSpanningManySegmentsAreReplayedInOrder() throws Exception {
+    File directory = folder.newFolder("segments");
+    List<UUID> keys = new ArrayList<UUID>();
+
+    JournaledOrderStore store = open(directory, 1024);
+    for (int i = 0; i < 200; i++) {
+      Order order = standardOrder("Customer " + i);
+      keys.add(order.getKey());
+      store.getOrdersRepository().save(order);
+    }
+    store.close();
+
+    JournaledOrderStore restarted = open(directory, 1024);
+    for (int i = 0; i < keys.size(); i++) {
+      assertEquals("Customer " + i, restarted.getOrdersRepository().findById(keys.get(i)).getName());
+    }
+    restarted.close();
+  }
+
+  @Test
+  public void thatAnOrderCreatedWithItsStatusIsOneRecord() throws Exception {
+    File directory = folder.newFolder("created");
+    Order order = standardOrder("New Customer");
+
+    JournaledOrderStore store = open(directory, 4096);
+    long appended = store.getJournal().getAppendedCount();
+    store.getUnitOfWork().saveWithStatus(order, new OrderStatus(order.getKey(), UUID.randomUUID(), new Date(), "Order Created"));
+    assertEquals(appended + 1, store.getJournal().getAppendedCount());
+    store.close();
+
+    JournaledOrderStore restarted = open(directory, 4096);
+    assertEquals("New Customer", restarted.getOrdersRepository().findById(order.getKey()).getName());
+    assertEquals("Order Created", restarted.getOrderStatusRepository().findLatestById(order.getKey()).getStatus());
+    restarted.close();
+  }
+
+  @Test
+  public void thatOrdersCreatedTogetherShareOneSync() throws Exception {
+    File directory = folder.newFolder("batched");
+    List<Order> orders = new ArrayList<Order>();
+    List<OrderStatus> statuses = new ArrayList<OrderStatus>();
+    for (int i = 0; i < 20; i++) {
+      Order order = standardOrder("Customer " + i);
+      orders.add(order);
+      statuses.add(new OrderStatus(order.getKey(), UUID.randomUUID(), new Date(), "Order Created"));
+    }
+
+    JournaledOrderStore store = open(directory, 4096);
+    long syncs = store.getJournal().getSyncCount();
+    store.getUnitOfWork().saveAllWithStatus(orders, statuses);
+    assertEquals(syncs + 1, store.getJournal().getSyncCount());
+    store.close();
+
+    JournaledOrderStore restarted = open(directory, 4096);
+    for (int i = 0; i < orders.size(); i++) {
+      assertEquals("Customer " + i, restarted.getOrdersRepository().findById(orders.get(i).getKey()).getName());
+      assertEquals("Order Created", restarted.getOrderStatusRepository().findLatestById(orders.get(i).getKey()).getStatus());
+    }
+    restarted.close();
+  }
+
+  @Test
+  public void thatConcurrentWritesToTheSameOrdersReplayToTheLiveStore() throws Exception {
+    //what memory applied and what was recorded, one entry per mutation, to compare the order of
+    final List<String> applied = new ArrayList<String>();
+    final List<String> recorded = Collections.synchronizedList(new ArrayList<String>());
+    final List<byte[]> written = Collections.synchronizedList(new ArrayList<byte[]>());
+    RecordSink sink = new RecordSink() {
+      @Override
+      public long append(byte[] record) {
+        //gives racing writers the chance to overtake between applying a write and recording it
+        Thread.yield();
+        synchronized (recorded) {
+          written.add(record);
+          JournalRecords.dispatch(ByteBuffer.wrap(record), describeInto(recorded));
+          return written.size();
+        }
+      }
+
+      @Override
+      public void sync(long sequence) {
+      }
+    };
+    KeyStripes stripes = new KeyStripes();
+    final OrdersRepository orders = new JournaledOrdersRepository(sink, new OrdersConcurrentMemoryRepository(new HashMap<UUID, Order>()) {
+      @Override
+      public Order save(Order order) {
+        synchronized (applied) {
+          describeInto(applied).orderSaved(order);
+          return super.save(order);
+        }
+      }
+
+      @Override
+      public void delete(UUID key) {
+        synchronized (applied) {
+          describeInto(applied).orderDeleted(key);
+          super.delete(key);
+        }
+      }
+    }, stripes);
+    final OrderStatusRepository statuses = new JournaledOrderStatusRepository(sink, new OrderStatusMemoryRepository() {
+      @Override
+      public OrderStatus save(OrderStatus status) {
+        synchronized (applied) {
+          describeInto(applied).statusSaved(status);
+          return super.save(status);
+        }
+      }
+
+      @Override
+      public List<OrderStatus> deleteByOrderId(UUID key) {
+        synchronized (applied) {
+          describeInto(applied).statusesDeleted(key);
+          return super.deleteByOrderId(key);
+        }
+      }
+    }, stripes);
+    final List<UUID> keys = Arrays.asList(UUID.randomUUID(), UUID.randomUUID());
+    final CountDownLatch start = new CountDownLatch(1);
+
+    List<Thread> writers = new ArrayList<Thread>();
+    for (int t = 0; t < 8; t++) {
+      final int writer = t;
+      Thread thread = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          Random random = new Random(writer);
+          try {
+            start.await();
+          } catch (InterruptedException e) {
+            return;
+          }
+          for (int i = 0; i < 2000; i++) {
+            UUID key = keys.get(random.nextInt(keys.size()));
+            switch (random.nextInt(4)) {
+              case 0:
+                orders.delete(key);
+                break;
+              case 1:
+                statuses.deleteByOrderId(key);
+                break;
+              case 2:
+                statuses.save(new OrderStatus(key, UUID.randomUUID(), new Date(i), "Writer " + writer));
+                break;
+              default:
+                Order order = new Order(key, new Date(i));
+                order.setName("Writer " + writer + " " + i);
+                orders.save(order);
+            }
+          }
+        }
+      });
+      writers.add(thread);
+      thread.start();
+    }
+    start.countDown();
+    for (Thread thread : writers) {
+      thread.join();
+    }
+
+    for (UUID key : keys) {
+      assertEquals(about(key, applied), about(key, recorded));
+    }
+
+    OrdersRepository replayedOrders = new OrdersConcurrentMemoryRepository(new HashMap<UUID, Order>());
+    OrderStatusRepository replayedStatuses = new OrderStatusMemoryRepository();
+    JournalRecordHandler replay = JournaledOrderStore.replayInto(replayedOrders, replayedStatuses);
+    for (byte[] record : written) {
+      replay.onRecord(ByteBuffer.wrap(record));
+    }
+
+    for (UUID key : keys) {
+      Order live = orders.findById(key);
+      Order replayed = replayedOrders.findById(key);
+      assertEquals(live == null ? null : live.getName(), replayed == null ? null : replayed.getName());
+      assertEquals(statusIds(statuses.findHistoryById(key)), statusIds(replayedStatuses.findHistoryById(key)));
+    }
+  }
+
+  private static JournalRecords.Visitor describeInto(final List<String> mutations) {
+    return new JournalRecords.Visitor() {
+      @Override
+      public void orderSaved(Order order) {
+        mutations.add(order.getKey() + " saved as " + order.getName());
+      }
+
+      @Override
+      public void orderDeleted(UUID key) {
+        mutations.add(key + " deleted");
+      }
+
+      @Override
+      public void statusSaved(OrderStatus status) {
+        mutations.add(status.getOrderId() + " status " + status.getId());
+      }
+
+      @Override
+      public void statusDeleted(UUID key) {
+        mutations.add(key + " status deleted");
+      }
+
+      @Override
+      public void statusesDeleted(UUID orderKey) {
+        mutations.add(orderKey + " statuses deleted");
+      }
+
+      @Override
+      public void ordersDeletedBefore(Date cutoff, boolean withStatuses) {
+        mutations.add("orders before " + cutoff.getTime() + (withStatuses ? " deleted with statuses" : " deleted"));
+      }
+    };
+  }
+
+  private static List<String> about(UUID key, List<String> mutations) {
+    List<String> found = new ArrayList<String>();
+    for (String mutation : mutations) {
+      if (mutation.startsWith(key.toString())) {
+        found.add(mutation);
+      }
+    }
+    return found;
+  }
+
+  private static Set<UUID> statusIds(List<OrderStatus> history) {
+    Set<UUID> ids = new HashSet<UUID>();
+    for (OrderStatus status : history) {
+      ids.add(status.getId());
+    }
+    return ids;
+  }
+
+  @Test
+  public void thatNoStripeIsHeldWhileWaitingForTheSync() throws Exception {
+    final CountDownLatch syncing = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    RecordSink sink = new RecordSink() {
+      private long sequence;
+
+      @Override
+      public synchronized long append(byte[] record) {
+        return ++sequence;
+      }
+
+      @Override
+      public void sync(long sequence) {
+        if (sequence == 1) {
+          syncing.countDown();
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+      }
+    };
+    final OrdersRepository orders = new JournaledOrdersRepository(sink,
+        new OrdersConcurrentMemoryRepository(new HashMap<UUID, Order>()), new KeyStripes());
+    final Order order = standardOrder("Slow Disk");
+
+    Thread first = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        orders.save(order);
+      }
+    });
+    final CountDownLatch deleted = new CountDownLatch(1);
+    Thread second = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        orders.delete(order.getKey());
+        deleted.countDown();
+      }
+    });
+    first.start();
+    syncing.await();
+    //the same key, so the same stripe, while the first write still waits on its sync
+    second.start();
+    boolean overtook = deleted.await(10, TimeUnit.SECONDS);
+    release.countDown();
+    first.join();
+    second.join();
+
+    assertTrue(overtook);
+    assertNull(orders.findById(order.getKey()));
+  }
+
+  private static JournaledOrderStore open(File directory, int segmentSize) throws Exception {
+    return new JournaledOrderStore(
+        new OrderJournal(directory, segmentSize, SyncPolicy.GROUP_COMMIT),
+        new OrdersConcurrentMemoryRepository(new HashMap<UUID, Order>()),
+        new OrderStatusMemoryRepository());
+  }
+}
@@ -0,0 +1,75 @@
+package com.yummynoodlebar.persistence.journal;
+
+import com.yummynoodlebar.persistence.domain.Order;
+import com.yummynoodlebar.persistence.repository.OrdersConcurrentMemoryRepository;
+import com.yummynoodlebar.persistence.repository.OrdersRepository;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+
+/*
+ * Durable checkout throughput with an fsync per write against one fsync per group of concurrent
+ * writes. Not run as part of the build, start it by hand:
+ *
+ *   java -cp <test classpath> com.yummynoodlebar.persistence.journal.OrderJournalBenchmark [threads] [ordersPerThread]
+ */
+public class OrderJournalBenchmark {
+
+  public static void main(String[] args) throws Exception {
+    int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+    int ordersPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+
+    System.out.printf("%-12s %8s %12s %10s %16s%n", "sync", "threads", "orders/sec", "fsyncs", "orders/fsync");
+    for (SyncPolicy policy : SyncPolicy.values()) {
+      run(policy, threads, ordersPerThread);
+    }
+  }
+
+  private static void run(SyncPolicy policy, int threads, final int ordersPerThread) throws Exception {
+    File directory = new File(System.getProperty("java.io.tmpdir"), "journal-benchmark-" + System.nanoTime());
+    OrderJournal journal = new OrderJournal(directory, OrderJournal.DEFAULT_SEGMENT_SIZE, policy);
+    final OrdersRepository repository = new JournaledOrdersRepository(
+        journal, new OrdersConcurrentMemoryRepository(new HashMap<UUID, Order>()), new KeyStripes());
+    final CountDownLatch start = new CountDownLatch(1);
+
+    List<Thread> workers = new ArrayList<Thread>();
+    for (int i = 0; i < threads; i++) {
+      Thread worker = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            start.await();
+          } catch (InterruptedException e) {
+            return;
+          }
+          for (int j = 0; j < ordersPerThread; j++) {
+            Order order = new Order(new Date());
+            order.setName("Benchmark Customer");
+            order.setOrderItems(Collections.singletonMap("YM1", 1));
+            repository.save(order);
+          }
+        }
+      });
+      workers.add(worker);
+      worker.start();
+    }
+
+    long started = System.nanoTime();
+    start.countDown();
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    long elapsed = System.nanoTime() - started;
+
+    long orders = (long) threads * ordersPerThread;
+    System.out.printf("%-12s %8d %12d %10d %16.1f%n", policy, threads, orders * 1000000000L / elapsed,
+        journal.getSyncCount(), (double) orders / journal.getSyncCount());
+
+    journal.close();
+    for (File file : directory.listFiles()) {
+      file.delete();
+    }
+    directory.delete();
+  }
+}
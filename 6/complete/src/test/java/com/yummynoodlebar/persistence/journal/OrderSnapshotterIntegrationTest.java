@@ -0,0 +1,87 @@
+package com.yummynoodlebar.persistence.journal;
+
+import static com.yummynoodlebar.persistence.domain.fixtures.PersistenceFixtures.standardOrder;
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertTrue;
+
+import java.io.File;
+import java.util.*;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.yummynoodlebar.persistence.domain.Order;
+import com.yummynoodlebar.persistence.domain.OrderStatus;
+import com.yummynoodlebar.persistence.repository.OrderStatusMemoryRepository;
+import com.yummynoodlebar.persistence.repository.OrdersConcurrentMemoryRepository;
+
+public class OrderSnapshotterIntegrationTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void thatRestartLoadsSnapshotAndReplaysOnlyTheTail() throws Exception {
+    File directory = folder.newFolder("journal");
+    Order beforeSnapshot = standardOrder("Early Customer");
+    Order afterSnapshot = standardOrder("Late Customer");
+    Order deletedAfterSnapshot = standardOrder("Fickle Customer");
+
+    JournaledOrderStore store = open(directory);
+    store.getOrdersRepository().save(beforeSnapshot);
+    store.getOrdersRepository().save(deletedAfterSnapshot);
+    store.getOrderStatusRepository().save(
+        new OrderStatus(beforeSnapshot.getKey(), UUID.randomUUID(), new Date(1000), "Order Created"));
+
+    File snapshot = store.getSnapshotter().snapshot();
+
+    store.getOrdersRepository().save(afterSnapshot);
+    store.getOrdersRepository().delete(deletedAfterSnapshot.getKey());
+    store.getOrderStatusRepository().save(
+        new OrderStatus(beforeSnapshot.getKey(), UUID.randomUUID(), new Date(2000), "Cooking"));
+    store.close();
+
+    assertTrue(snapshot.exists());
+    assertFalse(new File(directory, JournalSegment.fileName(1)).exists());
+
+    JournaledOrderStore restarted = open(directory);
+    assertEquals("Early Customer", restarted.getOrdersRepository().findById(beforeSnapshot.getKey()).getName());
+    assertEquals("Late Customer", restarted.getOrdersRepository().findById(afterSnapshot.getKey()).getName());
+    assertNull(restarted.getOrdersRepository().findById(deletedAfterSnapshot.getKey()));
+    assertEquals("Cooking", restarted.getOrderStatusRepository().findLatestById(beforeSnapshot.getKey()).getStatus());
+    restarted.close();
+  }
+
+  @Test
+  public void thatOlderSnapshotsAreRemoved() throws Exception {
+    File directory = folder.newFolder("snapshots");
+
+    JournaledOrderStore store = open(directory);
+    store.getOrdersRepository().save(standardOrder("Customer"));
+    File first = store.getSnapshotter().snapshot();
+    store.getOrdersRepository().save(standardOrder("Customer"));
+    File second = store.getSnapshotter().snapshot();
+    store.close();
+
+    assertFalse(first.exists());
+    assertTrue(second.exists());
+
+    JournaledOrderStore restarted = open(directory);
+    int count = 0;
+    for (Order ignored : restarted.getOrdersRepository().findAll()) {
+      count++;
+    }
+    assertEquals(2, count);
+    restarted.close();
+  }
+
+  private static JournaledOrderStore open(File directory) throws Exception {
+    return new JournaledOrderStore(
+        new OrderJournal(directory, 4096, SyncPolicy.GROUP_COMMIT),
+        new OrdersConcurrentMemoryRepository(new HashMap<UUID, Order>()),
+        new OrderStatusMemoryRepository());
+  }
+}
@@ -0,0 +1,141 @@
+package com.yummynoodlebar.persistence.replication;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertTrue;
+import static junit.framework.TestCase.fail;
+
+import java.io.File;
+import java.net.InetAddress;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.yummynoodlebar.events.orders.*;
+import com.yummynoodlebar.persistence.domain.Order;
+import com.yummynoodlebar.persistence.domain.OrderStatus;
+import com.yummynoodlebar.persistence.journal.JournaledOrderStore;
+import com.yummynoodlebar.persistence.journal.OrderJournal;
+import com.yummynoodlebar.persistence.journal.SyncPolicy;
+import com.yummynoodlebar.persistence.repository.OrderMemoryUnitOfWork;
+import com.yummynoodlebar.persistence.repository.OrderStatusMemoryRepository;
+import com.yummynoodlebar.persistence.repository.OrdersConcurrentMemoryRepository;
+import com.yummynoodlebar.persistence.services.OrderPersistenceEventHandler;
+import com.yummynoodlebar.persistence.services.ReplicaReadOrderPersistenceService;
+
+public class ReplicationIntegrationTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private final OrdersConcurrentMemoryRepository orders = new OrdersConcurrentMemoryRepository(new HashMap<UUID, Order>());
+  private final OrderStatusMemoryRepository statuses = new OrderStatusMemoryRepository();
+  private final ReplicationLeader leader = new ReplicationLeader(orders, statuses, new OrderMemoryUnitOfWork(orders, statuses), 0);
+  private final List<ReplicationFollower> followers = new ArrayList<ReplicationFollower>();
+
+  @After
+  public void close() throws Exception {
+    for (ReplicationFollower follower : followers) {
+      follower.close();
+    }
+    leader.close();
+  }
+
+  @Test
+  public void thatFollowersCopyExistingOrdersAndThenEveryChange() throws Exception {
+    Order existing = leader.getOrdersRepository().save(new Order(new Date()));
+    leader.getOrderStatusRepository().save(new OrderStatus(existing.getKey(), UUID.randomUUID(), new Date(), "Cooking"));
+    leader.start();
+    ReplicationFollower follower = follow();
+
+    assertTrue(follower.awaitSequence(leader.getSequence(), 10, TimeUnit.SECONDS));
+    assertEquals(existing.getKey(), follower.getOrdersRepository().findById(existing.getKey()).getKey());
+    assertEquals("Cooking", follower.getOrderStatusRepository().findLatestById(existing.getKey()).getStatus());
+
+    Order added = leader.getOrdersRepository().save(new Order(new Date()));
+    leader.getOrdersRepository().delete(existing.getKey());
+    leader.getOrderStatusRepository().deleteByOrderId(existing.getKey());
+
+    assertTrue(follower.awaitSequence(leader.getSequence(), 10, TimeUnit.SECONDS));
+    assertEquals(added.getKey(), follower.getOrdersRepository().findById(added.getKey()).getKey());
+    assertNull(follower.getOrdersRepository().findById(existing.getKey()));
+    assertNull(follower.getOrderStatusRepository().findLatestById(existing.getKey()));
+
+    //heartbeats keep an idle follower current
+    Thread.sleep(3 * ReplicationLeader.HEARTBEAT_MILLIS);
+    assertTrue("lag " + follower.getLagMillis(), follower.getLagMillis() < 1000);
+
+    try {
+      follower.getOrdersRepository().save(new Order(new Date()));
+      fail("followers are read only");
+    } catch (UnsupportedOperationException expected) {
+    }
+  }
+
+  @Test
+  public void thatAJournaledLeaderJournalsAndReplicatesEachChange() throws Exception {
+    File directory = folder.newFolder("journal");
+    JournaledOrderStore store = open(directory);
+    ReplicationLeader journaled = new ReplicationLeader(store.getJournal(), store.getMemoryOrdersRepository(),
+        store.getMemoryOrderStatusRepository(),
+        new OrderMemoryUnitOfWork(store.getMemoryOrdersRepository(), store.getMemoryOrderStatusRepository()), 0);
+    journaled.start();
+    ReplicationFollower follower = new ReplicationFollower(InetAddress.getLoopbackAddress().getHostAddress(), journaled.getPort());
+    follower.start();
+    followers.add(follower);
+
+    Order order = new Order(new Date());
+    journaled.getUnitOfWork().saveWithStatus(order, new OrderStatus(order.getKey(), UUID.randomUUID(), new Date(), "Order Created"));
+
+    assertTrue(follower.awaitSequence(journaled.getSequence(), 10, TimeUnit.SECONDS));
+    assertEquals("Order Created", follower.getOrderStatusRepository().findLatestById(order.getKey()).getStatus());
+    journaled.close();
+    store.close();
+
+    JournaledOrderStore restarted = open(directory);
+    assertEquals(order.getKey(), restarted.getOrdersRepository().findById(order.getKey()).getKey());
+    assertEquals("Order Created", restarted.getOrderStatusRepository().findLatestById(order.getKey()).getStatus());
+    restarted.close();
+  }
+
+  @Test
+  public void thatCustomersAlwaysReadTheirOwnWrites() throws Exception {
+    leader.start();
+    ReplicationFollower follower = follow();
+    ReplicaReadOrderPersistenceService service = new ReplicaReadOrderPersistenceService(
+        new OrderPersistenceEventHandler(leader.getOrdersRepository(), leader.getOrderStatusRepository(), leader.getUnitOfWork()),
+        leader, followers, 5000);
+    assertTrue(follower.awaitSequence(0, 10, TimeUnit.SECONDS));
+
+    OrderDetails details = new OrderDetails();
+    details.setDateTimeOfSubmission(new Date());
+    for (int i = 0; i < 200; i++) {
+      UUID key = service.createOrderWithStatus(new CreateOrderWithStatusEvent(details, new Date(), "Order Created")).getNewOrderKey();
+
+      assertTrue(service.requestOrderDetails(new RequestOrderDetailsEvent(key)).isEntityFound());
+      assertEquals("Order Created", service.requestOrderStatus(new RequestOrderStatusEvent(key)).getOrderStatus().getStatus());
+    }
+
+    assertTrue(follower.awaitSequence(leader.getSequence(), 10, TimeUnit.SECONDS));
+    long before = service.getReplicaReads();
+    UUID last = orders.findPage(null, 1000).get(199).getKey();
+    assertTrue(service.requestOrderDetails(new RequestOrderDetailsEvent(last)).isEntityFound());
+    assertEquals(before + 1, service.getReplicaReads());
+  }
+
+  private ReplicationFollower follow() {
+    ReplicationFollower follower = new ReplicationFollower(InetAddress.getLoopbackAddress().getHostAddress(), leader.getPort());
+    follower.start();
+    followers.add(follower);
+    return follower;
+  }
+
+  private static JournaledOrderStore open(File directory) throws Exception {
+    return new JournaledOrderStore(new OrderJournal(directory, 4096, SyncPolicy.GROUP_COMMIT),
+        new OrdersConcurrentMemoryRepository(new HashMap<UUID, Order>()), new OrderStatusMemoryRepository());
+  }
+}
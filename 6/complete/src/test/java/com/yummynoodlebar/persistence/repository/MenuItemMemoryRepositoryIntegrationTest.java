@@ -0,0 +1,98 @@
+package com.yummynoodlebar.persistence.repository;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertSame;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import org.junit.Test;
+
+import com.yummynoodlebar.events.menu.AllMenuItemsEvent;
+import com.yummynoodlebar.events.menu.CreateMenuItemEvent;
+import com.yummynoodlebar.events.menu.RequestAllMenuItemsEvent;
+import com.yummynoodlebar.persistence.domain.MenuItem;
+import com.yummynoodlebar.persistence.services.MenuPersistenceEventHandler;
+
+public class MenuItemMemoryRepositoryIntegrationTest {
+
+  @Test
+  public void thatEachChangePublishesANewVersion() {
+    MenuItemMemoryRepository repository = new MenuItemMemoryRepository(menu("YM1", "YM2"));
+    MenuSnapshot first = repository.getSnapshot();
+
+    repository.save(item("YM3"));
+    repository.delete("YM1");
+    repository.delete("YM9");
+
+    MenuSnapshot latest = repository.getSnapshot();
+    assertEquals(first.getVersion() + 2, latest.getVersion());
+    assertEquals(2, first.getItems().size());
+    assertEquals(Arrays.asList("YM2", "YM3"), ids(latest.getItems()));
+    assertEquals("YM3", repository.findById("YM3").getId());
+    assertNull(repository.findById("YM1"));
+  }
+
+  @Test
+  public void thatPublishedItemsAreNotChangedByTheirCaller() {
+    MenuItem item = item("YM1");
+    MenuItemMemoryRepository repository = new MenuItemMemoryRepository();
+    repository.save(item);
+
+    item.setName("Renamed");
+
+    assertEquals("Dish YM1", repository.findById("YM1").getName());
+  }
+
+  @Test
+  public void thatAllMenuItemsCarryTheirVersion() {
+    MenuItemMemoryRepository repository = new MenuItemMemoryRepository(menu("YM1"));
+    repository.save(item("YM2"));
+
+    AllMenuItemsEvent event = new MenuPersistenceEventHandler(repository).requestAllMenuItems(new RequestAllMenuItemsEvent());
+
+    assertEquals(2, event.getMenuItemDetails().size());
+    assertEquals(repository.getSnapshot().getVersion(), event.getVersion());
+  }
+
+  @Test
+  public void thatTheMenuIsOnlyReadAgainOnceItChanges() {
+    MenuItemMemoryRepository repository = new MenuItemMemoryRepository(menu("YM1"));
+    MenuPersistenceEventHandler handler = new MenuPersistenceEventHandler(repository);
+
+    AllMenuItemsEvent first = handler.requestAllMenuItems(new RequestAllMenuItemsEvent());
+    assertSame(first, handler.requestAllMenuItems(new RequestAllMenuItemsEvent()));
+
+    handler.createMenuItem(new CreateMenuItemEvent(item("YM2").toStatusDetails()));
+
+    AllMenuItemsEvent afterCreate = handler.requestAllMenuItems(new RequestAllMenuItemsEvent());
+    assertEquals(2, afterCreate.getMenuItemDetails().size());
+    assertEquals(first.getVersion() + 1, afterCreate.getVersion());
+  }
+
+  private static Map<String, MenuItem> menu(String... ids) {
+    Map<String, MenuItem> items = new LinkedHashMap<String, MenuItem>();
+    for (String id : ids) {
+      items.put(id, item(id));
+    }
+    return items;
+  }
+
+  private static MenuItem item(String id) {
+    MenuItem item = new MenuItem();
+    item.setId(id);
+    item.setName("Dish " + id);
+    item.setCost(new BigDecimal("10.99"));
+    item.setMinutesToPrepare(5);
+    return item;
+  }
+
+  private static List<String> ids(List<MenuItem> items) {
+    List<String> ids = new ArrayList<String>();
+    for (MenuItem item : items) {
+      ids.add(item.getId());
+    }
+    return ids;
+  }
+}
@@ -0,0 +1,176 @@
+package com.yummynoodlebar.persistence.repository;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertTrue;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.yummynoodlebar.persistence.domain.OrderStatus;
+
+public class OrderStatusMemoryRepositoryIntegrationTest {
+
+  private final OrderStatusMemoryRepository repository = new OrderStatusMemoryRepository();
+
+  @Test
+  public void thatLatestStatusIsTheNewestNotTheFirstSaved() {
+    UUID orderId = UUID.randomUUID();
+
+    repository.save(status(orderId, 1000, "Order Created"));
+    repository.save(status(orderId, 3000, "Delivered"));
+    repository.save(status(orderId, 2000, "Cooking"));
+    repository.save(status(UUID.randomUUID(), 4000, "Order Created"));
+
+    assertEquals("Delivered", repository.findLatestById(orderId).getStatus());
+  }
+
+  @Test
+  public void thatHistoryIsInTimeOrder() {
+    UUID orderId = UUID.randomUUID();
+
+    repository.save(status(orderId, 2000, "Cooking"));
+    repository.save(status(orderId, 1000, "Order Created"));
+    repository.save(status(orderId, 3000, "Delivered"));
+
+    List<OrderStatus> history = repository.findHistoryById(orderId);
+
+    assertEquals(3, history.size());
+    assertEquals("Order Created", history.get(0).getStatus());
+    assertEquals("Cooking", history.get(1).getStatus());
+    assertEquals("Delivered", history.get(2).getStatus());
+  }
+
+  @Test
+  public void thatDeletingStatusesUpdatesTheHistory() {
+    UUID orderId = UUID.randomUUID();
+    OrderStatus created = status(orderId, 1000, "Order Created");
+    OrderStatus cooking = status(orderId, 2000, "Cooking");
+
+    repository.save(created);
+    repository.save(cooking);
+    repository.delete(cooking.getId());
+
+    assertEquals("Order Created", repository.findLatestById(orderId).getStatus());
+
+    repository.delete(created.getId());
+
+    assertNull(repository.findLatestById(orderId));
+    assertTrue(repository.findHistoryById(orderId).isEmpty());
+    assertTrue(repository.findAll().isEmpty());
+  }
+
+  @Test
+  public void thatDeletingByOrderRemovesOnlyThatOrdersStatuses() {
+    UUID orderId = UUID.randomUUID();
+    UUID otherOrderId = UUID.randomUUID();
+
+    repository.save(status(orderId, 1000, "Order Created"));
+    repository.save(status(orderId, 2000, "Delivered"));
+    repository.save(status(otherOrderId, 1000, "Order Created"));
+
+    assertEquals(2, repository.deleteByOrderId(orderId).size());
+
+    assertNull(repository.findLatestById(orderId));
+    assertEquals(1, repository.findAll().size());
+    assertEquals("Order Created", repository.findLatestById(otherOrderId).getStatus());
+  }
+
+  @Test
+  public void thatOrdersAreQueuedUnderTheirLatestStatusOnly() {
+    UUID waitingLongest = UUID.randomUUID();
+    UUID waiting = UUID.randomUUID();
+    UUID cooking = UUID.randomUUID();
+
+    repository.save(status(waiting, 2000, "Order Created"));
+    repository.save(status(waitingLongest, 1000, "Order Created"));
+    repository.save(status(cooking, 1500, "Order Created"));
+    OrderStatus started = status(cooking, 2500, "Cooking");
+    repository.save(started);
+    //arriving late does not make an older status the latest
+    repository.save(status(cooking, 1200, "Payment Received"));
+
+    assertEquals(Arrays.asList(waitingLongest, waiting), repository.findOrderIdsByLatestStatus("Order Created"));
+    assertEquals(Arrays.asList(cooking), repository.findOrderIdsByLatestStatus("Cooking"));
+    assertTrue(repository.findOrderIdsByLatestStatus("Payment Received").isEmpty());
+
+    repository.delete(started.getId());
+
+    assertEquals(Arrays.asList(waitingLongest, cooking, waiting), repository.findOrderIdsByLatestStatus("Order Created"));
+    assertTrue(repository.findOrderIdsByLatestStatus("Cooking").isEmpty());
+
+    repository.deleteByOrderId(waitingLongest);
+
+    assertEquals(Arrays.asList(cooking, waiting), repository.findOrderIdsByLatestStatus("Order Created"));
+  }
+
+  @Test
+  public void thatSavingAStatusAgainNeverHidesTheLatest() throws Exception {
+    final UUID alone = UUID.randomUUID();
+    final UUID cooking = UUID.randomUUID();
+    final OrderStatus created = status(alone, 1000, "Order Created");
+    repository.save(created);
+    repository.save(status(cooking, 1000, "Order Created"));
+    final OrderStatus started = status(cooking, 2000, "Cooking");
+    repository.save(started);
+    final AtomicInteger wrongReads = new AtomicInteger();
+    final AtomicBoolean stop = new AtomicBoolean();
+
+    Thread reader = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        while (!stop.get()) {
+          OrderStatus latest = repository.findLatestById(cooking);
+          if (repository.findLatestById(alone) == null
+              || latest == null || !"Cooking".equals(latest.getStatus())
+              || repository.findOrderIdsByLatestStatus("Cooking").isEmpty()) {
+            wrongReads.incrementAndGet();
+          }
+          Thread.yield();
+        }
+      }
+    });
+    reader.start();
+    //replaying a journal or a replication stream saves statuses the repository already holds
+    for (int i = 0; i < 20000; i++) {
+      repository.save(new OrderStatus(alone, created.getId(), created.getStatusDate(), created.getStatus()));
+      repository.save(new OrderStatus(cooking, started.getId(), started.getStatusDate(), started.getStatus()));
+      if (i % 100 == 0) {
+        Thread.yield();
+      }
+    }
+    stop.set(true);
+    reader.join();
+
+    assertEquals(0, wrongReads.get());
+    assertEquals(2, repository.findHistoryById(cooking).size());
+    assertEquals(3, repository.findAll().size());
+  }
+
+  @Test
+  public void thatAStatusSavedAgainAtAnotherTimeMovesInTheHistory() {
+    UUID orderId = UUID.randomUUID();
+    OrderStatus created = status(orderId, 1000, "Order Created");
+    repository.save(created);
+    repository.save(status(orderId, 2000, "Cooking"));
+
+    repository.save(new OrderStatus(orderId, created.getId(), new Date(3000), "Order Created"));
+
+    List<OrderStatus> history = repository.findHistoryById(orderId);
+    assertEquals(2, history.size());
+    assertEquals("Cooking", history.get(0).getStatus());
+    assertEquals("Order Created", repository.findLatestById(orderId).getStatus());
+    assertFalse(repository.findOrderIdsByLatestStatus("Order Created").isEmpty());
+  }
+
+  private static OrderStatus status(UUID orderId, long time, String status) {
+    return new OrderStatus(orderId, UUID.randomUUID(), new Date(time), status);
+  }
+}
@@ -0,0 +1,50 @@
+package com.yummynoodlebar.persistence.repository;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertSame;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.yummynoodlebar.persistence.domain.Order;
+
+public class OrdersConcurrentMemoryRepositoryIntegrationTest {
+
+  @Test
+  public void thatOrdersCanBeSavedFoundAndDeleted() {
+    OrdersConcurrentMemoryRepository repository = new OrdersConcurrentMemoryRepository(new HashMap<UUID, Order>());
+    Order order = new Order(new Date());
+
+    repository.save(order);
+    assertSame(order, repository.findById(order.getKey()));
+
+    repository.delete(order.getKey());
+    assertNull(repository.findById(order.getKey()));
+  }
+
+  @Test
+  public void thatConcurrentSavesAreNotLost() throws Exception {
+    final OrdersConcurrentMemoryRepository repository = new OrdersConcurrentMemoryRepository(new HashMap<UUID, Order>());
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    for (int i = 0; i < 8; i++) {
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          for (int j = 0; j < 1000; j++) {
+            repository.save(new Order(new Date()));
+          }
+        }
+      });
+    }
+    executor.shutdown();
+    executor.awaitTermination(30, TimeUnit.SECONDS);
+
+    assertEquals(8000, repository.findAll().size());
+  }
+}
@@ -0,0 +1,67 @@
+package com.yummynoodlebar.persistence.repository;
+
+import static com.yummynoodlebar.persistence.domain.fixtures.PersistenceFixtures.standardOrder;
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNull;
+
+import java.util.*;
+
+import org.junit.Test;
+
+import com.yummynoodlebar.persistence.domain.Order;
+
+public class OrdersOffHeapRepositoryIntegrationTest {
+
+  @Test
+  public void thatOrdersAreCopiedOutOfTheStore() {
+    OrdersOffHeapRepository repository = new OrdersOffHeapRepository();
+    Order order = standardOrder("Bob");
+
+    repository.save(order);
+    Order found = repository.findById(order.getKey());
+
+    assertEquals(order.getKey(), found.getKey());
+    assertEquals(order.getDateTimeOfSubmission(), found.getDateTimeOfSubmission());
+    assertEquals(order.getOrderItems(), found.getOrderItems());
+    assertEquals("Bob", found.getName());
+
+    repository.delete(order.getKey());
+    assertNull(repository.findById(order.getKey()));
+  }
+
+  @Test
+  public void thatOverwrittenOrdersAreCompactedAway() {
+    OrdersOffHeapRepository repository = new OrdersOffHeapRepository(4096);
+    List<Order> orders = new ArrayList<Order>();
+    for (int i = 0; i < 200; i++) {
+      Order order = standardOrder("Customer " + i);
+      orders.add(order);
+      repository.save(order);
+    }
+    long allocated = repository.allocatedBytes();
+
+    for (int round = 0; round < 10; round++) {
+      for (Order order : orders) {
+        order.setName(order.getName() + "!");
+        repository.save(order);
+      }
+    }
+    for (int i = 0; i < 100; i++) {
+      repository.delete(orders.get(i).getKey());
+    }
+
+    assertEquals(100, repository.size());
+    assertEquals(orders.get(150).getName(), repository.findById(orders.get(150).getKey()).getName());
+    assertEquals(true, repository.allocatedBytes() <= allocated * 2);
+
+    Set<UUID> expected = new HashSet<UUID>();
+    for (Order order : orders.subList(100, 200)) {
+      expected.add(order.getKey());
+    }
+    Set<UUID> found = new HashSet<UUID>();
+    for (Order order : repository.findAll()) {
+      found.add(order.getKey());
+    }
+    assertEquals(expected, found);
+  }
+}
@@ -0,0 +1,147 @@
+package com.yummynoodlebar.persistence.repository;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertTrue;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.yummynoodlebar.events.orders.OrderCursor;
+import com.yummynoodlebar.persistence.domain.Order;
+
+public class OrdersPagingIntegrationTest {
+
+  @Test
+  public void thatEveryRepositoryPagesInSubmissionOrder() {
+    List<OrdersRepository> repositories = Arrays.asList(
+        new OrdersMemoryRepository(new HashMap<UUID, Order>()),
+        new OrdersConcurrentMemoryRepository(new HashMap<UUID, Order>()),
+        new OrdersOffHeapRepository(4096),
+        new TimePartitionedOrdersRepository(10, TimeUnit.SECONDS));
+
+    for (OrdersRepository repository : repositories) {
+      List<UUID> expected = new ArrayList<UUID>();
+      //saved out of order, with a few sharing a submission time
+      for (int i = 99; i >= 0; i--) {
+        Order order = new Order(new Date(1000L * (i / 3)));
+        order.setName("Customer " + i);
+        repository.save(order);
+      }
+      for (Order order : repository.findPage(null, 1000)) {
+        expected.add(order.getKey());
+      }
+
+      List<UUID> paged = new ArrayList<UUID>();
+      OrderCursor after = null;
+      List<Order> page;
+      do {
+        page = repository.findPage(after, 7);
+        assertTrue(page.size() <= 7);
+        for (Order order : page) {
+          OrderCursor cursor = new OrderCursor(order.getDateTimeOfSubmission(), order.getKey());
+          assertTrue(repository.getClass().getSimpleName(), after == null || cursor.compareTo(after) > 0);
+          paged.add(order.getKey());
+          after = cursor;
+        }
+      } while (!page.isEmpty());
+
+      assertEquals(100, expected.size());
+      assertEquals(repository.getClass().getSimpleName(), expected, paged);
+    }
+  }
+
+  @Test
+  public void thatEveryRepositoryFindsTheSameSubmissionRange() {
+    List<OrdersRepository> repositories = Arrays.asList(
+        new OrdersMemoryRepository(new HashMap<UUID, Order>()),
+        new OrdersConcurrentMemoryRepository(new HashMap<UUID, Order>()),
+        new OrdersOffHeapRepository(4096),
+        new TimePartitionedOrdersRepository(10, TimeUnit.SECONDS));
+
+    for (OrdersRepository repository : repositories) {
+      for (int i = 99; i >= 0; i--) {
+        repository.save(new Order(new Date(1000L * i)));
+      }
+
+      List<Order> found = repository.findSubmittedBetween(new Date(15500), new Date(42000));
+
+      assertEquals(repository.getClass().getSimpleName(), 26, found.size());
+      assertEquals(16000, found.get(0).getDateTimeOfSubmission().getTime());
+      assertEquals(41000, found.get(25).getDateTimeOfSubmission().getTime());
+      for (int i = 1; i < found.size(); i++) {
+        assertTrue(found.get(i - 1).getDateTimeOfSubmission().before(found.get(i).getDateTimeOfSubmission()));
+      }
+    }
+  }
+
+  @Test
+  public void thatEveryRepositoryDeletesTheSameOrdersBeforeACutoff() {
+    List<OrdersRepository> repositories = Arrays.asList(
+        new OrdersMemoryRepository(new HashMap<UUID, Order>()),
+        new OrdersConcurrentMemoryRepository(new HashMap<UUID, Order>()),
+        new OrdersOffHeapRepository(4096),
+        new TimePartitionedOrdersRepository(10, TimeUnit.SECONDS));
+
+    for (OrdersRepository repository : repositories) {
+      Set<UUID> expected = new HashSet<UUID>();
+      for (int i = 99; i >= 0; i--) {
+        Order order = repository.save(new Order(new Date(1000L * i)));
+        if (i < 43) {
+          expected.add(order.getKey());
+        }
+      }
+
+      List<UUID> deleted = repository.deleteSubmittedBefore(new Date(42500));
+
+      String name = repository.getClass().getSimpleName();
+      assertEquals(name, expected, new HashSet<UUID>(deleted));
+      assertEquals(name, 43, deleted.size());
+      for (UUID key : deleted) {
+        assertNull(name, repository.findById(key));
+      }
+      List<Order> remaining = repository.findSubmittedBetween(new Date(0), new Date(100000));
+      assertEquals(name, 57, remaining.size());
+      assertEquals(name, 43000, remaining.get(0).getDateTimeOfSubmission().getTime());
+    }
+  }
+
+  @Test
+  public void thatDeletedOrdersLeaveThePages() {
+    OrdersConcurrentMemoryRepository repository = new OrdersConcurrentMemoryRepository(new HashMap<UUID, Order>());
+    Order first = repository.save(new Order(new Date(1000)));
+    Order second = repository.save(new Order(new Date(2000)));
+
+    repository.delete(first.getKey());
+
+    assertEquals(Collections.singletonList(second), repository.findPage(null, 10));
+  }
+
+  @Test
+  public void thatPagesCatchUpWithWritesMadeSinceTheLastPage() {
+    OrdersConcurrentMemoryRepository repository = new OrdersConcurrentMemoryRepository(new HashMap<UUID, Order>());
+    Order kept = repository.save(new Order(new Date(0)));
+    assertEquals(1, repository.findPage(null, 10).size());
+
+    //more changes than are queued, so the next page rebuilds its index
+    Set<UUID> saved = new HashSet<UUID>();
+    for (int i = 1; i <= 70000; i++) {
+      saved.add(repository.save(new Order(new Date(i))).getKey());
+    }
+    repository.delete(kept.getKey());
+    Order resaved = new Order(kept.getKey(), new Date(100000));
+    repository.save(resaved);
+
+    List<Order> all = repository.findPage(null, 100000);
+    assertEquals(70001, all.size());
+    assertEquals(resaved, all.get(70000));
+    all.remove(70000);
+    Set<UUID> paged = new HashSet<UUID>();
+    for (Order order : all) {
+      paged.add(order.getKey());
+    }
+    assertEquals(saved, paged);
+  }
+}
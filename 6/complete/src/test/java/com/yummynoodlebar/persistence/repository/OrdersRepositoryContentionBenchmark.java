@@ -0,0 +1,83 @@
+package com.yummynoodlebar.persistence.repository;
+
+import com.yummynoodlebar.persistence.domain.Order;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Checkout-shaped load (one save per four status page reads) against each OrdersRepository,
+ * from one thread up to the number of cores. Not run as part of the build, start it by hand:
+ *
+ *   java -cp <test classpath> com.yummynoodlebar.persistence.repository.OrdersRepositoryContentionBenchmark [retainedOrders]
+ */
+public class OrdersRepositoryContentionBenchmark {
+
+  private static final long RUN_MILLIS = 2000;
+
+  public static void main(String[] args) throws Exception {
+    int retained = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+    int cores = Runtime.getRuntime().availableProcessors();
+
+    System.out.printf("%-14s %8s %16s%n", "repository", "threads", "ops/sec");
+    for (int threads = 1; threads <= cores; threads *= 2) {
+      run("copy-on-write", new OrdersMemoryRepository(retainedOrders(retained)), threads);
+      run("concurrent", new OrdersConcurrentMemoryRepository(retainedOrders(retained)), threads);
+    }
+  }
+
+  private static void run(String name, final OrdersRepository repository, int threads) throws Exception {
+    final List<UUID> keys = new ArrayList<UUID>();
+    for (Order order : repository.findAll()) {
+      keys.add(order.getKey());
+    }
+    final AtomicLong operations = new AtomicLong();
+    final CountDownLatch start = new CountDownLatch(1);
+    final long deadline = System.currentTimeMillis() + RUN_MILLIS;
+
+    List<Thread> workers = new ArrayList<Thread>();
+    for (int i = 0; i < threads; i++) {
+      Thread worker = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          ThreadLocalRandom random = ThreadLocalRandom.current();
+          long done = 0;
+          try {
+            start.await();
+          } catch (InterruptedException e) {
+            return;
+          }
+          while (System.currentTimeMillis() < deadline) {
+            for (int batch = 0; batch < 100; batch++) {
+              if (batch % 5 == 0) {
+                repository.save(new Order(new Date()));
+              } else {
+                repository.findById(keys.get(random.nextInt(keys.size())));
+              }
+            }
+            done += 100;
+          }
+          operations.addAndGet(done);
+        }
+      });
+      workers.add(worker);
+      worker.start();
+    }
+    start.countDown();
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    System.out.printf("%-14s %8d %16d%n", name, threads, operations.get() * 1000 / RUN_MILLIS);
+  }
+
+  private static Map<UUID, Order> retainedOrders(int count) {
+    Map<UUID, Order> orders = new HashMap<UUID, Order>();
+    for (int i = 0; i < count; i++) {
+      Order order = new Order(new Date());
+      orders.put(order.getKey(), order);
+    }
+    return orders;
+  }
+}
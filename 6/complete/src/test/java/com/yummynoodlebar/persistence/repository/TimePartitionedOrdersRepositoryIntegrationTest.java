@@ -0,0 +1,88 @@
+package com.yummynoodlebar.persistence.repository;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertSame;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.yummynoodlebar.persistence.domain.Order;
+
+public class TimePartitionedOrdersRepositoryIntegrationTest {
+
+  private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+  private final TimePartitionedOrdersRepository repository = new TimePartitionedOrdersRepository(1, TimeUnit.HOURS);
+
+  @Test
+  public void thatOrdersAreFoundInTheirPartition() {
+    Order early = save(10 * HOUR + 5);
+    Order late = save(12 * HOUR + 5);
+
+    assertEquals(2, repository.partitionCount());
+    assertSame(early, repository.findById(early.getKey()));
+    assertSame(late, repository.findById(late.getKey()));
+
+    repository.delete(early.getKey());
+    assertNull(repository.findById(early.getKey()));
+    assertEquals(1, repository.findAll().size());
+  }
+
+  @Test
+  public void thatRangeQueriesTrimPartialPartitions() {
+    save(9 * HOUR);
+    Order inRange = save(10 * HOUR + 30);
+    Order wholePartition = save(11 * HOUR + 59);
+    save(12 * HOUR);
+
+    List<Order> found = repository.findSubmittedBetween(new Date(10 * HOUR + 1), new Date(12 * HOUR));
+
+    assertEquals(Arrays.asList(inRange, wholePartition), found);
+  }
+
+  @Test
+  public void thatPartitionsBeforeTheCutoffAreDroppedWhole() {
+    Order first = save(8 * HOUR);
+    Order second = save(9 * HOUR + 10);
+    Order straddling = save(10 * HOUR + 10);
+    Order kept = save(10 * HOUR + 50);
+
+    List<UUID> deleted = repository.deleteSubmittedBefore(new Date(10 * HOUR + 30));
+
+    assertEquals(new HashSet<UUID>(Arrays.asList(first.getKey(), second.getKey(), straddling.getKey())),
+        new HashSet<UUID>(deleted));
+    assertEquals(1, repository.partitionCount());
+    assertNull(repository.findById(first.getKey()));
+    assertNull(repository.findById(straddling.getKey()));
+    assertEquals(Collections.singletonList(kept), repository.findAll());
+  }
+
+  @Test
+  public void thatAnOrderSavedAtAnotherTimeMovesPartition() {
+    Order earlier = save(9 * HOUR);
+
+    Order order = repository.save(new Order(earlier.getKey(), new Date(11 * HOUR)));
+
+    assertSame(order, repository.findById(order.getKey()));
+    assertEquals(Collections.singletonList(order), repository.findAll());
+    repository.delete(order.getKey());
+    assertEquals(0, repository.findAll().size());
+  }
+
+  @Test
+  public void thatTheCurrentPartitionIsKeptWhenEmptied() {
+    Order current = save(System.currentTimeMillis());
+
+    repository.delete(current.getKey());
+
+    assertEquals(1, repository.partitionCount());
+    assertNull(repository.findById(current.getKey()));
+  }
+
+  private Order save(long submitted) {
+    return repository.save(new Order(new Date(submitted)));
+  }
+}
@@ -0,0 +1,161 @@
+package com.yummynoodlebar.persistence.retention;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertTrue;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.yummynoodlebar.events.orders.OrderDetails;
+import com.yummynoodlebar.events.orders.RequestOrderDetailsEvent;
+import com.yummynoodlebar.events.orders.RequestOrderStatusEvent;
+import com.yummynoodlebar.events.orders.RequestOrdersSubmittedBetweenEvent;
+import com.yummynoodlebar.persistence.domain.Order;
+import com.yummynoodlebar.persistence.domain.OrderStatus;
+import com.yummynoodlebar.persistence.index.CustomerOrderIndex;
+import com.yummynoodlebar.persistence.journal.JournaledOrderStore;
+import com.yummynoodlebar.persistence.journal.OrderJournal;
+import com.yummynoodlebar.persistence.journal.SyncPolicy;
+import com.yummynoodlebar.persistence.repository.CustomerIndexedOrdersRepository;
+import com.yummynoodlebar.persistence.repository.OrderStatusMemoryRepository;
+import com.yummynoodlebar.persistence.repository.OrdersConcurrentMemoryRepository;
+import com.yummynoodlebar.persistence.repository.TimePartitionedOrdersRepository;
+import com.yummynoodlebar.persistence.services.CachingOrderPersistenceService;
+import com.yummynoodlebar.persistence.services.OrderPersistenceEventHandler;
+
+public class RetentionSweeperIntegrationTest {
+
+  private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+  private static final Date NOW = new Date(100 * HOUR);
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private final OrdersConcurrentMemoryRepository orders = new OrdersConcurrentMemoryRepository(new HashMap<UUID, Order>());
+  private final OrderStatusMemoryRepository statuses = new OrderStatusMemoryRepository();
+  private final RetentionPolicy policy = new RetentionPolicy(24, TimeUnit.HOURS, Collections.singleton("Delivered"));
+
+  @Test
+  public void thatOnlyOldFinishedOrdersAreSweptWithTheirHistory() throws Exception {
+    Order oldDelivered = order(NOW.getTime() - 30 * HOUR, "Order Created", "Delivered");
+    Order oldCooking = order(NOW.getTime() - 30 * HOUR, "Order Created", "Cooking");
+    Order newDelivered = order(NOW.getTime() - HOUR, "Order Created", "Delivered");
+
+    RetentionReport report = new RetentionSweeper(orders, statuses, policy).sweep(NOW);
+
+    assertEquals(1, report.getOrdersRemoved());
+    assertEquals(2, report.getStatusesRemoved());
+    assertEquals(3, report.getObjectsReclaimed());
+    assertTrue(report.getBytesReclaimed() > 0);
+    assertNull(orders.findById(oldDelivered.getKey()));
+    assertTrue(statuses.findHistoryById(oldDelivered.getKey()).isEmpty());
+    assertNotNull(orders.findById(oldCooking.getKey()));
+    assertNotNull(orders.findById(newDelivered.getKey()));
+    assertEquals(4, statuses.findAll().size());
+  }
+
+  @Test
+  public void thatSweptOrdersAreArchivedFirst() throws Exception {
+    File file = folder.newFile("archive.bin");
+    order(NOW.getTime() - 30 * HOUR, "Order Created", "Delivered");
+    order(NOW.getTime() - 40 * HOUR, "Order Created", "Delivered");
+
+    RetentionSweeper sweeper = new RetentionSweeper(orders, statuses, policy, new FileOrderArchive(file));
+    assertEquals(2, sweeper.sweep(NOW).getOrdersRemoved());
+    sweeper.close();
+
+    assertTrue(file.length() > 0);
+    assertEquals(0, orders.findAll().size());
+    assertEquals(2, sweeper.getLastReport().getOrdersRemoved());
+  }
+
+  @Test
+  public void thatSweptOrdersAreDroppedFromTheCache() throws Exception {
+    Order oldDelivered = order(NOW.getTime() - 30 * HOUR, "Order Created", "Delivered");
+    CachingOrderPersistenceService cached = new CachingOrderPersistenceService(new OrderPersistenceEventHandler(orders, statuses), 100);
+    assertTrue(cached.requestOrderDetails(new RequestOrderDetailsEvent(oldDelivered.getKey())).isEntityFound());
+    assertTrue(cached.requestOrderStatus(new RequestOrderStatusEvent(oldDelivered.getKey())).isEntityFound());
+
+    assertEquals(1, new RetentionSweeper(orders, statuses, cached, policy, null).sweep(NOW).getOrdersRemoved());
+
+    assertFalse(cached.requestOrderDetails(new RequestOrderDetailsEvent(oldDelivered.getKey())).isEntityFound());
+    assertFalse(cached.requestOrderStatus(new RequestOrderStatusEvent(oldDelivered.getKey())).isEntityFound());
+  }
+
+  @Test
+  public void thatAnUnfinishedOrderOnlyHoldsBackTheBulkDelete() throws Exception {
+    Order oldest = order(NOW.getTime() - 50 * HOUR, "Order Created", "Delivered");
+    Order cooking = order(NOW.getTime() - 40 * HOUR, "Order Created", "Cooking");
+    Order later = order(NOW.getTime() - 30 * HOUR, "Order Created", "Delivered");
+
+    RetentionReport report = new RetentionSweeper(orders, statuses, policy).sweep(NOW);
+
+    assertEquals(2, report.getOrdersRemoved());
+    assertEquals(4, report.getStatusesRemoved());
+    assertNull(orders.findById(oldest.getKey()));
+    assertNull(orders.findById(later.getKey()));
+    assertTrue(statuses.findHistoryById(later.getKey()).isEmpty());
+    assertNotNull(orders.findById(cooking.getKey()));
+    assertEquals(2, statuses.findHistoryById(cooking.getKey()).size());
+  }
+
+  @Test
+  public void thatSweptPartitionsAreJournaledAndUnindexed() throws Exception {
+    File directory = folder.newFolder("journal");
+    TimePartitionedOrdersRepository partitioned = new TimePartitionedOrdersRepository(1, TimeUnit.HOURS);
+    CustomerOrderIndex index = new CustomerOrderIndex();
+    JournaledOrderStore store = new JournaledOrderStore(
+        new OrderJournal(directory, 4096, SyncPolicy.GROUP_COMMIT),
+        new CustomerIndexedOrdersRepository(partitioned, index), new OrderStatusMemoryRepository());
+    OrderPersistenceEventHandler service = new OrderPersistenceEventHandler(
+        store.getOrdersRepository(), store.getOrderStatusRepository(), store.getUnitOfWork(), index);
+    Order swept = order(store, NOW.getTime() - 30 * HOUR, "Delivered");
+    Order kept = order(store, NOW.getTime() - HOUR, "Delivered");
+    assertEquals(2, partitioned.partitionCount());
+
+    new RetentionSweeper(store.getOrdersRepository(), store.getOrderStatusRepository(), service, policy, null).sweep(NOW);
+
+    assertEquals(1, partitioned.partitionCount());
+    assertTrue(store.getOrderStatusRepository().findHistoryById(swept.getKey()).isEmpty());
+    assertEquals(Collections.singletonList(kept.getKey()), index.recentOrders("letsnosh", 10));
+    List<OrderDetails> remaining = service.requestOrdersSubmittedBetween(
+        new RequestOrdersSubmittedBetweenEvent(new Date(0), NOW)).getOrdersDetails();
+    assertEquals(1, remaining.size());
+    assertEquals(kept.getKey(), remaining.get(0).getKey());
+    store.close();
+
+    JournaledOrderStore restarted = new JournaledOrderStore(
+        new OrderJournal(directory, 4096, SyncPolicy.GROUP_COMMIT),
+        new OrdersConcurrentMemoryRepository(new HashMap<UUID, Order>()), new OrderStatusMemoryRepository());
+    assertNull(restarted.getOrdersRepository().findById(swept.getKey()));
+    assertTrue(restarted.getOrderStatusRepository().findHistoryById(swept.getKey()).isEmpty());
+    assertNotNull(restarted.getOrdersRepository().findById(kept.getKey()));
+    restarted.close();
+  }
+
+  private Order order(JournaledOrderStore store, long submitted, String status) {
+    Order order = new Order(new Date(submitted));
+    order.setUserName("letsnosh");
+    store.getOrdersRepository().save(order);
+    store.getOrderStatusRepository().save(new OrderStatus(order.getKey(), UUID.randomUUID(), new Date(submitted), status));
+    return order;
+  }
+
+  private Order order(long submitted, String... history) {
+    Order order = new Order(new Date(submitted));
+    order.setName("Customer");
+    orders.save(order);
+    for (int i = 0; i < history.length; i++) {
+      statuses.save(new OrderStatus(order.getKey(), UUID.randomUUID(), new Date(submitted + i * 1000), history[i]));
+    }
+    return order;
+  }
+}
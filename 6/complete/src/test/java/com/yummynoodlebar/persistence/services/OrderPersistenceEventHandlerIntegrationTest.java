@@ -0,0 +1,162 @@
+package com.yummynoodlebar.persistence.services;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+
+import java.util.*;
+
+import org.junit.Test;
+
+import com.yummynoodlebar.events.orders.*;
+import com.yummynoodlebar.persistence.domain.Order;
+import com.yummynoodlebar.persistence.index.CustomerOrderIndex;
+import com.yummynoodlebar.persistence.repository.*;
+
+public class OrderPersistenceEventHandlerIntegrationTest {
+
+  private final OrdersConcurrentMemoryRepository orders = new OrdersConcurrentMemoryRepository(new HashMap<UUID, Order>());
+  private final OrderPersistenceEventHandler handler = new OrderPersistenceEventHandler(orders, new OrderStatusMemoryRepository());
+
+  @Test
+  public void thatPagesEndWithoutACursor() {
+    save(5);
+
+    OrdersPageEvent first = handler.requestOrdersPage(new RequestOrdersPageEvent(null, 3));
+    OrdersPageEvent second = handler.requestOrdersPage(new RequestOrdersPageEvent(first.getNext(), 3));
+
+    assertEquals(3, first.getOrdersDetails().size());
+    assertFalse(first.isLastPage());
+    assertEquals(2, second.getOrdersDetails().size());
+    assertTrue(second.isLastPage());
+  }
+
+  @Test
+  public void thatStreamedOrdersAreAllVisited() {
+    save(1201);
+
+    int count = 0;
+    long previous = Long.MIN_VALUE;
+    for (OrderDetails details : handler.requestOrdersStream(new RequestAllOrdersEvent()).getOrdersDetails()) {
+      assertTrue(details.getDateTimeOfSubmission().getTime() >= previous);
+      previous = details.getDateTimeOfSubmission().getTime();
+      count++;
+    }
+
+    assertEquals(1201, count);
+  }
+
+  @Test
+  public void thatOrdersAreCreatedWithTheirFirstStatus() {
+    OrderDetails details = new OrderDetails();
+    details.setDateTimeOfSubmission(new Date());
+    details.setName("Customer");
+
+    OrderCreatedEvent created = handler.createOrderWithStatus(new CreateOrderWithStatusEvent(details, new Date(), "Order Created"));
+
+    assertEquals("Customer", handler.requestOrderDetails(new RequestOrderDetailsEvent(created.getNewOrderKey())).getOrderDetails().getName());
+    assertEquals("Order Created", handler.requestOrderStatus(new RequestOrderStatusEvent(created.getNewOrderKey())).getOrderStatus().getStatus());
+  }
+
+  @Test
+  public void thatCustomerOrdersComeNewestFirst() {
+    CustomerOrderIndex index = new CustomerOrderIndex();
+    OrdersRepository indexed = new CustomerIndexedOrdersRepository(orders, index);
+    OrderStatusMemoryRepository statuses = new OrderStatusMemoryRepository();
+    OrderPersistenceEventHandler indexedHandler = new OrderPersistenceEventHandler(
+        indexed, statuses, new OrderMemoryUnitOfWork(indexed, statuses), index);
+
+    Order first = customerOrder("letsnosh", 1000);
+    Order other = customerOrder("someoneelse", 2000);
+    Order second = customerOrder("letsnosh", 3000);
+    Order third = customerOrder("letsnosh", 4000);
+    for (Order order : Arrays.asList(first, other, second, third)) {
+      indexed.save(order);
+    }
+    indexed.delete(second.getKey());
+
+    for (OrderPersistenceEventHandler eachHandler : Arrays.asList(indexedHandler, handler)) {
+      List<OrderDetails> recent = eachHandler.requestCustomerOrders(new RequestCustomerOrdersEvent("letsnosh", 5)).getOrdersDetails();
+      assertEquals(2, recent.size());
+      assertEquals(third.getKey(), recent.get(0).getKey());
+      assertEquals(first.getKey(), recent.get(1).getKey());
+
+      assertEquals(1, eachHandler.requestCustomerOrders(new RequestCustomerOrdersEvent("letsnosh", 1)).getOrdersDetails().size());
+      assertTrue(eachHandler.requestCustomerOrders(new RequestCustomerOrdersEvent("nobody")).getOrdersDetails().isEmpty());
+    }
+  }
+
+  @Test
+  public void thatOnlyTheCustomerWhoPlacedAnOrderOwnsIt() {
+    CustomerOrderIndex index = new CustomerOrderIndex();
+    OrdersRepository indexed = new CustomerIndexedOrdersRepository(orders, index);
+    OrderStatusMemoryRepository statuses = new OrderStatusMemoryRepository();
+    OrderPersistenceEventHandler indexedHandler = new OrderPersistenceEventHandler(
+        indexed, statuses, new OrderMemoryUnitOfWork(indexed, statuses), index);
+
+    OrderDetails details = new OrderDetails();
+    details.setDateTimeOfSubmission(new Date());
+    details.setUserName("letsnosh");
+    UUID key = indexedHandler.createOrderWithStatus(new CreateOrderWithStatusEvent(details, new Date(), "Order Created")).getNewOrderKey();
+
+    assertEquals("letsnosh", index.ownerOf(key));
+    for (OrderPersistenceEventHandler eachHandler : Arrays.asList(indexedHandler, handler)) {
+      assertTrue(eachHandler.requestOrderOwnership(new RequestOrderOwnershipEvent(key, "letsnosh")).isOwned());
+      OrderOwnershipEvent someoneElse = eachHandler.requestOrderOwnership(new RequestOrderOwnershipEvent(key, "someoneelse"));
+      assertTrue(someoneElse.isEntityFound());
+      assertFalse(someoneElse.isOwned());
+    }
+
+    indexedHandler.deleteOrder(new DeleteOrderEvent(key));
+
+    assertEquals(0, index.size());
+    assertFalse(indexedHandler.requestOrderOwnership(new RequestOrderOwnershipEvent(key, "letsnosh")).isEntityFound());
+  }
+
+  @Test
+  public void thatTheKitchenQueueOnlyHoldsOrdersStillInThatStatus() {
+    OrderDetails details = new OrderDetails();
+    details.setDateTimeOfSubmission(new Date());
+    UUID waiting = handler.createOrderWithStatus(new CreateOrderWithStatusEvent(details, new Date(1000), "Order Created")).getNewOrderKey();
+    UUID started = handler.createOrderWithStatus(new CreateOrderWithStatusEvent(details, new Date(2000), "Order Created")).getNewOrderKey();
+
+    handler.setOrderStatus(new SetOrderStatusEvent(started, new OrderStatusDetails(started, UUID.randomUUID(), new Date(3000), "Cooking")));
+
+    OrdersByStatusEvent queue = handler.requestOrdersByStatus(new RequestOrdersByStatusEvent("Order Created"));
+    assertEquals(1, queue.getOrdersDetails().size());
+    assertEquals(waiting, queue.getOrdersDetails().get(0).getKey());
+    assertEquals(started, handler.requestOrdersByStatus(new RequestOrdersByStatusEvent("Cooking")).getOrdersDetails().get(0).getKey());
+  }
+
+  @Test
+  public void thatCachedReadsSeeEveryWriteMadeThroughTheCache() {
+    CachingOrderPersistenceService cached = new CachingOrderPersistenceService(handler, 100);
+    OrderDetails details = new OrderDetails();
+    details.setDateTimeOfSubmission(new Date());
+    UUID key = cached.createOrderWithStatus(new CreateOrderWithStatusEvent(details, new Date(1000), "Order Created")).getNewOrderKey();
+
+    assertEquals("Order Created", cached.requestOrderStatus(new RequestOrderStatusEvent(key)).getOrderStatus().getStatus());
+    assertEquals("Order Created", cached.requestOrderStatus(new RequestOrderStatusEvent(key)).getOrderStatus().getStatus());
+    assertEquals(1, cached.getStatusCache().getHitCount());
+
+    cached.setOrderStatus(new SetOrderStatusEvent(key, new OrderStatusDetails(key, UUID.randomUUID(), new Date(2000), "Cooking")));
+    assertEquals("Cooking", cached.requestOrderStatus(new RequestOrderStatusEvent(key)).getOrderStatus().getStatus());
+
+    assertTrue(cached.requestOrderDetails(new RequestOrderDetailsEvent(key)).isEntityFound());
+    cached.deleteOrder(new DeleteOrderEvent(key));
+    assertFalse(cached.requestOrderDetails(new RequestOrderDetailsEvent(key)).isEntityFound());
+    assertFalse(cached.requestOrderStatus(new RequestOrderStatusEvent(key)).isEntityFound());
+  }
+
+  private static Order customerOrder(String userName, long submitted) {
+    Order order = new Order(new Date(submitted));
+    order.setUserName(userName);
+    return order;
+  }
+
+  private void save(int count) {
+    for (int i = 0; i < count; i++) {
+      orders.save(new Order(new Date(i * 1000L)));
+    }
+  }
+}
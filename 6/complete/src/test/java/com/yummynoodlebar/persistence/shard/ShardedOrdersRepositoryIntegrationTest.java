@@ -0,0 +1,109 @@
+package com.yummynoodlebar.persistence.shard;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertTrue;
+
+import java.util.*;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.yummynoodlebar.persistence.domain.Order;
+import com.yummynoodlebar.persistence.domain.OrderStatus;
+
+public class ShardedOrdersRepositoryIntegrationTest {
+
+  private final ShardCluster cluster = ShardCluster.inMemory(4);
+  private final ShardedOrdersRepository orders = new ShardedOrdersRepository(cluster);
+  private final ShardedOrderStatusRepository statuses = new ShardedOrderStatusRepository(cluster);
+
+  @After
+  public void closeCluster() {
+    cluster.close();
+  }
+
+  @Test
+  public void thatOrdersAndTheirStatusesLiveOnTheSameNode() {
+    Order order = orders.save(new Order(new Date()));
+    statuses.save(new OrderStatus(order.getKey(), UUID.randomUUID(), new Date(), "Order Created"));
+
+    int holding = 0;
+    for (ShardNode node : cluster.getNodes()) {
+      if (node.getOrders().findById(order.getKey()) != null) {
+        holding++;
+        assertEquals("Order Created", node.getStatuses().findLatestById(order.getKey()).getStatus());
+      }
+    }
+    assertEquals(1, holding);
+    assertEquals(order, orders.findById(order.getKey()));
+
+    orders.delete(order.getKey());
+    assertNull(orders.findById(order.getKey()));
+  }
+
+  @Test
+  public void thatPagesAndQueuesAreMergedAcrossNodes() {
+    for (int i = 0; i < 100; i++) {
+      Order order = orders.save(new Order(new Date(i * 1000L)));
+      statuses.save(new OrderStatus(order.getKey(), UUID.randomUUID(), new Date(100000 - i * 1000L), "Order Created"));
+    }
+
+    assertEquals(100, orders.findAll().size());
+    assertEquals(100, statuses.findAll().size());
+
+    List<Order> page = orders.findPage(null, 10);
+    assertEquals(10, page.size());
+    for (int i = 0; i < page.size(); i++) {
+      assertEquals(i * 1000L, page.get(i).getDateTimeOfSubmission().getTime());
+    }
+
+    List<UUID> queue = statuses.findOrderIdsByLatestStatus("Order Created");
+    assertEquals(100, queue.size());
+    //the last order submitted was the first to reach the status
+    assertEquals(orders.findPage(null, 100).get(99).getKey(), queue.get(0));
+  }
+
+  @Test
+  public void thatAddingANodeMovesOnlyItsShareOfTheOrders() {
+    List<UUID> keys = new ArrayList<UUID>();
+    for (int i = 0; i < 10000; i++) {
+      Order order = orders.save(new Order(new Date(i)));
+      statuses.save(new OrderStatus(order.getKey(), UUID.randomUUID(), new Date(i), "Cooking"));
+      keys.add(order.getKey());
+    }
+
+    int moved = cluster.addNode(ShardNode.inMemory("shard-4"));
+
+    //a fifth of the orders, give or take the unevenness of the ring
+    assertTrue("moved " + moved, moved > 1400 && moved < 2600);
+    int onNewNode = 0;
+    for (ShardNode node : cluster.getNodes()) {
+      if (node.getName().equals("shard-4")) {
+        for (Order order : node.getOrders().findAll()) {
+          onNewNode++;
+        }
+        assertEquals(onNewNode, node.getStatuses().findAll().size());
+      }
+    }
+    assertEquals(moved, onNewNode);
+    assertEquals(10000, orders.findAll().size());
+    for (UUID key : keys) {
+      assertEquals(key, orders.findById(key).getKey());
+      assertEquals("Cooking", statuses.findLatestById(key).getStatus());
+    }
+  }
+
+  @Test
+  public void thatKeysSpreadEvenlyOverTheRing() {
+    ConsistentHashRing ring = new ConsistentHashRing(Arrays.asList("a", "b", "c", "d"));
+    Map<String, Integer> counts = new HashMap<String, Integer>();
+    for (int i = 0; i < 40000; i++) {
+      String node = ring.nodeFor(UUID.randomUUID());
+      counts.put(node, counts.containsKey(node) ? counts.get(node) + 1 : 1);
+    }
+    for (int count : counts.values()) {
+      assertTrue("got " + counts, count > 8000 && count < 12000);
+    }
+  }
+}
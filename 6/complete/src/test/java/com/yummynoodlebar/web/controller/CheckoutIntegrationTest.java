@@ -3,6 +3,7 @@ package com.yummynoodlebar.web.controller;
 import static com.yummynoodlebar.web.controller.fixture.WebDataFixture.newOrder;
 import static com.yummynoodlebar.web.controller.fixture.WebDataFixture.standardWebMenuItem;
 import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasProperty;
@@ -15,6 +16,7 @@ import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.flash;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.forwardedUrl;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
@@ -29,11 +31,15 @@ import org.mockito.InjectMocks;
 import org.mockito.Matchers;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.web.servlet.view.InternalResourceViewResolver;
 
 import com.yummynoodlebar.core.services.OrderService;
 import com.yummynoodlebar.events.orders.CreateOrderEvent;
+import com.yummynoodlebar.events.orders.OrderCharges;
+import com.yummynoodlebar.events.orders.OrderCreatedEvent;
+import com.yummynoodlebar.events.orders.OrderDetails;
 import com.yummynoodlebar.web.domain.Basket;
 
 public class CheckoutIntegrationTest {
@@ -130,6 +136,23 @@ public class CheckoutIntegrationTest {
 	//@formatter:on
 	}
 	
+	@Test
+	public void thatOrderIsPlacedUnderTheLoggedInUser() throws Exception {
+		UUID id = UUID.randomUUID();
+
+		when(orderService.createOrder(any(CreateOrderEvent.class))).thenReturn(newOrder(id));
+
+		mockMvc.perform(post("/checkout")
+				.principal(new TestingAuthenticationToken("letsnosh", "noshing", "ROLE_USER"))
+				.param("name", CUSTOMER_NAME)
+				.param("address1", ADDRESS1)
+				.param("postcode", POST_CODE));
+
+		verify(orderService).createOrder(Matchers.<CreateOrderEvent>argThat(
+				org.hamcrest.Matchers.<CreateOrderEvent>hasProperty("details",
+						hasProperty("userName", equalTo("letsnosh")))));
+	}
+
 	@Test
 	public void thatBasketIsEmptyOnSuccess() throws Exception {
 		UUID id = UUID.randomUUID();
@@ -145,6 +168,22 @@ public class CheckoutIntegrationTest {
 		assertThat(controller.getBasket().getItems(), is(empty()));
 	}
 
+	@Test
+	public void thatReturnsToCheckoutIfOrderIsRejected() throws Exception {
+		when(orderService.createOrder(any(CreateOrderEvent.class))).thenReturn(
+				OrderCreatedEvent.rejected(new OrderDetails(), OrderCharges.rejected("YM1 is not on the menu")));
+
+		controller.getBasket().add(standardWebMenuItem());
+
+		mockMvc.perform(
+				post("/checkout").param("name", CUSTOMER_NAME)
+								 .param("address1", ADDRESS1)
+								 .param("postcode", POST_CODE))
+						         .andExpect(redirectedUrl("/checkout"))
+						         .andExpect(flash().attribute("message", containsString("YM1 is not on the menu")));
+		assertThat(controller.getBasket().getItems().size(), is(1));
+	}
+
 	@Test
 	public void thatReturnsToCheckoutIfValidationFail() throws Exception {
 		UUID id = UUID.randomUUID();
@@ -13,6 +13,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standaloneSetup;
 
+import java.security.Principal;
 import java.util.UUID;
 
 import org.junit.Before;
@@ -21,11 +22,16 @@ import org.mockito.InjectMocks;
 import org.mockito.Matchers;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.util.NestedServletException;
 import org.springframework.web.servlet.view.InternalResourceViewResolver;
 
 import com.yummynoodlebar.core.services.OrderService;
+import com.yummynoodlebar.events.orders.OrderOwnershipEvent;
 import com.yummynoodlebar.events.orders.RequestOrderDetailsEvent;
+import com.yummynoodlebar.events.orders.RequestOrderOwnershipEvent;
 import com.yummynoodlebar.events.orders.RequestOrderStatusEvent;
 import com.yummynoodlebar.web.controller.fixture.WebDataFixture;
 
@@ -85,5 +91,35 @@ public class OrderStatusIntegrationTest {
 				org.hamcrest.Matchers.<RequestOrderDetailsEvent>hasProperty("key", equalTo(uuid))));
 		verify(orderService).requestOrderStatus(any(RequestOrderStatusEvent.class));
 	}
+
+	@Test
+	public void thatCustomersCanViewTheirOwnOrders() throws Exception {
 		
+		when(orderService.requestOrderOwnership(any(RequestOrderOwnershipEvent.class))).thenReturn(new OrderOwnershipEvent(uuid, true));
+		when(orderService.requestOrderDetails(any(RequestOrderDetailsEvent.class))).thenReturn(orderDetailsEvent(uuid));
+		when(orderService.requestOrderStatus(any(RequestOrderStatusEvent.class))).thenReturn(orderStatusEvent(uuid));
+		
+		mockMvc.perform(get("/order/" + uuid).principal(customer("letsnosh")))
+			.andExpect(status().isOk());
+		
+		verify(orderService).requestOrderOwnership(Matchers.<RequestOrderOwnershipEvent>argThat(
+				org.hamcrest.Matchers.<RequestOrderOwnershipEvent>hasProperty("userName", equalTo("letsnosh"))));
+	}
+
+	@Test(expected = AccessDeniedException.class)
+	public void thatCustomersCannotViewOtherCustomersOrders() throws Throwable {
+		
+		when(orderService.requestOrderOwnership(any(RequestOrderOwnershipEvent.class))).thenReturn(new OrderOwnershipEvent(uuid, false));
+		
+		try {
+			mockMvc.perform(get("/order/" + uuid).principal(customer("someoneelse")));
+		} catch (NestedServletException e) {
+			//the security filter chain turns this into a 403
+			throw e.getCause();
+		}
+	}
+
+	private static Principal customer(String userName) {
+		return new TestingAuthenticationToken(userName, "noshing", "ROLE_USER");
+	}
 }
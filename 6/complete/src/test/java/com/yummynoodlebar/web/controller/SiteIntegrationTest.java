@@ -1,6 +1,7 @@
 package com.yummynoodlebar.web.controller;
 
 import com.yummynoodlebar.core.services.MenuService;
+import com.yummynoodlebar.events.menu.AllMenuItemsEvent;
 import com.yummynoodlebar.events.menu.RequestAllMenuItemsEvent;
 import com.yummynoodlebar.web.domain.Basket;
 import org.junit.Before;
@@ -9,9 +10,12 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.web.servlet.view.InternalResourceViewResolver;
 
 import static com.yummynoodlebar.web.controller.fixture.WebDataFixture.allMenuItems;
+import static junit.framework.TestCase.assertNotSame;
+import static junit.framework.TestCase.assertSame;
 import static org.hamcrest.Matchers.*;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.when;
@@ -73,6 +77,23 @@ public class SiteIntegrationTest {
 		.andExpect(model().attributeExists("basket"));
 	}
 	
+	@Test
+	public void menuViewModelIsReusedUntilTheMenuVersionChanges() throws Exception {
+		when(menuService.requestAllMenuItems(any(RequestAllMenuItemsEvent.class)))
+				.thenReturn(new AllMenuItemsEvent(allMenuItems().getMenuItemDetails(), 7));
+		Object first = menuItemsOnHomePage();
+		assertSame(first, menuItemsOnHomePage());
+
+		when(menuService.requestAllMenuItems(any(RequestAllMenuItemsEvent.class)))
+				.thenReturn(new AllMenuItemsEvent(allMenuItems().getMenuItemDetails(), 8));
+		assertNotSame(first, menuItemsOnHomePage());
+	}
+
+	private Object menuItemsOnHomePage() throws Exception {
+		MvcResult result = mockMvc.perform(get("/")).andReturn();
+		return result.getModelAndView().getModel().get("menuItems");
+	}
+
 	@Test
 	public void rootUrlforwardsCorrectly() throws Exception {
 		mockMvc.perform(get("/"))